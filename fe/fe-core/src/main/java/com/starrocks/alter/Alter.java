@@ -300,6 +300,10 @@ public class Alter {
         if (properties.containsKey(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_NUMBER)) {
             partitionRefreshNumber = PropertyAnalyzer.analyzePartitionRefreshNumber(properties);
         }
+        int partitionRefreshParallelism = INVALID;
+        if (properties.containsKey(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM)) {
+            partitionRefreshParallelism = PropertyAnalyzer.analyzePartitionRefreshParallelism(properties);
+        }
         int autoRefreshPartitionsLimit = INVALID;
         if (properties.containsKey(PropertyAnalyzer.PROPERTIES_AUTO_REFRESH_PARTITIONS_LIMIT)) {
             autoRefreshPartitionsLimit = PropertyAnalyzer.analyzeAutoRefreshPartitionsLimit(properties, materializedView);
@@ -325,6 +329,12 @@ public class Alter {
             curProp.put(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_NUMBER, String.valueOf(partitionRefreshNumber));
             materializedView.getTableProperty().setPartitionRefreshNumber(partitionRefreshNumber);
             isChanged = true;
+        } else if (propClone.containsKey(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM) &&
+                materializedView.getTableProperty().getPartitionRefreshParallelism() != partitionRefreshParallelism) {
+            curProp.put(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM,
+                    String.valueOf(partitionRefreshParallelism));
+            materializedView.getTableProperty().setPartitionRefreshParallelism(partitionRefreshParallelism);
+            isChanged = true;
         } else if (propClone.containsKey(PropertyAnalyzer.PROPERTIES_AUTO_REFRESH_PARTITIONS_LIMIT) &&
                 materializedView.getTableProperty().getAutoRefreshPartitionsLimit() != autoRefreshPartitionsLimit) {
             curProp.put(PropertyAnalyzer.PROPERTIES_AUTO_REFRESH_PARTITIONS_LIMIT, String.valueOf(autoRefreshPartitionsLimit));
@@ -0,0 +1,106 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.analysis;
+
+import com.starrocks.sql.ast.AstVisitor;
+
+import java.util.Objects;
+
+// Parameter marker '?' of a server-side prepared statement.
+// It's bound to a literal before each execution, and translated to the constant of the bound literal.
+public class Parameter extends Expr {
+    // char offset of the marker in the original sql
+    private final int position;
+    // index of the marker in the statement by position, starts from 0
+    private int slotId;
+    private LiteralExpr value;
+
+    public Parameter(int position) {
+        this.position = position;
+    }
+
+    protected Parameter(Parameter other) {
+        super(other);
+        this.position = other.position;
+        this.slotId = other.slotId;
+        this.value = other.value;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getSlotId() {
+        return slotId;
+    }
+
+    public void setSlotId(int slotId) {
+        this.slotId = slotId;
+    }
+
+    public LiteralExpr getValue() {
+        return value;
+    }
+
+    public void setValue(LiteralExpr value) {
+        this.value = value;
+    }
+
+    @Override
+    protected boolean isConstantImpl() {
+        return true;
+    }
+
+    @Override
+    public boolean isNullable() {
+        return value == null || value instanceof NullLiteral;
+    }
+
+    @Override
+    protected String toSqlImpl() {
+        return "?";
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitParameter(this, context);
+    }
+
+    @Override
+    public Expr clone() {
+        return new Parameter(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), slotId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        Parameter that = (Parameter) o;
+        return slotId == that.slotId && Objects.equals(value, that.value);
+    }
+}
@@ -721,6 +721,13 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
             sb.append(properties.get(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_NUMBER)).append("\"");
         }
 
+        // partition refresh parallelism
+        if (properties.containsKey(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM)) {
+            sb.append(StatsConstants.TABLE_PROPERTY_SEPARATOR)
+                    .append(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM).append("\" = \"");
+            sb.append(properties.get(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM)).append("\"");
+        }
+
         // excluded trigger tables
         if (properties.containsKey(PropertyAnalyzer.PROPERTIES_EXCLUDED_TRIGGER_TABLES)) {
             sb.append(StatsConstants.TABLE_PROPERTY_SEPARATOR).append(PropertyAnalyzer.PROPERTIES_EXCLUDED_TRIGGER_TABLES)
@@ -746,6 +753,7 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
         .add(PropertyAnalyzer.PROPERTIES_PARTITION_TTL_NUMBER)
         .add(PropertyAnalyzer.PROPERTIES_AUTO_REFRESH_PARTITIONS_LIMIT)
         .add(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_NUMBER)
+        .add(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM)
         .add(PropertyAnalyzer.PROPERTIES_EXCLUDED_TRIGGER_TABLES)
         .build();
     }
@@ -0,0 +1,301 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.ImmutableList;
+import com.starrocks.common.Pair;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.net.util.SubnetUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the classifiers, to choose the classifier of a query without evaluating all of them.
+ * It is rebuilt by ResourceGroupMgr after every change of the classifiers.
+ * <p>
+ * The classifiers are grouped by (user, role), where null matches any, so a query only looks up
+ * the 4 groups of (user, role), (user, null), (null, role) and (null, null). In each group,
+ * the classifiers with source_ip are in a binary trie of the network prefixes, and only the classifiers
+ * on the path of the query ip are evaluated. The query types and databases of a classifier are compiled to
+ * bitsets. The candidates are sorted by weight, so the first satisfied one is the best of its list.
+ * <p>
+ * The chosen classifier is the satisfied one with the max weight, the one with the larger id if tied.
+ */
+public class ResourceGroupClassifierIndex {
+    private static final Comparator<Entry> BEST_FIRST = Comparator.comparingDouble((Entry entry) -> entry.weight)
+            .thenComparingLong(entry -> entry.classifier.getId())
+            .reversed();
+
+    public static final ResourceGroupClassifierIndex EMPTY = build(ImmutableList.of());
+
+    // (user, role) -> classifiers
+    private final Map<Pair<String, String>, Group> groups;
+    // database id -> bit index
+    private final Map<Long, Integer> databaseBits;
+    private final boolean hasRole;
+
+    private static class Entry {
+        private final ResourceGroupClassifier classifier;
+        private final double weight;
+        // bit of QueryType.ordinal(), 0 if any
+        private final int queryTypeMask;
+        // null if any
+        private final BitSet databases;
+        // null if any
+        private final SubnetUtils.SubnetInfo subnet;
+
+        private Entry(ResourceGroupClassifier classifier, Map<Long, Integer> databaseBits) {
+            this.classifier = classifier;
+            this.weight = classifier.weight();
+
+            int mask = 0;
+            if (CollectionUtils.isNotEmpty(classifier.getQueryTypes())) {
+                for (ResourceGroupClassifier.QueryType queryType : classifier.getQueryTypes()) {
+                    mask |= 1 << queryType.ordinal();
+                }
+            }
+            this.queryTypeMask = mask;
+
+            if (CollectionUtils.isNotEmpty(classifier.getDatabases())) {
+                databases = new BitSet();
+                for (Long dbId : classifier.getDatabases()) {
+                    databases.set(databaseBits.computeIfAbsent(dbId, k -> databaseBits.size()));
+                }
+            } else {
+                databases = null;
+            }
+
+            this.subnet = classifier.getSourceIp() == null ? null :
+                    new SubnetUtils(classifier.getSourceIp()).getInfo();
+        }
+
+        private boolean isSatisfied(int queryTypeBit, Query query) {
+            if (queryTypeMask != 0 && (queryTypeMask & queryTypeBit) == 0) {
+                return false;
+            }
+            if (databases != null) {
+                if (query.databases == null) {
+                    return false;
+                }
+                for (int i = query.databases.nextSetBit(0); i >= 0; i = query.databases.nextSetBit(i + 1)) {
+                    if (!databases.get(i)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class TrieNode {
+        private final TrieNode[] children = new TrieNode[2];
+        // the classifiers whose prefix length is the depth of this node, best first
+        private final List<Entry> entries = new ArrayList<>();
+    }
+
+    private static class Group {
+        // best first
+        private final List<Entry> withoutSourceIp = new ArrayList<>();
+        private final List<Entry> withSourceIp = new ArrayList<>();
+        private final TrieNode root = new TrieNode();
+
+        private void add(Entry entry) {
+            if (entry.subnet == null) {
+                withoutSourceIp.add(entry);
+                return;
+            }
+            withSourceIp.add(entry);
+            int network = entry.subnet.asInteger(entry.subnet.getNetworkAddress());
+            int prefixLength = Integer.bitCount(entry.subnet.asInteger(entry.subnet.getNetmask()));
+            TrieNode node = root;
+            for (int depth = 0; depth < prefixLength; depth++) {
+                int bit = (network >>> (31 - depth)) & 1;
+                if (node.children[bit] == null) {
+                    node.children[bit] = new TrieNode();
+                }
+                node = node.children[bit];
+            }
+            node.entries.add(entry);
+        }
+
+        private void sort() {
+            withoutSourceIp.sort(BEST_FIRST);
+            withSourceIp.sort(BEST_FIRST);
+            sort(root);
+        }
+
+        private static void sort(TrieNode node) {
+            if (node == null) {
+                return;
+            }
+            node.entries.sort(BEST_FIRST);
+            sort(node.children[0]);
+            sort(node.children[1]);
+        }
+
+        private Entry choose(int queryTypeBit, Query query) {
+            Entry best = firstSatisfied(withoutSourceIp, queryTypeBit, query);
+            if (query.sourceIp == null) {
+                // The source ip isn't checked if the query has none.
+                return better(best, firstSatisfied(withSourceIp, queryTypeBit, query));
+            }
+            if (query.ip == null) {
+                return best;
+            }
+
+            int ip = query.ip;
+            TrieNode node = root;
+            for (int depth = 0; node != null; depth++) {
+                for (Entry entry : node.entries) {
+                    // The prefix matches, and isInRange excludes the network and broadcast addresses.
+                    if (entry.subnet.isInRange(ip) && entry.isSatisfied(queryTypeBit, query)) {
+                        best = better(best, entry);
+                        break;
+                    }
+                }
+                node = depth < 32 ? node.children[(ip >>> (31 - depth)) & 1] : null;
+            }
+            return best;
+        }
+
+        private static Entry firstSatisfied(List<Entry> entries, int queryTypeBit, Query query) {
+            for (Entry entry : entries) {
+                if (entry.isSatisfied(queryTypeBit, query)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Query {
+        private final String sourceIp;
+        // null if the source ip isn't an ipv4 address
+        private final Integer ip;
+        // null if the query has no database, or has a database of no classifier
+        private final BitSet databases;
+
+        private Query(String sourceIp, Set<Long> dbIds, Map<Long, Integer> databaseBits) {
+            this.sourceIp = sourceIp;
+            this.ip = sourceIp == null ? null : parseIp(sourceIp);
+
+            BitSet bits = null;
+            if (CollectionUtils.isNotEmpty(dbIds)) {
+                bits = new BitSet();
+                for (Long dbId : dbIds) {
+                    Integer bit = databaseBits.get(dbId);
+                    if (bit == null) {
+                        bits = null;
+                        break;
+                    }
+                    bits.set(bit);
+                }
+            }
+            this.databases = bits;
+        }
+
+        private static Integer parseIp(String sourceIp) {
+            String[] parts = sourceIp.split("\\.");
+            if (parts.length != 4) {
+                return null;
+            }
+            int ip = 0;
+            for (String part : parts) {
+                int octet;
+                try {
+                    octet = Integer.parseInt(part);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (octet < 0 || octet > 255) {
+                    return null;
+                }
+                ip = (ip << 8) | octet;
+            }
+            return ip;
+        }
+    }
+
+    private ResourceGroupClassifierIndex(Map<Pair<String, String>, Group> groups, Map<Long, Integer> databaseBits,
+                                         boolean hasRole) {
+        this.groups = groups;
+        this.databaseBits = databaseBits;
+        this.hasRole = hasRole;
+    }
+
+    public static ResourceGroupClassifierIndex build(Collection<ResourceGroupClassifier> classifiers) {
+        Map<Pair<String, String>, Group> groups = new HashMap<>();
+        Map<Long, Integer> databaseBits = new HashMap<>();
+        boolean hasRole = false;
+        for (ResourceGroupClassifier classifier : classifiers) {
+            Entry entry = new Entry(classifier, databaseBits);
+            groups.computeIfAbsent(Pair.create(classifier.getUser(), classifier.getRole()), k -> new Group())
+                    .add(entry);
+            hasRole |= classifier.getRole() != null;
+        }
+        groups.values().forEach(Group::sort);
+        return new ResourceGroupClassifierIndex(groups, databaseBits, hasRole);
+    }
+
+    // The role of the query is needed only if any classifier has a role.
+    public boolean hasRole() {
+        return hasRole;
+    }
+
+    /**
+     * Returns the classifier with the max weight which is satisfied by the query, same as evaluating
+     * {@link ResourceGroupClassifier#isSatisfied} of all the classifiers. Returns null if none is satisfied.
+     */
+    public ResourceGroupClassifier choose(String user, String role, ResourceGroupClassifier.QueryType queryType,
+                                          String sourceIp, Set<Long> dbIds) {
+        if (groups.isEmpty()) {
+            return null;
+        }
+        int queryTypeBit = queryType == null ? 0 : 1 << queryType.ordinal();
+        Query query = new Query(sourceIp, dbIds, databaseBits);
+
+        Set<Pair<String, String>> keys = new LinkedHashSet<>();
+        keys.add(Pair.create(user, role));
+        keys.add(Pair.create(user, null));
+        keys.add(Pair.create(null, role));
+        keys.add(Pair.create(null, null));
+        Entry best = null;
+        for (Pair<String, String> key : keys) {
+            Group group = groups.get(key);
+            if (group != null) {
+                best = better(best, group.choose(queryTypeBit, query));
+            }
+        }
+        return best == null ? null : best.classifier;
+    }
+
+    private static Entry better(Entry a, Entry b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return BEST_FIRST.compare(a, b) <= 0 ? a : b;
+    }
+}
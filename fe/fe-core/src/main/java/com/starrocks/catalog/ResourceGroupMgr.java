@@ -67,6 +67,8 @@ public class ResourceGroupMgr implements Writable {
 
     private final Map<Long, ResourceGroup> id2ResourceGroupMap = new HashMap<>();
     private final Map<Long, ResourceGroupClassifier> classifierMap = new HashMap<>();
+    // Rebuilt from classifierMap after the classifiers are changed, and replaced as a whole.
+    private volatile ResourceGroupClassifierIndex classifierIndex = ResourceGroupClassifierIndex.EMPTY;
     private final List<TWorkGroupOp> resourceGroupOps = new ArrayList<>();
     private final Map<Long, Map<Long, TWorkGroup>> activeResourceGroupsPerBe = new HashMap<>();
     private final Map<Long, Long> minVersionPerBe = new HashMap<>();
@@ -120,6 +122,7 @@ public class ResourceGroupMgr implements Writable {
                 classifier.setId(GlobalStateMgr.getCurrentState().getNextId());
             }
             addResourceGroupInternal(wg);
+            rebuildClassifierIndex();
 
             ResourceGroupOpEntry workGroupOp = new ResourceGroupOpEntry(TWorkGroupOpType.WORKGROUP_OP_CREATE, wg);
             GlobalStateMgr.getCurrentState().getEditLog().logResourceGroupOp(workGroupOp);
@@ -220,6 +223,7 @@ public class ResourceGroupMgr implements Writable {
             for (ResourceGroup workgroup : data.resourceGroups) {
                 replayAddResourceGroup(workgroup);
             }
+            rebuildClassifierIndex();
         }
     }
 
@@ -340,6 +344,7 @@ public class ResourceGroupMgr implements Writable {
             if (cmd instanceof AlterResourceGroupStmt.AlterProperties) {
                 wg.setVersion(GlobalStateMgr.getCurrentState().getNextId());
             }
+            rebuildClassifierIndex();
             ResourceGroupOpEntry workGroupOp = new ResourceGroupOpEntry(TWorkGroupOpType.WORKGROUP_OP_ALTER, wg);
             GlobalStateMgr.getCurrentState().getEditLog().logResourceGroupOp(workGroupOp);
             resourceGroupOps.add(workGroupOp.toThrift());
@@ -364,6 +369,7 @@ public class ResourceGroupMgr implements Writable {
     public void dropResourceGroupUnlocked(String name) {
         ResourceGroup wg = resourceGroupMap.get(name);
         removeResourceGroupInternal(name);
+        rebuildClassifierIndex();
         wg.setVersion(GlobalStateMgr.getCurrentState().getNextId());
         ResourceGroupOpEntry workGroupOp = new ResourceGroupOpEntry(TWorkGroupOpType.WORKGROUP_OP_DELETE, wg);
         GlobalStateMgr.getCurrentState().getEditLog().logResourceGroupOp(workGroupOp);
@@ -387,6 +393,7 @@ public class ResourceGroupMgr implements Writable {
                     addResourceGroupInternal(workgroup);
                     break;
             }
+            rebuildClassifierIndex();
             resourceGroupOps.add(entry.toThrift());
         } finally {
             writeUnlock();
@@ -404,6 +411,10 @@ public class ResourceGroupMgr implements Writable {
         }
     }
 
+    private void rebuildClassifierIndex() {
+        classifierIndex = ResourceGroupClassifierIndex.build(classifierMap.values());
+    }
+
     private void addResourceGroupInternal(ResourceGroup wg) {
         resourceGroupMap.put(wg.getName(), wg);
         id2ResourceGroupMap.put(wg.getId(), wg);
@@ -489,18 +500,15 @@ public class ResourceGroupMgr implements Writable {
     public TWorkGroup chooseResourceGroup(ConnectContext ctx, ResourceGroupClassifier.QueryType queryType, Set<Long> databases) {
         readLock();
         try {
+            ResourceGroupClassifierIndex index = classifierIndex;
             String user = getUnqualifiedUser(ctx);
-            String role = getUnqualifiedRole(ctx);
+            String role = index.hasRole() ? getUnqualifiedRole(ctx) : null;
             String remoteIp = ctx.getRemoteIP();
-            List<ResourceGroupClassifier> classifierList =
-                    classifierMap.values().stream().filter(f -> f.isSatisfied(user, role, queryType, remoteIp, databases))
-                            .sorted(Comparator.comparingDouble(ResourceGroupClassifier::weight))
-                            .collect(Collectors.toList());
-            if (classifierList.isEmpty()) {
+            ResourceGroupClassifier classifier = index.choose(user, role, queryType, remoteIp, databases);
+            if (classifier == null) {
                 return null;
             } else {
-                ResourceGroup rg =
-                        id2ResourceGroupMap.get(classifierList.get(classifierList.size() - 1).getResourceGroupId());
+                ResourceGroup rg = id2ResourceGroupMap.get(classifier.getResourceGroupId());
                 if (rg == null) {
                     return null;
                 }
@@ -84,6 +84,11 @@ public class TableProperty implements Writable, GsonPostProcessable {
     // It represents the maximum number of partitions that will be refreshed by a TaskRun refresh
     private int partitionRefreshNumber = INVALID;
 
+    // This property only applies to materialized views
+    // It represents the maximum number of partition batches refreshed concurrently by a TaskRun,
+    // each batch contains at most partitionRefreshNumber partitions
+    private int partitionRefreshParallelism = INVALID;
+
     // This property only applies to materialized views
     // When using the system to automatically refresh, the maximum range of the most recent partitions will be refreshed.
     // By default, all partitions will be refreshed.
@@ -172,6 +177,7 @@ public class TableProperty implements Writable, GsonPostProcessable {
     public TableProperty buildMvProperties() {
         buildPartitionTTL();
         buildPartitionRefreshNumber();
+        buildPartitionRefreshParallelism();
         buildAutoRefreshPartitionsLimit();
         buildExcludedTriggerTables();
         return this;
@@ -213,6 +219,12 @@ public class TableProperty implements Writable, GsonPostProcessable {
         return this;
     }
 
+    public TableProperty buildPartitionRefreshParallelism() {
+        partitionRefreshParallelism = Integer.parseInt(properties.getOrDefault(
+                PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM, String.valueOf(INVALID)));
+        return this;
+    }
+
     public TableProperty buildExcludedTriggerTables() {
         String excludedRefreshConf = properties.getOrDefault(PropertyAnalyzer.PROPERTIES_EXCLUDED_TRIGGER_TABLES, null);
         List<TableName> tables = Lists.newArrayList();
@@ -310,6 +322,14 @@ public class TableProperty implements Writable, GsonPostProcessable {
         this.partitionRefreshNumber = partitionRefreshNumber;
     }
 
+    public int getPartitionRefreshParallelism() {
+        return partitionRefreshParallelism;
+    }
+
+    public void setPartitionRefreshParallelism(int partitionRefreshParallelism) {
+        this.partitionRefreshParallelism = partitionRefreshParallelism;
+    }
+
     public List<TableName> getExcludedTriggerTables() {
         return excludedTriggerTables;
     }
@@ -387,6 +407,7 @@ public class TableProperty implements Writable, GsonPostProcessable {
         buildPartitionTTL();
         buildAutoRefreshPartitionsLimit();
         buildPartitionRefreshNumber();
+        buildPartitionRefreshParallelism();
         buildExcludedTriggerTables();
         buildReplicatedStorage();
     }
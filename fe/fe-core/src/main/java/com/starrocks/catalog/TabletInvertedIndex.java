@@ -36,15 +36,15 @@ package com.starrocks.catalog;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import com.starrocks.catalog.Replica.ReplicaState;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
+import com.starrocks.common.util.LongLongHashMap;
+import com.starrocks.common.util.LongObjectHashMap;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.thrift.TPartitionVersionInfo;
@@ -60,18 +60,21 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 /*
  * this class stores a inverted index
  * key is tablet id. value is the related ids of this tablet
  * Checkpoint thread is no need to modify this inverted index, because this inverted index will not be wrote
  * into images, all meta data are in globalStateMgr, and the inverted index will be rebuild when FE restart.
+ *
+ * The index is sharded by tablet id, each shard has its own lock, and the ids are kept in primitive long maps
+ * to save the heap for millions of tablets.
  */
 public class TabletInvertedIndex {
     private static final Logger LOG = LogManager.getLogger(TabletInvertedIndex.class);
@@ -81,39 +84,163 @@ public class TabletInvertedIndex {
     public static final TabletMeta NOT_EXIST_TABLET_META = new TabletMeta(NOT_EXIST_VALUE, NOT_EXIST_VALUE,
             NOT_EXIST_VALUE, NOT_EXIST_VALUE, NOT_EXIST_VALUE, TStorageMedium.HDD);
 
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // the index is sharded by tablet id, so that the reports, the replica changes and the lookups
+    // of different shards don't block each other
+    private static final int DEFAULT_SHARD_NUM = 128;
 
-    // tablet id -> tablet meta
-    private Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+    private final Shard[] shards;
+    private final int shardMask;
 
-    // replica id -> tablet id
-    private Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
+    // replica id -> tablet id, striped by replica id.
+    // the stripes are locked after the shards, never the reverse
+    private final LongLongHashMap[] replicaToTabletMaps;
 
     private Set<Long> forceDeleteTablets = Sets.newHashSet();
 
-    // tablet id -> (backend id -> replica)
-    private Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
-    // backing replica table, for visiting backend replicas faster.
-    // backend id -> (tablet id -> replica)
-    private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
+    private static class Shard {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // tablet id -> tablet meta
+        private final LongObjectHashMap<TabletMeta> tabletMetaMap = new LongObjectHashMap<>();
+        // tablet id -> replicas, at most one replica on each backend
+        private final LongObjectHashMap<Replica[]> replicaMetaMap = new LongObjectHashMap<>();
+        // backing replica map, for visiting backend replicas faster.
+        // backend id -> (tablet id -> replica)
+        private final LongObjectHashMap<LongObjectHashMap<Replica>> backingReplicaMetaMap =
+                new LongObjectHashMap<>();
+
+        private void readLock() {
+            lock.readLock().lock();
+        }
+
+        private void readUnlock() {
+            lock.readLock().unlock();
+        }
+
+        private void writeLock() {
+            lock.writeLock().lock();
+        }
+
+        private void writeUnlock() {
+            lock.writeLock().unlock();
+        }
+
+        private Replica getReplica(long tabletId, long backendId) {
+            Replica[] replicas = replicaMetaMap.get(tabletId);
+            if (replicas != null) {
+                for (Replica replica : replicas) {
+                    if (replica.getBackendId() == backendId) {
+                        return replica;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void putReplica(long tabletId, Replica replica) {
+            Replica[] replicas = replicaMetaMap.get(tabletId);
+            if (replicas == null) {
+                replicaMetaMap.put(tabletId, new Replica[] {replica});
+            } else {
+                int i = 0;
+                while (i < replicas.length && replicas[i].getBackendId() != replica.getBackendId()) {
+                    i++;
+                }
+                if (i == replicas.length) {
+                    replicas = Arrays.copyOf(replicas, replicas.length + 1);
+                    replicaMetaMap.put(tabletId, replicas);
+                }
+                replicas[i] = replica;
+            }
+
+            LongObjectHashMap<Replica> replicaMetaWithBackend = backingReplicaMetaMap.get(replica.getBackendId());
+            if (replicaMetaWithBackend == null) {
+                replicaMetaWithBackend = new LongObjectHashMap<>();
+                backingReplicaMetaMap.put(replica.getBackendId(), replicaMetaWithBackend);
+            }
+            replicaMetaWithBackend.put(tabletId, replica);
+        }
+
+        private Replica removeReplica(long tabletId, long backendId) {
+            Replica[] replicas = replicaMetaMap.get(tabletId);
+            if (replicas == null) {
+                return null;
+            }
+            Replica removed = null;
+            List<Replica> remaining = new ArrayList<>(replicas.length);
+            for (Replica replica : replicas) {
+                if (replica.getBackendId() == backendId) {
+                    removed = replica;
+                } else {
+                    remaining.add(replica);
+                }
+            }
+            if (removed == null) {
+                return null;
+            }
+            if (remaining.isEmpty()) {
+                replicaMetaMap.remove(tabletId);
+            } else {
+                replicaMetaMap.put(tabletId, remaining.toArray(new Replica[0]));
+            }
+            removeBackingReplica(tabletId, backendId);
+            return removed;
+        }
+
+        private void removeBackingReplica(long tabletId, long backendId) {
+            LongObjectHashMap<Replica> replicaMetaWithBackend = backingReplicaMetaMap.get(backendId);
+            if (replicaMetaWithBackend != null) {
+                replicaMetaWithBackend.remove(tabletId);
+                if (replicaMetaWithBackend.isEmpty()) {
+                    backingReplicaMetaMap.remove(backendId);
+                }
+            }
+        }
+
+        private void clear() {
+            tabletMetaMap.clear();
+            replicaMetaMap.clear();
+            backingReplicaMetaMap.clear();
+        }
+    }
 
     public TabletInvertedIndex() {
+        this(DEFAULT_SHARD_NUM);
+    }
+
+    public TabletInvertedIndex(int shardNum) {
+        Preconditions.checkArgument(shardNum > 0 && (shardNum & (shardNum - 1)) == 0,
+                "shard num must be a power of 2: " + shardNum);
+        shards = new Shard[shardNum];
+        replicaToTabletMaps = new LongLongHashMap[shardNum];
+        for (int i = 0; i < shardNum; i++) {
+            shards[i] = new Shard();
+            replicaToTabletMaps[i] = new LongLongHashMap();
+        }
+        shardMask = shardNum - 1;
     }
 
-    private void readLock() {
-        this.lock.readLock().lock();
+    // the ids are allocated sequentially, so the low bits spread the tablets evenly
+    private Shard getShard(long tabletId) {
+        return shards[(int) (tabletId & shardMask)];
     }
 
-    private void readUnlock() {
-        this.lock.readLock().unlock();
+    private LongLongHashMap getReplicaToTabletMap(long replicaId) {
+        return replicaToTabletMaps[(int) (replicaId & shardMask)];
     }
 
-    private void writeLock() {
-        this.lock.writeLock().lock();
+    private void putReplicaToTablet(long replicaId, long tabletId) {
+        LongLongHashMap replicaToTabletMap = getReplicaToTabletMap(replicaId);
+        synchronized (replicaToTabletMap) {
+            replicaToTabletMap.put(replicaId, tabletId);
+        }
     }
 
-    private void writeUnlock() {
-        this.lock.writeLock().unlock();
+    private void removeReplicaToTablet(long replicaId) {
+        LongLongHashMap replicaToTabletMap = getReplicaToTabletMap(replicaId);
+        synchronized (replicaToTabletMap) {
+            replicaToTabletMap.remove(replicaId);
+        }
     }
 
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
@@ -137,31 +264,35 @@ public class TabletInvertedIndex {
             }
         }
 
-        int backendStorageTypeCnt = -1;
+        final int backendStorageTypeCnt;
         Backend be = GlobalStateMgr.getCurrentSystemInfo().getBackend(backendId);
         if (be != null) {
             backendStorageTypeCnt = be.getAvailableBackendStorageTypeCnt();
+        } else {
+            backendStorageTypeCnt = -1;
         }
 
-        readLock();
         long start = System.currentTimeMillis();
-        try {
-            LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
+        LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
+        // only one shard is locked at a time, so the report doesn't block the changes of other shards
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaMap.get(backendId);
+                if (replicaMetaWithBackend == null) {
+                    continue;
+                }
                 // traverse replicas in meta with this backend
-                for (Map.Entry<Long, Replica> entry : replicaMetaWithBackend.entrySet()) {
-                    long tabletId = entry.getKey();
-                    Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
+                replicaMetaWithBackend.forEach((tabletId, replica) -> {
+                    Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+                    TabletMeta tabletMeta = shard.tabletMetaMap.get(tabletId);
 
                     if (tabletMeta.isLakeTablet()) {
-                        continue;
+                        return;
                     }
 
                     if (backendTablets.containsKey(tabletId)) {
                         TTablet backendTablet = backendTablets.get(tabletId);
-                        Replica replica = entry.getValue();
                         for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
                             if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
                                 foundTabletsWithValidSchema.add(tabletId);
@@ -286,10 +417,10 @@ public class TabletInvertedIndex {
                         LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
                         tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
                     }
-                } // end for replicaMetaWithBackend
+                }); // end for replicaMetaWithBackend
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
 
         long end = System.currentTimeMillis();
@@ -301,34 +432,36 @@ public class TabletInvertedIndex {
     }
 
     public Long getTabletIdByReplica(long replicaId) {
-        readLock();
-        try {
-            return replicaToTabletMap.get(replicaId);
-        } finally {
-            readUnlock();
+        LongLongHashMap replicaToTabletMap = getReplicaToTabletMap(replicaId);
+        long tabletId;
+        synchronized (replicaToTabletMap) {
+            tabletId = replicaToTabletMap.get(replicaId, NOT_EXIST_VALUE);
         }
+        return tabletId == NOT_EXIST_VALUE ? null : tabletId;
     }
 
     public TabletMeta getTabletMeta(long tabletId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            return tabletMetaMap.get(tabletId);
+            return shard.tabletMetaMap.get(tabletId);
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
     public List<TabletMeta> getTabletMetaList(List<Long> tabletIdList) {
         List<TabletMeta> tabletMetaList = new ArrayList<>(tabletIdList.size());
-        readLock();
-        try {
-            for (Long tabletId : tabletIdList) {
-                tabletMetaList.add(tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
+        for (Long tabletId : tabletIdList) {
+            Shard shard = getShard(tabletId);
+            shard.readLock();
+            try {
+                tabletMetaList.add(shard.tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
+            } finally {
+                shard.readUnlock();
             }
-            return tabletMetaList;
-        } finally {
-            readUnlock();
         }
+        return tabletMetaList;
     }
 
     private boolean needSync(Replica replicaInFe, TTabletInfo backendTabletInfo) {
@@ -412,13 +545,14 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            tabletMetaMap.putIfAbsent(tabletId, tabletMeta);
+            shard.tabletMetaMap.putIfAbsent(tabletId, tabletMeta);
 
             LOG.debug("add tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -438,23 +572,21 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Map<Long, Replica> replicas = replicaMetaTable.rowMap().remove(tabletId);
+            Replica[] replicas = shard.replicaMetaMap.remove(tabletId);
             if (replicas != null) {
-                for (Replica replica : replicas.values()) {
-                    replicaToTabletMap.remove(replica.getId());
-                }
-
-                for (long backendId : replicas.keySet()) {
-                    backingReplicaMetaTable.remove(backendId, tabletId);
+                for (Replica replica : replicas) {
+                    removeReplicaToTablet(replica.getId());
+                    shard.removeBackingReplica(tabletId, replica.getBackendId());
                 }
             }
-            tabletMetaMap.remove(tabletId);
+            shard.tabletMetaMap.remove(tabletId);
 
             LOG.debug("delete tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -462,16 +594,16 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
-            replicaToTabletMap.put(replica.getId(), tabletId);
-            backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            shard.putReplica(tabletId, replica);
+            putReplicaToTablet(replica.getId(), tabletId);
             LOG.debug("add replica {} of tablet {} in backend {}",
                     replica.getId(), tabletId, replica.getBackendId());
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -479,45 +611,49 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            if (replicaMetaTable.containsRow(tabletId)) {
-                Replica replica = replicaMetaTable.remove(tabletId, backendId);
-                replicaToTabletMap.remove(replica.getId());
-                replicaMetaTable.remove(tabletId, backendId);
-                backingReplicaMetaTable.remove(backendId, tabletId);
-                LOG.debug("delete replica {} of tablet {} in backend {}",
-                        replica.getId(), tabletId, backendId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            if (shard.replicaMetaMap.containsKey(tabletId)) {
+                Replica replica = shard.removeReplica(tabletId, backendId);
+                if (replica != null) {
+                    removeReplicaToTablet(replica.getId());
+                    LOG.debug("delete replica {} of tablet {} in backend {}",
+                            replica.getId(), tabletId, backendId);
+                }
             } else {
                 // this may happen when fe restart after tablet is empty(bug cause)
                 // add log instead of assertion to observe
                 LOG.error("tablet[{}] contains no replica in inverted index", tabletId);
             }
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
     public Replica getReplica(long tabletId, long backendId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
-            return replicaMetaTable.get(tabletId, backendId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId), tabletId);
+            return shard.getReplica(tabletId, backendId);
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            if (replicaMetaTable.containsRow(tabletId)) {
-                return Lists.newArrayList(replicaMetaTable.row(tabletId).values());
+            Replica[] replicas = shard.replicaMetaMap.get(tabletId);
+            if (replicas != null) {
+                return Lists.newArrayList(replicas);
             }
             return Lists.newArrayList();
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
@@ -526,115 +662,114 @@ public class TabletInvertedIndex {
      *
      * @param tabletIds tablet_id list
      * @param backendId backendid
-     * @return list of replica or null if backend not found
+     * @return list of replica, the element is null if the tablet has no replica on the backend
      */
     public List<Replica> getReplicasOnBackendByTabletIds(List<Long> tabletIds, long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                List<Replica> replicas = Lists.newArrayList();
-                for (long tabletId : tabletIds) {
-                    replicas.add(replicaMetaWithBackend.get(tabletId));
-                }
-                return replicas;
+        List<Replica> replicas = Lists.newArrayList();
+        for (long tabletId : tabletIds) {
+            Shard shard = getShard(tabletId);
+            shard.readLock();
+            try {
+                replicas.add(shard.getReplica(tabletId, backendId));
+            } finally {
+                shard.readUnlock();
             }
-            return null;
-        } finally {
-            readUnlock();
         }
+        return replicas;
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds.addAll(replicaMetaWithBackend.keySet());
-            }
-        } finally {
-            readUnlock();
-        }
+        forEachReplicaOnBackend(backendId, (shard, tabletId, replica) -> tabletIds.add(tabletId));
         return tabletIds;
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds = replicaMetaWithBackend.keySet().stream().filter(
-                        id -> tabletMetaMap.get(id).getStorageMedium() == storageMedium).collect(Collectors.toList());
+        forEachReplicaOnBackend(backendId, (shard, tabletId, replica) -> {
+            if (shard.tabletMetaMap.get(tabletId).getStorageMedium() == storageMedium) {
+                tabletIds.add(tabletId);
             }
-        } finally {
-            readUnlock();
-        }
+        });
         return tabletIds;
     }
 
     public long getTabletNumByBackendId(long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.size();
+        long num = 0;
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaMap.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    num += replicaMetaWithBackend.size();
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return num;
     }
 
     public long getTabletNumByBackendIdAndPathHash(long backendId, long pathHash) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.values().stream().filter(r -> r.getPathHash() == pathHash).count();
+        long[] num = new long[1];
+        forEachReplicaOnBackend(backendId, (shard, tabletId, replica) -> {
+            if (replica.getPathHash() == pathHash) {
+                num[0]++;
             }
-        } finally {
-            readUnlock();
-        }
-        return 0;
+        });
+        return num[0];
     }
 
     public Map<TStorageMedium, Long> getReplicaNumByBeIdAndStorageMedium(long backendId) {
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
-        long hddNum = 0;
-        long ssdNum = 0;
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                for (long tabletId : replicaMetaWithBackend.keySet()) {
-                    if (tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
-                        hddNum++;
-                    } else {
-                        ssdNum++;
-                    }
+        long[] hddNum = new long[1];
+        long[] ssdNum = new long[1];
+        forEachReplicaOnBackend(backendId, (shard, tabletId, replica) -> {
+            if (shard.tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
+                hddNum[0]++;
+            } else {
+                ssdNum[0]++;
+            }
+        });
+        replicaNumMap.put(TStorageMedium.HDD, hddNum[0]);
+        replicaNumMap.put(TStorageMedium.SSD, ssdNum[0]);
+        return replicaNumMap;
+    }
+
+    @FunctionalInterface
+    private interface ReplicaVisitor {
+        void visit(Shard shard, long tabletId, Replica replica);
+    }
+
+    // visit the replicas on the backend shard by shard, with the read lock of the shard held
+    private void forEachReplicaOnBackend(long backendId, ReplicaVisitor visitor) {
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongObjectHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaMap.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    replicaMetaWithBackend.forEach((tabletId, replica) -> visitor.visit(shard, tabletId, replica));
                 }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        replicaNumMap.put(TStorageMedium.HDD, hddNum);
-        replicaNumMap.put(TStorageMedium.SSD, ssdNum);
-        return replicaNumMap;
     }
 
     // just for test
     public void clear() {
-        writeLock();
-        try {
-            tabletMetaMap.clear();
-            replicaToTabletMap.clear();
-            replicaMetaTable.clear();
-            backingReplicaMetaTable.clear();
-        } finally {
-            writeUnlock();
+        for (Shard shard : shards) {
+            shard.writeLock();
+            try {
+                shard.clear();
+            } finally {
+                shard.writeUnlock();
+            }
+        }
+        for (LongLongHashMap replicaToTabletMap : replicaToTabletMaps) {
+            synchronized (replicaToTabletMap) {
+                replicaToTabletMap.clear();
+            }
         }
     }
 }
-
@@ -314,6 +314,29 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * Save the image as independent sections, which are saved and loaded in parallel by
+     * *image_parallel_thread_num* threads. Both formats can be loaded, but the FE of an earlier version
+     * can't load the sectioned image, so enable it after all the FEs are upgraded.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_sectioned_image = false;
+
+    /**
+     * The number of threads to save and load the sections of the image.
+     */
+    @ConfField
+    public static int image_parallel_thread_num = 8;
+
+    /**
+     * Let the followers download only the sections changed since their previous image after a checkpoint,
+     * instead of the whole image. Only works for the sectioned image, see *enable_sectioned_image*.
+     * This is an optimization of the image transfer to the followers. The checkpoint of the leader is not changed,
+     * it still replays the journals and writes a full image.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_follower_image_delta_download = false;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
@@ -631,6 +654,21 @@ public class Config extends ConfigBase {
     @ConfField
     public static int max_mysql_service_task_threads_num = 4096;
 
+    /**
+     * Send the query result to the mysql client without deserializing the result batches from BE.
+     * The rows are copied into pooled direct buffers and sent by gathering writes.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_mysql_result_direct_send = false;
+
+    /**
+     * The max number of fetch requests in flight for the result of a query. Increase it to fetch the next result
+     * batches from BE while the current one is being sent to the client. At most this number of batches are
+     * buffered for a query.
+     */
+    @ConfField(mutable = true)
+    public static int result_receiver_prefetch_num = 1;
+
     /**
      * modifies the version string returned by following situations:
      * select version();
@@ -678,6 +716,36 @@ public class Config extends ConfigBase {
     @ConfField
     public static int publish_version_interval_ms = 10;
 
+    /**
+     * Whether to wake up the publish version daemon when a transaction is committed or a publish task
+     * is finished. If false, the daemon only polls every publish_version_interval_ms.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_publish_version_on_commit = true;
+
+    /**
+     * After being woken up, the publish version daemon waits this long so that transactions
+     * committed at almost the same time are published together in one batch per backend.
+     */
+    @ConfField(mutable = true)
+    public static int publish_version_batch_window_ms = 2;
+
+    /**
+     * Whether to publish consecutive committed transactions on the same partition of a shared-data table
+     * together, with one publish request per backend that applies all of them. Only the transactions loading
+     * a single partition are merged, and they are made visible together on the leader.
+     * The backend doesn't write the tablet metadata of the intermediate versions, so a query on a follower
+     * that reads the partition while it is replaying the merged transactions may fail and need a retry.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_lake_merge_publish_version = false;
+
+    /**
+     * The max number of transactions merged into one publish, see *enable_lake_merge_publish_version*.
+     */
+    @ConfField(mutable = true)
+    public static int lake_merge_publish_version_max_txns = 64;
+
     /**
      * The thrift server max worker threads
      */
@@ -923,6 +991,12 @@ public class Config extends ConfigBase {
      */
     @ConfField(mutable = true)
     public static int task_runs_concurrency = 20;
+    /**
+     * Upper limit of the partition_refresh_parallelism of materialized views,
+     * the number of partition batches refreshed concurrently by one TaskRun.
+     */
+    @ConfField(mutable = true)
+    public static int max_mv_partition_refresh_parallelism = 8;
     /**
      * Default timeout of export jobs.
      */
@@ -981,6 +1055,12 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean enable_materialized_view = true;
 
+    /**
+     * Max number of materialized views whose optimized definition plans are cached for query rewrite
+     */
+    @ConfField
+    public static long mv_plan_cache_max_size = 1000;
+
     @ConfField(mutable = true)
     public static boolean enable_udf = false;
 
@@ -1404,6 +1484,34 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long max_planner_scalar_rewrite_num = 100000;
 
+    /**
+     * The number of threads shared by all queries to explore the memo in parallel,
+     * used when session variable cbo_enable_parallel_explore is true.
+     * 0 means the number of available processors.
+     */
+    @ConfField
+    public static int optimizer_parallel_explore_thread_num = 0;
+
+    /**
+     * The max memory of the optimized plans cached by plan cache, used when session variable
+     * enable_plan_cache is true.
+     */
+    @ConfField
+    public static long plan_cache_max_memory_mb = 256;
+
+    /**
+     * The max number of server-side prepared statements of one connection.
+     */
+    @ConfField(mutable = true)
+    public static int max_prepared_stmt_count = 1024;
+
+    /**
+     * The max memory of the optimized plans of the prepared statements of one connection, which are cached if
+     * the session variable enable_plan_cache is true.
+     */
+    @ConfField(mutable = true)
+    public static long prepared_stmt_plan_cache_max_memory_mb = 16;
+
     /**
      * statistic collect flag
      */
@@ -1464,6 +1572,25 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long statistic_update_interval_sec = 24L * 60L * 60L;
 
+    /**
+     * Load the column statistics of the tables with statistics into the cache after fe starts,
+     * so the first queries don't plan with unknown statistics
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_statistic_cache_warm_up = true;
+
+    /**
+     * Max number of tables to warm up the column statistics cache, the tables analyzed recently go first
+     */
+    @ConfField(mutable = true)
+    public static int statistic_cache_warm_up_table_num = 1000;
+
+    /**
+     * Reload the cached column statistics of the recently queried tables before they expire
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_statistic_cache_refresh_ahead = true;
+
     /**
      * Enable full statistics collection
      */
@@ -1560,6 +1687,8 @@ public class Config extends ConfigBase {
 
     /**
      * num of thread to handle hive meta load concurrency.
+     * Partitions and partition statistics missing in the cache are fetched in batches of
+     * max_hive_partitions_per_rpc, and at most this many batches are fetched at the same time.
      */
     @ConfField
     public static int hive_meta_load_concurrency = 4;
@@ -1673,6 +1802,50 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int iceberg_table_refresh_expire_sec = 86400;
 
+    /**
+     * size of the pool which reads iceberg manifests in parallel when planning a scan
+     */
+    @ConfField
+    public static int iceberg_scan_plan_threads = 16;
+
+    /**
+     * Whether to cache the scan ranges of an iceberg table scan by snapshot id and predicate,
+     * so that repeat queries on the same snapshot skip manifest evaluation.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_iceberg_scan_plan_cache = true;
+
+    /**
+     * max number of scan ranges in iceberg scan plan cache
+     */
+    @ConfField
+    public static long iceberg_scan_plan_cache_max_ranges = 200000;
+
+    /**
+     * Whether to keep iceberg manifest and metadata files evicted from the memory cache
+     * in a local disk cache, which is kept across fe restarts.
+     */
+    @ConfField
+    public static boolean enable_iceberg_metadata_disk_cache = false;
+
+    /**
+     * directory of iceberg metadata disk cache
+     */
+    @ConfField
+    public static String iceberg_metadata_disk_cache_dir = StarRocksFE.STARROCKS_HOME_DIR + "/caches/iceberg";
+
+    /**
+     * max total bytes of iceberg metadata disk cache
+     */
+    @ConfField(mutable = true)
+    public static long iceberg_metadata_disk_cache_capacity = 2L * 1024L * 1024L * 1024L;
+
+    /**
+     * files larger than this are never put into iceberg metadata disk cache
+     */
+    @ConfField(mutable = true)
+    public static long iceberg_metadata_disk_cache_max_entry_size = 64L * 1024L * 1024L;
+
     /**
      * fe will call es api to get es index shard info every es_state_sync_interval_secs
      */
@@ -1847,6 +2020,23 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int metadata_journal_max_batch_cnt = 100;
 
+    /**
+     * Whether to write journals in pipelined group commit mode.
+     * In this mode the next batch is collected from the journal queue while the current batch is being
+     * committed by a dedicated committer thread, and the batch limits adapt to
+     * metadata_journal_batch_target_latency_ms.
+     **/
+    @ConfField
+    public static boolean metadata_journal_enable_pipeline = false;
+
+    /**
+     * The expected commit latency of one journal batch in pipelined group commit mode.
+     * The batch limits shrink if a commit takes longer than this and grow back up to
+     * metadata_journal_max_batch_cnt/metadata_journal_max_batch_size_mb otherwise.
+     **/
+    @ConfField(mutable = true)
+    public static long metadata_journal_batch_target_latency_ms = 50;
+
     /**
      * jaeger tracing endpoint, empty thing disables tracing
      */
@@ -1906,6 +2096,30 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static String profile_info_format = "default";
 
+    /**
+     * whether to spill the profiles evicted from `ProfileManager` to a ring buffer on local disk
+     */
+    @ConfField
+    public static boolean enable_profile_spill = false;
+
+    /**
+     * directory of the spilled profiles, `meta_dir`/profile if it's empty
+     */
+    @ConfField
+    public static String profile_spill_dir = "";
+
+    /**
+     * max bytes of the spilled profiles, the oldest profiles are deleted once exceeded
+     */
+    @ConfField(mutable = true)
+    public static long profile_spill_capacity = 1024L * 1024L * 1024L;
+
+    /**
+     * max bytes of a spilled profile segment file, profiles are deleted segment by segment
+     */
+    @ConfField(mutable = true)
+    public static long profile_spill_segment_size = 64L * 1024L * 1024L;
+
     /**
      * Max number of roles that can be granted to user including all direct roles and all parent roles
      * Used in new RBAC framework after 3.0 released
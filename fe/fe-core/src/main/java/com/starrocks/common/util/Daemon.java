@@ -104,6 +104,13 @@ public class Daemon extends Thread {
 
     }
 
+    /**
+     * Wait before running the next cycle, child can override it to be woken up earlier.
+     */
+    protected void waitForNextCycle() throws InterruptedException {
+        Thread.sleep(intervalMs);
+    }
+
     @Override
     public void run() {
         if (metaContext != null) {
@@ -118,7 +125,7 @@ public class Daemon extends Thread {
             }
 
             try {
-                Thread.sleep(intervalMs);
+                waitForNextCycle();
             } catch (InterruptedException e) {
                 LOG.error("InterruptedException: ", e);
             }
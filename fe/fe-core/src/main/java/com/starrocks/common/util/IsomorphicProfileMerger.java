@@ -0,0 +1,278 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Pair;
+import com.starrocks.thrift.TUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Merges isomorphic profiles one by one, e.g. the profiles of the fragment instances as they finish,
+ * with the same result as {@link RuntimeProfile#mergeIsomorphicProfiles}.
+ *
+ * Each added profile is folded into running aggregates kept per counter path, i.e. the position of the
+ * profile node in the tree and the counter name, so the added profile is visited only once. In the end
+ * the aggregates are written into one of the profiles, without visiting the others again.
+ */
+public class IsomorphicProfileMerger {
+    private static final Logger LOG = LogManager.getLogger(IsomorphicProfileMerger.class);
+
+    private static class CounterAggregate {
+        private final TUnit type;
+        private final String parentName;
+        // level of the counter in the counter tree, parents are written before children
+        private final int level;
+        // not skip merge in at least one profile
+        private boolean mergeable;
+        // skip merge in at least one profile
+        private boolean skipMerge;
+
+        private int num;
+        private long sum;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+
+        // min/max of the __MIN_OF_/__MAX_OF_ counters, if the profiles are already merged by be
+        private boolean alreadyMerged;
+        private long mergedMin = Long.MAX_VALUE;
+        private long mergedMax = Long.MIN_VALUE;
+
+        private CounterAggregate(TUnit type, String parentName, int level) {
+            this.type = type;
+            this.parentName = parentName;
+            this.level = level;
+        }
+
+        private CounterAggregate copy() {
+            CounterAggregate copy = new CounterAggregate(type, parentName, level);
+            copy.mergeable = mergeable;
+            copy.skipMerge = skipMerge;
+            copy.num = num;
+            copy.sum = sum;
+            copy.min = min;
+            copy.max = max;
+            copy.alreadyMerged = alreadyMerged;
+            copy.mergedMin = mergedMin;
+            copy.mergedMax = mergedMax;
+            return copy;
+        }
+    }
+
+    private static class Node {
+        private final Map<String, CounterAggregate> counters = Maps.newHashMap();
+        private final List<Node> children = Lists.newArrayList();
+        private int minChildNum = Integer.MAX_VALUE;
+        private boolean isomorphic = true;
+
+        private Node copy() {
+            Node copy = new Node();
+            counters.forEach((name, counter) -> copy.counters.put(name, counter.copy()));
+            children.forEach(child -> copy.children.add(child.copy()));
+            copy.minChildNum = minChildNum;
+            copy.isomorphic = isomorphic;
+            return copy;
+        }
+    }
+
+    private final Node root;
+    private final Set<RuntimeProfile> addedProfiles;
+
+    public IsomorphicProfileMerger() {
+        this.root = new Node();
+        this.addedProfiles = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private IsomorphicProfileMerger(Node root, Set<RuntimeProfile> addedProfiles) {
+        this.root = root;
+        this.addedProfiles = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.addedProfiles.addAll(addedProfiles);
+    }
+
+    public synchronized int getProfileNum() {
+        return addedProfiles.size();
+    }
+
+    public synchronized boolean contains(RuntimeProfile profile) {
+        return addedProfiles.contains(profile);
+    }
+
+    /**
+     * Returns a copy to which more profiles can be added without changing this one.
+     */
+    public synchronized IsomorphicProfileMerger copy() {
+        return new IsomorphicProfileMerger(root.copy(), addedProfiles);
+    }
+
+    /**
+     * Folds the counters of the profile into the aggregates. Adding the same profile again is ignored.
+     */
+    public synchronized void add(RuntimeProfile profile) {
+        if (addedProfiles.add(profile)) {
+            add(root, profile);
+        }
+    }
+
+    /**
+     * Writes the merged counters into the profile, which should be one of the added profiles.
+     */
+    public synchronized void mergeInto(RuntimeProfile profile0) {
+        mergeInto(root, profile0);
+    }
+
+    private static void add(Node node, RuntimeProfile profile) {
+        if (!node.isomorphic) {
+            return;
+        }
+
+        // level order traverse starts with root
+        List<String> parentNames = Lists.newArrayList(RuntimeProfile.ROOT_COUNTER);
+        for (int level = 1; !parentNames.isEmpty(); level++) {
+            List<String> names = Lists.newArrayList();
+            for (String parentName : parentNames) {
+                Set<String> childNames = profile.getChildCounterMap().get(parentName);
+                if (childNames == null) {
+                    continue;
+                }
+                for (String name : childNames) {
+                    Counter counter = profile.getCounter(name);
+                    if (counter == null) {
+                        continue;
+                    }
+                    names.add(name);
+                    if (!addCounter(node, profile, name, parentName, level, counter)) {
+                        node.isomorphic = false;
+                        return;
+                    }
+                }
+            }
+            parentNames = names;
+        }
+
+        List<Pair<RuntimeProfile, Boolean>> children = profile.getChildList();
+        node.minChildNum = Math.min(node.minChildNum, children.size());
+        for (int i = 0; i < children.size(); i++) {
+            if (node.children.size() <= i) {
+                node.children.add(new Node());
+            }
+            add(node.children.get(i), children.get(i).first);
+        }
+    }
+
+    // returns false if the counter is not isomorphic to the added ones
+    private static boolean addCounter(Node node, RuntimeProfile profile, String name, String parentName, int level,
+                                      Counter counter) {
+        CounterAggregate aggregate = node.counters.get(name);
+        if (aggregate == null) {
+            aggregate = new CounterAggregate(counter.getType(), parentName, level);
+            node.counters.put(name, aggregate);
+        } else if (aggregate.type != counter.getType()) {
+            LOG.warn("find non-isomorphic counter, profileName={}, counterName={}, existType={}, anotherType={}",
+                    profile.getName(), name, aggregate.type.name(), counter.getType().name());
+            return false;
+        }
+        if (counter.isSkipMerge()) {
+            aggregate.skipMerge = true;
+        } else {
+            aggregate.mergeable = true;
+        }
+
+        // the extra info of counters created by be are merged together with the counter
+        if (name.startsWith(RuntimeProfile.MERGED_INFO_PREFIX_MIN)
+                || name.startsWith(RuntimeProfile.MERGED_INFO_PREFIX_MAX)) {
+            return true;
+        }
+        long value = counter.getValue();
+        aggregate.num++;
+        aggregate.sum += value;
+        aggregate.min = Math.min(aggregate.min, value);
+        aggregate.max = Math.max(aggregate.max, value);
+
+        Counter minCounter = profile.getCounter(RuntimeProfile.MERGED_INFO_PREFIX_MIN + name);
+        if (minCounter != null) {
+            aggregate.alreadyMerged = true;
+            aggregate.mergedMin = Math.min(aggregate.mergedMin, minCounter.getValue());
+        }
+        Counter maxCounter = profile.getCounter(RuntimeProfile.MERGED_INFO_PREFIX_MAX + name);
+        if (maxCounter != null) {
+            aggregate.alreadyMerged = true;
+            aggregate.mergedMax = Math.max(aggregate.mergedMax, maxCounter.getValue());
+        }
+        return true;
+    }
+
+    private static void mergeInto(Node node, RuntimeProfile profile0) {
+        if (!node.isomorphic) {
+            return;
+        }
+
+        List<Map.Entry<String, CounterAggregate>> counters = Lists.newArrayList(node.counters.entrySet());
+        counters.sort(Comparator.comparingInt(entry -> entry.getValue().level));
+        for (Map.Entry<String, CounterAggregate> entry : counters) {
+            String name = entry.getKey();
+            CounterAggregate aggregate = entry.getValue();
+            if (!aggregate.mergeable || aggregate.num == 0) {
+                continue;
+            }
+
+            long mergedValue = Counter.isAverageType(aggregate.type) ? aggregate.sum / aggregate.num : aggregate.sum;
+            long minValue = aggregate.alreadyMerged ? aggregate.mergedMin : aggregate.min;
+            long maxValue = aggregate.alreadyMerged ? aggregate.mergedMax : aggregate.max;
+
+            Counter counter0 = profile0.getCounter(name);
+            // some counters may only attach to one of the isomorphic profiles
+            if (counter0 == null) {
+                String parentName = aggregate.parentName;
+                if (!Objects.equals(RuntimeProfile.ROOT_COUNTER, parentName)
+                        && profile0.getCounter(parentName) != null) {
+                    counter0 = profile0.addCounter(name, aggregate.type, parentName);
+                } else {
+                    if (!Objects.equals(RuntimeProfile.ROOT_COUNTER, parentName)) {
+                        LOG.warn("missing parent counter, profileName={}, counterName={}, parentCounterName={}",
+                                profile0.getName(), name, parentName);
+                    }
+                    counter0 = profile0.addCounter(name, aggregate.type);
+                }
+                if (aggregate.skipMerge) {
+                    counter0.setSkipMerge(true);
+                }
+            }
+            counter0.setValue(mergedValue);
+
+            profile0.addCounter(RuntimeProfile.MERGED_INFO_PREFIX_MIN + name, aggregate.type, name).setValue(minValue);
+            profile0.addCounter(RuntimeProfile.MERGED_INFO_PREFIX_MAX + name, aggregate.type, name).setValue(maxValue);
+        }
+
+        List<Pair<RuntimeProfile, Boolean>> children = profile0.getChildList();
+        for (int i = 0; i < children.size(); i++) {
+            if (i >= node.minChildNum || i >= node.children.size()) {
+                LOG.warn("find non-isomorphic children, profileName={}, childNum={}, min childNum of all profiles={}",
+                        profile0.getName(), children.size(), node.minChildNum);
+                return;
+            }
+            mergeInto(node.children.get(i), children.get(i).first);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.common.util;
+
+/**
+ * A hash map with primitive long keys and values, see {@link LongObjectHashMap}. It's not thread safe.
+ */
+public class LongLongHashMap {
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // key 0 marks a free slot, the entry with key 0 is kept out of the table
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int maxFill;
+    // number of entries in the table, excluding the entry with key 0
+    private int size;
+
+    private boolean containsZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(LongObjectHashMap.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        maxFill = LongObjectHashMap.maxFillOf(capacity);
+    }
+
+    public int size() {
+        return containsZeroKey ? size + 1 : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // the slot of the key, or -1 if the key doesn't exist
+    private int find(long key) {
+        int pos = LongObjectHashMap.mix(key) & mask;
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    public long get(long key, long defaultValue) {
+        if (key == 0) {
+            return containsZeroKey ? zeroValue : defaultValue;
+        }
+        int pos = find(key);
+        return pos < 0 ? defaultValue : values[pos];
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return containsZeroKey;
+        }
+        return find(key) >= 0;
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            containsZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+
+        int pos = LongObjectHashMap.mix(key) & mask;
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                values[pos] = value;
+                return;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size >= maxFill) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * @return whether the key existed
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            boolean existed = containsZeroKey;
+            containsZeroKey = false;
+            zeroValue = 0;
+            return existed;
+        }
+        int pos = find(key);
+        if (pos < 0) {
+            return false;
+        }
+        size--;
+        shiftKeys(pos);
+        return true;
+    }
+
+    // close the gap left by a removed entry, so that the probe sequences stay unbroken
+    private void shiftKeys(int pos) {
+        int last;
+        long current;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if ((current = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = 0;
+                    return;
+                }
+                int slot = LongObjectHashMap.mix(current) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("too many entries in LongLongHashMap: " + size);
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) {
+                continue;
+            }
+            int pos = LongObjectHashMap.mix(key) & mask;
+            while (keys[pos] != 0) {
+                pos = (pos + 1) & mask;
+            }
+            keys[pos] = key;
+            values[pos] = oldValues[i];
+        }
+    }
+
+    public void clear() {
+        allocate(LongObjectHashMap.capacityFor(DEFAULT_EXPECTED_SIZE));
+        size = 0;
+        containsZeroKey = false;
+        zeroValue = 0;
+    }
+}
@@ -0,0 +1,252 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.common.util;
+
+/**
+ * A hash map with primitive long keys based on open addressing with linear probing.
+ * <p>
+ * Compared with {@code HashMap<Long, V>}, it allocates neither the boxed keys nor the entry objects, which makes
+ * a big difference for the maps with millions of ids, e.g. the tablet inverted index. It's not thread safe.
+ */
+public class LongObjectHashMap<V> {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // key 0 marks a free slot, the entry with key 0 is kept out of the table
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int maxFill;
+    // number of entries in the table, excluding the entry with key 0
+    private int size;
+
+    private boolean containsZeroKey;
+    private Object zeroValue;
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    public LongObjectHashMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+        int capacity = 2;
+        while (capacity < needed && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int maxFillOf(int capacity) {
+        return Math.min(capacity - 1, (int) Math.ceil(capacity * LOAD_FACTOR));
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        maxFill = maxFillOf(capacity);
+    }
+
+    public int size() {
+        return containsZeroKey ? size + 1 : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // the slot of the key, or -1 if the key doesn't exist
+    private int find(long key) {
+        int pos = mix(key) & mask;
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return containsZeroKey ? (V) zeroValue : null;
+        }
+        int pos = find(key);
+        return pos < 0 ? null : (V) values[pos];
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        if (!containsKey(key)) {
+            return defaultValue;
+        }
+        return get(key);
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return containsZeroKey;
+        }
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return the previous value of the key, or null if the key doesn't exist
+     */
+    public V put(long key, V value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * @return the current value of the key, or null if the value is put
+     */
+    public V putIfAbsent(long key, V value) {
+        return put(key, value, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(long key, V value, boolean replace) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            if (!containsZeroKey || replace) {
+                zeroValue = value;
+            }
+            containsZeroKey = true;
+            return previous;
+        }
+
+        int pos = mix(key) & mask;
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                V previous = (V) values[pos];
+                if (replace) {
+                    values[pos] = value;
+                }
+                return previous;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size >= maxFill) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null if the key doesn't exist
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            containsZeroKey = false;
+            zeroValue = null;
+            return previous;
+        }
+        int pos = find(key);
+        if (pos < 0) {
+            return null;
+        }
+        V previous = (V) values[pos];
+        size--;
+        shiftKeys(pos);
+        return previous;
+    }
+
+    // close the gap left by a removed entry, so that the probe sequences stay unbroken
+    private void shiftKeys(int pos) {
+        int last;
+        long current;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if ((current = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    values[last] = null;
+                    return;
+                }
+                int slot = mix(current) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("too many entries in LongObjectHashMap: " + size);
+        }
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == 0) {
+                continue;
+            }
+            int pos = mix(key) & mask;
+            while (keys[pos] != 0) {
+                pos = (pos + 1) & mask;
+            }
+            keys[pos] = key;
+            values[pos] = oldValues[i];
+        }
+    }
+
+    public void clear() {
+        allocate(capacityFor(DEFAULT_EXPECTED_SIZE));
+        size = 0;
+        containsZeroKey = false;
+        zeroValue = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        if (containsZeroKey) {
+            consumer.accept(0, (V) zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+}
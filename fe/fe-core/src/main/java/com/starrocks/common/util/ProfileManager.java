@@ -36,17 +36,18 @@ package com.starrocks.common.util;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.starrocks.common.Config;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,6 +63,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * why the element in the finished profile arary is not RuntimeProfile,
  * the purpose is let coordinator can destruct earlier(the fragment profile is in Coordinator)
  *
+ * The profiles are kept in the compact binary encoding of RuntimeProfileCodec, and formatted when
+ * they are visited. If enable_profile_spill is set, the profiles evicted from memory are moved to
+ * a ring buffer on local disk, see ProfileSpillStore.
  */
 public class ProfileManager {
     private static final Logger LOG = LogManager.getLogger(ProfileManager.class);
@@ -83,10 +87,22 @@ public class ProfileManager {
     public static final ArrayList<String> PROFILE_HEADERS = new ArrayList(
             Arrays.asList(QUERY_ID, USER, DEFAULT_DB, SQL_STATEMENT, QUERY_TYPE,
                     START_TIME, END_TIME, TOTAL_TIME, QUERY_STATE));
+    private static final int QUERY_ID_INDEX = PROFILE_HEADERS.indexOf(QUERY_ID);
 
-    private class ProfileElement {
-        public Map<String, String> infoStrings = Maps.newHashMap();
-        public byte[] profileContent;
+    private static class ProfileElement {
+        // values of PROFILE_HEADERS, in the same order
+        private final String[] headers;
+        // encoded by RuntimeProfileCodec
+        private final byte[] profileContent;
+
+        private ProfileElement(String[] headers, byte[] profileContent) {
+            this.headers = headers;
+            this.profileContent = profileContent;
+        }
+
+        private String getQueryId() {
+            return headers[QUERY_ID_INDEX];
+        }
     }
 
     // only protect profileDeque; profileMap is concurrent, no need to protect
@@ -96,6 +112,8 @@ public class ProfileManager {
 
     private Deque<ProfileElement> profileDeque;
     private Map<String, ProfileElement> profileMap; // from QueryId to RuntimeProfile
+    // null if profile spill is disabled
+    private ProfileSpillStore spillStore;
 
     public static ProfileManager getInstance() {
         if (INSTANCE == null) {
@@ -108,45 +126,55 @@ public class ProfileManager {
         lock = new ReentrantReadWriteLock(true);
         readLock = lock.readLock();
         writeLock = lock.writeLock();
-        profileDeque = new LinkedList<ProfileElement>();
+        profileDeque = new ArrayDeque<>();
         profileMap = new ConcurrentHashMap<String, ProfileElement>();
+        if (Config.enable_profile_spill) {
+            Path spillDir = Strings.isNullOrEmpty(Config.profile_spill_dir) ?
+                    Paths.get(Config.meta_dir, "profile") : Paths.get(Config.profile_spill_dir);
+            try {
+                spillStore = new ProfileSpillStore(spillDir, () -> Config.profile_spill_capacity,
+                        () -> Config.profile_spill_segment_size);
+            } catch (IOException e) {
+                LOG.warn("Failed to init profile spill store in {}, profile spill is disabled", spillDir, e);
+            }
+        }
     }
 
-    public ProfileElement createElement(RuntimeProfile summaryProfile, String profileString) {
-        ProfileElement element = new ProfileElement();
-        for (String header : PROFILE_HEADERS) {
-            element.infoStrings.put(header, summaryProfile.getInfoString(header));
+    private ProfileElement createElement(RuntimeProfile summaryProfile, RuntimeProfile profile) {
+        String[] headers = new String[PROFILE_HEADERS.size()];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = summaryProfile.getInfoString(PROFILE_HEADERS.get(i));
         }
+        byte[] profileContent = null;
         try {
-            element.profileContent = CompressionUtils.gzipCompressString(profileString);
+            profileContent = RuntimeProfileCodec.encode(profile);
         } catch (IOException e) {
-            LOG.warn("Compress profile string failed, length: {}, reason: {}",
-                    profileString.length(), e.getMessage());
+            LOG.warn("Encode profile failed, query id: {}, reason: {}", headers[QUERY_ID_INDEX], e.getMessage());
         }
-        return element;
+        return new ProfileElement(headers, profileContent);
     }
 
-    public String pushProfile(RuntimeProfile profile) {
-        if (profile == null) {
-            return "";
-        }
-
-        String profileString;
+    public static String formatProfile(RuntimeProfile profile) {
         switch (Config.profile_info_format) {
             case "default":
-                profileString = profile.toString();
-                break;
+                return profile.toString();
             case "json":
                 RuntimeProfile.ProfileFormater formater = new RuntimeProfile.JsonProfileFormater();
-                profileString = formater.format(profile, "");
-                break;
+                return formater.format(profile, "");
             default:
-                profileString = profile.toString();
                 LOG.warn("unknown profile format '{}',  use default format instead.", Config.profile_info_format);
+                return profile.toString();
         }
+    }
 
-        ProfileElement element = createElement(profile.getChildList().get(0).first, profileString);
-        String queryId = element.infoStrings.get(ProfileManager.QUERY_ID);
+    public String pushProfile(RuntimeProfile profile) {
+        if (profile == null) {
+            return "";
+        }
+
+        String profileString = formatProfile(profile);
+        ProfileElement element = createElement(profile.getChildList().get(0).first, profile);
+        String queryId = element.getQueryId();
         // check when push in, which can ensure every element in the list has QUERY_ID column,
         // so there is no need to check when remove element from list.
         if (Strings.isNullOrEmpty(queryId)) {
@@ -155,57 +183,74 @@ public class ProfileManager {
         }
 
         profileMap.put(queryId, element);
+        ProfileElement evicted = null;
         writeLock.lock();
         try {
             if (profileDeque.size() >= Config.profile_info_reserved_num) {
-                profileMap.remove(profileDeque.getFirst().infoStrings.get(QUERY_ID));
-                profileDeque.removeFirst();
+                evicted = profileDeque.removeFirst();
             }
             profileDeque.addLast(element);
         } finally {
             writeLock.unlock();
         }
 
+        if (evicted != null) {
+            // spill before removing from the map, so that the profile can always be found
+            spill(evicted);
+            profileMap.remove(evicted.getQueryId(), evicted);
+        }
+
         return profileString;
     }
 
+    private void spill(ProfileElement element) {
+        if (spillStore == null || element.profileContent == null) {
+            return;
+        }
+        try {
+            spillStore.append(element.getQueryId(), element.headers, element.profileContent);
+        } catch (IOException e) {
+            LOG.warn("Failed to spill profile of query {}", element.getQueryId(), e);
+        }
+    }
+
     public List<List<String>> getAllQueries() {
         List<List<String>> result = Lists.newArrayList();
         readLock.lock();
         try {
-            Iterator reverse = profileDeque.descendingIterator();
+            Iterator<ProfileElement> reverse = profileDeque.descendingIterator();
             while (reverse.hasNext()) {
-                ProfileElement element = (ProfileElement) reverse.next();
-                Map<String, String> infoStrings = element.infoStrings;
-
-                List<String> row = Lists.newArrayList();
-                for (String str : PROFILE_HEADERS) {
-                    row.add(infoStrings.get(str));
-                }
-                result.add(row);
+                result.add(Lists.newArrayList(reverse.next().headers));
             }
         } finally {
             readLock.unlock();
         }
+        if (spillStore != null) {
+            for (String[] headers : spillStore.listHeaders()) {
+                result.add(Lists.newArrayList(headers));
+            }
+        }
         return result;
     }
 
     public String getProfile(String queryID) {
-        ProfileElement element = new ProfileElement();
-        readLock.lock();
-        try {
-            element = profileMap.get(queryID);
-            if (element == null) {
-                return null;
-            }
+        ProfileElement element = profileMap.get(queryID);
+        byte[] profileContent;
+        if (element != null) {
+            profileContent = element.profileContent;
+        } else {
+            profileContent = spillStore == null ? null : spillStore.get(queryID);
+        }
+        if (profileContent == null) {
+            return null;
+        }
 
-            return CompressionUtils.gzipDecompressString(element.profileContent);
+        try {
+            return formatProfile(RuntimeProfileCodec.decode(profileContent));
         } catch (IOException e) {
-            LOG.warn("Decompress profile content failed, length: {}, reason: {}",
-                    element.profileContent.length, e.getMessage());
+            LOG.warn("Decode profile content failed, length: {}, reason: {}",
+                    profileContent.length, e.getMessage());
             return null;
-        } finally {
-            readLock.unlock();
         }
     }
 }
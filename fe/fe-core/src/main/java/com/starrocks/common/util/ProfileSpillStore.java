@@ -0,0 +1,347 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk ring buffer of the profiles evicted from {@link ProfileManager}.
+ *
+ * Profiles are appended to segment files of bounded size. Once the total size exceeds the capacity,
+ * the oldest segment is deleted with all the profiles in it. The index from query id to the record
+ * location is kept in memory in spill order, together with the profile headers used for listing,
+ * and is rebuilt by scanning the segments when fe restarts.
+ */
+public class ProfileSpillStore {
+    private static final Logger LOG = LogManager.getLogger(ProfileSpillStore.class);
+
+    private static final String SEGMENT_FILE_PREFIX = "profile.";
+    private static final int RECORD_MAGIC = 0x50524F46;
+    // magic, payload length and checksum
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    private static class Entry {
+        private final long segmentId;
+        private final long offset;
+        private final int length;
+        private final String[] headers;
+
+        private Entry(long segmentId, long offset, int length, String[] headers) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+            this.headers = headers;
+        }
+    }
+
+    private final Path dir;
+    private final LongSupplier capacity;
+    private final LongSupplier segmentSize;
+
+    // segment id -> segment size in bytes
+    private final TreeMap<Long, Long> segments = new TreeMap<>();
+    // query id -> record, in spill order
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>();
+    private long totalBytes = 0;
+    private FileChannel writer;
+
+    public ProfileSpillStore(Path dir, LongSupplier capacity, LongSupplier segmentSize) throws IOException {
+        this.dir = dir;
+        this.capacity = capacity;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        load();
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Appends a profile to the newest segment and deletes the oldest segments if the capacity is exceeded.
+     * A profile spilled again with the same query id replaces the old one.
+     */
+    public void append(String queryId, String[] headers, byte[] profileContent) throws IOException {
+        byte[] record = encodeRecord(queryId, headers, profileContent);
+        synchronized (this) {
+            if (writer == null || segments.lastEntry().getValue() + record.length > segmentSize.getAsLong()) {
+                rollSegment();
+            }
+            long segmentId = segments.lastKey();
+            long offset = segments.lastEntry().getValue();
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            try {
+                while (buffer.hasRemaining()) {
+                    writer.write(buffer);
+                }
+            } catch (IOException e) {
+                // the tail of the segment is unknown, continue with a new segment
+                closeWriter();
+                throw e;
+            }
+            segments.put(segmentId, offset + record.length);
+            totalBytes += record.length;
+            index.remove(queryId);
+            index.put(queryId, new Entry(segmentId, offset, record.length, headers));
+            evictIfNeeded();
+        }
+    }
+
+    /**
+     * Returns the encoded profile of the query, or null if it's not spilled or has been evicted.
+     */
+    public byte[] get(String queryId) {
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(queryId);
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(segmentPath(entry.segmentId), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                    throw new EOFException("unexpected end of segment " + entry.segmentId);
+                }
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()));
+            Record record = readRecord(in, entry.length);
+            if (record == null || !queryId.equals(record.queryId)) {
+                throw new IOException("corrupted profile record at " + entry.offset);
+            }
+            return record.profileContent;
+        } catch (NoSuchFileException e) {
+            // the segment is evicted after the lookup
+            return null;
+        } catch (IOException e) {
+            LOG.warn("Failed to read profile of query {} from segment {}", queryId, entry.segmentId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the headers of all the spilled profiles, from the newest to the oldest.
+     */
+    public synchronized List<String[]> listHeaders() {
+        List<String[]> result = Lists.newArrayListWithCapacity(index.size());
+        for (Entry entry : index.values()) {
+            result.add(entry.headers);
+        }
+        return Lists.reverse(result);
+    }
+
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private void rollSegment() throws IOException {
+        closeWriter();
+        long segmentId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        writer = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segments.put(segmentId, 0L);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close profile segment", e);
+            }
+            writer = null;
+        }
+    }
+
+    private void evictIfNeeded() {
+        // the segment being written is never evicted
+        while (totalBytes > capacity.getAsLong() && segments.size() > 1) {
+            Map.Entry<Long, Long> oldest = segments.pollFirstEntry();
+            totalBytes -= oldest.getValue();
+            index.values().removeIf(entry -> entry.segmentId == oldest.getKey());
+            try {
+                Files.deleteIfExists(segmentPath(oldest.getKey()));
+            } catch (IOException e) {
+                LOG.warn("Failed to delete profile segment {}", oldest.getKey(), e);
+            }
+        }
+    }
+
+    private void load() throws IOException {
+        TreeMap<Long, Path> segmentFiles = Maps.newTreeMap();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_FILE_PREFIX + "*")) {
+            for (Path file : stream) {
+                String suffix = file.getFileName().toString().substring(SEGMENT_FILE_PREFIX.length());
+                try {
+                    segmentFiles.put(Long.parseLong(suffix), file);
+                } catch (NumberFormatException e) {
+                    LOG.warn("Ignore unknown file {} in profile spill dir", file);
+                }
+            }
+        }
+
+        for (Map.Entry<Long, Path> segmentFile : segmentFiles.entrySet()) {
+            long validBytes = loadSegment(segmentFile.getKey(), segmentFile.getValue());
+            if (validBytes < Files.size(segmentFile.getValue())) {
+                // the tail is half written when fe exited, drop it
+                LOG.warn("Truncate profile segment {} from {} to {} bytes", segmentFile.getValue(),
+                        Files.size(segmentFile.getValue()), validBytes);
+                try (FileChannel channel = FileChannel.open(segmentFile.getValue(), StandardOpenOption.WRITE)) {
+                    channel.truncate(validBytes);
+                }
+            }
+            segments.put(segmentFile.getKey(), validBytes);
+            totalBytes += validBytes;
+        }
+        evictIfNeeded();
+        LOG.info("Loaded {} profiles of {} bytes from {}", index.size(), totalBytes, dir);
+    }
+
+    // returns the length of the valid records in the segment
+    private long loadSegment(long segmentId, Path file) throws IOException {
+        long fileSize = Files.size(file);
+        long offset = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (offset + RECORD_HEADER_SIZE <= fileSize) {
+                Record record = readRecord(in, fileSize - offset);
+                if (record == null) {
+                    break;
+                }
+                index.remove(record.queryId);
+                index.put(record.queryId, new Entry(segmentId, offset, record.length, record.headers));
+                offset += record.length;
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to read profile segment {} at {}", file, offset, e);
+        }
+        return offset;
+    }
+
+    private static class Record {
+        private String queryId;
+        private String[] headers;
+        private byte[] profileContent;
+        private int length;
+    }
+
+    private static byte[] encodeRecord(String queryId, String[] headers, byte[] profileContent) throws IOException {
+        ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream(profileContent.length + 256);
+        DataOutputStream payload = new DataOutputStream(payloadBuffer);
+        writeString(payload, queryId);
+        payload.writeInt(headers.length);
+        for (String header : headers) {
+            writeString(payload, header);
+        }
+        payload.writeInt(profileContent.length);
+        payload.write(profileContent);
+        payload.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(payloadBuffer.toByteArray());
+        ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(RECORD_HEADER_SIZE + payloadBuffer.size());
+        DataOutputStream record = new DataOutputStream(recordBuffer);
+        record.writeInt(RECORD_MAGIC);
+        record.writeInt(payloadBuffer.size());
+        record.writeInt((int) crc.getValue());
+        payloadBuffer.writeTo(record);
+        record.flush();
+        return recordBuffer.toByteArray();
+    }
+
+    // returns null if the record is incomplete or corrupted
+    private static Record readRecord(DataInputStream in, long remainingBytes) throws IOException {
+        if (in.readInt() != RECORD_MAGIC) {
+            return null;
+        }
+        int payloadLength = in.readInt();
+        int checksum = in.readInt();
+        if (payloadLength < 0 || RECORD_HEADER_SIZE + (long) payloadLength > remainingBytes) {
+            return null;
+        }
+        byte[] payload = new byte[payloadLength];
+        in.readFully(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+
+        DataInputStream payloadIn = new DataInputStream(new ByteArrayInputStream(payload));
+        Record record = new Record();
+        record.queryId = readString(payloadIn);
+        record.headers = new String[payloadIn.readInt()];
+        for (int i = 0; i < record.headers.length; i++) {
+            record.headers[i] = readString(payloadIn);
+        }
+        record.profileContent = new byte[payloadIn.readInt()];
+        payloadIn.readFully(record.profileContent);
+        record.length = RECORD_HEADER_SIZE + payloadLength;
+        return record;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path segmentPath(long segmentId) {
+        return dir.resolve(SEGMENT_FILE_PREFIX + segmentId);
+    }
+}
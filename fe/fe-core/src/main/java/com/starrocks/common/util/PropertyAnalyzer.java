@@ -130,6 +130,7 @@ public class PropertyAnalyzer {
     public static final String PROPERTIES_PARTITION_TTL_NUMBER  = "partition_ttl_number";
     public static final String PROPERTIES_AUTO_REFRESH_PARTITIONS_LIMIT  = "auto_refresh_partitions_limit";
     public static final String PROPERTIES_PARTITION_REFRESH_NUMBER  = "partition_refresh_number";
+    public static final String PROPERTIES_PARTITION_REFRESH_PARALLELISM = "partition_refresh_parallelism";
     public static final String PROPERTIES_EXCLUDED_TRIGGER_TABLES = "excluded_trigger_tables";
 
     public static DataProperty analyzeDataProperty(Map<String, String> properties, DataProperty oldDataProperty)
@@ -269,6 +270,22 @@ public class PropertyAnalyzer {
         return partitionRefreshNumber;
     }
 
+    public static int analyzePartitionRefreshParallelism(Map<String, String> properties) throws AnalysisException {
+        int partitionRefreshParallelism = INVALID;
+        if (properties != null && properties.containsKey(PROPERTIES_PARTITION_REFRESH_PARALLELISM)) {
+            try {
+                partitionRefreshParallelism = Integer.parseInt(properties.get(PROPERTIES_PARTITION_REFRESH_PARALLELISM));
+            } catch (NumberFormatException e) {
+                throw new AnalysisException("Partition Refresh Parallelism: " + e.getMessage());
+            }
+            if (partitionRefreshParallelism <= 0 && partitionRefreshParallelism != INVALID) {
+                throw new AnalysisException("Illegal Partition Refresh Parallelism: " + partitionRefreshParallelism);
+            }
+            properties.remove(PROPERTIES_PARTITION_REFRESH_PARALLELISM);
+        }
+        return partitionRefreshParallelism;
+    }
+
     public static List<TableName> analyzeExcludedTriggerTables(Map<String, String> properties, MaterializedView mv)
             throws AnalysisException {
         if (mv.getRefreshScheme().getType() != MaterializedView.RefreshType.ASYNC) {
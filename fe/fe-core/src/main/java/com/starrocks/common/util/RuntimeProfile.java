@@ -69,9 +69,9 @@ import java.util.stream.Collectors;
 public class RuntimeProfile {
 
     private static final Logger LOG = LogManager.getLogger(RuntimeProfile.class);
-    private static final String ROOT_COUNTER = "";
-    private static final String MERGED_INFO_PREFIX_MIN = "__MIN_OF_";
-    private static final String MERGED_INFO_PREFIX_MAX = "__MAX_OF_";
+    static final String ROOT_COUNTER = "";
+    static final String MERGED_INFO_PREFIX_MIN = "__MIN_OF_";
+    static final String MERGED_INFO_PREFIX_MAX = "__MAX_OF_";
 
     private final Counter counterTotalTime;
 
@@ -501,6 +501,10 @@ public class RuntimeProfile {
         return localTimePercent;
     }
 
+    void setLocalTimePercent(double localTimePercent) {
+        this.localTimePercent = localTimePercent;
+    }
+
     // Returns the value to which the specified key is mapped;
     // or null if this map contains no mapping for the key.
     public String getInfoString(String key) {
@@ -510,6 +514,7 @@ public class RuntimeProfile {
     // Merge all the isomorphic sub profiles and the caller must know for sure
     // that all the children are isomorphic, otherwise, the behavior is undefined
     // The merged result will be stored in the first profile
+    // See IsomorphicProfileMerger to merge the profiles one by one as they are ready
     public static void mergeIsomorphicProfiles(List<RuntimeProfile> profiles) {
         if (CollectionUtils.isEmpty(profiles)) {
             return;
@@ -0,0 +1,233 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Pair;
+import com.starrocks.thrift.TUnit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary encoding of a finished {@link RuntimeProfile}, used to keep profiles in memory and on disk.
+ *
+ * The layout follows TRuntimeProfileTree: the nodes are written in preorder, each with its info strings
+ * in display order, its counters and the number of its children. All the names, keys and values are
+ * replaced by ids of a string dictionary written ahead of the nodes, since the same counter names repeat
+ * in every fragment instance and operator. Integers are written as varints and the whole content is deflated.
+ */
+public class RuntimeProfileCodec {
+    private static final int VERSION = 1;
+    private static final String TOTAL_TIME_COUNTER = "TotalTime";
+
+    private static final int FLAG_INDENT = 1;
+    private static final int FLAG_LOCAL_TIME_PERCENT = 1 << 1;
+
+    private RuntimeProfileCodec() {
+    }
+
+    public static byte[] encode(RuntimeProfile profile) throws IOException {
+        Map<String, Integer> dictionary = Maps.newLinkedHashMap();
+        ByteArrayOutputStream nodeBuffer = new ByteArrayOutputStream();
+        DataOutputStream nodeOut = new DataOutputStream(nodeBuffer);
+        encodeNode(profile, true, dictionary, nodeOut);
+        nodeOut.flush();
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(nodeBuffer.size() / 4 + 64);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(buffer))) {
+            writeVarLong(out, VERSION);
+            writeVarLong(out, dictionary.size());
+            for (String str : dictionary.keySet()) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length);
+                out.write(bytes);
+            }
+            nodeBuffer.writeTo(out);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static RuntimeProfile decode(byte[] content) throws IOException {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(content)))) {
+            int version = (int) readVarLong(in);
+            if (version != VERSION) {
+                throw new IOException("unknown profile encoding version " + version);
+            }
+            int dictionarySize = (int) readVarLong(in);
+            String[] dictionary = new String[dictionarySize];
+            for (int i = 0; i < dictionarySize; i++) {
+                byte[] bytes = new byte[(int) readVarLong(in)];
+                in.readFully(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return decodeNode(in, dictionary).first;
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("corrupted profile content", e);
+        }
+    }
+
+    private static void encodeNode(RuntimeProfile profile, boolean indent, Map<String, Integer> dictionary,
+                                   DataOutputStream out) throws IOException {
+        double localTimePercent = profile.getLocalTimePercent();
+        int flags = (indent ? FLAG_INDENT : 0) | (localTimePercent != 0 ? FLAG_LOCAL_TIME_PERCENT : 0);
+        writeString(out, dictionary, profile.getName());
+        out.writeByte(flags);
+        if (localTimePercent != 0) {
+            out.writeDouble(localTimePercent);
+        }
+
+        // info strings, in display order
+        List<Map.Entry<String, String>> infoStrings;
+        synchronized (profile.getInfoStrings()) {
+            infoStrings = Lists.newArrayList(profile.getInfoStrings().entrySet());
+        }
+        writeVarLong(out, infoStrings.size());
+        for (Map.Entry<String, String> entry : infoStrings) {
+            writeString(out, dictionary, entry.getKey());
+            writeString(out, dictionary, entry.getValue());
+        }
+
+        // counters, parents ahead of children, so that they can be added back in order.
+        // TotalTime is created with the profile and is not a child of the root counter, but may have children.
+        writeVarLong(out, profile.getCounterTotalTime().getValue());
+        Map<String, Counter> counters = profile.getCounterMap();
+        Map<String, Set<String>> childCounters = profile.getChildCounterMap();
+        List<Pair<String, String>> counterNames = Lists.newArrayList();
+        Queue<String> nameQueue = new ArrayDeque<>();
+        nameQueue.offer(RuntimeProfile.ROOT_COUNTER);
+        nameQueue.offer(TOTAL_TIME_COUNTER);
+        while (!nameQueue.isEmpty()) {
+            String parentName = nameQueue.poll();
+            Set<String> childNames = childCounters.get(parentName);
+            if (childNames == null) {
+                continue;
+            }
+            for (String childName : childNames) {
+                if (counters.containsKey(childName)) {
+                    counterNames.add(Pair.create(childName, parentName));
+                    nameQueue.offer(childName);
+                }
+            }
+        }
+        writeVarLong(out, counterNames.size());
+        for (Pair<String, String> counterName : counterNames) {
+            Counter counter = counters.get(counterName.first);
+            writeString(out, dictionary, counterName.first);
+            writeString(out, dictionary, counterName.second);
+            writeVarLong(out, ((long) counter.getType().getValue() << 1) | (counter.isSkipMerge() ? 1 : 0));
+            writeVarLong(out, counter.getValue());
+        }
+
+        List<Pair<RuntimeProfile, Boolean>> children = profile.getChildList();
+        writeVarLong(out, children.size());
+        for (Pair<RuntimeProfile, Boolean> child : children) {
+            encodeNode(child.first, child.second, dictionary, out);
+        }
+    }
+
+    // returns the profile and whether it's indented under its parent
+    private static Pair<RuntimeProfile, Boolean> decodeNode(DataInputStream in, String[] dictionary)
+            throws IOException {
+        RuntimeProfile profile = new RuntimeProfile(readString(in, dictionary));
+        int flags = in.readUnsignedByte();
+        if ((flags & FLAG_LOCAL_TIME_PERCENT) != 0) {
+            profile.setLocalTimePercent(in.readDouble());
+        }
+
+        int infoStringNum = (int) readVarLong(in);
+        for (int i = 0; i < infoStringNum; i++) {
+            String key = readString(in, dictionary);
+            profile.addInfoString(key, readString(in, dictionary));
+        }
+
+        profile.getCounterTotalTime().setValue(readVarLong(in));
+        int counterNum = (int) readVarLong(in);
+        for (int i = 0; i < counterNum; i++) {
+            String name = readString(in, dictionary);
+            String parentName = readString(in, dictionary);
+            long typeAndFlag = readVarLong(in);
+            TUnit type = TUnit.findByValue((int) (typeAndFlag >>> 1));
+            if (type == null) {
+                throw new IOException("unknown counter type of " + name);
+            }
+            Counter counter = profile.addCounter(name, type, parentName);
+            counter.setSkipMerge((typeAndFlag & 1) != 0);
+            counter.setValue(readVarLong(in));
+        }
+
+        int childNum = (int) readVarLong(in);
+        for (int i = 0; i < childNum; i++) {
+            Pair<RuntimeProfile, Boolean> child = decodeNode(in, dictionary);
+            profile.getChildMap().put(child.first.getName(), child.first);
+            profile.getChildList().add(child);
+        }
+        return Pair.create(profile, (flags & FLAG_INDENT) != 0);
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> dictionary, String str)
+            throws IOException {
+        // null is encoded as 0, strings as their dictionary id plus 1
+        if (str == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        Integer id = dictionary.get(str);
+        if (id == null) {
+            id = dictionary.size();
+            dictionary.put(str, id);
+        }
+        writeVarLong(out, id + 1);
+    }
+
+    private static String readString(DataInputStream in, String[] dictionary) throws IOException {
+        int id = (int) readVarLong(in);
+        return id == 0 ? null : dictionary[id - 1];
+    }
+
+    // zigzag varint, counter values may be negative
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+}
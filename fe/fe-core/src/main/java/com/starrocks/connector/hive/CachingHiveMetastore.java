@@ -22,13 +22,16 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.HiveMetaStoreTable;
 import com.starrocks.catalog.HiveTable;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.Config;
+import com.starrocks.connector.BoundedExecutor;
 import com.starrocks.connector.exception.StarRocksConnectorException;
 import com.starrocks.connector.hive.events.MetastoreNotificationFetchException;
 import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
@@ -38,8 +41,16 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -57,6 +68,11 @@ public class CachingHiveMetastore implements IHiveMetastore {
     public static final long NEVER_CACHE = 0;
     public static final long NEVER_EVICT = -1;
     public static final long NEVER_REFRESH = -1;
+
+    // Shared by all instances, the concurrency of each instance is bounded by hive_meta_load_concurrency.
+    private static final ExecutorService PARTITION_LOAD_POOL = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("hive-partition-load-%d").setDaemon(true).build());
+
     private final boolean enableListNameCache;
     protected final IHiveMetastore metastore;
 
@@ -74,6 +90,13 @@ public class CachingHiveMetastore implements IHiveMetastore {
     protected LoadingCache<HiveTableName, HivePartitionStats> tableStatsCache;
     protected LoadingCache<HivePartitionName, HivePartitionStats> partitionStatsCache;
 
+    // Partitions and partition statistics being loaded from the metastore. Concurrent queries that miss the cache
+    // on the same partition wait for the pending load instead of fetching it again.
+    private final Map<HivePartitionName, CompletableFuture<Partition>> inflightPartitions = new ConcurrentHashMap<>();
+    private final Map<HivePartitionName, CompletableFuture<HivePartitionStats>> inflightPartitionStats =
+            new ConcurrentHashMap<>();
+    private final Executor partitionLoadExecutor;
+
     public static CachingHiveMetastore createQueryLevelInstance(IHiveMetastore metastore, long perQueryCacheMaxSize) {
         return new CachingHiveMetastore(
                 metastore,
@@ -94,6 +117,7 @@ public class CachingHiveMetastore implements IHiveMetastore {
                                    long refreshIntervalSec, long maxSize, boolean enableListNamesCache) {
         this.metastore = metastore;
         this.enableListNameCache = enableListNamesCache;
+        this.partitionLoadExecutor = new BoundedExecutor(PARTITION_LOAD_POOL, Math.max(1, Config.hive_meta_load_concurrency));
 
         databaseNamesCache = newCacheBuilder(NEVER_CACHE, NEVER_CACHE, NEVER_CACHE)
                 .build(asyncReloading(CacheLoader.from(this::loadAllDatabaseNames), executor));
@@ -125,7 +149,8 @@ public class CachingHiveMetastore implements IHiveMetastore {
                     @Override
                     public Map<HivePartitionName, Partition> loadAll(
                             @NotNull Iterable<? extends HivePartitionName> partitionKeys) {
-                        return loadPartitionsByNames(partitionKeys);
+                        return loadInBatches(partitionKeys, inflightPartitions,
+                                CachingHiveMetastore.this::loadPartitionsByNames);
                     }
                 }, executor));
 
@@ -142,7 +167,8 @@ public class CachingHiveMetastore implements IHiveMetastore {
                     @Override
                     public Map<HivePartitionName, HivePartitionStats> loadAll(
                             @NotNull Iterable<? extends HivePartitionName> partitionKeys) {
-                        return loadPartitionsStatistics(partitionKeys);
+                        return loadInBatches(partitionKeys, inflightPartitionStats,
+                                CachingHiveMetastore.this::loadPartitionsStatistics);
                     }
                 }, executor));
     }
@@ -297,6 +323,93 @@ public class CachingHiveMetastore implements IHiveMetastore {
         ));
     }
 
+    /**
+     * Load the given partitions of one table in batches of max_hive_partitions_per_rpc, the batches are fetched
+     * concurrently on the partition load executor. Partitions that are already being loaded by another caller
+     * are not fetched again, the result of the pending load is reused.
+     */
+    private <T> Map<HivePartitionName, T> loadInBatches(Iterable<? extends HivePartitionName> partitionNames,
+                                                        Map<HivePartitionName, CompletableFuture<T>> inflight,
+                                                        Function<List<HivePartitionName>, Map<HivePartitionName, T>> loader) {
+        List<HivePartitionName> names = Lists.newArrayList(partitionNames);
+        if (metastore instanceof CachingHiveMetastore) {
+            // the underlying catalog level cache batches and deduplicates the loads
+            return loader.apply(names);
+        }
+
+        List<HivePartitionName> toLoad = Lists.newArrayList();
+        Map<HivePartitionName, CompletableFuture<T>> futures = Maps.newHashMapWithExpectedSize(names.size());
+        Map<HivePartitionName, CompletableFuture<T>> waitFor = Maps.newHashMap();
+        for (HivePartitionName name : names) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            CompletableFuture<T> pending = inflight.putIfAbsent(name, future);
+            if (pending == null) {
+                toLoad.add(name);
+                futures.put(name, future);
+            } else {
+                waitFor.put(name, pending);
+            }
+        }
+
+        List<List<HivePartitionName>> batches = Lists.partition(toLoad, Math.max(1, Config.max_hive_partitions_per_rpc));
+        if (batches.size() == 1) {
+            loadBatch(batches.get(0), futures, inflight, loader);
+        } else {
+            for (List<HivePartitionName> batch : batches) {
+                // the executor may have queued the task before rejecting it, so whoever claims the batch first
+                // loads it, the batch is never loaded twice
+                AtomicBoolean claimed = new AtomicBoolean(false);
+                Runnable task = () -> {
+                    if (claimed.compareAndSet(false, true)) {
+                        loadBatch(batch, futures, inflight, loader);
+                    }
+                };
+                try {
+                    partitionLoadExecutor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+        }
+        waitFor.putAll(futures);
+
+        Map<HivePartitionName, T> result = Maps.newHashMapWithExpectedSize(names.size());
+        for (Map.Entry<HivePartitionName, CompletableFuture<T>> entry : waitFor.entrySet()) {
+            T value;
+            try {
+                value = entry.getValue().join();
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                throwIfInstanceOf(cause, StarRocksConnectorException.class);
+                throw new StarRocksConnectorException("Failed to load partition %s: %s", entry.getKey(), cause.getMessage());
+            }
+            // missing values are reported by the cache
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    private <T> void loadBatch(List<HivePartitionName> batch, Map<HivePartitionName, CompletableFuture<T>> futures,
+                               Map<HivePartitionName, CompletableFuture<T>> inflight,
+                               Function<List<HivePartitionName>, Map<HivePartitionName, T>> loader) {
+        try {
+            Map<HivePartitionName, T> loaded = loader.apply(batch);
+            for (HivePartitionName name : batch) {
+                CompletableFuture<T> future = futures.get(name);
+                inflight.remove(name, future);
+                future.complete(loaded.get(name));
+            }
+        } catch (Throwable e) {
+            for (HivePartitionName name : batch) {
+                CompletableFuture<T> future = futures.get(name);
+                inflight.remove(name, future);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
     public synchronized void refreshTable(String hiveDbName, String hiveTblName) {
         HiveTableName hiveTableName = HiveTableName.of(hiveDbName, hiveTblName);
         Table updatedTable = loadTable(hiveTableName);
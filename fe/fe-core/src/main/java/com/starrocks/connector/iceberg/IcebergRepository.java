@@ -18,6 +18,7 @@ package com.starrocks.connector.iceberg;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.starrocks.common.Config;
 import com.starrocks.common.ThreadPoolManager;
 import org.apache.iceberg.Table;
@@ -40,6 +41,16 @@ public class IcebergRepository {
     private final Cache<Table, Future<?>> icebergRefreshCache = CacheBuilder.newBuilder()
             .expireAfterWrite(Config.iceberg_table_refresh_expire_sec, TimeUnit.SECONDS).build();
 
+    // reads manifests in parallel for table scan planning
+    private final ExecutorService icebergPlanExecutor =
+            ThreadPoolManager.newDaemonFixedThreadPool(Config.iceberg_scan_plan_threads,
+                    Integer.MAX_VALUE, "iceberg-plan-pool", true);
+
+    private final Cache<String, IcebergScanPlan> icebergScanPlanCache = CacheBuilder.newBuilder()
+            .maximumWeight(Config.iceberg_scan_plan_cache_max_ranges)
+            .weigher((Weigher<String, IcebergScanPlan>) (key, plan) -> Math.max(1, plan.getScanRanges().size()))
+            .build();
+
     public void refreshTable(Table table) {
         icebergRefreshCache.put(table, icebergRefreshExecutor.submit(table::refresh));
     }
@@ -50,6 +61,18 @@ public class IcebergRepository {
         return res;
     }
 
+    public ExecutorService getPlanExecutor() {
+        return icebergPlanExecutor;
+    }
+
+    public IcebergScanPlan getScanPlan(String planKey) {
+        return icebergScanPlanCache.getIfPresent(planKey);
+    }
+
+    public void putScanPlan(String planKey, IcebergScanPlan plan) {
+        icebergScanPlanCache.put(planKey, plan);
+    }
+
     public IcebergRepository() {
         if (Config.enable_iceberg_custom_worker_thread) {
             LOG.info("Default iceberg worker thread number changed " + Config.iceberg_worker_num_threads);
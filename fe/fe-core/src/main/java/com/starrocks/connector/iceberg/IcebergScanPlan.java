@@ -0,0 +1,51 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.connector.iceberg;
+
+import com.starrocks.thrift.THdfsScanRange;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * File level scan plan of an iceberg table snapshot, cached in {@link IcebergRepository}.
+ * The scan ranges are shared by queries and must not be modified.
+ */
+public class IcebergScanPlan {
+    private final List<THdfsScanRange> scanRanges;
+    // field ids of all equality delete files, resolved to column names with the current table schema
+    private final Set<Integer> equalityFieldIds;
+
+    public IcebergScanPlan(List<THdfsScanRange> scanRanges, Set<Integer> equalityFieldIds) {
+        this.scanRanges = scanRanges;
+        this.equalityFieldIds = equalityFieldIds;
+    }
+
+    public List<THdfsScanRange> getScanRanges() {
+        return scanRanges;
+    }
+
+    public Set<Integer> getEqualityFieldIds() {
+        return equalityFieldIds;
+    }
+
+    /**
+     * Key of a scan plan. Data files of a snapshot never change, so the plan of the same
+     * table location, snapshot, predicate and split size can be reused.
+     */
+    public static String planKey(String tableLocation, long snapshotId, String predicate, long splitSize) {
+        return tableLocation + "#" + snapshotId + "#" + splitSize + "#" + predicate;
+    }
+}
@@ -31,6 +31,7 @@ import com.starrocks.catalog.Type;
 import com.starrocks.common.DdlException;
 import com.starrocks.connector.hive.RemoteFileInputFormat;
 import com.starrocks.connector.iceberg.glue.IcebergGlueCatalog;
+import com.starrocks.server.GlobalStateMgr;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.iceberg.BaseTable;
 import org.apache.iceberg.FileFormat;
@@ -165,9 +166,9 @@ public class IcebergUtil {
     public static TableScan getTableScan(Table table,
                                          Snapshot snapshot,
                                          Expression icebergPredicate) {
-        // TODO: use planWith(executorService) after
-        // https://github.com/apache/iceberg/commit/74db81f4dd81360bf3c0ad438d4be937c7a812d9 release
-        TableScan tableScan = table.newScan().useSnapshot(snapshot.snapshotId()).includeColumnStats();
+        // manifests are read in parallel on the shared plan pool
+        TableScan tableScan = table.newScan().useSnapshot(snapshot.snapshotId())
+                .planWith(GlobalStateMgr.getCurrentState().getIcebergRepository().getPlanExecutor());
         if (icebergPredicate != null) {
             tableScan = tableScan.filter(icebergPredicate);
         }
@@ -175,6 +176,16 @@ public class IcebergUtil {
         return tableScan;
     }
 
+    /**
+     * Same as {@link #getTableScan}, but the planned data files carry the column lower/upper bounds and
+     * null value counts, which are needed to estimate the column statistics.
+     */
+    public static TableScan getTableScanWithColumnStats(Table table,
+                                                        Snapshot snapshot,
+                                                        Expression icebergPredicate) {
+        return getTableScan(table, snapshot, icebergPredicate).includeColumnStats();
+    }
+
     public static void refreshTable(Table table) {
         try {
             if (table instanceof BaseTable) {
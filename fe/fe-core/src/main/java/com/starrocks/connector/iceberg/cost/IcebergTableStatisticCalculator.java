@@ -15,6 +15,7 @@
 
 package com.starrocks.connector.iceberg.cost;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.starrocks.catalog.Column;
 import com.starrocks.connector.iceberg.IcebergUtil;
@@ -53,7 +54,8 @@ public class IcebergTableStatisticCalculator {
 
     private final Table icebergTable;
 
-    private IcebergTableStatisticCalculator(Table icebergTable) {
+    @VisibleForTesting
+    IcebergTableStatisticCalculator(Table icebergTable) {
         this.icebergTable = icebergTable;
     }
 
@@ -204,7 +206,8 @@ public class IcebergTableStatisticCalculator {
         }
     }
 
-    private IcebergFileStats generateIcebergFileStats(Expression icebergPredicate,
+    @VisibleForTesting
+    IcebergFileStats generateIcebergFileStats(Expression icebergPredicate,
                                                       List<Types.NestedField> columns) {
         Optional<Snapshot> snapshot = IcebergUtil.getCurrentTableSnapshot(icebergTable);
         if (!snapshot.isPresent()) {
@@ -224,7 +227,7 @@ public class IcebergTableStatisticCalculator {
                 .filter(column -> !identityPartitionIds.contains(column.fieldId()) && column.type().isPrimitiveType())
                 .collect(toImmutableList());
 
-        TableScan tableScan = IcebergUtil.getTableScan(icebergTable,
+        TableScan tableScan = IcebergUtil.getTableScanWithColumnStats(icebergTable,
                 snapshot.get(), icebergPredicate);
 
         IcebergFileStats icebergFileStats = null;
@@ -51,6 +51,8 @@ package com.starrocks.connector.iceberg.io;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Weigher;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
 import org.apache.iceberg.exceptions.NotFoundException;
 import org.apache.iceberg.exceptions.RuntimeIOException;
 import org.apache.iceberg.io.FileIO;
@@ -68,10 +70,13 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 /**
  * Implementation of FileIO that adds metadata content caching features.
+ * Content is cached in memory, and also in {@link IcebergMetadataDiskCache} if the disk cache is enabled.
  */
 public class IcebergCachingFileIO implements FileIO {
     private static final Logger LOG = LogManager.getLogger(IcebergCachingFileIO.class);
@@ -92,7 +97,8 @@ public class IcebergCachingFileIO implements FileIO {
     public void initialize(Map<String, String> properties) {
         long maxTotalBytes = PropertyUtil.propertyAsLong(properties, FILEIO_CACHE_MAX_TOTAL_BYTES,
                                                         DEFAULT_FILEIO_CACHE_MAX_TOTAL_BYTES);
-        this.fileContentCache = new ContentCache(DEFAULT_FILEIO_CACHE_MAX_CONTENT_LENGTH, maxTotalBytes);
+        this.fileContentCache = new ContentCache(DEFAULT_FILEIO_CACHE_MAX_CONTENT_LENGTH, maxTotalBytes,
+                IcebergMetadataDiskCache.getInstance());
     }
 
     @Override
@@ -123,13 +129,19 @@ public class IcebergCachingFileIO implements FileIO {
     }
 
     public static class ContentCache {
+        // total bytes held by the memory tier of all caches
+        private static final AtomicLong MEMORY_USED_BYTES = new AtomicLong(0);
+
         private final long maxTotalBytes;
         private final long maxContentLength;
         private final Cache<String, CacheEntry> cache;
+        // null if disk cache is disabled
+        private final IcebergMetadataDiskCache diskCache;
 
-        private ContentCache(long maxContentLength, long maxTotalBytes) {
+        private ContentCache(long maxContentLength, long maxTotalBytes, IcebergMetadataDiskCache diskCache) {
             this.maxTotalBytes = maxTotalBytes;
             this.maxContentLength = maxContentLength;
+            this.diskCache = diskCache;
 
             Caffeine<Object, Object> builder = Caffeine.newBuilder();
             this.cache = builder.maximumWeight(maxTotalBytes)
@@ -137,24 +149,85 @@ public class IcebergCachingFileIO implements FileIO {
                         .recordStats()
                         .removalListener(((key, value, cause) -> {
                             LOG.debug(key + " to be eliminated, reason: " + cause);
+                            if (value != null) {
+                                MEMORY_USED_BYTES.addAndGet(-value.length);
+                            }
                         }))
                         .build();
         }
 
+        public static long getMemoryUsedBytes() {
+            return MEMORY_USED_BYTES.get();
+        }
+
         public long maxContentLength() {
             return maxContentLength;
         }
 
+        public boolean isDiskCacheable(long length) {
+            return diskCache != null && length <= Config.iceberg_metadata_disk_cache_max_entry_size;
+        }
+
         public CacheEntry get(String key, Function<String, CacheEntry> mappingFunction) {
-            return cache.get(key, mappingFunction);
+            AtomicBoolean missed = new AtomicBoolean(false);
+            CacheEntry entry = cache.get(key, k -> {
+                missed.set(true);
+                CacheEntry loaded = getFromDisk(k, mappingFunction);
+                MEMORY_USED_BYTES.addAndGet(loaded.length);
+                return loaded;
+            });
+            if (MetricRepo.isInit) {
+                if (missed.get()) {
+                    MetricRepo.COUNTER_ICEBERG_METADATA_MEMORY_CACHE_MISS.increase(1L);
+                } else {
+                    MetricRepo.COUNTER_ICEBERG_METADATA_MEMORY_CACHE_HIT.increase(1L);
+                }
+            }
+            return entry;
+        }
+
+        /**
+         * Read through the disk tier only, used for files too large for the memory tier.
+         */
+        public CacheEntry getFromDisk(String key, Function<String, CacheEntry> mappingFunction) {
+            if (diskCache == null) {
+                return mappingFunction.apply(key);
+            }
+
+            List<ByteBuffer> buffers = diskCache.get(key);
+            if (buffers != null) {
+                long length = 0;
+                for (ByteBuffer buffer : buffers) {
+                    length += buffer.remaining();
+                }
+                return new CacheEntry(length, buffers);
+            }
+
+            CacheEntry entry = mappingFunction.apply(key);
+            diskCache.put(key, entry.buffers, entry.length);
+            return entry;
         }
 
         public CacheEntry getIfPresent(String location) {
             return cache.getIfPresent(location);
         }
 
+        /**
+         * Returns the cached file length in any tier, or -1 if the file is not cached.
+         */
+        public long getLengthIfPresent(String location) {
+            CacheEntry entry = cache.getIfPresent(location);
+            if (entry != null) {
+                return entry.length;
+            }
+            return diskCache == null ? -1 : diskCache.getLength(location);
+        }
+
         public void invalidate(String key) {
             cache.invalidate(key);
+            if (diskCache != null) {
+                diskCache.invalidate(key);
+            }
         }
     }
 
@@ -169,16 +242,22 @@ public class IcebergCachingFileIO implements FileIO {
 
         @Override
         public long getLength() {
-            CacheEntry buf = contentCache.getIfPresent(location());
-            return (buf != null) ? buf.length : wrappedInputFile.getLength();
+            long length = contentCache.getLengthIfPresent(location());
+            return (length >= 0) ? length : wrappedInputFile.getLength();
         }
 
         @Override
         public SeekableInputStream newStream() {
             try {
                 // read-through cache if file length is less than or equal to maximum length allowed to cache.
-                if (getLength() <= contentCache.maxContentLength()) {
-                    return cachedStream();
+                long length = getLength();
+                if (length <= contentCache.maxContentLength()) {
+                    return cachedStream(true);
+                }
+
+                // too large for the memory cache, read-through disk cache only.
+                if (contentCache.isDiskCacheable(length)) {
+                    return cachedStream(false);
                 }
 
                 // fallback to non-caching input stream.
@@ -197,8 +276,7 @@ public class IcebergCachingFileIO implements FileIO {
 
         @Override
         public boolean exists() {
-            CacheEntry buf = contentCache.getIfPresent(location());
-            return buf != null || wrappedInputFile.exists();
+            return contentCache.getLengthIfPresent(location()) >= 0 || wrappedInputFile.exists();
         }
 
         private CacheEntry newCacheEntry() {
@@ -232,9 +310,10 @@ public class IcebergCachingFileIO implements FileIO {
             }
         }
 
-        private SeekableInputStream cachedStream() throws IOException {
+        private SeekableInputStream cachedStream(boolean useMemoryCache) throws IOException {
             try {
-                CacheEntry entry = contentCache.get(location(), k -> newCacheEntry());
+                CacheEntry entry = useMemoryCache ? contentCache.get(location(), k -> newCacheEntry()) :
+                        contentCache.getFromDisk(location(), k -> newCacheEntry());
                 Preconditions.checkNotNull(entry, "CacheEntry should not be null when there is no RuntimeException occurs");
                 return ByteBufferInputStream.wrap(entry.buffers);
             } catch (RuntimeIOException ex) {
@@ -0,0 +1,377 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.connector.iceberg.io;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Local disk tier of the iceberg metadata file cache. Each cached file is stored as one data file
+ * named by the hash of its location and is read back as memory-mapped buffers. Entries are evicted
+ * in LRU order once the total size exceeds the capacity. Every change is appended to an index log,
+ * which is replayed and compacted when fe restarts, so the cache content is kept across restarts.
+ */
+public class IcebergMetadataDiskCache {
+    private static final Logger LOG = LogManager.getLogger(IcebergMetadataDiskCache.class);
+
+    private static final String INDEX_FILE_NAME = "cache.index";
+    private static final String DATA_FILE_SUFFIX = ".data";
+    private static final String TMP_FILE_PREFIX = "tmp_";
+    private static final int INDEX_MAGIC = 0x49434D43;
+    private static final int INDEX_VERSION = 2;
+    private static final byte INDEX_OP_PUT = 1;
+    private static final byte INDEX_OP_REMOVE = 2;
+    // the index log is compacted once it has more records than this and twice the number of entries
+    private static final int INDEX_COMPACT_MIN_RECORDS = 1024;
+    private static final int MAX_MAPPED_CHUNK_SIZE = 1024 * 1024 * 1024;
+
+    private static volatile IcebergMetadataDiskCache instance;
+
+    private final Path cacheDir;
+    private final LongSupplier capacity;
+    // location -> file length, in access order so that the eldest entry is the least recently used one.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+    // the index log opened for append, and the number of records in it
+    private DataOutputStream indexLog;
+    private int indexLogRecords = 0;
+
+    /**
+     * Returns the shared disk cache, or null if it is disabled or its directory can't be used.
+     */
+    public static IcebergMetadataDiskCache getInstance() {
+        if (!Config.enable_iceberg_metadata_disk_cache) {
+            return null;
+        }
+        if (instance == null) {
+            synchronized (IcebergMetadataDiskCache.class) {
+                if (instance == null) {
+                    try {
+                        instance = new IcebergMetadataDiskCache(Paths.get(Config.iceberg_metadata_disk_cache_dir),
+                                () -> Config.iceberg_metadata_disk_cache_capacity);
+                    } catch (IOException e) {
+                        LOG.warn("Failed to init iceberg metadata disk cache in {}, disk cache is disabled",
+                                Config.iceberg_metadata_disk_cache_dir, e);
+                        Config.enable_iceberg_metadata_disk_cache = false;
+                        return null;
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    IcebergMetadataDiskCache(Path cacheDir, LongSupplier capacity) throws IOException {
+        this.cacheDir = cacheDir;
+        this.capacity = capacity;
+        Files.createDirectories(cacheDir);
+        loadIndex();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the cached length of the file, or -1 if the file is not cached.
+     */
+    public synchronized long getLength(String location) {
+        Long length = entries.get(location);
+        return length == null ? -1 : length;
+    }
+
+    /**
+     * Returns the memory-mapped content of the file, or null if the file is not cached.
+     */
+    public List<ByteBuffer> get(String location) {
+        long length = getLength(location);
+        if (length < 0) {
+            increaseMissCounter();
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(dataFilePath(location), StandardOpenOption.READ)) {
+            if (channel.size() != length) {
+                throw new IOException("expect " + length + " bytes, but the file has " + channel.size());
+            }
+            List<ByteBuffer> buffers = Lists.newArrayList();
+            long position = 0;
+            while (position < length) {
+                long chunkSize = Math.min(MAX_MAPPED_CHUNK_SIZE, length - position);
+                buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, position, chunkSize));
+                position += chunkSize;
+            }
+            if (buffers.isEmpty()) {
+                buffers.add(ByteBuffer.allocate(0));
+            }
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_ICEBERG_METADATA_DISK_CACHE_HIT.increase(1L);
+            }
+            return buffers;
+        } catch (NoSuchFileException e) {
+            // evicted by another thread after the lookup
+            LOG.debug("{} is evicted from iceberg metadata disk cache while reading", location);
+        } catch (IOException e) {
+            LOG.warn("Failed to read {} from iceberg metadata disk cache", location, e);
+            invalidate(location);
+        }
+        increaseMissCounter();
+        return null;
+    }
+
+    /**
+     * Writes the file content to disk and evicts the least recently used entries if the cache is full.
+     * Failures are only logged, since the content can always be read again from the remote storage.
+     */
+    public void put(String location, List<ByteBuffer> buffers, long length) {
+        if (length > Config.iceberg_metadata_disk_cache_max_entry_size || length > capacity.getAsLong()) {
+            return;
+        }
+
+        Path tmpFile = null;
+        try {
+            // write to a temporary file first, so that a data file is never seen half written
+            tmpFile = Files.createTempFile(cacheDir, TMP_FILE_PREFIX, null);
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+                for (ByteBuffer buffer : buffers) {
+                    ByteBuffer duplicate = buffer.duplicate();
+                    while (duplicate.hasRemaining()) {
+                        channel.write(duplicate);
+                    }
+                }
+            }
+
+            synchronized (this) {
+                Files.move(tmpFile, dataFilePath(location), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                tmpFile = null;
+                Long oldLength = entries.put(location, length);
+                usedBytes += length - (oldLength == null ? 0 : oldLength);
+                appendIndex(INDEX_OP_PUT, location, length);
+                evictIfNeeded();
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to put {} into iceberg metadata disk cache", location, e);
+        } finally {
+            if (tmpFile != null) {
+                deleteQuietly(tmpFile);
+            }
+        }
+    }
+
+    public synchronized void invalidate(String location) {
+        Long length = entries.remove(location);
+        if (length == null) {
+            return;
+        }
+        usedBytes -= length;
+        deleteQuietly(dataFilePath(location));
+        try {
+            appendIndex(INDEX_OP_REMOVE, location, 0);
+        } catch (IOException e) {
+            LOG.warn("Failed to append to iceberg metadata disk cache index", e);
+        }
+    }
+
+    private void evictIfNeeded() throws IOException {
+        long maxBytes = capacity.getAsLong();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            usedBytes -= eldest.getValue();
+            deleteQuietly(dataFilePath(eldest.getKey()));
+            appendIndex(INDEX_OP_REMOVE, eldest.getKey(), 0);
+            LOG.debug("{} is evicted from iceberg metadata disk cache", eldest.getKey());
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        Path indexFile = cacheDir.resolve(INDEX_FILE_NAME);
+        if (Files.exists(indexFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+                if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                    throw new IOException("unknown index format");
+                }
+                replayIndex(in);
+            } catch (IOException e) {
+                LOG.warn("Failed to load iceberg metadata disk cache index {}, the cache is cleared", indexFile, e);
+                entries.clear();
+            }
+        }
+
+        // the index may be older than the data files if fe exited in the middle of a change
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            Path dataFile = dataFilePath(entry.getKey());
+            if (Files.exists(dataFile) && Files.size(dataFile) == entry.getValue()) {
+                usedBytes += entry.getValue();
+            } else {
+                iterator.remove();
+            }
+        }
+
+        // remove the data files which are not in the index and the temporary files left by the last run
+        Set<String> dataFileNames = entries.keySet().stream()
+                .map(IcebergMetadataDiskCache::dataFileName)
+                .collect(Collectors.toSet());
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                if (!fileName.equals(INDEX_FILE_NAME) && !dataFileNames.contains(fileName)) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+
+        evictIfNeeded();
+        compactIndex();
+        LOG.info("Loaded {} entries with {} bytes from iceberg metadata disk cache {}",
+                entries.size(), usedBytes, cacheDir);
+    }
+
+    private void replayIndex(DataInputStream in) throws IOException {
+        while (true) {
+            byte op;
+            String location;
+            long length = 0;
+            try {
+                op = in.readByte();
+            } catch (EOFException e) {
+                return;
+            }
+            try {
+                location = in.readUTF();
+                if (op == INDEX_OP_PUT) {
+                    length = in.readLong();
+                }
+            } catch (EOFException e) {
+                // the last record is half written if fe exited while appending it
+                LOG.warn("Iceberg metadata disk cache index ends with an incomplete record, ignore it");
+                return;
+            }
+            if (op == INDEX_OP_PUT) {
+                entries.put(location, length);
+            } else if (op == INDEX_OP_REMOVE) {
+                entries.remove(location);
+            } else {
+                throw new IOException("unknown index record type " + op);
+            }
+        }
+    }
+
+    private void appendIndex(byte op, String location, long length) throws IOException {
+        if (indexLog == null) {
+            // still loading, the index is rewritten as a whole once loaded
+            return;
+        }
+        indexLog.writeByte(op);
+        indexLog.writeUTF(location);
+        if (op == INDEX_OP_PUT) {
+            indexLog.writeLong(length);
+        }
+        indexLog.flush();
+        indexLogRecords++;
+        if (indexLogRecords > INDEX_COMPACT_MIN_RECORDS && indexLogRecords > entries.size() * 2L) {
+            compactIndex();
+        }
+    }
+
+    /**
+     * Rewrite the index log with one put record per entry, in LRU order, and reopen it for append.
+     */
+    private void compactIndex() throws IOException {
+        if (indexLog != null) {
+            indexLog.close();
+            indexLog = null;
+        }
+        Path indexFile = cacheDir.resolve(INDEX_FILE_NAME);
+        Path tmpFile = Files.createTempFile(cacheDir, TMP_FILE_PREFIX, null);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                    out.writeByte(INDEX_OP_PUT);
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+        indexLog = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(indexFile, StandardOpenOption.APPEND)));
+        indexLogRecords = entries.size();
+    }
+
+    private Path dataFilePath(String location) {
+        return cacheDir.resolve(dataFileName(location));
+    }
+
+    private static String dataFileName(String location) {
+        return Hashing.sha256().hashString(location, StandardCharsets.UTF_8).toString() + DATA_FILE_SUFFIX;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    private static void increaseMissCounter() {
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_ICEBERG_METADATA_DISK_CACHE_MISS.increase(1L);
+        }
+    }
+}
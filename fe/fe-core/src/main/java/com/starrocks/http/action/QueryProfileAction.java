@@ -40,6 +40,7 @@ import com.starrocks.http.ActionController;
 import com.starrocks.http.BaseRequest;
 import com.starrocks.http.BaseResponse;
 import com.starrocks.http.IllegalArgException;
+import com.starrocks.qe.QeProcessorImpl;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
 
@@ -63,6 +64,9 @@ public class QueryProfileAction extends WebBaseAction {
         }
 
         String queryProfileStr = ProfileManager.getInstance().getProfile(queryId);
+        if (queryProfileStr == null) {
+            queryProfileStr = QeProcessorImpl.INSTANCE.getRunningQueryProfile(queryId);
+        }
         if (queryProfileStr != null) {
             appendCopyButton(response.getContent());
             appendQueryProfile(response.getContent(), queryProfileStr);
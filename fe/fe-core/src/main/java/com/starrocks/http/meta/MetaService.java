@@ -45,11 +45,14 @@ import com.starrocks.leader.MetaHelper;
 import com.starrocks.persist.MetaCleaner;
 import com.starrocks.persist.Storage;
 import com.starrocks.persist.StorageInfo;
+import com.starrocks.persist.metablock.SRMetaBlockException;
+import com.starrocks.persist.metablock.SRMetaBlockSectionDelta;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.staros.StarMgrServer;
 import com.starrocks.system.Frontend;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -62,8 +65,11 @@ public class MetaService {
     private static final int TIMEOUT_SECOND = 10;
 
     public static class ImageAction extends MetaBaseAction {
+        private static final Logger LOG = LogManager.getLogger(ImageAction.class);
+
         private static final String VERSION = "version";
         private static final String SUBDIR = "subdir";
+        private static final String BASE = "base";
 
         public ImageAction(ActionController controller, File imageDir) {
             super(controller, imageDir);
@@ -97,6 +103,18 @@ public class MetaService {
                 return;
             }
 
+            // if base is given, only the delta from the base image is served
+            String baseStr = request.getSingleParameter(BASE);
+            if (!Strings.isNullOrEmpty(baseStr)) {
+                File deltaFile = Storage.getDeltaImageFile(realDir, version);
+                if (!isDeltaFrom(deltaFile, checkLongParam(baseStr))) {
+                    writeResponse(request, response, HttpResponseStatus.NOT_FOUND);
+                    return;
+                }
+                writeFileResponse(request, response, deltaFile);
+                return;
+            }
+
             File imageFile = Storage.getImageFile(realDir, version);
             if (!imageFile.exists()) {
                 writeResponse(request, response, HttpResponseStatus.NOT_FOUND);
@@ -105,6 +123,18 @@ public class MetaService {
 
             writeFileResponse(request, response, imageFile);
         }
+
+        private static boolean isDeltaFrom(File deltaFile, long baseVersion) {
+            if (!deltaFile.exists()) {
+                return false;
+            }
+            try {
+                return SRMetaBlockSectionDelta.getBaseVersion(deltaFile) == baseVersion;
+            } catch (IOException | SRMetaBlockException e) {
+                LOG.warn("invalid image delta {}", deltaFile, e);
+                return false;
+            }
+        }
     }
 
     public static class InfoAction extends MetaBaseAction {
@@ -172,6 +202,7 @@ public class MetaService {
         private static final String VERSION = "version";
         private static final String PORT = "port";
         private static final String SUBDIR = "subdir";
+        private static final String BASE = "base";
 
         public PutAction(ActionController controller, File imageDir) {
             super(controller, imageDir);
@@ -241,10 +272,17 @@ public class MetaService {
 
             String realDir = GlobalStateMgr.getCurrentState().getImageDir() + subDirStr;
             File dir = new File(realDir);
+            boolean deltaApplied = false;
+            String baseStr = request.getSingleParameter(BASE);
+            if (!Strings.isNullOrEmpty(baseStr)) {
+                deltaApplied = downloadAndApplyDelta(url, checkLongParam(baseStr), dir, filename);
+            }
             try {
-                OutputStream out = MetaHelper.getOutputStream(filename, dir);
-                MetaHelper.getRemoteFile(url, TIMEOUT_SECOND * 1000, out);
-                MetaHelper.complete(filename, dir);
+                if (!deltaApplied) {
+                    OutputStream out = MetaHelper.getOutputStream(filename, dir);
+                    MetaHelper.getRemoteFile(url, TIMEOUT_SECOND * 1000, out);
+                    MetaHelper.complete(filename, dir);
+                }
                 writeResponse(request, response);
             } catch (FileNotFoundException e) {
                 LOG.warn("file not found. file: {}", filename, e);
@@ -266,6 +304,33 @@ public class MetaService {
                 LOG.error("Follower/Observer delete old image file fail.", e);
             }
         }
+
+        /**
+         * Download the delta from the base image and rebuild the image with it.
+         * Returns false if the base image doesn't exist locally or anything goes wrong, then the whole image
+         * should be downloaded.
+         */
+        private static boolean downloadAndApplyDelta(String imageUrl, long baseVersion, File dir, String filename) {
+            File baseImage = Storage.getImageFile(dir, baseVersion);
+            if (baseVersion <= 0 || !baseImage.exists()) {
+                return false;
+            }
+            String url = imageUrl + "&base=" + baseVersion;
+            String deltaFilename = Storage.DELTA_IMAGE + filename.substring(Storage.IMAGE.length());
+            File deltaFile = MetaHelper.getPartFile(deltaFilename, dir);
+            try {
+                MetaHelper.getRemoteFile(url, TIMEOUT_SECOND * 1000, MetaHelper.getOutputStream(deltaFilename, dir));
+                SRMetaBlockSectionDelta.apply(baseImage, deltaFile, MetaHelper.getPartFile(filename, dir));
+                MetaHelper.complete(filename, dir);
+                LOG.info("rebuilt {} from {} and delta of {} bytes", filename, baseImage.getName(), deltaFile.length());
+                return true;
+            } catch (IOException | SRMetaBlockException e) {
+                LOG.warn("failed to apply image delta from {}, will download the whole image", url, e);
+                return false;
+            } finally {
+                FileUtils.deleteQuietly(deltaFile);
+            }
+        }
     }
 
     public static class JournalIdAction extends MetaBaseAction {
@@ -39,6 +39,7 @@ import com.starrocks.http.ActionController;
 import com.starrocks.http.BaseRequest;
 import com.starrocks.http.BaseResponse;
 import com.starrocks.http.IllegalArgException;
+import com.starrocks.qe.QeProcessorImpl;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponseStatus;
 
@@ -65,6 +66,9 @@ public class ProfileAction extends RestBaseAction {
             return;
         }
         String queryProfileStr = ProfileManager.getInstance().getProfile(queryId);
+        if (queryProfileStr == null) {
+            queryProfileStr = QeProcessorImpl.INSTANCE.getRunningQueryProfile(queryId);
+        }
         if (queryProfileStr != null) {
             response.getContent().append(queryProfileStr);
             sendResult(request, response);
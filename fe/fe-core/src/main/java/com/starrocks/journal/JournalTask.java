@@ -34,9 +34,12 @@ public class JournalTask implements Future<Boolean> {
     protected CountDownLatch latch;
     // JournalWrite will commit immediately if received a log with betterCommitBeforeTime > now
     protected long betterCommitBeforeTime;
+    // used to measure how long the task waits in the journal queue
+    private final long createTimeNano;
 
     public JournalTask(DataOutputBuffer buffer, long maxWaitIntervalMs) {
         this.buffer = buffer;
+        this.createTimeNano = System.nanoTime();
         this.latch = new CountDownLatch(1);
         if (maxWaitIntervalMs > 0) {
             this.betterCommitBeforeTime = System.currentTimeMillis() + maxWaitIntervalMs;
@@ -59,6 +62,10 @@ public class JournalTask implements Future<Boolean> {
         return betterCommitBeforeTime;
     }
 
+    public long getCreateTimeNano() {
+        return createTimeNano;
+    }
+
     public long estimatedSizeByte() {
         // journal id + buffer
         return Long.SIZE / 8 + (long) buffer.getLength();
@@ -24,16 +24,27 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An independent thread to write journals by batch asynchronously.
  * Each thread that needs to write a log can put the log in a blocking queue, while JournalWriter constantly gets as
  * many logs as possible from the queue and write them all in one batch.
  * After committing, JournalWriter will notify the caller thread for consistency.
+ *
+ * If metadata_journal_enable_pipeline is set, the work is split into two threads: a batcher thread collects the next
+ * batch from the queue while a committer thread is committing the current one (group commit). The batch limits adapt
+ * to the commit latency, see {@link #adjustBatchLimits(long)}. Journals are still committed one batch after another,
+ * so journal ids become visible in order.
  */
 public class JournalWriter {
     public static final Logger LOG = LogManager.getLogger(JournalWriter.class);
+    // poll interval of the batcher thread while the committer thread is busy
+    private static final long PIPELINE_POLL_INTERVAL_MS = 1;
+    private static final long MIN_ADAPTIVE_BATCH_BYTES = 1024L * 1024L;
     // other threads can put log to this queue by calling Editlog.logEdit()
     private BlockingQueue<JournalTask> journalQueue;
     private Journal journal;
@@ -53,6 +64,19 @@ public class JournalWriter {
     private long startTimeNano;
     // batch size in bytes
     private long uncommittedEstimatedBytes;
+    // start and end time of batchWriteCommit()
+    private long commitStartTimeNano;
+    private long commitEndTimeNano;
+
+    // belows are variables of the pipelined mode
+    // batches collected by the batcher thread and waiting to be committed by the committer thread
+    private final BlockingQueue<PendingBatch> pendingBatches = new ArrayBlockingQueue<>(1);
+    // number of batches handed over to the committer thread and not written yet, counted before the hand-over so
+    // that the batcher never sees an idle committer while a batch is on its way
+    protected final AtomicInteger inFlightBatches = new AtomicInteger(0);
+    // adaptive batch limits, never exceed metadata_journal_max_batch_cnt & metadata_journal_max_batch_size_mb
+    protected int adaptiveBatchCnt = Integer.MAX_VALUE;
+    protected long adaptiveBatchBytes = Long.MAX_VALUE;
 
     public JournalWriter(Journal journal, BlockingQueue<JournalTask> journalQueue) {
         this.journal = journal;
@@ -70,6 +94,10 @@ public class JournalWriter {
     public void startDaemon() {
         // ensure init() is called.
         assert (nextVisibleJournalId > 0);
+        if (Config.metadata_journal_enable_pipeline) {
+            startPipelineDaemons();
+            return;
+        }
         Daemon d = new Daemon("JournalWriter", 0L) {
             @Override
             protected void runOneCycle() {
@@ -87,6 +115,39 @@ public class JournalWriter {
         d.start();
     }
 
+    private void startPipelineDaemons() {
+        LOG.info("start journal writer in pipelined group commit mode");
+        Daemon committer = new Daemon("JournalCommitter", 0L) {
+            @Override
+            protected void runOneCycle() {
+                try {
+                    commitOneBatch();
+                } catch (InterruptedException e) {
+                    String msg = "got interrupted exception when trying to commit one batch, will exit now.";
+                    LOG.error(msg, e);
+                    Util.stdoutWithTime(msg);
+                    System.exit(-1);
+                }
+            }
+        };
+        committer.start();
+
+        Daemon batcher = new Daemon("JournalWriter", 0L) {
+            @Override
+            protected void runOneCycle() {
+                try {
+                    collectOneBatch();
+                } catch (InterruptedException e) {
+                    String msg = "got interrupted exception when trying to collect one batch, will exit now.";
+                    LOG.error(msg, e);
+                    Util.stdoutWithTime(msg);
+                    System.exit(-1);
+                }
+            }
+        };
+        batcher.start();
+    }
+
     protected void writeOneBatch() throws InterruptedException {
         // waiting if necessary until an element becomes available
         currentJournal = journalQueue.take();
@@ -99,6 +160,7 @@ public class JournalWriter {
             while (true) {
                 journal.batchWriteAppend(nextJournalId, currentJournal.getBuffer());
                 currentBatchTasks.add(currentJournal);
+                updateQueueWaitMetric(currentJournal);
                 nextJournalId += 1;
 
                 if (shouldCommitNow()) {
@@ -112,33 +174,177 @@ public class JournalWriter {
             LOG.warn("failed to write batch, will abort current journal {} and commit", currentJournal, e);
             abortJournalTask(currentJournal, e.getMessage());
         } finally {
+            commitCurrentBatch(nextJournalId);
+        }
+
+        rollJournalAfterBatch();
+
+        updateBatchMetrics();
+    }
+
+    /**
+     * Pipelined mode, run by the batcher thread.
+     * Collect tasks from the queue into one batch and hand it over to the committer thread. As long as the committer
+     * thread is busy with the previous batch, keep waiting for more tasks until the batch limits are reached.
+     */
+    protected void collectOneBatch() throws InterruptedException {
+        JournalTask task = journalQueue.take();
+        int batchCntLimit = getBatchCntLimit();
+        long batchBytesLimit = getBatchBytesLimit();
+        PendingBatch batch = new PendingBatch();
+
+        while (true) {
+            batch.tasks.add(task);
+            batch.estimatedBytes += task.estimatedSizeByte();
+            updateQueueWaitMetric(task);
+
+            if (task.getBetterCommitBeforeTime() > 0 && System.currentTimeMillis() >= task.getBetterCommitBeforeTime()) {
+                LOG.warn("journal expect commit before {} is delayed, will commit now", task.getBetterCommitBeforeTime());
+                break;
+            }
+            if (batch.tasks.size() >= batchCntLimit || batch.estimatedBytes >= batchBytesLimit) {
+                break;
+            }
+
+            task = journalQueue.poll();
+            while (task == null && isCommitterBusy()) {
+                task = journalQueue.poll(PIPELINE_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+            if (task == null) {
+                // no more journal in queue and the committer is idle
+                break;
+            }
+        }
+
+        inFlightBatches.incrementAndGet();
+        try {
+            pendingBatches.put(batch);
+        } catch (InterruptedException e) {
+            inFlightBatches.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isCommitterBusy() {
+        return inFlightBatches.get() > 0;
+    }
+
+    /**
+     * Pipelined mode, run by the committer thread.
+     * Write and commit the next batch collected by the batcher thread, then adjust the batch limits.
+     */
+    protected void commitOneBatch() throws InterruptedException {
+        PendingBatch batch = pendingBatches.take();
+        try {
+            int next = 0;
+            while (next < batch.tasks.size()) {
+                next = writePendingTasks(batch.tasks, next);
+            }
+        } finally {
+            inFlightBatches.decrementAndGet();
+        }
+    }
+
+    /**
+     * Write the tasks starting from the given index in one batch, return the index of the first task not written.
+     * Same as writeOneBatch(), a failed append aborts that journal and commits the ones appended before it, the
+     * remaining tasks are left to the next batch.
+     */
+    private int writePendingTasks(List<JournalTask> tasks, int from) throws InterruptedException {
+        long nextJournalId = nextVisibleJournalId;
+        initBatch();
+        try {
+            journal.batchWriteBegin();
+        } catch (JournalException e) {
+            LOG.warn("failed to begin batch, will abort {} journals", tasks.size() - from, e);
+            for (int i = from; i < tasks.size(); i++) {
+                abortJournalTask(tasks.get(i), e.getMessage());
+            }
+            return tasks.size();
+        }
+
+        int next = from;
+        while (next < tasks.size()) {
+            currentJournal = tasks.get(next++);
             try {
-                // commit
-                journal.batchWriteCommit();
-                LOG.debug("batch write commit success, from {} - {}", nextVisibleJournalId, nextJournalId);
-                nextVisibleJournalId = nextJournalId;
-                markCurrentBatchSucceed();
+                journal.batchWriteAppend(nextJournalId, currentJournal.getBuffer());
             } catch (JournalException e) {
-                // abort
-                LOG.warn("failed to commit batch, will abort current {} journals.",
-                        currentBatchTasks.size(), e);
-                try {
-                    journal.batchWriteAbort();
-                } catch (JournalException e2) {
-                    LOG.warn("failed to abort batch, will ignore and continue.", e);
-                }
-                abortCurrentBatch(e.getMessage());
+                LOG.warn("failed to write batch, will abort current journal {} and commit", currentJournal, e);
+                abortJournalTask(currentJournal, e.getMessage());
+                break;
             }
+            currentBatchTasks.add(currentJournal);
+            uncommittedEstimatedBytes += currentJournal.estimatedSizeByte();
+            nextJournalId += 1;
         }
 
+        commitCurrentBatch(nextJournalId);
+
+        adjustBatchLimits((commitEndTimeNano - commitStartTimeNano) / 1000000);
+
         rollJournalAfterBatch();
 
         updateBatchMetrics();
+        return next;
+    }
+
+    private void commitCurrentBatch(long nextJournalId) throws InterruptedException {
+        commitStartTimeNano = System.nanoTime();
+        try {
+            // commit
+            journal.batchWriteCommit();
+            LOG.debug("batch write commit success, from {} - {}", nextVisibleJournalId, nextJournalId);
+            nextVisibleJournalId = nextJournalId;
+            markCurrentBatchSucceed();
+        } catch (JournalException e) {
+            // abort
+            LOG.warn("failed to commit batch, will abort current {} journals.",
+                    currentBatchTasks.size(), e);
+            try {
+                journal.batchWriteAbort();
+            } catch (JournalException e2) {
+                LOG.warn("failed to abort batch, will ignore and continue.", e);
+            }
+            abortCurrentBatch(e.getMessage());
+        } finally {
+            commitEndTimeNano = System.nanoTime();
+        }
+    }
+
+    /**
+     * Shrink the batch limits by half if a batch close to the limits takes longer than
+     * metadata_journal_batch_target_latency_ms to commit, otherwise grow them by double.
+     * A slow commit of a small batch is not caused by the batch size, so it leaves the limits unchanged.
+     */
+    protected void adjustBatchLimits(long commitLatencyMs) {
+        int batchCntLimit = getBatchCntLimit();
+        long batchBytesLimit = getBatchBytesLimit();
+        if (commitLatencyMs > Config.metadata_journal_batch_target_latency_ms) {
+            if (currentBatchTasks.size() * 2L >= batchCntLimit || uncommittedEstimatedBytes * 2 >= batchBytesLimit) {
+                adaptiveBatchCnt = Math.max(1, batchCntLimit / 2);
+                adaptiveBatchBytes = Math.max(MIN_ADAPTIVE_BATCH_BYTES, batchBytesLimit / 2);
+                LOG.info("journal batch commit takes {}ms, shrink batch limits to {} journals, {} bytes",
+                        commitLatencyMs, adaptiveBatchCnt, adaptiveBatchBytes);
+            }
+        } else {
+            adaptiveBatchCnt = (int) Math.min(Integer.MAX_VALUE, batchCntLimit * 2L);
+            adaptiveBatchBytes = batchBytesLimit > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : batchBytesLimit * 2;
+        }
+    }
+
+    protected int getBatchCntLimit() {
+        return Math.min(adaptiveBatchCnt, Config.metadata_journal_max_batch_cnt);
+    }
+
+    protected long getBatchBytesLimit() {
+        return Math.min(adaptiveBatchBytes, Config.metadata_journal_max_batch_size_mb * 1024L * 1024L);
     }
 
     private void initBatch() {
         startTimeNano = System.nanoTime();
         uncommittedEstimatedBytes = 0;
+        commitStartTimeNano = 0;
+        commitEndTimeNano = 0;
         currentBatchTasks.clear();
     }
 
@@ -207,6 +413,10 @@ public class JournalWriter {
             MetricRepo.HISTO_JOURNAL_WRITE_LATENCY.update((System.nanoTime() - startTimeNano) / 1000000);
             MetricRepo.HISTO_JOURNAL_WRITE_BATCH.update(currentBatchTasks.size());
             MetricRepo.HISTO_JOURNAL_WRITE_BYTES.update(uncommittedEstimatedBytes);
+            if (commitStartTimeNano > 0) {
+                MetricRepo.HISTO_JOURNAL_WRITE_SERIALIZE_LATENCY.update((commitStartTimeNano - startTimeNano) / 1000000);
+                MetricRepo.HISTO_JOURNAL_WRITE_COMMIT_LATENCY.update((commitEndTimeNano - commitStartTimeNano) / 1000000);
+            }
             MetricRepo.GAUGE_STACKED_JOURNAL_NUM.setValue((long) journalQueue.size());
 
             for (JournalTask e : currentBatchTasks) {
@@ -218,6 +428,12 @@ public class JournalWriter {
         }
     }
 
+    private void updateQueueWaitMetric(JournalTask task) {
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_JOURNAL_WRITE_QUEUE_WAIT.update((System.nanoTime() - task.getCreateTimeNano()) / 1000000);
+        }
+    }
+
     private void rollJournalAfterBatch() {
         rollJournalCounter += currentBatchTasks.size();
         if (rollJournalCounter >= Config.edit_log_roll_num) {
@@ -235,4 +451,12 @@ public class JournalWriter {
             rollJournalCounter = 0;
         }
     }
+
+    /**
+     * A batch collected by the batcher thread in pipelined mode.
+     */
+    private static class PendingBatch {
+        private final List<JournalTask> tasks = new ArrayList<>();
+        private long estimatedBytes = 0;
+    }
 }
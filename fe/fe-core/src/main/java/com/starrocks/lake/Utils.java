@@ -94,6 +94,16 @@ public class Utils {
     public static void publishVersion(@NotNull List<Tablet> tablets, long txnId, long baseVersion, long newVersion, Map<Long,
             Double> compactionScores)
             throws NoAliveBackendException, RpcException {
+        publishVersion(tablets, Lists.newArrayList(txnId), baseVersion, newVersion, compactionScores);
+    }
+
+    /**
+     * Publish the consecutive transactions |txnIds| from |baseVersion| to |newVersion| in one request per backend,
+     * |newVersion - baseVersion| must be the number of transactions.
+     */
+    public static void publishVersion(@NotNull List<Tablet> tablets, List<Long> txnIds, long baseVersion,
+                                      long newVersion, Map<Long, Double> compactionScores)
+            throws NoAliveBackendException, RpcException {
         Map<Long, List<Long>> beToTablets = new HashMap<>();
         for (Tablet tablet : tablets) {
             Long beId = Utils.chooseBackend((LakeTablet) tablet);
@@ -102,7 +112,6 @@ public class Utils {
             }
             beToTablets.computeIfAbsent(beId, k -> Lists.newArrayList()).add(tablet.getId());
         }
-        List<Long> txnIds = Lists.newArrayList(txnId);
         SystemInfoService systemInfoService = GlobalStateMgr.getCurrentSystemInfo();
         List<Future<PublishVersionResponse>> responseList = Lists.newArrayListWithCapacity(beToTablets.size());
         List<Backend> backendList = Lists.newArrayListWithCapacity(beToTablets.size());
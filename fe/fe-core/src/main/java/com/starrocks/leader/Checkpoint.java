@@ -41,13 +41,17 @@ import com.starrocks.journal.Journal;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.persist.MetaCleaner;
 import com.starrocks.persist.Storage;
+import com.starrocks.persist.metablock.SRMetaBlockException;
+import com.starrocks.persist.metablock.SRMetaBlockSectionDelta;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.staros.StarMgrServer;
 import com.starrocks.system.Frontend;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.output.NullOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -112,6 +116,10 @@ public class Checkpoint extends LeaderDaemon {
             return;
         }
 
+        // followers having the previous image only need to download the delta
+        boolean hasDelta = Config.enable_follower_image_delta_download &&
+                writeImageDelta(imageVersion, checkPointVersion);
+
         // push image file to all the other non master nodes
         // DO NOT get other nodes from HaProtocol, because node may not in bdbje replication group yet.
         List<Frontend> allFrontends = GlobalStateMgr.getServingState().getFrontends(null);
@@ -129,6 +137,9 @@ public class Checkpoint extends LeaderDaemon {
 
                 String url = "http://" + host + ":" + port + "/put?version=" + checkPointVersion
                         + "&port=" + port + "&subdir=" + subDir;
+                if (hasDelta) {
+                    url += "&base=" + imageVersion;
+                }
                 LOG.info("Put image:{}", url);
 
                 try {
@@ -203,6 +214,24 @@ public class Checkpoint extends LeaderDaemon {
         }
     }
 
+    /**
+     * Write the changed sections of the full image just saved, to be downloaded by the followers
+     * having the base image. It is derived from the full image, and is never loaded by the leader.
+     */
+    private boolean writeImageDelta(long baseVersion, long version) {
+        File dir = new File(imageDir);
+        File deltaFile = Storage.getDeltaImageFile(dir, version);
+        try {
+            return SRMetaBlockSectionDelta.write(Storage.getImageFile(dir, baseVersion), baseVersion,
+                    Storage.getImageFile(dir, version), deltaFile);
+        } catch (IOException | SRMetaBlockException e) {
+            LOG.warn("failed to write image delta from image.{} to image.{}, will push the whole image",
+                    baseVersion, version, e);
+            FileUtils.deleteQuietly(deltaFile);
+            return false;
+        }
+    }
+
     private boolean replayAndGenerateGlobalStateMgrImage(long checkPointVersion) {
         assert belongToGlobalStateMgr == true;
         long replayedJournalId = -1;
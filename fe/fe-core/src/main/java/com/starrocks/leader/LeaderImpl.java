@@ -127,6 +127,7 @@ import com.starrocks.thrift.TTableMeta;
 import com.starrocks.thrift.TTabletInfo;
 import com.starrocks.thrift.TTabletMeta;
 import com.starrocks.thrift.TTaskType;
+import com.starrocks.transaction.DatabaseTransactionMgr;
 import com.starrocks.transaction.TabletCommitInfo;
 import com.starrocks.transaction.TabletFailInfo;
 import com.starrocks.transaction.TransactionState;
@@ -598,6 +599,8 @@ public class LeaderImpl {
         if (txnState != null) {
             txnState.updatePublishTaskFinishTime();
         }
+        // try to finish the transaction without waiting for the next poll
+        DatabaseTransactionMgr.wakeupPublishVersionDaemon();
 
         if (request.getTask_status().getStatus_code() != TStatusCode.OK) {
             // not remove the task from queue and be will retry
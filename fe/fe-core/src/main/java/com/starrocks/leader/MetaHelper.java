@@ -74,7 +74,7 @@ public class MetaHelper {
 
     // rename the .PART_SUFFIX file to filename
     public static File complete(String filename, File dir) throws IOException {
-        File file = new File(dir, filename + MetaHelper.PART_SUFFIX);
+        File file = getPartFile(filename, dir);
         File newFile = new File(dir, filename);
         if (!file.renameTo(newFile)) {
             throw new IOException("Complete file" + filename + " failed");
@@ -84,10 +84,14 @@ public class MetaHelper {
 
     public static OutputStream getOutputStream(String filename, File dir)
             throws FileNotFoundException {
-        File file = new File(dir, filename + MetaHelper.PART_SUFFIX);
+        File file = getPartFile(filename, dir);
         return new FileOutputStream(file);
     }
 
+    public static File getPartFile(String filename, File dir) {
+        return new File(dir, filename + MetaHelper.PART_SUFFIX);
+    }
+
     // download file from remote node
     public static void getRemoteFile(String urlStr, int timeout, OutputStream out)
             throws IOException {
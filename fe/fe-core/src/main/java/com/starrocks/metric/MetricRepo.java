@@ -48,6 +48,8 @@ import com.starrocks.common.DdlException;
 import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.KafkaUtil;
+import com.starrocks.connector.iceberg.io.IcebergCachingFileIO;
+import com.starrocks.connector.iceberg.io.IcebergMetadataDiskCache;
 import com.starrocks.load.EtlJobType;
 import com.starrocks.load.loadv2.JobState;
 import com.starrocks.load.loadv2.LoadManager;
@@ -72,6 +74,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -94,10 +97,18 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_QUERY_TIMEOUT;
     public static LongCounterMetric COUNTER_QUERY_SUCCESS;
     public static LongCounterMetric COUNTER_SLOW_QUERY;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_HIT;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_MISS;
+    public static LongCounterMetric COUNTER_ICEBERG_METADATA_MEMORY_CACHE_HIT;
+    public static LongCounterMetric COUNTER_ICEBERG_METADATA_MEMORY_CACHE_MISS;
+    public static LongCounterMetric COUNTER_ICEBERG_METADATA_DISK_CACHE_HIT;
+    public static LongCounterMetric COUNTER_ICEBERG_METADATA_DISK_CACHE_MISS;
 
     public static LongCounterMetric COUNTER_QUERY_QUEUE_PENDING;
     public static LongCounterMetric COUNTER_QUERY_QUEUE_TOTAL;
     public static LongCounterMetric COUNTER_QUERY_QUEUE_TIMEOUT;
+    // lane name -> metrics of the lane, created when a query is queued in the lane for the first time
+    private static final Map<String, QueryQueueLaneMetrics> QUERY_QUEUE_LANE_METRICS = new ConcurrentHashMap<>();
 
     public static LongCounterMetric COUNTER_LOAD_ADD;
     public static LongCounterMetric COUNTER_LOAD_FINISHED;
@@ -120,6 +131,11 @@ public final class MetricRepo {
     public static Histogram HISTO_JOURNAL_WRITE_LATENCY;
     public static Histogram HISTO_JOURNAL_WRITE_BATCH;
     public static Histogram HISTO_JOURNAL_WRITE_BYTES;
+    public static Histogram HISTO_JOURNAL_WRITE_QUEUE_WAIT;
+    public static Histogram HISTO_JOURNAL_WRITE_SERIALIZE_LATENCY;
+    public static Histogram HISTO_JOURNAL_WRITE_COMMIT_LATENCY;
+    public static Histogram HISTO_TXN_PUBLISH_LATENCY;
+    public static Histogram HISTO_TXN_PUBLISH_BATCH;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -251,6 +267,27 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(scheduledTabletNum);
 
+        // iceberg metadata cache bytes
+        GaugeMetric<Long> icebergMetadataMemoryCacheBytes = new GaugeMetric<Long>(
+                "iceberg_metadata_cache_bytes", MetricUnit.BYTES, "bytes of cached iceberg metadata files") {
+            @Override
+            public Long getValue() {
+                return IcebergCachingFileIO.ContentCache.getMemoryUsedBytes();
+            }
+        };
+        icebergMetadataMemoryCacheBytes.addLabel(new MetricLabel("tier", "memory"));
+        STARROCKS_METRIC_REGISTER.addMetric(icebergMetadataMemoryCacheBytes);
+        GaugeMetric<Long> icebergMetadataDiskCacheBytes = new GaugeMetric<Long>(
+                "iceberg_metadata_cache_bytes", MetricUnit.BYTES, "bytes of cached iceberg metadata files") {
+            @Override
+            public Long getValue() {
+                IcebergMetadataDiskCache diskCache = IcebergMetadataDiskCache.getInstance();
+                return diskCache == null ? 0L : diskCache.getUsedBytes();
+            }
+        };
+        icebergMetadataDiskCacheBytes.addLabel(new MetricLabel("tier", "disk"));
+        STARROCKS_METRIC_REGISTER.addMetric(icebergMetadataDiskCacheBytes);
+
         // routine load jobs
         RoutineLoadManager routineLoadManger = GlobalStateMgr.getCurrentState().getRoutineLoadManager();
         for (RoutineLoadJob.JobState state : RoutineLoadJob.JobState.values()) {
@@ -347,6 +384,28 @@ public final class MetricRepo {
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_SUCCESS);
         COUNTER_SLOW_QUERY = new LongCounterMetric("slow_query", MetricUnit.REQUESTS, "total slow query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_SLOW_QUERY);
+        COUNTER_PLAN_CACHE_HIT = new LongCounterMetric("plan_cache_hit", MetricUnit.REQUESTS,
+                "total query planned from plan cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_HIT);
+        COUNTER_PLAN_CACHE_MISS = new LongCounterMetric("plan_cache_miss", MetricUnit.REQUESTS,
+                "total query missed plan cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_MISS);
+        COUNTER_ICEBERG_METADATA_MEMORY_CACHE_HIT = new LongCounterMetric("iceberg_metadata_cache_hit",
+                MetricUnit.REQUESTS, "total iceberg metadata file reads served by the cache");
+        COUNTER_ICEBERG_METADATA_MEMORY_CACHE_HIT.addLabel(new MetricLabel("tier", "memory"));
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ICEBERG_METADATA_MEMORY_CACHE_HIT);
+        COUNTER_ICEBERG_METADATA_MEMORY_CACHE_MISS = new LongCounterMetric("iceberg_metadata_cache_miss",
+                MetricUnit.REQUESTS, "total iceberg metadata file reads missed the cache");
+        COUNTER_ICEBERG_METADATA_MEMORY_CACHE_MISS.addLabel(new MetricLabel("tier", "memory"));
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ICEBERG_METADATA_MEMORY_CACHE_MISS);
+        COUNTER_ICEBERG_METADATA_DISK_CACHE_HIT = new LongCounterMetric("iceberg_metadata_cache_hit",
+                MetricUnit.REQUESTS, "total iceberg metadata file reads served by the cache");
+        COUNTER_ICEBERG_METADATA_DISK_CACHE_HIT.addLabel(new MetricLabel("tier", "disk"));
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ICEBERG_METADATA_DISK_CACHE_HIT);
+        COUNTER_ICEBERG_METADATA_DISK_CACHE_MISS = new LongCounterMetric("iceberg_metadata_cache_miss",
+                MetricUnit.REQUESTS, "total iceberg metadata file reads missed the cache");
+        COUNTER_ICEBERG_METADATA_DISK_CACHE_MISS.addLabel(new MetricLabel("tier", "disk"));
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ICEBERG_METADATA_DISK_CACHE_MISS);
         COUNTER_QUERY_QUEUE_PENDING = new LongCounterMetric("query_queue_pending", MetricUnit.REQUESTS,
                 "total pending query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_QUEUE_PENDING);
@@ -409,6 +468,16 @@ public final class MetricRepo {
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "batch"));
         HISTO_JOURNAL_WRITE_BYTES =
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "bytes"));
+        HISTO_JOURNAL_WRITE_QUEUE_WAIT =
+                METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "queue", "wait", "ms"));
+        HISTO_JOURNAL_WRITE_SERIALIZE_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "serialize", "latency", "ms"));
+        HISTO_JOURNAL_WRITE_COMMIT_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "commit", "latency", "ms"));
+        HISTO_TXN_PUBLISH_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("txn", "publish", "latency", "ms"));
+        HISTO_TXN_PUBLISH_BATCH =
+                METRIC_REGISTER.histogram(MetricRegistry.name("txn", "publish", "batch"));
 
         // init system metrics
         initSystemMetrics();
@@ -712,5 +781,9 @@ public final class MetricRepo {
         init();
         STARROCKS_METRIC_REGISTER.addMetric(metric);
     }
+
+    public static QueryQueueLaneMetrics getQueryQueueLaneMetrics(String lane) {
+        return QUERY_QUEUE_LANE_METRICS.computeIfAbsent(lane, QueryQueueLaneMetrics::new);
+    }
 }
 
@@ -0,0 +1,47 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.metric;
+
+import com.starrocks.metric.Metric.MetricUnit;
+
+/**
+ * Metrics of a lane of the query queue, labeled by the name of the lane.
+ */
+public final class QueryQueueLaneMetrics {
+    private static final String LABEL_LANE = "lane";
+
+    public final LongCounterMetric counterPending;
+    public final LongCounterMetric counterTotal;
+    public final LongCounterMetric counterTimeout;
+    public final LongCounterMetric counterWaitTimeMs;
+
+    QueryQueueLaneMetrics(String lane) {
+        counterPending = createCounter(lane, "query_queue_lane_pending", MetricUnit.REQUESTS,
+                "total pending query of a query queue lane");
+        counterTotal = createCounter(lane, "query_queue_lane_total", MetricUnit.REQUESTS,
+                "total history queued query of a query queue lane");
+        counterTimeout = createCounter(lane, "query_queue_lane_timeout", MetricUnit.REQUESTS,
+                "total history query for timeout in a query queue lane");
+        counterWaitTimeMs = createCounter(lane, "query_queue_lane_wait_time_ms", MetricUnit.MILLISECONDS,
+                "total pending time of the history queued query of a query queue lane");
+    }
+
+    private static LongCounterMetric createCounter(String lane, String name, MetricUnit unit, String description) {
+        LongCounterMetric counter = new LongCounterMetric(name, unit, description);
+        counter.addLabel(new MetricLabel(LABEL_LANE, lane));
+        MetricRepo.addMetric(counter);
+        return counter;
+    }
+}
@@ -0,0 +1,74 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.mysql;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of fixed-size direct buffers to send query results to the clients.
+ * Allocating a direct buffer is expensive and the memory is only reclaimed by GC, so the buffers are shared by all
+ * the connections and at most maxPooledNum idle buffers are kept.
+ */
+public class DirectBufferPool {
+    public static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_NUM = 1024;
+
+    private static final DirectBufferPool INSTANCE = new DirectBufferPool(BUFFER_SIZE, MAX_POOLED_NUM);
+
+    private final int bufferSize;
+    private final int maxPooledNum;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledNum = new AtomicInteger(0);
+
+    public DirectBufferPool(int bufferSize, int maxPooledNum) {
+        this.bufferSize = bufferSize;
+        this.maxPooledNum = maxPooledNum;
+    }
+
+    public static DirectBufferPool getInstance() {
+        return INSTANCE;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public ByteBuffer borrow() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooledNum.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (pooledNum.incrementAndGet() > maxPooledNum) {
+            pooledNum.decrementAndGet();
+            return;
+        }
+        buffers.offer(buffer);
+    }
+
+    public int getPooledNum() {
+        return pooledNum.get();
+    }
+}
@@ -35,6 +35,7 @@
 package com.starrocks.mysql;
 
 import com.starrocks.mysql.ssl.SSLChannel;
+import com.starrocks.qe.SerializedResultBatch;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -55,6 +56,8 @@ public class MysqlChannel {
     // MySQL packet header length
     protected static final int PACKET_HEADER_LEN = 4;
     protected static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    // max number of direct buffers sent by one gathering write in sendResultRows()
+    private static final int GATHER_BUFFER_NUM = 16;
     // logger for this class
     protected static final Logger LOG = LogManager.getLogger(MysqlChannel.class);
     // next sequence id to receive or send
@@ -246,6 +249,25 @@ public class MysqlChannel {
         channel.write(buffer);
     }
 
+    public void realNetSend(ByteBuffer[] buffers, int offset, int length) throws IOException {
+        long bufLen = 0;
+        for (int i = offset; i < offset + length; i++) {
+            bufLen += buffers[i].remaining();
+        }
+        long writeLen = 0;
+        while (writeLen < bufLen) {
+            long len = channel.write(buffers, offset, length);
+            if (len <= 0) {
+                break;
+            }
+            writeLen += len;
+        }
+        if (bufLen != writeLen) {
+            throw new IOException("Write mysql packet failed.[write=" + writeLen
+                    + ", needToWrite=" + bufLen + "]");
+        }
+    }
+
     public void flush() throws IOException {
         if (null == sendBuffer || sendBuffer.position() == 0) {
             // Nothing to send
@@ -320,6 +342,35 @@ public class MysqlChannel {
         accSequenceId();
     }
 
+    /**
+     * Send each row of the batch as a packet, the same as calling sendOnePacket() for the rows.
+     * The packets are assembled in pooled direct buffers and written by gathering writes, so the rows are copied
+     * only once and no object is created per row.
+     */
+    public void sendResultRows(SerializedResultBatch batch) throws IOException {
+        if (sslChannel != null) {
+            // SSLChannel encrypts the packets in its own buffer
+            for (int i = 0; i < batch.getNumRows(); i++) {
+                sendOnePacket(batch.getRow(i));
+            }
+            return;
+        }
+
+        // the packets buffered before must be sent first
+        flush();
+        GatheringPacketWriter writer = new GatheringPacketWriter();
+        try {
+            byte[] data = batch.getData();
+            for (int i = 0; i < batch.getNumRows(); i++) {
+                writer.writePacket(data, batch.getRowOffset(i), batch.getRowLength(i));
+            }
+            writer.sendBuffers();
+        } finally {
+            writer.release();
+        }
+        isSend = true;
+    }
+
     public void sendAndFlush(ByteBuffer packet) throws IOException {
         sendOnePacket(packet);
         flush();
@@ -340,4 +391,88 @@ public class MysqlChannel {
     public String getRemoteHostPortString() {
         return remoteHostPortString;
     }
+
+    /**
+     * Writes packets into up to GATHER_BUFFER_NUM direct buffers borrowed from {@link DirectBufferPool}, and sends
+     * them by one gathering write when they are full.
+     */
+    private class GatheringPacketWriter {
+        private final DirectBufferPool pool = DirectBufferPool.getInstance();
+        private final ByteBuffer[] buffers = new ByteBuffer[GATHER_BUFFER_NUM];
+        private int borrowedNum = 0;
+        // buffers[0, usedNum) hold the data to send
+        private int usedNum = 0;
+
+        // split the packet the same as sendOnePacket()
+        private void writePacket(byte[] data, int offset, int length) throws IOException {
+            while (length >= MAX_PHYSICAL_PACKET_LENGTH) {
+                writeHeader(MAX_PHYSICAL_PACKET_LENGTH);
+                write(data, offset, MAX_PHYSICAL_PACKET_LENGTH);
+                accSequenceId();
+                offset += MAX_PHYSICAL_PACKET_LENGTH;
+                length -= MAX_PHYSICAL_PACKET_LENGTH;
+            }
+            writeHeader(length);
+            write(data, offset, length);
+            accSequenceId();
+        }
+
+        private void writeHeader(int length) throws IOException {
+            ByteBuffer buffer = reserve(PACKET_HEADER_LEN);
+            buffer.put((byte) length);
+            buffer.put((byte) (length >> 8));
+            buffer.put((byte) (length >> 16));
+            buffer.put((byte) sequenceId);
+        }
+
+        private void write(byte[] data, int offset, int length) throws IOException {
+            while (length > 0) {
+                ByteBuffer buffer = reserve(1);
+                int len = Math.min(length, buffer.remaining());
+                buffer.put(data, offset, len);
+                offset += len;
+                length -= len;
+            }
+        }
+
+        // returns a buffer with at least minRemaining bytes free
+        private ByteBuffer reserve(int minRemaining) throws IOException {
+            if (usedNum > 0 && buffers[usedNum - 1].remaining() >= minRemaining) {
+                return buffers[usedNum - 1];
+            }
+            if (usedNum == buffers.length) {
+                sendBuffers();
+            }
+            if (usedNum == borrowedNum) {
+                buffers[borrowedNum++] = pool.borrow();
+            }
+            return buffers[usedNum++];
+        }
+
+        private void sendBuffers() throws IOException {
+            if (usedNum == 0) {
+                return;
+            }
+            for (int i = 0; i < usedNum; i++) {
+                buffers[i].flip();
+            }
+            try {
+                realNetSend(buffers, 0, usedNum);
+            } finally {
+                for (int i = 0; i < usedNum; i++) {
+                    buffers[i].clear();
+                }
+                usedNum = 0;
+            }
+        }
+
+        private void release() {
+            for (int i = 0; i < borrowedNum; i++) {
+                pool.release(buffers[i]);
+                buffers[i] = null;
+            }
+            borrowedNum = 0;
+            usedNum = 0;
+        }
+    }
 }
@@ -83,6 +83,15 @@ public enum MysqlColType {
         return code;
     }
 
+    public static MysqlColType fromCode(int code) {
+        for (MysqlColType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         return desc;
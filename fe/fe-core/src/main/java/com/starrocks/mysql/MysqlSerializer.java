@@ -41,6 +41,7 @@ import com.starrocks.catalog.Type;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 // used for serialize memory data to byte stream of MySQL protocol
 public class MysqlSerializer {
@@ -232,4 +233,219 @@ public class MysqlSerializer {
         // filler: two byte integer
         writeInt2(0);
     }
+
+    /**
+     * Transcode a row of text protocol, which is produced by BE, to a row of binary protocol.
+     * <p>
+     * This is done on FE for every row of a prepared statement. The values of numeric and temporal columns
+     * are decoded to strings and parsed again, the other values are copied as they are, because their binary
+     * encoding is the same length encoded string. The cost grows with the size of the result set, which is
+     * acceptable for the point queries prepared statements are used for. Large result sets should be queried
+     * by COM_QUERY, whose text rows are sent as they are.
+     *
+     * @param colTypes mysql types of the columns, the same as the types sent in the column definitions
+     * @param textRow  a row of length encoded strings, 0xFB for NULL
+     */
+    public void writeBinaryRow(List<MysqlColType> colTypes, ByteBuffer textRow) {
+        // packet header
+        writeInt1(0x00);
+        // NULL bitmap, with an offset of 2 bits
+        byte[] nullBitmap = new byte[(colTypes.size() + 7 + 2) / 8];
+        ByteBuffer buffer = textRow.duplicate();
+        for (int i = 0; i < colTypes.size(); i++) {
+            if ((buffer.get(buffer.position()) & 0xFF) == 251) {
+                buffer.get();
+                nullBitmap[(i + 2) / 8] |= (byte) (1 << ((i + 2) % 8));
+            } else {
+                int length = (int) MysqlProto.readVInt(buffer);
+                buffer.position(buffer.position() + length);
+            }
+        }
+        writeBytes(nullBitmap);
+
+        buffer = textRow.duplicate();
+        for (MysqlColType colType : colTypes) {
+            if ((buffer.get(buffer.position()) & 0xFF) == 251) {
+                buffer.get();
+                continue;
+            }
+            byte[] value = MysqlProto.readLenEncodedString(buffer);
+            if (isLenEncodedInBinary(colType)) {
+                writeVInt(value.length);
+                writeBytes(value);
+            } else {
+                writeBinaryValue(colType, new String(value, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Format a row using ProtocolBinary::ResultsetRow, which is used by the result set of COM_STMT_EXECUTE.
+     * https://dev.mysql.com/doc/internals/en/binary-protocol-resultset-row.html
+     *
+     * @param types  types of the columns, the same as the types sent in the column definitions
+     * @param values text values of the columns, null for NULL
+     */
+    public void writeBinaryRow(List<Type> types, List<String> values) {
+        // packet header
+        writeInt1(0x00);
+        // NULL bitmap, with an offset of 2 bits
+        byte[] nullBitmap = new byte[(types.size() + 7 + 2) / 8];
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == null) {
+                nullBitmap[(i + 2) / 8] |= (byte) (1 << ((i + 2) % 8));
+            }
+        }
+        writeBytes(nullBitmap);
+
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            if (value != null) {
+                writeBinaryValue(types.get(i).getMysqlResultType(), value);
+            }
+        }
+    }
+
+    private static boolean isLenEncodedInBinary(MysqlColType colType) {
+        switch (colType) {
+            case MYSQL_TYPE_TINY:
+            case MYSQL_TYPE_SHORT:
+            case MYSQL_TYPE_YEAR:
+            case MYSQL_TYPE_LONG:
+            case MYSQL_TYPE_INT24:
+            case MYSQL_TYPE_LONGLONG:
+            case MYSQL_TYPE_FLOAT:
+            case MYSQL_TYPE_DOUBLE:
+            case MYSQL_TYPE_DATE:
+            case MYSQL_TYPE_DATETIME:
+            case MYSQL_TYPE_TIMESTAMP:
+            case MYSQL_TYPE_TIME:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private void writeBinaryValue(MysqlColType colType, String value) {
+        switch (colType) {
+            case MYSQL_TYPE_TINY:
+                writeInt1((int) Long.parseLong(value));
+                break;
+            case MYSQL_TYPE_SHORT:
+            case MYSQL_TYPE_YEAR:
+                writeInt2((int) Long.parseLong(value));
+                break;
+            case MYSQL_TYPE_LONG:
+            case MYSQL_TYPE_INT24:
+                writeInt4((int) Long.parseLong(value));
+                break;
+            case MYSQL_TYPE_LONGLONG:
+                writeInt8(Long.parseLong(value));
+                break;
+            case MYSQL_TYPE_FLOAT:
+                writeInt4(Float.floatToIntBits((float) parseDouble(value)));
+                break;
+            case MYSQL_TYPE_DOUBLE:
+                writeInt8(Double.doubleToLongBits(parseDouble(value)));
+                break;
+            case MYSQL_TYPE_DATE:
+            case MYSQL_TYPE_DATETIME:
+            case MYSQL_TYPE_TIMESTAMP:
+                writeBinaryDateTime(colType == MysqlColType.MYSQL_TYPE_DATE, value);
+                break;
+            case MYSQL_TYPE_TIME:
+                writeBinaryTime(value);
+                break;
+            default:
+                writeLenEncodedString(value);
+                break;
+        }
+    }
+
+    private static double parseDouble(String value) {
+        // BE formats the special values of float and double as inf, -inf and nan
+        switch (value.toLowerCase()) {
+            case "inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(value);
+        }
+    }
+
+    // value is formatted as yyyy-MM-dd[ HH:mm:ss[.SSSSSS]]
+    private void writeBinaryDateTime(boolean isDate, String value) {
+        String[] dateAndTime = value.trim().split(" ");
+        String[] date = dateAndTime[0].split("-");
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (!isDate && dateAndTime.length > 1) {
+            String[] time = dateAndTime[1].split(":");
+            hour = Integer.parseInt(time[0]);
+            minute = Integer.parseInt(time[1]);
+            String[] secondAndFraction = time[2].split("\\.");
+            second = Integer.parseInt(secondAndFraction[0]);
+            if (secondAndFraction.length > 1) {
+                microsecond = parseMicrosecond(secondAndFraction[1]);
+            }
+        }
+
+        if (isDate) {
+            writeInt1(4);
+        } else if (microsecond == 0) {
+            writeInt1(7);
+        } else {
+            writeInt1(11);
+        }
+        writeInt2(Integer.parseInt(date[0]));
+        writeInt1(Integer.parseInt(date[1]));
+        writeInt1(Integer.parseInt(date[2]));
+        if (!isDate) {
+            writeInt1(hour);
+            writeInt1(minute);
+            writeInt1(second);
+            if (microsecond != 0) {
+                writeInt4(microsecond);
+            }
+        }
+    }
+
+    // value is formatted as [-]HH:mm:ss[.SSSSSS], the hours may be more than 24
+    private void writeBinaryTime(String value) {
+        String time = value.trim();
+        boolean negative = time.startsWith("-");
+        if (negative) {
+            time = time.substring(1);
+        }
+        String[] parts = time.split(":");
+        long hours = Long.parseLong(parts[0]);
+        int minutes = Integer.parseInt(parts[1]);
+        String[] secondAndFraction = parts[2].split("\\.");
+        int seconds = Integer.parseInt(secondAndFraction[0]);
+        int microseconds = secondAndFraction.length > 1 ? parseMicrosecond(secondAndFraction[1]) : 0;
+
+        writeInt1(microseconds == 0 ? 8 : 12);
+        writeInt1(negative ? 1 : 0);
+        writeInt4((int) (hours / 24));
+        writeInt1((int) (hours % 24));
+        writeInt1(minutes);
+        writeInt1(seconds);
+        if (microseconds != 0) {
+            writeInt4(microseconds);
+        }
+    }
+
+    private static int parseMicrosecond(String fraction) {
+        String digits = fraction.length() > 6 ? fraction.substring(0, 6) : fraction;
+        int value = Integer.parseInt(digits);
+        for (int i = digits.length(); i < 6; i++) {
+            value *= 10;
+        }
+        return value;
+    }
 }
@@ -71,6 +71,21 @@ public class NMysqlChannel extends MysqlChannel {
         isSend = true;
     }
 
+    @Override
+    public void realNetSend(ByteBuffer[] buffers, int offset, int length) throws IOException {
+        long bufLen = 0;
+        for (int i = offset; i < offset + length; i++) {
+            bufLen += buffers[i].remaining();
+        }
+        long writeLen = Channels.writeBlocking(conn.getSinkChannel(), buffers, offset, length);
+        if (bufLen != writeLen) {
+            throw new IOException("Write mysql packet failed.[write=" + writeLen
+                    + ", needToWrite=" + bufLen + "]");
+        }
+        Channels.flushBlocking(conn.getSinkChannel());
+        isSend = true;
+    }
+
     @Override
     public synchronized void close() {
         if (closed) {
@@ -61,6 +61,12 @@ public class MetaCleaner {
 
             // Iterate all file in metaDir
             for (File file : children) {
+                // Delete all image deltas older than the current image, the delta to the current image is kept for
+                // the followers that haven't downloaded it yet
+                if (file.getName().startsWith(Storage.DELTA_IMAGE + ".")) {
+                    deleteDeltaImage(file, currentVersion);
+                    continue;
+                }
                 String type = fileType(file);
                 if (type == null) {
                     continue;
@@ -85,6 +91,27 @@ public class MetaCleaner {
         }
     }
 
+    private void deleteDeltaImage(File file, long currentVersion) {
+        String filename = file.getName();
+        if (filename.endsWith(".part")) {
+            filename = filename.substring(0, filename.length() - ".part".length());
+        }
+        long version;
+        try {
+            version = Long.parseLong(filename.substring(filename.lastIndexOf('.') + 1));
+        } catch (NumberFormatException e) {
+            LOG.warn("unknown image delta file {}", file.getAbsoluteFile());
+            return;
+        }
+        if (version < currentVersion) {
+            if (file.delete()) {
+                LOG.info(file.getAbsoluteFile() + " deleted.");
+            } else {
+                LOG.warn(file.getAbsoluteFile() + " delete failed.");
+            }
+        }
+    }
+
     private String fileType(File file) throws IOException {
         String type = null;
         String filename = file.getName();
@@ -61,6 +61,9 @@ public class Storage {
 
     public static final String IMAGE_NEW = "image.ckpt";
     public static final String IMAGE = "image";
+    // the delta from the previous image, see SRMetaBlockSectionDelta.
+    // don't start with IMAGE, otherwise it would be taken as an image
+    public static final String DELTA_IMAGE = "delta_image";
     public static final String VERSION_FILE = "VERSION";
     public static final String ROLE_FILE = "ROLE";
 
@@ -287,6 +290,10 @@ public class Storage {
         return new File(dir, IMAGE + "." + version);
     }
 
+    public static File getDeltaImageFile(File dir, long version) {
+        return new File(dir, DELTA_IMAGE + "." + version);
+    }
+
     public final File getVersionFile() {
         return new File(metaDir, VERSION_FILE);
     }
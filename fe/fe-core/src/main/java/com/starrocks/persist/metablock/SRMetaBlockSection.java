@@ -0,0 +1,55 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.persist.metablock;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The location and checksum of a section in a sectioned image, see {@link SRMetaBlockSectionWriter}.
+ */
+public class SRMetaBlockSection {
+    @SerializedName(value = "n")
+    private String name;
+    @SerializedName(value = "o")
+    private long offset;
+    @SerializedName(value = "l")
+    private long length;
+    @SerializedName(value = "c")
+    private long checksum;
+
+    public SRMetaBlockSection(String name, long offset, long length, long checksum) {
+        this.name = name;
+        this.offset = offset;
+        this.length = length;
+        this.checksum = checksum;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,201 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.annotations.SerializedName;
+import com.starrocks.common.DdlException;
+import com.starrocks.persist.gson.GsonUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The difference between two sectioned images, which is used to ship a new image to followers without sending the
+ * sections they already have.
+ *
+ * A delta is itself a sectioned image. Its first section is the descriptor, which records the version of the base
+ * image and the sections of the target image in order, followed by the sections that are new or different from the
+ * base image. The follower rebuilds the target image by {@link #apply(File, File, File)}, and every section of the
+ * rebuilt image is verified against the checksum of the target image.
+ */
+public class SRMetaBlockSectionDelta {
+    private static final Logger LOG = LogManager.getLogger(SRMetaBlockSectionDelta.class);
+
+    public static final String DESCRIPTOR_SECTION = "__delta__";
+    // don't bother to write a delta if it's not much smaller than the target image
+    private static final double MAX_CHANGED_RATIO = 0.5;
+
+    @SerializedName(value = "b")
+    private long baseVersion;
+    // sections of the target image, in the order they are written
+    @SerializedName(value = "s")
+    private List<SRMetaBlockSection> sections;
+
+    private SRMetaBlockSectionDelta(long baseVersion, List<SRMetaBlockSection> sections) {
+        this.baseVersion = baseVersion;
+        this.sections = sections;
+    }
+
+    /**
+     * Write the delta from the base image to the target image.
+     * Returns false if either image is not sectioned or most of the target image is changed.
+     */
+    public static boolean write(File base, long baseVersion, File target, File delta)
+            throws IOException, SRMetaBlockException {
+        if (!base.exists() || !SRMetaBlockSectionReader.isSectionedImage(base)
+                || !SRMetaBlockSectionReader.isSectionedImage(target)) {
+            return false;
+        }
+        Map<String, Long> baseChecksums = new HashMap<>();
+        for (SRMetaBlockSection section : new SRMetaBlockSectionReader(base).getSections()) {
+            baseChecksums.put(section.getName(), section.getChecksum());
+        }
+
+        List<SRMetaBlockSection> targetSections = new SRMetaBlockSectionReader(target).getSections();
+        List<SRMetaBlockSection> changedSections = new ArrayList<>();
+        long totalBytes = 0;
+        long changedBytes = 0;
+        for (SRMetaBlockSection section : targetSections) {
+            totalBytes += section.getLength();
+            Long baseChecksum = baseChecksums.get(section.getName());
+            if (baseChecksum == null || baseChecksum != section.getChecksum()) {
+                changedSections.add(section);
+                changedBytes += section.getLength();
+            }
+        }
+        if (changedBytes > totalBytes * MAX_CHANGED_RATIO) {
+            LOG.info("{} of {} bytes changed from image.{}, skip writing delta {}",
+                    changedBytes, totalBytes, baseVersion, delta);
+            return false;
+        }
+
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+        try (SRMetaBlockSectionWriter writer = new SRMetaBlockSectionWriter(delta, executor)) {
+            byte[] descriptor = GsonUtils.GSON.toJson(new SRMetaBlockSectionDelta(baseVersion, targetSections))
+                    .getBytes(StandardCharsets.UTF_8);
+            writer.addSection(DESCRIPTOR_SECTION, dos -> dos.write(descriptor));
+            for (SRMetaBlockSection section : changedSections) {
+                writer.addSection(section.getName(), dos -> {
+                    try (InputStream in = openSection(target, section)) {
+                        ByteStreams.copy(in, dos);
+                    }
+                });
+            }
+            writer.finish();
+        }
+        LOG.info("write delta {} from image.{}, {} of {} sections, {} of {} bytes changed", delta, baseVersion,
+                changedSections.size(), targetSections.size(), changedBytes, totalBytes);
+        return true;
+    }
+
+    private static InputStream openSection(File file, SRMetaBlockSection section) throws IOException {
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            fis.getChannel().position(section.getOffset());
+        } catch (IOException e) {
+            fis.close();
+            throw e;
+        }
+        return ByteStreams.limit(fis, section.getLength());
+    }
+
+    public static boolean isDelta(File file) throws IOException, SRMetaBlockException {
+        return SRMetaBlockSectionReader.isSectionedImage(file)
+                && new SRMetaBlockSectionReader(file).hasSection(DESCRIPTOR_SECTION);
+    }
+
+    public static long getBaseVersion(File delta) throws IOException, SRMetaBlockException {
+        return readDescriptor(new SRMetaBlockSectionReader(delta)).baseVersion;
+    }
+
+    private static SRMetaBlockSectionDelta readDescriptor(SRMetaBlockSectionReader reader)
+            throws IOException, SRMetaBlockException {
+        SRMetaBlockSectionDelta[] descriptor = new SRMetaBlockSectionDelta[1];
+        readSection(reader, DESCRIPTOR_SECTION, in -> descriptor[0] = GsonUtils.GSON.fromJson(
+                new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8), SRMetaBlockSectionDelta.class));
+        return descriptor[0];
+    }
+
+    /**
+     * Rebuild the target image from the base image and the delta.
+     */
+    public static void apply(File base, File delta, File target) throws IOException, SRMetaBlockException {
+        SRMetaBlockSectionReader baseReader = new SRMetaBlockSectionReader(base);
+        SRMetaBlockSectionReader deltaReader = new SRMetaBlockSectionReader(delta);
+        SRMetaBlockSectionDelta descriptor = readDescriptor(deltaReader);
+
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+        try (SRMetaBlockSectionWriter writer = new SRMetaBlockSectionWriter(target, executor)) {
+            for (SRMetaBlockSection section : descriptor.sections) {
+                String name = section.getName();
+                SRMetaBlockSectionReader reader = deltaReader.hasSection(name) ? deltaReader : baseReader;
+                writer.addSection(name, dos -> {
+                    try {
+                        readSection(reader, name, in -> ByteStreams.copy(in, dos));
+                    } catch (SRMetaBlockException e) {
+                        throw new IOException(e.getMessage(), e);
+                    }
+                });
+            }
+            writer.finish();
+        }
+
+        // make sure the rebuilt image is exactly the target image
+        List<SRMetaBlockSection> sections = new SRMetaBlockSectionReader(target).getSections();
+        Set<String> mismatched = new HashSet<>();
+        for (int i = 0; i < descriptor.sections.size(); i++) {
+            SRMetaBlockSection expected = descriptor.sections.get(i);
+            if (i >= sections.size() || !sections.get(i).getName().equals(expected.getName())
+                    || sections.get(i).getChecksum() != expected.getChecksum()) {
+                mismatched.add(expected.getName());
+            }
+        }
+        if (!mismatched.isEmpty() || sections.size() != descriptor.sections.size()) {
+            FileUtils.deleteQuietly(target);
+            throw new SRMetaBlockException("Failed to apply image delta " + delta + " on " + base
+                    + ", mismatched sections: " + mismatched);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RawSectionLoader {
+        void load(InputStream in) throws IOException;
+    }
+
+    private static void readSection(SRMetaBlockSectionReader reader, String name, RawSectionLoader loader)
+            throws IOException, SRMetaBlockException {
+        try {
+            reader.readSection(name, loader::load);
+        } catch (DdlException e) {
+            // raw copy never throws DdlException
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
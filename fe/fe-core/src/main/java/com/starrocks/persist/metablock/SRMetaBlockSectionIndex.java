@@ -0,0 +1,42 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.persist.metablock;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * The index footer of a sectioned image, which lists the sections in the order they are written.
+ */
+public class SRMetaBlockSectionIndex {
+    // "SRIMAGE" with the high bit of the first byte set. The first int of an image in the old format is
+    // either -1 or a positive meta version, so the two formats can't be confused.
+    public static final long MAGIC = 0xD352494D41474532L;
+    // index offset + index checksum + magic at the end of the image
+    public static final int TAIL_LENGTH = 24;
+
+    @SerializedName(value = "s")
+    private List<SRMetaBlockSection> sections;
+
+    public SRMetaBlockSectionIndex(List<SRMetaBlockSection> sections) {
+        this.sections = sections;
+    }
+
+    public List<SRMetaBlockSection> getSections() {
+        return sections;
+    }
+}
@@ -0,0 +1,132 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.starrocks.common.DdlException;
+import com.starrocks.persist.gson.GsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Load the sections of an image saved by {@link SRMetaBlockSectionWriter}. The sections can be loaded by
+ * different threads at the same time.
+ */
+public class SRMetaBlockSectionReader {
+    private static final Logger LOG = LogManager.getLogger(SRMetaBlockSectionReader.class);
+
+    @FunctionalInterface
+    public interface SectionLoader {
+        void load(DataInputStream dis) throws IOException, DdlException;
+    }
+
+    private final File file;
+    // section name -> section, in the order they are written
+    private final Map<String, SRMetaBlockSection> sections = Maps.newLinkedHashMap();
+
+    public SRMetaBlockSectionReader(File file) throws IOException, SRMetaBlockException {
+        this.file = file;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long fileLength = raf.length();
+            if (fileLength < 8 + SRMetaBlockSectionIndex.TAIL_LENGTH) {
+                throw new SRMetaBlockException("Invalid sectioned image, length: " + fileLength);
+            }
+            raf.seek(fileLength - SRMetaBlockSectionIndex.TAIL_LENGTH);
+            long indexOffset = raf.readLong();
+            long indexChecksum = raf.readLong();
+            long magic = raf.readLong();
+            long indexLength = fileLength - SRMetaBlockSectionIndex.TAIL_LENGTH - indexOffset;
+            if (magic != SRMetaBlockSectionIndex.MAGIC || indexLength <= 0 || indexLength > Integer.MAX_VALUE) {
+                throw new SRMetaBlockException("Invalid sectioned image, the index footer is broken");
+            }
+
+            byte[] index = new byte[(int) indexLength];
+            raf.seek(indexOffset);
+            raf.readFully(index);
+            CRC32 crc32 = new CRC32();
+            crc32.update(index);
+            if (crc32.getValue() != indexChecksum) {
+                throw new SRMetaBlockException(String.format(
+                        "Invalid sectioned image, index checksum mismatch! expect %d actual %d",
+                        indexChecksum, crc32.getValue()));
+            }
+            SRMetaBlockSectionIndex sectionIndex = GsonUtils.GSON.fromJson(
+                    new String(index, StandardCharsets.UTF_8), SRMetaBlockSectionIndex.class);
+            for (SRMetaBlockSection section : sectionIndex.getSections()) {
+                sections.put(section.getName(), section);
+            }
+        }
+    }
+
+    public static boolean isSectionedImage(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return raf.length() >= 8 && raf.readLong() == SRMetaBlockSectionIndex.MAGIC;
+        }
+    }
+
+    public List<String> getSectionNames() {
+        return new ArrayList<>(sections.keySet());
+    }
+
+    public List<SRMetaBlockSection> getSections() {
+        return new ArrayList<>(sections.values());
+    }
+
+    public boolean hasSection(String name) {
+        return sections.containsKey(name);
+    }
+
+    /**
+     * Load a section and verify its checksum.
+     * The data left by the loader is skipped, normally it's because this FE has just rollbacked from a higher version
+     * that would produce more metadata.
+     */
+    public void readSection(String name, SectionLoader loader) throws IOException, DdlException, SRMetaBlockException {
+        SRMetaBlockSection section = sections.get(name);
+        if (section == null) {
+            throw new SRMetaBlockException("Image section " + name + " doesn't exist");
+        }
+        try (FileInputStream fis = new FileInputStream(file)) {
+            fis.getChannel().position(section.getOffset());
+            CheckedInputStream cis = new CheckedInputStream(ByteStreams.limit(fis, section.getLength()), new CRC32());
+            DataInputStream dis = new DataInputStream(new BufferedInputStream(cis));
+            loader.load(dis);
+            long skipped = ByteStreams.exhaust(dis);
+            if (skipped > 0) {
+                LOG.warn("skip the rest {} bytes of image section {}", skipped, name);
+            }
+            if (cis.getChecksum().getValue() != section.getChecksum()) {
+                throw new SRMetaBlockException(String.format(
+                        "Invalid image section %s, checksum mismatch! expect %d actual %d",
+                        name, section.getChecksum(), cis.getChecksum().getValue()));
+            }
+        }
+    }
+}
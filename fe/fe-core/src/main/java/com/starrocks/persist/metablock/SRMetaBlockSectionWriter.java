@@ -0,0 +1,191 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Sets;
+import com.starrocks.persist.gson.GsonUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Save an image as independent sections with an index at the end, as the following format.
+ *
+ * +------------------+
+ * |      magic       |
+ * +------------------+
+ * |    section 1     | written by the saver of section 1, e.g. "header"
+ * +------------------+
+ * |      ...         |
+ * +------------------+
+ * |    section N     |
+ * +------------------+
+ * |      index       | {"s": [{"n": "header", "o": 8, "l": 1024, "c": xxx}, ...]}
+ * +------------------+
+ * |   index offset   |
+ * +------------------+
+ * |  index checksum  |
+ * +------------------+
+ * |      magic       |
+ * +------------------+
+ *
+ * The sections are saved in parallel by the executor, each into a temporary file, and the temporary files are
+ * concatenated in the order the sections are added by {@link #finish()}. Each section has its own checksum,
+ * so that the sections can be loaded independently by {@link SRMetaBlockSectionReader}.
+ */
+public class SRMetaBlockSectionWriter implements Closeable {
+    @FunctionalInterface
+    public interface SectionSaver {
+        void save(DataOutputStream dos) throws IOException;
+    }
+
+    private static class PendingSection {
+        private final String name;
+        private final File file;
+        // the checksum of the section
+        private final Future<Long> future;
+
+        private PendingSection(String name, File file, Future<Long> future) {
+            this.name = name;
+            this.file = file;
+            this.future = future;
+        }
+    }
+
+    private final File file;
+    private final File tmpDir;
+    private final ExecutorService executor;
+    private final List<PendingSection> pendingSections = new ArrayList<>();
+    private final Set<String> names = Sets.newHashSet();
+
+    public SRMetaBlockSectionWriter(File file, ExecutorService executor) throws IOException {
+        this.file = file;
+        this.tmpDir = new File(file.getParentFile(), file.getName() + ".sections");
+        this.executor = executor;
+        if (tmpDir.exists()) {
+            FileUtils.deleteDirectory(tmpDir);
+        }
+        if (!tmpDir.mkdirs()) {
+            throw new IOException("failed to create directory " + tmpDir.getAbsolutePath());
+        }
+    }
+
+    public void addSection(String name, SectionSaver saver) throws SRMetaBlockException {
+        if (!names.add(name)) {
+            throw new SRMetaBlockException("Duplicated image section " + name);
+        }
+        File sectionFile = new File(tmpDir, String.valueOf(pendingSections.size()));
+        Future<Long> future = executor.submit(() -> saveSection(sectionFile, saver));
+        pendingSections.add(new PendingSection(name, sectionFile, future));
+    }
+
+    private static long saveSection(File sectionFile, SectionSaver saver) throws IOException {
+        CheckedOutputStream cos = new CheckedOutputStream(new FileOutputStream(sectionFile), new CRC32());
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(cos))) {
+            saver.save(dos);
+        }
+        return cos.getChecksum().getValue();
+    }
+
+    /**
+     * Wait for all the sections to be saved and write the image.
+     */
+    public void finish() throws IOException, SRMetaBlockException {
+        List<SRMetaBlockSection> sections = new ArrayList<>(pendingSections.size());
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            FileChannel channel = fos.getChannel();
+            writeLong(channel, SRMetaBlockSectionIndex.MAGIC);
+            long offset = channel.position();
+            for (PendingSection pendingSection : pendingSections) {
+                long checksum = waitFor(pendingSection);
+                long length = pendingSection.file.length();
+                try (FileInputStream fis = new FileInputStream(pendingSection.file)) {
+                    FileChannel sectionChannel = fis.getChannel();
+                    long transferred = 0;
+                    while (transferred < length) {
+                        transferred += sectionChannel.transferTo(transferred, length - transferred, channel);
+                    }
+                }
+                Preconditions.checkState(channel.position() == offset + length);
+                sections.add(new SRMetaBlockSection(pendingSection.name, offset, length, checksum));
+                offset += length;
+                FileUtils.deleteQuietly(pendingSection.file);
+            }
+
+            byte[] index = GsonUtils.GSON.toJson(new SRMetaBlockSectionIndex(sections)).getBytes(StandardCharsets.UTF_8);
+            CRC32 crc32 = new CRC32();
+            crc32.update(index);
+            ByteBuffer buffer = ByteBuffer.wrap(index);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            writeLong(channel, offset);
+            writeLong(channel, crc32.getValue());
+            writeLong(channel, SRMetaBlockSectionIndex.MAGIC);
+        }
+    }
+
+    private static long waitFor(PendingSection pendingSection) throws IOException, SRMetaBlockException {
+        try {
+            return pendingSection.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SRMetaBlockException("Interrupted while saving image section " + pendingSection.name);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("failed to save image section " + pendingSection.name, e.getCause());
+        }
+    }
+
+    private static void writeLong(FileChannel channel, long value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8).putLong(value);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Cancel the sections not saved yet and remove the temporary files.
+     */
+    @Override
+    public void close() throws IOException {
+        for (PendingSection pendingSection : pendingSections) {
+            pendingSection.future.cancel(true);
+        }
+        FileUtils.deleteDirectory(tmpDir);
+    }
+}
@@ -30,8 +30,11 @@ import com.starrocks.catalog.Column;
 import com.starrocks.catalog.IcebergTable;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.common.UserException;
 import com.starrocks.connector.PredicateUtils;
+import com.starrocks.connector.iceberg.IcebergRepository;
+import com.starrocks.connector.iceberg.IcebergScanPlan;
 import com.starrocks.connector.iceberg.IcebergUtil;
 import com.starrocks.connector.iceberg.ScalarOperatorToIcebergExpr;
 import com.starrocks.server.GlobalStateMgr;
@@ -54,16 +57,21 @@ import com.starrocks.thrift.TPlanNodeType;
 import com.starrocks.thrift.TScanRange;
 import com.starrocks.thrift.TScanRangeLocation;
 import com.starrocks.thrift.TScanRangeLocations;
-import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileContent;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.TableScan;
 import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.TableScanUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -199,24 +207,59 @@ public class IcebergScanNode extends ScanNode {
     }
 
     public void getScanRangeLocations() throws UserException {
-        Optional<Snapshot> snapshot = IcebergUtil.getCurrentTableSnapshot(
-                srIcebergTable.getIcebergTable());
+        org.apache.iceberg.Table icebergTable = srIcebergTable.getIcebergTable();
+        Optional<Snapshot> snapshot = IcebergUtil.getCurrentTableSnapshot(icebergTable);
         if (!snapshot.isPresent()) {
             LOG.info(String.format("Table %s has no snapshot!", srIcebergTable.getTable()));
             return;
         }
 
-        for (CombinedScanTask combinedScanTask : IcebergUtil.getTableScan(
-                srIcebergTable.getIcebergTable(), snapshot.get(), icebergPredicate).planTasks()) {
-            for (FileScanTask task : combinedScanTask.files()) {
+        long splitSize = PropertyUtil.propertyAsLong(icebergTable.properties(), TableProperties.SPLIT_SIZE,
+                TableProperties.SPLIT_SIZE_DEFAULT);
+        IcebergRepository repository = GlobalStateMgr.getCurrentState().getIcebergRepository();
+        String planKey = IcebergScanPlan.planKey(icebergTable.location(), snapshot.get().snapshotId(),
+                String.valueOf(icebergPredicate), splitSize);
+        IcebergScanPlan plan = Config.enable_iceberg_scan_plan_cache ? repository.getScanPlan(planKey) : null;
+        if (plan == null) {
+            plan = planScanRanges(icebergTable, snapshot.get(), splitSize);
+            if (Config.enable_iceberg_scan_plan_cache) {
+                repository.putScanPlan(planKey, plan);
+            }
+        }
+
+        for (Integer fieldId : plan.getEqualityFieldIds()) {
+            equalityDeleteColumns.add(icebergTable.schema().findColumnName(fieldId));
+        }
+
+        for (THdfsScanRange hdfsScanRange : plan.getScanRanges()) {
+            TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
+            TScanRange scanRange = new TScanRange();
+            scanRange.setHdfs_scan_range(hdfsScanRange);
+            scanRangeLocations.setScan_range(scanRange);
+
+            // TODO: get hdfs block location information for scheduling, use iceberg meta cache
+            TScanRangeLocation scanRangeLocation = new TScanRangeLocation(new TNetworkAddress("-1", -1));
+            scanRangeLocations.addToLocations(scanRangeLocation);
+
+            result.add(scanRangeLocations);
+        }
+    }
+
+    private IcebergScanPlan planScanRanges(org.apache.iceberg.Table icebergTable, Snapshot snapshot,
+                                           long splitSize) throws UserException {
+        List<THdfsScanRange> scanRanges = new ArrayList<>();
+        Set<Integer> equalityFieldIds = new HashSet<>();
+        TableScan tableScan = IcebergUtil.getTableScan(icebergTable, snapshot, icebergPredicate);
+        // Split files as they are read from manifests, instead of materializing all CombinedScanTasks first.
+        try (CloseableIterable<FileScanTask> fileScanTasks =
+                TableScanUtil.splitFiles(tableScan.planFiles(), splitSize)) {
+            for (FileScanTask task : fileScanTasks) {
                 DataFile file = task.file();
                 LOG.debug("Scan with file " + file.path() + ", file record count " + file.recordCount());
                 if (file.fileSizeInBytes() == 0) {
                     continue;
                 }
 
-                TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
-
                 THdfsScanRange hdfsScanRange = new THdfsScanRange();
                 hdfsScanRange.setFull_path(file.path().toString());
                 hdfsScanRange.setOffset(task.start());
@@ -234,24 +277,17 @@ public class IcebergScanNode extends ScanNode {
                     target.setLength(source.fileSizeInBytes());
 
                     if (source.content() == FileContent.EQUALITY_DELETES) {
-                        source.equalityFieldIds().forEach(fieldId -> {
-                            equalityDeleteColumns.add(srIcebergTable.getIcebergTable().schema().findColumnName(fieldId));
-                        });
+                        equalityFieldIds.addAll(source.equalityFieldIds());
                     }
 
                     return target;
                 }).collect(Collectors.toList()));
-                TScanRange scanRange = new TScanRange();
-                scanRange.setHdfs_scan_range(hdfsScanRange);
-                scanRangeLocations.setScan_range(scanRange);
-
-                // TODO: get hdfs block location information for scheduling, use iceberg meta cache
-                TScanRangeLocation scanRangeLocation = new TScanRangeLocation(new TNetworkAddress("-1", -1));
-                scanRangeLocations.addToLocations(scanRangeLocation);
-
-                result.add(scanRangeLocations);
+                scanRanges.add(hdfsScanRange);
             }
+        } catch (IOException e) {
+            throw new UserException("Failed to plan iceberg table scan: " + e.getMessage(), e);
         }
+        return new IcebergScanPlan(scanRanges, equalityFieldIds);
     }
 
     public HDFSScanNodePredicates getScanNodePredicates() {
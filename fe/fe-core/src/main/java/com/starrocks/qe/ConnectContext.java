@@ -36,9 +36,11 @@ package com.starrocks.qe;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.InternalCatalog;
 import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.mysql.MysqlCapability;
@@ -54,9 +56,11 @@ import com.starrocks.sql.analyzer.SemanticException;
 import com.starrocks.sql.ast.SetStmt;
 import com.starrocks.sql.ast.SetType;
 import com.starrocks.sql.ast.SetVar;
+import com.starrocks.sql.ast.StatementBase;
 import com.starrocks.sql.ast.UserVariable;
 import com.starrocks.sql.optimizer.dump.DumpInfo;
 import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.thrift.TUniqueId;
 import com.starrocks.thrift.TWorkGroup;
 import org.apache.logging.log4j.LogManager;
@@ -187,6 +191,12 @@ public class ConnectContext {
 
     protected SSLContext sslContext;
 
+    // server-side prepared statements of this connection, by statement id
+    protected Map<Integer, PrepareStmtContext> prepareStmts = new HashMap<>();
+    protected int nextPrepareStmtId = 1;
+    // the plans of prepared statements, created lazily
+    protected PlanCache preparedPlanCache;
+
     public StmtExecutor getExecutor() {
         return executor;
     }
@@ -350,6 +360,39 @@ public class ConnectContext {
         return userVariables.get(variable);
     }
 
+    public PrepareStmtContext addPrepareStmt(String sql, StatementBase stmt, List<Parameter> parameters) {
+        PrepareStmtContext prepareStmtContext = new PrepareStmtContext(nextPrepareStmtId++, sql, stmt, parameters);
+        prepareStmts.put(prepareStmtContext.getStmtId(), prepareStmtContext);
+        return prepareStmtContext;
+    }
+
+    public PrepareStmtContext getPrepareStmt(int stmtId) {
+        return prepareStmts.get(stmtId);
+    }
+
+    public void removePrepareStmt(int stmtId) {
+        prepareStmts.remove(stmtId);
+        if (prepareStmts.isEmpty()) {
+            preparedPlanCache = null;
+        }
+    }
+
+    public int getPrepareStmtCount() {
+        return prepareStmts.size();
+    }
+
+    public void clearPrepareStmts() {
+        prepareStmts.clear();
+        preparedPlanCache = null;
+    }
+
+    public PlanCache getPreparedPlanCache() {
+        if (preparedPlanCache == null) {
+            preparedPlanCache = new PlanCache(Config.prepared_stmt_plan_cache_max_memory_mb * 1024L * 1024L);
+        }
+        return preparedPlanCache;
+    }
+
     public void resetSessionVariable() {
         this.sessionVariable = VariableMgr.newSessionVariable();
         modifiedSessionVariables.clear();
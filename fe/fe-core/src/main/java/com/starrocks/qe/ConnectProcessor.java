@@ -36,10 +36,14 @@ package com.starrocks.qe;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
@@ -52,6 +56,7 @@ import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.ResourceGroupMetricMgr;
 import com.starrocks.mysql.MysqlChannel;
 import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlPacket;
 import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.MysqlSerializer;
@@ -60,8 +65,10 @@ import com.starrocks.plugin.AuditEvent.EventType;
 import com.starrocks.proto.PQueryStatistics;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.FrontendOptions;
+import com.starrocks.sql.StatementPlanner;
 import com.starrocks.sql.analyzer.AstToStringBuilder;
 import com.starrocks.sql.ast.KillStmt;
+import com.starrocks.sql.ast.QueryRelation;
 import com.starrocks.sql.ast.QueryStatement;
 import com.starrocks.sql.ast.StatementBase;
 import com.starrocks.sql.common.SqlDigestBuilder;
@@ -150,6 +157,8 @@ public class ConnectProcessor {
         ctx.getSerializer().setCapability(ctx.getCapability());
         // reset session variable
         ctx.resetSessionVariable();
+        // deallocate prepared statements
+        ctx.clearPrepareStmts();
     }
 
     public void auditAfterExec(String origStmt, StatementBase parsedStmt, PQueryStatistics statistics) {
@@ -277,17 +286,17 @@ public class ConnectProcessor {
         QueryDetailQueue.addAndRemoveTimeoutQueryDetail(queryDetail.copy());
     }
 
-    // process COM_QUERY statement,
-    private void handleQuery() {
-        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
-        // convert statement to Java string
-        String originStmt = null;
+    // convert the statement of COM_QUERY and COM_STMT_PREPARE to Java string
+    private String readStatementString() {
         byte[] bytes = packetBuf.array();
         int ending = packetBuf.limit() - 1;
         while (ending >= 1 && bytes[ending] == '\0') {
             ending--;
         }
-        originStmt = new String(bytes, 1, ending, StandardCharsets.UTF_8);
+        return new String(bytes, 1, ending, StandardCharsets.UTF_8);
+    }
+
+    private void resetAuditEventBuilder() {
         ctx.getAuditEventBuilder().reset();
         ctx.getAuditEventBuilder()
                 .setTimestamp(System.currentTimeMillis())
@@ -297,6 +306,14 @@ public class ConnectProcessor {
                         ctx.getCurrentUserIdentity() == null ? "null" : ctx.getCurrentUserIdentity().toString())
                 .setDb(ctx.getDatabase())
                 .setCatalog(ctx.getCurrentCatalog());
+    }
+
+    // process COM_QUERY statement,
+    private void handleQuery() {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
+        // convert statement to Java string
+        String originStmt = readStatementString();
+        resetAuditEventBuilder();
         ctx.getPlannerProfile().reset();
 
         // execute this query.
@@ -380,6 +397,175 @@ public class ConnectProcessor {
         addFinishedQueryDetail();
     }
 
+    // process COM_STMT_PREPARE, parse the statement and send the prepare response.
+    // https://dev.mysql.com/doc/internals/en/com-stmt-prepare-response.html
+    private void handleStmtPrepare() throws IOException {
+        String sql = readStatementString();
+        if (ctx.getPrepareStmtCount() >= Config.max_prepared_stmt_count) {
+            ErrorReport.report(ErrorCode.ERR_MAX_PREPARED_STMT_COUNT_REACHED, Config.max_prepared_stmt_count);
+            return;
+        }
+
+        List<Parameter> parameters = Lists.newArrayList();
+        StatementBase stmt;
+        try {
+            stmt = com.starrocks.sql.parser.SqlParser.parsePrepareStatement(sql, ctx.getSessionVariable(), parameters);
+        } catch (ParsingException e) {
+            ctx.getState().setError(e.getMessage());
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+            return;
+        }
+        PrepareStmtContext prepareStmtContext = ctx.addPrepareStmt(sql, stmt, parameters);
+        List<String> colNames = Lists.newArrayList();
+        List<Type> colTypes = Lists.newArrayList();
+        describeResultColumns(prepareStmtContext, colNames, colTypes);
+
+        MysqlSerializer serializer = ctx.getSerializer();
+        MysqlChannel channel = ctx.getMysqlChannel();
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeInt4(prepareStmtContext.getStmtId());
+        serializer.writeInt2(colNames.size());
+        serializer.writeInt2(parameters.size());
+        // reserved
+        serializer.writeInt1(0);
+        // warning count
+        serializer.writeInt2(0);
+        if (parameters.isEmpty() && colNames.isEmpty()) {
+            channel.sendAndFlush(serializer.toByteBuffer());
+            ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+            return;
+        }
+
+        channel.sendOnePacket(serializer.toByteBuffer());
+        for (int i = 0; i < parameters.size(); i++) {
+            serializer.reset();
+            serializer.writeField("?", Type.VARCHAR);
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        if (!parameters.isEmpty() && !colNames.isEmpty()) {
+            serializer.reset();
+            new MysqlEofPacket(ctx.getState()).writeTo(serializer);
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        for (int i = 0; i < colNames.size(); i++) {
+            serializer.reset();
+            serializer.writeField(colNames.get(i), colTypes.get(i));
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        // EOF after the last definitions
+        ctx.getState().setEof();
+    }
+
+    // Describe the result columns of a prepared query with NULL bound to the parameters. Nothing is described if
+    // the query can't be analyzed without the values, the columns are always sent with the result set of executions.
+    private void describeResultColumns(PrepareStmtContext prepareStmtContext, List<String> colNames,
+                                       List<Type> colTypes) {
+        if (!(prepareStmtContext.getStmt() instanceof QueryStatement)) {
+            return;
+        }
+        try {
+            QueryStatement queryStmt = (QueryStatement) prepareStmtContext.parseWithNullValues(ctx);
+            QueryRelation queryRelation = StatementPlanner.analyzePreparedQuery(queryStmt, ctx);
+            colNames.addAll(queryRelation.getColumnOutputNames());
+            for (Expr expr : queryRelation.getOutputExpression()) {
+                colTypes.add(expr.getOriginType());
+            }
+        } catch (Exception e) {
+            LOG.debug("failed to describe the result columns of prepared statement: {}",
+                    prepareStmtContext.getSql(), e);
+            colNames.clear();
+            colTypes.clear();
+        }
+    }
+
+    // process COM_STMT_EXECUTE, bind the parameters and execute the prepared statement.
+    private void handleStmtExecute() {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPrepareStmt(stmtId);
+        if (prepareStmtContext == null) {
+            ErrorReport.report(ErrorCode.ERR_UNKNOWN_STMT_HANDLER, stmtId, "mysqld_stmt_execute");
+            return;
+        }
+        // flags, cursors are not supported
+        MysqlProto.readInt1(packetBuf);
+        // iteration count, always 1
+        MysqlProto.readInt4(packetBuf);
+
+        String originStmt = prepareStmtContext.getSql();
+        resetAuditEventBuilder();
+        ctx.getPlannerProfile().reset();
+
+        StatementBase parsedStmt = null;
+        try {
+            ctx.setQueryId(UUIDUtil.genUUID());
+            prepareStmtContext.bind(packetBuf);
+            parsedStmt = prepareStmtContext.getStmt();
+            originStmt = parsedStmt.getOrigStmt().originStmt;
+            addRunningQueryDetail(parsedStmt);
+
+            executor = new StmtExecutor(ctx, prepareStmtContext);
+            ctx.setExecutor(executor);
+            ctx.setIsLastStmt(true);
+            executor.execute();
+        } catch (IOException e) {
+            // Client failed.
+            LOG.warn("Process one prepared statement failed because IOException: ", e);
+            ctx.getState().setError("StarRocks process failed");
+        } catch (UserException e) {
+            LOG.warn("Process one prepared statement failed because.", e);
+            ctx.getState().setError(e.getMessage());
+            // set is as ANALYSIS_ERR so that it won't be treated as a query failure.
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+        } catch (Throwable e) {
+            // Catch all throwable.
+            // If reach here, maybe StarRocks bug.
+            LOG.warn("Process one prepared statement failed because unknown reason: ", e);
+            ctx.getState().setError("Unexpected exception: " + e.getMessage());
+            if (parsedStmt instanceof KillStmt) {
+                // ignore kill stmt execute err(not monitor it)
+                ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+            }
+        }
+
+        if (executor != null) {
+            auditAfterExec(originStmt, executor.getParsedStmt(), executor.getQueryStatisticsForAuditLog());
+        } else {
+            auditAfterExec(originStmt, null, null);
+        }
+        addFinishedQueryDetail();
+    }
+
+    // process COM_STMT_SEND_LONG_DATA, which has no response.
+    private void handleStmtSendLongData() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        int paramId = MysqlProto.readInt2(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPrepareStmt(stmtId);
+        if (prepareStmtContext != null) {
+            prepareStmtContext.appendLongData(paramId, MysqlProto.readEofString(packetBuf));
+        }
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // process COM_STMT_RESET, reset the data sent by COM_STMT_SEND_LONG_DATA.
+    private void handleStmtReset() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PrepareStmtContext prepareStmtContext = ctx.getPrepareStmt(stmtId);
+        if (prepareStmtContext == null) {
+            ErrorReport.report(ErrorCode.ERR_UNKNOWN_STMT_HANDLER, stmtId, "mysqld_stmt_reset");
+            return;
+        }
+        prepareStmtContext.reset();
+        ctx.getState().setOk();
+    }
+
+    // process COM_STMT_CLOSE, deallocate the prepared statement, which has no response.
+    private void handleStmtClose() {
+        ctx.removePrepareStmt(MysqlProto.readInt4(packetBuf));
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
     // Get the column definitions of a table
     private void handleFieldList() throws IOException {
         // Already get command code.
@@ -460,6 +646,22 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                handleStmtExecute();
+                ctx.setStartTime();
+                break;
+            case COM_STMT_SEND_LONG_DATA:
+                handleStmtSendLongData();
+                break;
+            case COM_STMT_RESET:
+                handleStmtReset();
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
             default:
                 ctx.getState().setError("Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
@@ -534,8 +736,8 @@ public class ConnectProcessor {
         MysqlChannel channel = ctx.getMysqlChannel();
         channel.sendAndFlush(packet);
 
-        // only change lastQueryId when current command is COM_QUERY
-        if (ctx.getCommand() == MysqlCommand.COM_QUERY) {
+        // only change lastQueryId when current command is COM_QUERY or COM_STMT_EXECUTE
+        if (ctx.getCommand() == MysqlCommand.COM_QUERY || ctx.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
             ctx.setLastQueryId(ctx.queryId);
             ctx.setQueryId(null);
         }
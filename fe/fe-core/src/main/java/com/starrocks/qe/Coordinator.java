@@ -50,7 +50,9 @@ import com.starrocks.common.UserException;
 import com.starrocks.common.util.CompressionUtils;
 import com.starrocks.common.util.Counter;
 import com.starrocks.common.util.DebugUtil;
+import com.starrocks.common.util.IsomorphicProfileMerger;
 import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.common.util.RuntimeProfileCodec;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.load.loadv2.LoadJob;
 import com.starrocks.mysql.privilege.Auth;
@@ -91,10 +93,12 @@ import com.starrocks.thrift.TTabletCommitInfo;
 import com.starrocks.thrift.TTabletFailInfo;
 import com.starrocks.thrift.TUniqueId;
 import com.starrocks.thrift.TUnit;
+import com.starrocks.thrift.TWorkGroup;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TException;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -144,6 +148,8 @@ public class Coordinator {
     private boolean returnedAllResults;
     private RuntimeProfile queryProfile;
     private List<RuntimeProfile> fragmentProfiles;
+    // merges the final profiles of the instances of each fragment as they are reported
+    private List<IsomorphicProfileMerger> fragmentProfileMergers;
 
     private final List<PlanFragment> fragments;
     // backend execute state
@@ -152,6 +158,8 @@ public class Coordinator {
     // It is supposed to be the subset of backendExecStates.
     private final List<BackendExecState> needCheckBackendExecStates = Lists.newArrayList();
     private ResultReceiver receiver;
+    // see ResultReceiver.setKeepSerialized()
+    private boolean keepSerializedResult = false;
     private final List<ScanNode> scanNodes;
     // number of instances of this query, equals to
     // number of backends executing plan fragments on behalf of this query;
@@ -170,6 +178,8 @@ public class Coordinator {
     private final List<TTabletFailInfo> failInfos = Lists.newArrayList();
     // Input parameter
     private long jobId = -1; // job which this task belongs to
+    // The slots taken in the query queue, released when the query is unregistered from QeProcessorImpl.
+    private volatile int queueSlots = 0;
     private TUniqueId queryId;
     private final ConnectContext connectContext;
     private final boolean needReport;
@@ -373,6 +383,10 @@ public class Coordinator {
         this.queryOptions.setQuery_timeout(timeout);
     }
 
+    public void setKeepSerializedResult(boolean keepSerializedResult) {
+        this.keepSerializedResult = keepSerializedResult;
+    }
+
     public void addReplicateScanId(Integer scanId) {
         this.coordinatorPreprocessor.getReplicateScanIds().add(scanId);
     }
@@ -439,6 +453,10 @@ public class Coordinator {
         prepareProfile();
     }
 
+    public TWorkGroup prepareResourceGroup() {
+        return coordinatorPreprocessor.prepareResourceGroup();
+    }
+
     public CoordinatorPreprocessor getPrepareInfo() {
         return coordinatorPreprocessor;
     }
@@ -459,6 +477,14 @@ public class Coordinator {
         return queryOptions.getQuery_type() == TQueryType.LOAD;
     }
 
+    public int getQueueSlots() {
+        return queueSlots;
+    }
+
+    public void setQueueSlots(int queueSlots) {
+        this.queueSlots = queueSlots;
+    }
+
     public List<ScanNode> getScanNodes() {
         return scanNodes;
     }
@@ -478,8 +504,10 @@ public class Coordinator {
         queryProfile = new RuntimeProfile("Execution Profile " + DebugUtil.printId(queryId));
 
         fragmentProfiles = new ArrayList<>();
+        fragmentProfileMergers = new ArrayList<>();
         for (int i = 0; i < fragments.size(); i++) {
             fragmentProfiles.add(new RuntimeProfile("Fragment " + i));
+            fragmentProfileMergers.add(new IsomorphicProfileMerger());
             queryProfile.addChild(fragmentProfiles.get(i));
         }
 
@@ -503,6 +531,7 @@ public class Coordinator {
                     coordinatorPreprocessor.getAddressToBackendID().get(execBeAddr),
                     coordinatorPreprocessor.toBrpcHost(execBeAddr),
                     queryOptions.query_timeout * 1000);
+            receiver.setKeepSerialized(keepSerializedResult);
 
             // Select top fragment as global runtime filter merge address
             setGlobalRuntimeFilterParams(topParams, coordinatorPreprocessor.toBrpcHost(execBeAddr));
@@ -1320,7 +1349,7 @@ public class Coordinator {
                 cancelInternal(PPlanFragmentCancelReason.LIMIT_REACH);
             }
         } else {
-            numReceivedRows += resultBatch.getBatch().getRowsSize();
+            numReceivedRows += resultBatch.getNumRows();
         }
 
         return resultBatch;
@@ -1385,6 +1414,12 @@ public class Coordinator {
             unlock();
         }
 
+        // the profile of a finished instance won't change any more, merge it now instead of at the end of query
+        if (execState.done && isProfileMergeEnabled()
+                && execState.profileFragmentId >= 0 && execState.profileFragmentId < fragmentProfileMergers.size()) {
+            fragmentProfileMergers.get(execState.profileFragmentId).add(execState.profile);
+        }
+
         // print fragment instance profile
         if (LOG.isDebugEnabled()) {
             StringBuilder builder = new StringBuilder();
@@ -1520,23 +1555,31 @@ public class Coordinator {
         return false;
     }
 
-    public void mergeIsomorphicProfiles() {
+    private boolean isProfileMergeEnabled() {
+        if (connectContext == null) {
+            return false;
+        }
         SessionVariable sessionVariable = connectContext.getSessionVariable();
 
         if (!sessionVariable.isEnableProfile()) {
-            return;
+            return false;
         }
 
         if (!coordinatorPreprocessor.isUsePipeline()) {
-            return;
+            return false;
         }
 
         int profileLevel = sessionVariable.getPipelineProfileLevel();
-        if (profileLevel >= TPipelineProfileLevel.DETAIL.getValue()) {
+        return profileLevel < TPipelineProfileLevel.DETAIL.getValue();
+    }
+
+    public void mergeIsomorphicProfiles() {
+        if (!isProfileMergeEnabled()) {
             return;
         }
 
-        for (RuntimeProfile fragmentProfile : fragmentProfiles) {
+        for (int i = 0; i < fragmentProfiles.size(); i++) {
+            RuntimeProfile fragmentProfile = fragmentProfiles.get(i);
             if (fragmentProfile.getChildList().isEmpty()) {
                 continue;
             }
@@ -1570,8 +1613,16 @@ public class Coordinator {
             counter.setValue(instanceProfiles.size());
 
             // After merge, all merged metrics will gather into the first profile
-            // which is instanceProfile0
-            RuntimeProfile.mergeIsomorphicProfiles(instanceProfiles);
+            // which is instanceProfile0.
+            // The instances are merged one by one as they finish, only fall back to merge them all here
+            // if some instances didn't report the final profile in time
+            IsomorphicProfileMerger merger = fragmentProfileMergers.get(i);
+            if (merger.getProfileNum() == instanceProfiles.size()
+                    && instanceProfiles.stream().allMatch(merger::contains)) {
+                merger.mergeInto(instanceProfile0);
+            } else {
+                RuntimeProfile.mergeIsomorphicProfiles(instanceProfiles);
+            }
 
             fragmentProfile.copyAllInfoStringsFrom(instanceProfile0);
             fragmentProfile.copyAllCountersFrom(instanceProfile0);
@@ -1641,6 +1692,65 @@ public class Coordinator {
         executionTotalTime.setValue(executionTime);
     }
 
+    /**
+     * Builds the merged profile of a running query, from the merged profiles of the finished instances
+     * and the latest profiles of the running ones. Returns null if the profile is not merged.
+     */
+    public RuntimeProfile buildMergedQueryProfile() {
+        if (queryProfile == null || !isProfileMergeEnabled()) {
+            return null;
+        }
+
+        List<List<BackendExecState>> fragmentExecStates = Lists.newArrayList();
+        fragmentProfiles.forEach(profile -> fragmentExecStates.add(Lists.newArrayList()));
+        for (BackendExecState execState : backendExecStates.values()) {
+            if (execState.profileFragmentId >= 0 && execState.profileFragmentId < fragmentProfiles.size()) {
+                fragmentExecStates.get(execState.profileFragmentId).add(execState);
+            }
+        }
+
+        RuntimeProfile mergedProfile = new RuntimeProfile(queryProfile.getName());
+        for (int i = 0; i < fragmentProfiles.size(); i++) {
+            RuntimeProfile fragmentProfile = new RuntimeProfile(fragmentProfiles.get(i).getName());
+            mergedProfile.addChild(fragmentProfile);
+            List<BackendExecState> execStates = fragmentExecStates.get(i);
+            if (execStates.isEmpty()) {
+                continue;
+            }
+
+            IsomorphicProfileMerger merger = fragmentProfileMergers.get(i).copy();
+            BackendExecState slowestExecState = null;
+            for (BackendExecState execState : execStates) {
+                synchronized (execState) {
+                    merger.add(execState.profile);
+                }
+                if (slowestExecState == null || execState.profile.getCounterTotalTime().getValue()
+                        > slowestExecState.profile.getCounterTotalTime().getValue()) {
+                    slowestExecState = execState;
+                }
+            }
+
+            // merge into a copy, the instance profile may still be updated
+            RuntimeProfile instanceProfile0;
+            try {
+                synchronized (slowestExecState) {
+                    instanceProfile0 = RuntimeProfileCodec.decode(RuntimeProfileCodec.encode(slowestExecState.profile));
+                }
+            } catch (IOException e) {
+                LOG.warn("failed to copy instance profile of query {}", DebugUtil.printId(queryId), e);
+                return null;
+            }
+            merger.mergeInto(instanceProfile0);
+            instanceProfile0.removeInfoString("Address");
+            fragmentProfile.copyAllInfoStringsFrom(instanceProfile0);
+            fragmentProfile.copyAllCountersFrom(instanceProfile0);
+            fragmentProfile.addCounter("InstanceNum", TUnit.UNIT).setValue(execStates.size());
+            instanceProfile0.getChildList().forEach(pair -> fragmentProfile.addChild(pair.first));
+            RuntimeProfile.removeRedundantMinMaxMetrics(fragmentProfile);
+        }
+        return mergedProfile;
+    }
+
     /**
      * Remove unnecessary LimitOperator, which has same input rows and output rows
      * to keep the profile concise
@@ -150,6 +150,7 @@ public class CoordinatorPreprocessor {
 
     // Resource group
     private TWorkGroup resourceGroup = null;
+    private boolean isResourceGroupPrepared = false;
 
     public CoordinatorPreprocessor(TUniqueId queryId, ConnectContext context, List<PlanFragment> fragments,
                                    List<ScanNode> scanNodes,
@@ -293,9 +294,7 @@ public class CoordinatorPreprocessor {
         prepareFragments();
 
         // prepare workgroup
-        resourceGroup = prepareResourceGroup(connectContext,
-                queryOptions.getQuery_type() == TQueryType.LOAD ? ResourceGroupClassifier.QueryType.INSERT
-                        : ResourceGroupClassifier.QueryType.SELECT);
+        prepareResourceGroup();
 
         computeScanRangeAssignment();
         computeFragmentExecParams();
@@ -942,7 +941,8 @@ public class CoordinatorPreprocessor {
                 HDFSBackendSelector selector =
                         new HDFSBackendSelector(scanNode, locations, assignment, addressToBackendID, usedBackendIDs,
                                 getSelectorComputeNodes(hasComputeNode),
-                                forceScheduleLocal);
+                                forceScheduleLocal,
+                                connectContext.getSessionVariable().isEnableLoadAwareScanRangeAssignment());
                 selector.computeScanRangeAssignment();
             } else {
                 boolean hasColocate = isColocateFragment(scanNode.getFragment().getPlanRoot());
@@ -1244,6 +1244,17 @@ public class CoordinatorPreprocessor {
         return null;
     }
 
+    // The query is classified only once, the query queue may have classified it before prepareExec().
+    public TWorkGroup prepareResourceGroup() {
+        if (!isResourceGroupPrepared) {
+            resourceGroup = prepareResourceGroup(connectContext,
+                    queryOptions.getQuery_type() == TQueryType.LOAD ? ResourceGroupClassifier.QueryType.INSERT
+                            : ResourceGroupClassifier.QueryType.SELECT);
+            isResourceGroupPrepared = true;
+        }
+        return resourceGroup;
+    }
+
     public static TWorkGroup prepareResourceGroup(ConnectContext connect, ResourceGroupClassifier.QueryType queryType) {
         if (connect == null || !connect.getSessionVariable().isEnableResourceGroup()) {
             return null;
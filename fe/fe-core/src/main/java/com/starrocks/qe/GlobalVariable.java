@@ -69,6 +69,7 @@ public final class GlobalVariable {
     public static final String QUERY_QUEUE_CPU_USED_PERMILLE_LIMIT = "query_queue_cpu_used_permille_limit";
     public static final String QUERY_QUEUE_PENDING_TIMEOUT_SECOND = "query_queue_pending_timeout_second";
     public static final String QUERY_QUEUE_MAX_QUEUED_QUERIES = "query_queue_max_queued_queries";
+    public static final String QUERY_QUEUE_SLOT_MEM_BYTES = "query_queue_slot_mem_bytes";
 
     @VariableMgr.VarAttr(name = VERSION_COMMENT, flag = VariableMgr.READ_ONLY)
     public static String versionComment = "StarRocks version " + Version.STARROCKS_VERSION;
@@ -127,6 +128,14 @@ public final class GlobalVariable {
      * <p>
      * The queries only using schema meta will never been queued, because a MySQL client will
      * query schema meta after the connection is established.
+     * <p>
+     * The pending queries are queued in a lane per resource group. The lanes are dequeued by weighted fair share,
+     * weighted by `cpu_core_limit` of the resource group, and the queries of a lane are dequeued by the session
+     * variable `query_queue_priority` and then in FIFO order.
+     * <p>
+     * If `queryQueueSlotMemBytes` is positive, each query takes `ceil(estimated memory / queryQueueSlotMemBytes)`
+     * slots, and the queries running in this FE can take at most `memory limit of all the BEs *
+     * queryQueueMemUsedPctLimit / queryQueueSlotMemBytes` slots.
      */
     @VariableMgr.VarAttr(name = ENABLE_QUERY_QUEUE_SELECT, flag = VariableMgr.GLOBAL)
     private static boolean enableQueryQueueSelect = false;
@@ -151,6 +160,9 @@ public final class GlobalVariable {
     // Unlimited iff it is non-positive.
     @VariableMgr.VarAttr(name = QUERY_QUEUE_MAX_QUEUED_QUERIES, flag = VariableMgr.GLOBAL)
     private static int queryQueueMaxQueuedQueries = 1024;
+    // Effective iff it is positive.
+    @VariableMgr.VarAttr(name = QUERY_QUEUE_SLOT_MEM_BYTES, flag = VariableMgr.GLOBAL)
+    private static long queryQueueSlotMemBytes = 0;
 
     public static boolean isEnableQueryQueueSelect() {
         return enableQueryQueueSelect;
@@ -240,6 +252,18 @@ public final class GlobalVariable {
         GlobalVariable.queryQueueMaxQueuedQueries = queryQueueMaxQueuedQueries;
     }
 
+    public static boolean isQueryQueueSlotMemBytesEffective() {
+        return queryQueueSlotMemBytes > 0;
+    }
+
+    public static long getQueryQueueSlotMemBytes() {
+        return queryQueueSlotMemBytes;
+    }
+
+    public static void setQueryQueueSlotMemBytes(long queryQueueSlotMemBytes) {
+        GlobalVariable.queryQueueSlotMemBytes = queryQueueSlotMemBytes;
+    }
+
     // Don't allow create instance.
     private GlobalVariable() {
 
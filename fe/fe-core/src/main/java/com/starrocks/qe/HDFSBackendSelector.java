@@ -27,6 +27,7 @@ import com.google.common.hash.PrimitiveSink;
 import com.starrocks.catalog.PartitionKey;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.ConsistentHashRing;
+import com.starrocks.common.util.DebugUtil;
 import com.starrocks.common.util.HashRing;
 import com.starrocks.common.util.RendezvousHashRing;
 import com.starrocks.planner.DeltaLakeScanNode;
@@ -35,8 +36,11 @@ import com.starrocks.planner.HdfsScanNode;
 import com.starrocks.planner.HudiScanNode;
 import com.starrocks.planner.IcebergScanNode;
 import com.starrocks.planner.ScanNode;
+import com.starrocks.sql.PlannerProfile;
 import com.starrocks.sql.plan.HDFSScanNodePredicates;
+import com.starrocks.system.BackendCoreStat;
 import com.starrocks.system.ComputeNode;
+import com.starrocks.thrift.THdfsFileFormat;
 import com.starrocks.thrift.THdfsScanRange;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TScanRangeLocation;
@@ -51,6 +55,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Hybrid backend selector for hive table.
@@ -62,6 +67,11 @@ import java.util.Set;
  * <p>
  * If force_schedule_local variable is set, HybridBackendSelector will force to
  * assign scan ranges to local backend if there has one.
+ * <p>
+ * If load aware assignment is enabled, the scan bytes of backends are compared after divided by their weights,
+ * which are computed from the cpu cores, cpu usage and running queries reported by heartbeats. Scan ranges still
+ * go to one of their candidates on the hash ring to keep the cache affinity. Large parquet and orc ranges are
+ * split before assignment, so that they can be spread to the idle backends.
  */
 
 public class HDFSBackendSelector implements BackendSelector {
@@ -70,16 +80,23 @@ public class HDFSBackendSelector implements BackendSelector {
     // be host -> bes
     Multimap<String, ComputeNode> hostToBackends = HashMultimap.create();
     private final ScanNode scanNode;
-    private final List<TScanRangeLocations> locations;
+    private List<TScanRangeLocations> locations;
     private final CoordinatorPreprocessor.FragmentScanRangeAssignment assignment;
     private final Set<Long> usedBackendIDs;
     private final Map<TNetworkAddress, Long> addressToBackendId;
     private final ImmutableCollection<ComputeNode> computeNodes;
     private boolean forceScheduleLocal;
+    private final boolean loadAware;
+    // be -> relative capacity to run scan ranges, all 1 if not load aware
+    private final Map<ComputeNode, Double> weightPerComputeNode = Maps.newHashMap();
+    private double averageWeight = 1;
     private final int kCandidateNumber = 3;
     private final int kMaxImbalanceRatio = 3;
     private final int kMaxNodeSizeUseRendezvousHashRing = 64;
     private final int kConsistenHashRingVirtualNumber = 32;
+    private final double kMinIdleRatio = 0.1;
+    private final int kSplitScanRangesPerNode = 4;
+    private final long kMinSplitScanRangeBytes = 32L * 1024 * 1024;
 
     class HdfsScanRangeHasher {
         String basePath;
@@ -140,12 +157,14 @@ public class HDFSBackendSelector implements BackendSelector {
                                Map<TNetworkAddress, Long> addressToBackendId,
                                Set<Long> usedBackendIDs,
                                ImmutableCollection<ComputeNode> computeNodes,
-                               boolean forceScheduleLocal) {
+                               boolean forceScheduleLocal,
+                               boolean loadAware) {
         this.scanNode = scanNode;
         this.locations = locations;
         this.assignment = assignment;
         this.computeNodes = computeNodes;
         this.forceScheduleLocal = forceScheduleLocal;
+        this.loadAware = loadAware;
         this.addressToBackendId = addressToBackendId;
         this.usedBackendIDs = usedBackendIDs;
         this.hdfsScanRangeHasher = new HdfsScanRangeHasher();
@@ -157,9 +176,9 @@ public class HDFSBackendSelector implements BackendSelector {
         }
 
         ComputeNode node = null;
-        long minAssignedScanRanges = Long.MAX_VALUE;
+        double minAssignedScanRanges = Double.MAX_VALUE;
         for (ComputeNode backend : backends) {
-            long assignedScanRanges = assignedScansPerComputeNode.get(backend);
+            double assignedScanRanges = getWeightedScanBytes(backend);
             if (assignedScanRanges < minAssignedScanRanges) {
                 minAssignedScanRanges = assignedScanRanges;
                 node = backend;
@@ -170,8 +189,8 @@ public class HDFSBackendSelector implements BackendSelector {
         }
 
         for (ComputeNode backend : backends) {
-            long assignedScanRanges = assignedScansPerComputeNode.get(backend);
-            if (assignedScanRanges < (minAssignedScanRanges + maxImbalanceBytes)) {
+            double assignedScanRanges = getWeightedScanBytes(backend);
+            if (assignedScanRanges < (minAssignedScanRanges + maxImbalanceBytes / averageWeight)) {
                 node = backend;
                 break;
             }
@@ -179,6 +198,65 @@ public class HDFSBackendSelector implements BackendSelector {
         return node;
     }
 
+    private double getWeightedScanBytes(ComputeNode backend) {
+        return assignedScansPerComputeNode.get(backend) / weightPerComputeNode.get(backend);
+    }
+
+    // cores * idle ratio of cpu, and shared by the running queries
+    private double computeWeight(ComputeNode computeNode) {
+        if (!loadAware) {
+            return 1;
+        }
+        int cores = computeNode.getCpuCores() > 0 ? computeNode.getCpuCores() :
+                BackendCoreStat.getAvgNumOfHardwareCoresOfBe();
+        cores = Math.max(1, cores);
+        if (!computeNode.isResourceUsageFresh()) {
+            return cores;
+        }
+        double idleRatio = Math.max(kMinIdleRatio, 1 - computeNode.getCpuUsedPermille() / 1000.0);
+        return cores * idleRatio / (1 + (double) computeNode.getNumRunningQueries() / cores);
+    }
+
+    private static boolean isSplittable(THdfsScanRange scanRange) {
+        // parquet and orc readers only read the row groups and stripes starting in the range
+        return scanRange.isSetFile_format() &&
+                (scanRange.getFile_format() == THdfsFileFormat.PARQUET ||
+                        scanRange.getFile_format() == THdfsFileFormat.ORC) &&
+                !scanRange.isSetHudi_logs() && !scanRange.isUse_hudi_jni_reader() &&
+                !scanRange.isSetDelete_files();
+    }
+
+    // A scan range much larger than the share of a backend can't be balanced, split it into smaller ones.
+    private List<TScanRangeLocations> splitLargeScanRanges(List<TScanRangeLocations> scanRanges) {
+        long totalBytes = 0;
+        for (TScanRangeLocations scanRangeLocations : scanRanges) {
+            totalBytes += scanRangeLocations.scan_range.hdfs_scan_range.getLength();
+        }
+        long splitBytes = Math.max(kMinSplitScanRangeBytes,
+                totalBytes / ((long) assignedScansPerComputeNode.size() * kSplitScanRangesPerNode));
+
+        List<TScanRangeLocations> result = Lists.newArrayListWithCapacity(scanRanges.size());
+        for (TScanRangeLocations scanRangeLocations : scanRanges) {
+            THdfsScanRange scanRange = scanRangeLocations.scan_range.hdfs_scan_range;
+            if (scanRange.getLength() < 2 * splitBytes || !isSplittable(scanRange)) {
+                result.add(scanRangeLocations);
+                continue;
+            }
+            long num = (scanRange.getLength() + splitBytes - 1) / splitBytes;
+            long offset = scanRange.getOffset();
+            long end = scanRange.getOffset() + scanRange.getLength();
+            for (long i = 0; i < num; i++) {
+                long length = (end - offset) / (num - i);
+                TScanRangeLocations split = scanRangeLocations.deepCopy();
+                split.scan_range.hdfs_scan_range.setOffset(offset);
+                split.scan_range.hdfs_scan_range.setLength(length);
+                result.add(split);
+                offset += length;
+            }
+        }
+        return result;
+    }
+
     class ComputeNodeFunnel implements Funnel<ComputeNode> {
         @Override
         public void funnel(ComputeNode computeNode, PrimitiveSink primitiveSink) {
@@ -263,21 +341,44 @@ public class HDFSBackendSelector implements BackendSelector {
             return;
         }
 
-        long avgScanRangeBytes = computeAverageScanRangeBytes();
-        long maxImbalanceBytes = avgScanRangeBytes * kMaxImbalanceRatio;
-
         // exclude non-alive or in-blacklist compute nodes.
         for (ComputeNode computeNode : computeNodes) {
             if (!computeNode.isAlive() || SimpleScheduler.isInBlacklist(computeNode.getId())) {
                 continue;
             }
             assignedScansPerComputeNode.put(computeNode, 0L);
+            weightPerComputeNode.put(computeNode, computeWeight(computeNode));
             hostToBackends.put(computeNode.getHost(), computeNode);
         }
         if (hostToBackends.isEmpty()) {
             throw new UserException("Backend not found. Check if any backend is down or not");
         }
 
+        if (loadAware) {
+            averageWeight = weightPerComputeNode.values().stream().mapToDouble(Double::doubleValue).average()
+                    .orElse(1);
+            locations = splitLargeScanRanges(locations);
+        }
+        assignScanRanges();
+
+        String profileKey = "HDFSBackendSelector.ScanNode" + scanNode.getId().asInt() + ".AssignedBytes";
+        PlannerProfile.addCustomProperties(profileKey,
+                assignedScansPerComputeNode.entrySet().stream()
+                        .filter(entry -> entry.getValue() > 0)
+                        .map(entry -> entry.getKey().getHost() + ":" + entry.getKey().getBePort() + "=" +
+                                DebugUtil.getPrettyStringBytes(entry.getValue()))
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+    }
+
+    public Map<ComputeNode, Long> getAssignedScansPerComputeNode() {
+        return assignedScansPerComputeNode;
+    }
+
+    private void assignScanRanges() {
+        long avgScanRangeBytes = computeAverageScanRangeBytes();
+        long maxImbalanceBytes = avgScanRangeBytes * kMaxImbalanceRatio;
+
         // schedule scan ranges to co-located backends.
         // and put rest scan ranges into remote scan ranges.
         List<TScanRangeLocations> remoteScanRangeLocations = Lists.newArrayList();
@@ -39,6 +39,9 @@ import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.util.UUIDUtil;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.qe.QueryState.MysqlStateType;
 import com.starrocks.rpc.FrontendServiceProxy;
 import com.starrocks.sql.analyzer.AstToSQLBuilder;
@@ -54,6 +57,9 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 public class LeaderOpExecutor {
     private static final Logger LOG = LogManager.getLogger(LeaderOpExecutor.class);
@@ -186,15 +192,62 @@ public class LeaderOpExecutor {
      * the result of the query will be returned in thrift body and should write into mysql channel.
      **/
     public boolean sendResultToChannel(MysqlChannel channel) throws IOException {
+        return sendResultToChannel(channel, null);
+    }
+
+    /**
+     * @param binaryRowSerializer not null if the rows should be sent in binary protocol, i.e. the statement is
+     *                            executed by COM_STMT_EXECUTE. The result of the leader is a column count, the
+     *                            column definitions, an EOF and the text rows, only the rows are transcoded.
+     */
+    public boolean sendResultToChannel(MysqlChannel channel, MysqlSerializer binaryRowSerializer) throws IOException {
         if (!result.isSetChannelBufferList() || result.channelBufferList.isEmpty()) {
             return false;
         }
-        for (ByteBuffer byteBuffer : result.channelBufferList) {
-            channel.sendOnePacket(byteBuffer);
+        if (binaryRowSerializer == null) {
+            for (ByteBuffer byteBuffer : result.channelBufferList) {
+                channel.sendOnePacket(byteBuffer);
+            }
+            return true;
+        }
+
+        Iterator<ByteBuffer> iterator = result.channelBufferList.iterator();
+        ByteBuffer columnCountPacket = iterator.next();
+        int columnCount = (int) MysqlProto.readVInt(columnCountPacket.duplicate());
+        channel.sendOnePacket(columnCountPacket);
+        List<MysqlColType> colTypes = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount && iterator.hasNext(); i++) {
+            ByteBuffer fieldPacket = iterator.next();
+            colTypes.add(readColumnType(fieldPacket.duplicate()));
+            channel.sendOnePacket(fieldPacket);
+        }
+        if (iterator.hasNext()) {
+            // EOF after the column definitions
+            channel.sendOnePacket(iterator.next());
+        }
+        while (iterator.hasNext()) {
+            binaryRowSerializer.reset();
+            binaryRowSerializer.writeBinaryRow(colTypes, iterator.next());
+            channel.sendOnePacket(binaryRowSerializer.toByteBuffer());
         }
         return true;
     }
 
+    // read the column type of Protocol::ColumnDefinition41
+    private static MysqlColType readColumnType(ByteBuffer fieldPacket) {
+        // catalog, schema, table, original table, name and original name
+        for (int i = 0; i < 6; i++) {
+            MysqlProto.readLenEncodedString(fieldPacket);
+        }
+        // length of the fixed length fields, character set and column length
+        MysqlProto.readVInt(fieldPacket);
+        MysqlProto.readInt2(fieldPacket);
+        MysqlProto.readInt4(fieldPacket);
+        MysqlColType colType = MysqlColType.fromCode(MysqlProto.readInt1(fieldPacket));
+        // unknown types are sent as length encoded strings
+        return colType == null ? MysqlColType.MYSQL_TYPE_VAR_STRING : colType;
+    }
+
     public void setResult(TMasterOpResult result) {
         this.result = result;
     }
@@ -0,0 +1,359 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.DecimalLiteral;
+import com.starrocks.analysis.FloatLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.analysis.TableName;
+import com.starrocks.catalog.InternalCatalog;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.sql.plan.PlanCache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A server-side prepared statement of a connection, created by COM_STMT_PREPARE and executed by COM_STMT_EXECUTE.
+ * <p>
+ * The statement is parsed once when it's prepared, and analyzed by its first execution. Following executions
+ * reuse the analyzed statement as long as the types of the bound values, the current database, the sql mode and
+ * the referenced tables are unchanged, otherwise the statement is parsed and analyzed again. If enable_plan_cache
+ * is set, the optimized plans are cached by the plan cache of the connection,
+ * see {@link ConnectContext#getPreparedPlanCache()}.
+ */
+public class PrepareStmtContext {
+    // the unsigned flag in the parameter types of COM_STMT_EXECUTE
+    private static final int UNSIGNED_FLAG = 0x8000;
+
+    private final int stmtId;
+    private final String sql;
+    private StatementBase stmt;
+    private List<Parameter> parameters;
+
+    // mysql types of the parameters, COM_STMT_EXECUTE only sends the types when they are changed
+    private final int[] paramTypes;
+    // values sent by COM_STMT_SEND_LONG_DATA, consumed by the next execution
+    private final Map<Integer, ByteArrayOutputStream> longData = Maps.newHashMap();
+
+    // whether the statement has been passed to the analyzer since it's parsed
+    private boolean analyzing = false;
+    // the environment the statement is analyzed in, null if the analyzed statement can't be reused
+    private AnalyzedState analyzedState;
+
+    public PrepareStmtContext(int stmtId, String sql, StatementBase stmt, List<Parameter> parameters) {
+        this.stmtId = stmtId;
+        this.sql = sql;
+        this.stmt = stmt;
+        this.parameters = parameters;
+        this.paramTypes = new int[parameters.size()];
+    }
+
+    public int getStmtId() {
+        return stmtId;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public StatementBase getStmt() {
+        return stmt;
+    }
+
+    public int getParameterCount() {
+        return parameters.size();
+    }
+
+    public void appendLongData(int paramId, byte[] data) {
+        if (paramId < 0 || paramId >= parameters.size()) {
+            return;
+        }
+        longData.computeIfAbsent(paramId, k -> new ByteArrayOutputStream()).write(data, 0, data.length);
+    }
+
+    // COM_STMT_RESET
+    public void reset() {
+        longData.clear();
+    }
+
+    /**
+     * Bind the values of COM_STMT_EXECUTE to the parameters.
+     * https://dev.mysql.com/doc/internals/en/com-stmt-execute.html
+     *
+     * @param packet the packet positioned after the iteration count
+     */
+    public void bind(ByteBuffer packet) throws AnalysisException {
+        int count = parameters.size();
+        List<LiteralExpr> values = Lists.newArrayListWithCapacity(count);
+        if (count > 0) {
+            byte[] nullBitmap = MysqlProto.readFixedString(packet, (count + 7) / 8);
+            boolean newParamsBound = MysqlProto.readInt1(packet) == 1;
+            if (newParamsBound) {
+                for (int i = 0; i < count; i++) {
+                    paramTypes[i] = MysqlProto.readInt2(packet);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                    values.add(new NullLiteral());
+                } else if (longData.containsKey(i)) {
+                    values.add(new StringLiteral(new String(longData.get(i).toByteArray(), StandardCharsets.UTF_8)));
+                } else {
+                    values.add(readValue(packet, paramTypes[i]));
+                }
+            }
+        }
+        longData.clear();
+
+        for (int i = 0; i < count; i++) {
+            parameters.get(i).setValue(values.get(i));
+        }
+        stmt.setOrigStmt(new OriginStatement(renderSql(), 0));
+    }
+
+    /**
+     * Get a statement to be analyzed, which is parsed again if the statement has been analyzed.
+     */
+    public StatementBase prepareForAnalyze(ConnectContext session) {
+        if (analyzing) {
+            List<LiteralExpr> values = Lists.newArrayListWithCapacity(parameters.size());
+            for (Parameter parameter : parameters) {
+                values.add(parameter.getValue());
+            }
+
+            List<Parameter> newParameters = Lists.newArrayList();
+            StatementBase newStmt = SqlParser.parsePrepareStatement(sql, session.getSessionVariable(), newParameters);
+            for (int i = 0; i < newParameters.size(); i++) {
+                newParameters.get(i).setValue(values.get(i));
+            }
+            newStmt.setOrigStmt(stmt.getOrigStmt());
+            stmt = newStmt;
+            parameters = newParameters;
+        }
+        analyzing = true;
+        analyzedState = null;
+        return stmt;
+    }
+
+    /**
+     * Parse the statement again with NULL bound to all the parameters, which is used to describe the result
+     * columns in the response of COM_STMT_PREPARE, before any value is bound.
+     */
+    public StatementBase parseWithNullValues(ConnectContext session) {
+        List<Parameter> newParameters = Lists.newArrayList();
+        StatementBase newStmt = SqlParser.parsePrepareStatement(sql, session.getSessionVariable(), newParameters);
+        for (Parameter parameter : newParameters) {
+            parameter.setValue(new NullLiteral());
+        }
+        newStmt.setOrigStmt(new OriginStatement(sql, 0));
+        return newStmt;
+    }
+
+    /**
+     * Record the environment after the statement is analyzed successfully, the caller should hold the db locks.
+     */
+    public void setAnalyzed(ConnectContext session) {
+        Map<Long, Long> tableSignatures = PlanCache.computeTableSignatures(stmt);
+        if (tableSignatures == null) {
+            // the metadata of external tables may be changed without notice, analyze them every time
+            return;
+        }
+        analyzedState = new AnalyzedState(getValueTypes(), session.getCurrentCatalog(), session.getDatabase(),
+                session.getSessionVariable().getSqlMode(), AnalyzerUtils.collectAllTableAndView(stmt),
+                tableSignatures);
+    }
+
+    /**
+     * Whether the analyzed statement can be reused by current execution, the caller should hold the db locks.
+     */
+    public boolean isAnalysisReusable(ConnectContext session) {
+        if (analyzedState == null) {
+            return false;
+        }
+        if (!analyzedState.valueTypes.equals(getValueTypes()) ||
+                !Objects.equals(analyzedState.catalog, session.getCurrentCatalog()) ||
+                !Objects.equals(analyzedState.database, session.getDatabase()) ||
+                analyzedState.sqlMode != session.getSessionVariable().getSqlMode()) {
+            return false;
+        }
+        // the table may be dropped and created again
+        for (Map.Entry<TableName, Table> entry : analyzedState.tables.entrySet()) {
+            TableName name = entry.getKey();
+            String catalog = name.getCatalog() == null ? InternalCatalog.DEFAULT_INTERNAL_CATALOG_NAME :
+                    name.getCatalog();
+            Table table = session.getGlobalStateMgr().getMetadataMgr().getTable(catalog, name.getDb(), name.getTbl());
+            if (table != entry.getValue()) {
+                return false;
+            }
+        }
+        return analyzedState.tableSignatures.equals(PlanCache.computeTableSignatures(stmt));
+    }
+
+    private List<Type> getValueTypes() {
+        List<Type> types = Lists.newArrayListWithCapacity(parameters.size());
+        for (Parameter parameter : parameters) {
+            types.add(parameter.getValue().getType());
+        }
+        return types;
+    }
+
+    // the sql with parameter markers replaced by the bound values, used by audit log and forwarding to leader
+    private String renderSql() {
+        if (parameters.isEmpty()) {
+            return sql;
+        }
+        StringBuilder sb = new StringBuilder();
+        int last = 0;
+        for (Parameter parameter : parameters) {
+            // the positions from antlr are in code points
+            int offset = sql.offsetByCodePoints(0, parameter.getPosition());
+            sb.append(sql, last, offset).append(parameter.getValue().toSql());
+            last = offset + 1;
+        }
+        sb.append(sql.substring(last));
+        return sb.toString();
+    }
+
+    private static LiteralExpr readValue(ByteBuffer packet, int paramType) throws AnalysisException {
+        boolean unsigned = (paramType & UNSIGNED_FLAG) != 0;
+        int code = paramType & 0xFF;
+        if (code == MysqlColType.MYSQL_TYPE_TINY.getCode()) {
+            int value = MysqlProto.readInt1(packet);
+            return unsigned ? new IntLiteral(value, Type.SMALLINT) : new IntLiteral((byte) value, Type.TINYINT);
+        } else if (code == MysqlColType.MYSQL_TYPE_SHORT.getCode() || code == MysqlColType.MYSQL_TYPE_YEAR.getCode()) {
+            int value = MysqlProto.readInt2(packet);
+            return unsigned ? new IntLiteral(value, Type.INT) : new IntLiteral((short) value, Type.SMALLINT);
+        } else if (code == MysqlColType.MYSQL_TYPE_LONG.getCode() || code == MysqlColType.MYSQL_TYPE_INT24.getCode()) {
+            int value = MysqlProto.readInt4(packet);
+            return unsigned ? new IntLiteral(Integer.toUnsignedLong(value), Type.BIGINT) :
+                    new IntLiteral(value, Type.INT);
+        } else if (code == MysqlColType.MYSQL_TYPE_LONGLONG.getCode()) {
+            long value = MysqlProto.readInt8(packet);
+            if (unsigned && value < 0) {
+                return new LargeIntLiteral(Long.toUnsignedString(value));
+            }
+            return new IntLiteral(value, Type.BIGINT);
+        } else if (code == MysqlColType.MYSQL_TYPE_FLOAT.getCode()) {
+            return new FloatLiteral((double) Float.intBitsToFloat(MysqlProto.readInt4(packet)), Type.FLOAT);
+        } else if (code == MysqlColType.MYSQL_TYPE_DOUBLE.getCode()) {
+            return new FloatLiteral(Double.longBitsToDouble(MysqlProto.readInt8(packet)), Type.DOUBLE);
+        } else if (code == MysqlColType.MYSQL_TYPE_DECIMAL.getCode() ||
+                code == MysqlColType.MYSQL_TYPE_NEWDECIMAL.getCode()) {
+            return new DecimalLiteral(new String(MysqlProto.readLenEncodedString(packet), StandardCharsets.UTF_8));
+        } else if (code == MysqlColType.MYSQL_TYPE_DATE.getCode() ||
+                code == MysqlColType.MYSQL_TYPE_DATETIME.getCode() ||
+                code == MysqlColType.MYSQL_TYPE_TIMESTAMP.getCode()) {
+            return readDateTime(packet, code == MysqlColType.MYSQL_TYPE_DATE.getCode());
+        } else if (code == MysqlColType.MYSQL_TYPE_TIME.getCode()) {
+            return readTime(packet);
+        } else if (code == MysqlColType.MYSQL_TYPE_NULL.getCode()) {
+            return new NullLiteral();
+        } else {
+            // strings, blobs and the types we don't know, which are sent as length encoded strings
+            return new StringLiteral(new String(MysqlProto.readLenEncodedString(packet), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static LiteralExpr readDateTime(ByteBuffer packet, boolean isDate) {
+        int length = MysqlProto.readInt1(packet);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(packet);
+            month = MysqlProto.readInt1(packet);
+            day = MysqlProto.readInt1(packet);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(packet);
+            minute = MysqlProto.readInt1(packet);
+            second = MysqlProto.readInt1(packet);
+        }
+        if (length >= 11) {
+            microsecond = MysqlProto.readInt4(packet);
+        }
+        if (isDate) {
+            return new DateLiteral(year, month, day);
+        }
+        return new DateLiteral(year, month, day, hour, minute, second, microsecond);
+    }
+
+    private static LiteralExpr readTime(ByteBuffer packet) {
+        int length = MysqlProto.readInt1(packet);
+        boolean negative = false;
+        long hours = 0;
+        int minutes = 0;
+        int seconds = 0;
+        int microseconds = 0;
+        if (length >= 8) {
+            negative = MysqlProto.readInt1(packet) == 1;
+            hours = Integer.toUnsignedLong(MysqlProto.readInt4(packet)) * 24 + MysqlProto.readInt1(packet);
+            minutes = MysqlProto.readInt1(packet);
+            seconds = MysqlProto.readInt1(packet);
+        }
+        if (length >= 12) {
+            microseconds = MysqlProto.readInt4(packet);
+        }
+        String value = String.format("%s%02d:%02d:%02d", negative ? "-" : "", hours, minutes, seconds);
+        if (microseconds != 0) {
+            value += String.format(".%06d", microseconds);
+        }
+        return new StringLiteral(value);
+    }
+
+    private static class AnalyzedState {
+        private final List<Type> valueTypes;
+        private final String catalog;
+        private final String database;
+        private final long sqlMode;
+        private final Map<TableName, Table> tables;
+        private final Map<Long, Long> tableSignatures;
+
+        private AnalyzedState(List<Type> valueTypes, String catalog, String database, long sqlMode,
+                              Map<TableName, Table> tables, Map<Long, Long> tableSignatures) {
+            this.valueTypes = valueTypes;
+            this.catalog = catalog;
+            this.database = database;
+            this.sqlMode = sqlMode;
+            this.tables = tables;
+            this.tableSignatures = tableSignatures;
+        }
+    }
+}
@@ -45,4 +45,7 @@ public interface QeProcessor {
     Coordinator getCoordinator(TUniqueId queryId);
 
     List<Coordinator> getCoordinators();
+
+    // returns the live merged profile of a running query, or null if the query is not running
+    String getRunningQueryProfile(String queryId);
 }
@@ -37,6 +37,8 @@ package com.starrocks.qe;
 import com.google.common.collect.Maps;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.DebugUtil;
+import com.starrocks.common.util.ProfileManager;
+import com.starrocks.common.util.RuntimeProfile;
 import com.starrocks.thrift.TBatchReportExecStatusParams;
 import com.starrocks.thrift.TBatchReportExecStatusResult;
 import com.starrocks.thrift.TNetworkAddress;
@@ -84,6 +86,18 @@ public final class QeProcessorImpl implements QeProcessor {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public String getRunningQueryProfile(String queryId) {
+        for (QueryInfo info : coordinatorMap.values()) {
+            Coordinator coord = info.getCoord();
+            if (coord.getQueryId() != null && DebugUtil.printId(coord.getQueryId()).equals(queryId)) {
+                RuntimeProfile profile = coord.buildMergedQueryProfile();
+                return profile == null ? null : ProfileManager.formatProfile(profile);
+            }
+        }
+        return null;
+    }
+
     @Override
     public void registerQuery(TUniqueId queryId, Coordinator coord) throws UserException {
         registerQuery(queryId, new QueryInfo(coord));
@@ -100,8 +114,13 @@ public final class QeProcessorImpl implements QeProcessor {
 
     @Override
     public void unregisterQuery(TUniqueId queryId) {
-        if (coordinatorMap.remove(queryId) != null) {
+        QueryInfo queryInfo = coordinatorMap.remove(queryId);
+        if (queryInfo != null) {
             LOG.info("deregister query id {}", DebugUtil.printId(queryId));
+            // wake up the pending queries waiting for the released slots
+            if (queryInfo.getCoord() != null && queryInfo.getCoord().getQueueSlots() > 0) {
+                QueryQueueManager.getInstance().maybeNotify();
+            }
         }
     }
 
@@ -16,8 +16,10 @@
 package com.starrocks.qe;
 
 import com.google.common.base.Preconditions;
+import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.common.UserException;
 import com.starrocks.metric.MetricRepo;
+import com.starrocks.metric.QueryQueueLaneMetrics;
 import com.starrocks.planner.DataSink;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.planner.ScanNode;
@@ -25,16 +27,32 @@ import com.starrocks.planner.SchemaScanNode;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.system.ComputeNode;
+import com.starrocks.thrift.TWorkGroup;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * The pending queries are queued in a lane per resource group, and admitted when the BEs aren't overloaded.
+ * <p>
+ * The lanes are dequeued by weighted fair share: each lane has a virtual time advanced by `slots / weight`
+ * of each admitted query, where weight is `cpu_core_limit` of the resource group, and the lane with the smallest
+ * virtual time is dequeued first. The queries of a lane are dequeued by `query_queue_priority` and then in FIFO.
+ * <p>
+ * If `query_queue_slot_mem_bytes` is effective, a query takes slots by the estimated memory of its plan, and
+ * it is admitted only if the free slots are enough, see {@link #canAdmitSlots}. Otherwise, the admitted queries
+ * are counted until the next resource usage report, see {@link #canAdmitWithoutSlotsAfterLock}.
+ */
 public class QueryQueueManager {
     private static final Logger LOG = LogManager.getLogger(QueryQueueManager.class);
 
@@ -43,14 +61,24 @@ public class QueryQueueManager {
         private final ConnectContext connectCtx;
         private final ReentrantLock lock;
         private final Condition condition;
+        private final String laneName;
+        private final int priority;
+        private final int slots;
+        private final long seq;
         private boolean isCancelled = false;
+        private boolean isAdmitted = false;
 
-        private PendingQueryInfo(ConnectContext connectCtx, ReentrantLock lock, Coordinator coordinator) {
+        private PendingQueryInfo(ConnectContext connectCtx, ReentrantLock lock, Coordinator coordinator,
+                                 String laneName, int slots, long seq) {
             Preconditions.checkState(connectCtx != null);
             this.coordinator = coordinator;
             this.connectCtx = connectCtx;
             this.lock = lock;
             this.condition = this.lock.newCondition();
+            this.laneName = laneName;
+            this.priority = connectCtx.getSessionVariable().getQueryQueuePriority();
+            this.slots = slots;
+            this.seq = seq;
         }
 
         public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
@@ -68,6 +96,30 @@ public class QueryQueueManager {
             isCancelled = true;
             signalAfterLock();
         }
+
+        public void admitAfterLock() {
+            Preconditions.checkState(lock.isHeldByCurrentThread());
+            isAdmitted = true;
+            coordinator.setQueueSlots(slots);
+            signalAfterLock();
+        }
+    }
+
+    // The pending queries of a resource group.
+    private static class Lane {
+        private final String name;
+        private final PriorityQueue<PendingQueryInfo> queries = new PriorityQueue<>(
+                Comparator.comparingInt((PendingQueryInfo info) -> -info.priority)
+                        .thenComparingLong(info -> info.seq));
+        private final QueryQueueLaneMetrics metrics;
+        private double weight = 1;
+        private double virtualTime;
+
+        private Lane(String name, double virtualTime) {
+            this.name = name;
+            this.virtualTime = virtualTime;
+            this.metrics = MetricRepo.getQueryQueueLaneMetrics(name);
+        }
     }
 
     private static class SingletonHolder {
@@ -82,6 +134,15 @@ public class QueryQueueManager {
 
     private final ReentrantLock lock = new ReentrantLock();
     private final Map<ConnectContext, PendingQueryInfo> pendingQueryInfoMap = new ConcurrentHashMap<>();
+    // The non-empty lanes, guarded by lock.
+    private final Map<String, Lane> lanes = new HashMap<>();
+    // The virtual time of the last admitted query, a new lane starts from it to not take the share of the past.
+    private double virtualTime = 0;
+    private long nextSeq = 0;
+    // The queries admitted without slots since the last resource usage report, which aren't reflected
+    // in the reported usage yet.
+    private int numAdmittedSinceReport = 0;
+    private long lastReportMs = 0;
 
     public void cancelQuery(ConnectContext connectCtx) {
         if (connectCtx == null) {
@@ -112,6 +173,8 @@ public class QueryQueueManager {
             lock.lock();
 
             backend.updateResourceUsage(numRunningQueries, memLimitBytes, memUsedBytes, cpuUsedPermille);
+            numAdmittedSinceReport = 0;
+            lastReportMs = System.currentTimeMillis();
             maybeNotifyAfterLock();
         } finally {
             lock.unlock();
@@ -122,34 +185,46 @@ public class QueryQueueManager {
         if (!needCheckQueue(coord)) {
             return;
         }
-        if (!enableCheckQueue(coord) || canRunMore()) {
+        if (!enableCheckQueue(coord)) {
             return;
         }
+        int slots = estimateSlots(connectCtx);
+        if (slots == 0 && pendingQueryInfoMap.isEmpty() && canRunMore()) {
+            return;
+        }
+
+        TWorkGroup resourceGroup = coord.prepareResourceGroup();
 
         long startMs = System.currentTimeMillis();
         long timeoutMs;
-        PendingQueryInfo info = new PendingQueryInfo(connectCtx, lock, coord);
+        PendingQueryInfo info = null;
 
         try {
             lock.lock();
-            if (!enableCheckQueue(coord) || canRunMore()) {
+            if (!enableCheckQueue(coord)) {
+                return;
+            }
+            // Don't overtake the pending queries.
+            if (pendingQueryInfoMap.isEmpty() && canRunMore() && canAdmitSlots(slots)) {
+                coord.setQueueSlots(slots);
                 return;
             }
 
             if (!canQueueMore()) {
                 throw new UserException("Need be queued but exceed query queue capacity");
             }
-            info.connectCtx.setPending(true);
-            pendingQueryInfoMap.put(info.connectCtx, info);
+            String laneName = resourceGroup == null ? ResourceGroup.DEFAULT_RESOURCE_GROUP_NAME
+                    : resourceGroup.getName();
+            info = new PendingQueryInfo(connectCtx, lock, coord, laneName, slots, nextSeq++);
+            enqueueAfterLock(info, resourceGroup);
+            admitAfterLock();
 
-            MetricRepo.COUNTER_QUERY_QUEUE_PENDING.increase(1L);
-            MetricRepo.COUNTER_QUERY_QUEUE_TOTAL.increase(1L);
-
-            while (enableCheckQueue(coord) && !canRunMore()) {
+            while (!info.isAdmitted && enableCheckQueue(coord)) {
                 timeoutMs = startMs + GlobalVariable.getQueryQueuePendingTimeoutSecond() * 1000L;
                 long currentMs = System.currentTimeMillis();
                 if (currentMs >= timeoutMs) {
                     MetricRepo.COUNTER_QUERY_QUEUE_TIMEOUT.increase(1L);
+                    MetricRepo.getQueryQueueLaneMetrics(laneName).counterTimeout.increase(1L);
                     throw new UserException("Pending timeout");
                 }
 
@@ -158,15 +233,92 @@ public class QueryQueueManager {
                 if (info.isCancelled) {
                     throw new UserException("Cancelled");
                 }
+                if (!info.isAdmitted) {
+                    // The resource usage may be changed without notification, e.g. the reports are lost.
+                    admitAfterLock();
+                }
             }
         } finally {
-            info.connectCtx.auditEventBuilder.setPendingTimeMs(System.currentTimeMillis() - startMs);
-            info.connectCtx.setPending(false);
-            pendingQueryInfoMap.remove(info.connectCtx);
+            if (info != null) {
+                dequeueAfterLock(info, System.currentTimeMillis() - startMs);
+            }
+            lock.unlock();
+        }
+    }
 
-            MetricRepo.COUNTER_QUERY_QUEUE_PENDING.increase(-1L);
+    private void enqueueAfterLock(PendingQueryInfo info, TWorkGroup resourceGroup) {
+        Preconditions.checkState(lock.isHeldByCurrentThread());
 
-            lock.unlock();
+        Lane lane = lanes.computeIfAbsent(info.laneName, name -> new Lane(name, virtualTime));
+        if (resourceGroup != null && resourceGroup.isSetCpu_core_limit() && resourceGroup.getCpu_core_limit() > 0) {
+            lane.weight = resourceGroup.getCpu_core_limit();
+        }
+        lane.queries.add(info);
+        info.connectCtx.setPending(true);
+        pendingQueryInfoMap.put(info.connectCtx, info);
+
+        MetricRepo.COUNTER_QUERY_QUEUE_PENDING.increase(1L);
+        MetricRepo.COUNTER_QUERY_QUEUE_TOTAL.increase(1L);
+        lane.metrics.counterPending.increase(1L);
+        lane.metrics.counterTotal.increase(1L);
+    }
+
+    private void dequeueAfterLock(PendingQueryInfo info, long pendingTimeMs) {
+        Preconditions.checkState(lock.isHeldByCurrentThread());
+
+        // The query is still in the lane, if it isn't admitted.
+        Lane lane = lanes.get(info.laneName);
+        if (lane != null) {
+            lane.queries.remove(info);
+            if (lane.queries.isEmpty()) {
+                lanes.remove(info.laneName);
+            }
+        }
+        info.connectCtx.auditEventBuilder.setPendingTimeMs(pendingTimeMs);
+        info.connectCtx.setPending(false);
+        pendingQueryInfoMap.remove(info.connectCtx);
+
+        MetricRepo.COUNTER_QUERY_QUEUE_PENDING.increase(-1L);
+        QueryQueueLaneMetrics laneMetrics = MetricRepo.getQueryQueueLaneMetrics(info.laneName);
+        laneMetrics.counterPending.increase(-1L);
+        laneMetrics.counterWaitTimeMs.increase(pendingTimeMs);
+    }
+
+    /**
+     * Admit the pending queries in the fair order, until the BEs are overloaded or the free slots
+     * aren't enough for the next query. The next query is never skipped, so the large queries won't starve.
+     * Without slots, the number of queries admitted at once is bounded by {@link #canAdmitWithoutSlotsAfterLock},
+     * otherwise the fair order would make no difference.
+     */
+    private void admitAfterLock() {
+        Preconditions.checkState(lock.isHeldByCurrentThread());
+
+        while (true) {
+            Lane lane = lanes.values().stream()
+                    .min(Comparator.comparingDouble((Lane l) -> l.virtualTime).thenComparing(l -> l.name))
+                    .orElse(null);
+            if (lane == null || !canRunMore()) {
+                return;
+            }
+            PendingQueryInfo info = lane.queries.peek();
+            Objects.requireNonNull(info);
+            if (!canAdmitSlots(info.slots)) {
+                return;
+            }
+            if (info.slots == 0) {
+                if (!canAdmitWithoutSlotsAfterLock()) {
+                    return;
+                }
+                numAdmittedSinceReport++;
+            }
+
+            lane.queries.poll();
+            lane.virtualTime += Math.max(info.slots, 1) / lane.weight;
+            virtualTime = lane.virtualTime;
+            if (lane.queries.isEmpty()) {
+                lanes.remove(lane.name);
+            }
+            info.admitAfterLock();
         }
     }
 
@@ -177,11 +329,7 @@ public class QueryQueueManager {
         if (pendingQueryInfoMap.isEmpty()) {
             return;
         }
-        if (canRunMore()) {
-            for (PendingQueryInfo queryInfo : pendingQueryInfoMap.values()) {
-                queryInfo.signalAfterLock();
-            }
-        }
+        admitAfterLock();
     }
 
     public void maybeNotify() {
@@ -193,6 +341,80 @@ public class QueryQueueManager {
         }
     }
 
+    /**
+     * Returns the slots the query takes, by the memory cost estimated by the optimizer,
+     * or 0 if `query_queue_slot_mem_bytes` isn't effective.
+     */
+    private int estimateSlots(ConnectContext connectCtx) {
+        if (!GlobalVariable.isQueryQueueSlotMemBytesEffective()) {
+            return 0;
+        }
+        double memCosts = connectCtx.getAuditEventBuilder().build().planMemCosts;
+        double slots = Math.ceil(memCosts / GlobalVariable.getQueryQueueSlotMemBytes());
+        return (int) Math.max(1, Math.min(slots, Integer.MAX_VALUE));
+    }
+
+    /**
+     * The total slots are `memory limit of the alive BEs * query_queue_mem_used_pct_limit
+     * / query_queue_slot_mem_bytes`, and the used slots are the slots taken by the running queries of this FE.
+     * A query is always admitted if no slot is used, to run the query larger than all the slots.
+     */
+    private boolean canAdmitSlots(int slots) {
+        if (slots == 0 || !GlobalVariable.isQueryQueueSlotMemBytesEffective()) {
+            return true;
+        }
+
+        long memLimitBytes = GlobalStateMgr.getCurrentSystemInfo().getBackends().stream()
+                .filter(ComputeNode::isAvailable)
+                .mapToLong(ComputeNode::getMemLimitBytes)
+                .sum();
+        double memPct = GlobalVariable.isQueryQueueMemUsedPctLimitEffective() ?
+                GlobalVariable.getQueryQueueMemUsedPctLimit() : 1;
+        long totalSlots = (long) (memLimitBytes * memPct / GlobalVariable.getQueryQueueSlotMemBytes());
+        if (totalSlots <= 0) {
+            // The memory limits haven't been reported yet.
+            return true;
+        }
+
+        long usedSlots = QeProcessorImpl.INSTANCE.getCoordinators().stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Coordinator::getQueueSlots)
+                .sum();
+        return usedSlots == 0 || usedSlots + slots <= totalSlots;
+    }
+
+    /**
+     * The usage of the queries admitted without slots is unknown until the BEs report again.
+     * With `query_queue_concurrency_limit`, the admitted queries are counted as running on every BE,
+     * so at most `concurrency limit - running queries of the busiest BE` queries are admitted until the next report.
+     * Otherwise, only one query is admitted per report.
+     * The count is also reset after a report interval, in case the reports are lost.
+     */
+    private boolean canAdmitWithoutSlotsAfterLock() {
+        Preconditions.checkState(lock.isHeldByCurrentThread());
+
+        if (!GlobalVariable.isQueryQueueConcurrencyLimitEffective()
+                && !GlobalVariable.isQueryQueueMemUsedPctLimitEffective()
+                && !GlobalVariable.isQueryQueueCpuUsedPermilleLimitEffective()) {
+            return true;
+        }
+
+        long currentMs = System.currentTimeMillis();
+        if (currentMs - lastReportMs > GlobalVariable.getQueryQueueResourceUsageIntervalMs()) {
+            numAdmittedSinceReport = 0;
+            lastReportMs = currentMs;
+        }
+
+        if (GlobalVariable.isQueryQueueConcurrencyLimitEffective()) {
+            int maxRunningQueries = GlobalStateMgr.getCurrentSystemInfo().getBackends().stream()
+                    .filter(backend -> backend.isAvailable() && backend.isResourceUsageFresh())
+                    .mapToInt(ComputeNode::getNumRunningQueries)
+                    .max().orElse(0);
+            return maxRunningQueries + numAdmittedSinceReport < GlobalVariable.getQueryQueueConcurrencyLimit();
+        }
+        return numAdmittedSinceReport == 0;
+    }
+
     public boolean enableCheckQueue(Coordinator coord) {
         if (coord.isLoadType()) {
             return GlobalVariable.isEnableQueryQueueLoad();
@@ -34,6 +34,8 @@
 
 package com.starrocks.qe;
 
+import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
 import com.starrocks.common.Status;
 import com.starrocks.common.util.DebugUtil;
 import com.starrocks.metric.MetricRepo;
@@ -51,6 +53,10 @@ import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TDeserializer;
 import org.apache.thrift.TException;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -66,6 +72,14 @@ public class ResultReceiver {
     private final PUniqueId finstId;
     private final Long backendId;
     private Thread currentThread;
+    // keep the result serialized, so that it can be sent to the client without deserializing
+    private boolean keepSerialized = false;
+    // max number of fetch requests in flight, see sendFetches()
+    private final int prefetchNum;
+    // fetch requests sent but not received yet, in the order they are sent
+    private final Deque<Pair<PFetchDataRequest, Future<PFetchDataResult>>> inflightFetches = new ArrayDeque<>();
+    // results received ahead of the expected packet, packet seq -> result
+    private final Map<Long, Pair<PFetchDataRequest, PFetchDataResult>> receivedFetches = new HashMap<>();
 
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, int timeoutMs) {
         this.finstId = new PUniqueId();
@@ -74,6 +88,11 @@ public class ResultReceiver {
         this.backendId = backendId;
         this.address = address;
         this.timeoutTs = System.currentTimeMillis() + timeoutMs;
+        this.prefetchNum = Math.max(1, Config.result_receiver_prefetch_num);
+    }
+
+    public void setKeepSerialized(boolean keepSerialized) {
+        this.keepSerialized = keepSerialized;
     }
 
     public RowBatch getNext(Status status) throws TException {
@@ -83,50 +102,67 @@ public class ResultReceiver {
         final RowBatch rowBatch = new RowBatch();
         try {
             while (!isDone && !isCancel) {
-                PFetchDataRequest request = new PFetchDataRequest(finstId);
-
-                currentThread = Thread.currentThread();
-                Future<PFetchDataResult> future = BackendServiceClient.getInstance().fetchDataAsync(address, request);
-                PFetchDataResult pResult = null;
-                while (pResult == null) {
-                    long currentTs = System.currentTimeMillis();
-                    if (currentTs >= timeoutTs) {
-                        throw new TimeoutException("query timeout");
+                Pair<PFetchDataRequest, PFetchDataResult> fetched = receivedFetches.remove(packetIdx);
+                if (fetched == null) {
+                    sendFetches();
+                    Pair<PFetchDataRequest, Future<PFetchDataResult>> inflight = inflightFetches.poll();
+
+                    currentThread = Thread.currentThread();
+                    Future<PFetchDataResult> future = inflight.second;
+                    PFetchDataResult pResult = null;
+                    while (pResult == null) {
+                        long currentTs = System.currentTimeMillis();
+                        if (currentTs >= timeoutTs) {
+                            throw new TimeoutException("query timeout");
+                        }
+                        try {
+                            pResult = future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            // continue to get result
+                            LOG.info("future get interrupted Exception");
+                            if (isCancel) {
+                                status.setStatus(Status.CANCELLED);
+                                return null;
+                            }
+                        }
                     }
-                    try {
-                        pResult = future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        // continue to get result
-                        LOG.info("future get interrupted Exception");
-                        if (isCancel) {
-                            status.setStatus(Status.CANCELLED);
-                            return null;
+                    TStatusCode code = TStatusCode.findByValue(pResult.status.statusCode);
+                    if (code != TStatusCode.OK) {
+                        status.setPstatus(pResult.status);
+                        return null;
+                    }
+
+                    if (packetIdx != pResult.packetSeq) {
+                        // the prefetched requests may be answered out of order by BE
+                        if (pResult.packetSeq > packetIdx && !inflightFetches.isEmpty()) {
+                            receivedFetches.put(pResult.packetSeq, Pair.create(inflight.first, pResult));
+                            continue;
                         }
+                        LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packetSeq);
+                        status.setRpcStatus("receive error packet");
+                        return null;
                     }
-                }
-                TStatusCode code = TStatusCode.findByValue(pResult.status.statusCode);
-                if (code != TStatusCode.OK) {
-                    status.setPstatus(pResult.status);
-                    return null;
+                    fetched = Pair.create(inflight.first, pResult);
                 }
 
+                PFetchDataResult pResult = fetched.second;
                 rowBatch.setQueryStatistics(pResult.queryStatistics);
 
-                if (packetIdx != pResult.packetSeq) {
-                    LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packetSeq);
-                    status.setRpcStatus("receive error packet");
-                    return null;
-                }
-
                 packetIdx++;
                 isDone = pResult.eos;
 
-                byte[] serialResult = request.getSerializedResult();
+                byte[] serialResult = fetched.first.getSerializedResult();
                 if (serialResult != null && serialResult.length > 0) {
-                    TResultBatch resultBatch = new TResultBatch();
-                    TDeserializer deserializer = new TDeserializer();
-                    deserializer.deserialize(resultBatch, serialResult);
-                    rowBatch.setBatch(resultBatch);
+                    SerializedResultBatch serializedBatch =
+                            keepSerialized ? SerializedResultBatch.parse(serialResult) : null;
+                    if (serializedBatch != null) {
+                        rowBatch.setSerializedBatch(serializedBatch);
+                    } else {
+                        TResultBatch resultBatch = new TResultBatch();
+                        TDeserializer deserializer = new TDeserializer();
+                        deserializer.deserialize(resultBatch, serialResult);
+                        rowBatch.setBatch(resultBatch);
+                    }
                     rowBatch.setEos(pResult.eos);
                     return rowBatch;
                 }
@@ -157,6 +193,9 @@ public class ResultReceiver {
             synchronized (this) {
                 currentThread = null;
             }
+            if (isDone || isCancel || !status.ok()) {
+                clearFetches();
+            }
         }
 
         if (isCancel) {
@@ -165,6 +204,29 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    /**
+     * Keep at most prefetchNum fetch requests in flight or received ahead. A new request is only sent when a batch
+     * is consumed by the caller, so a slow client holds back the fetching, and at most prefetchNum batches are
+     * buffered.
+     */
+    private void sendFetches() throws RpcException {
+        while (inflightFetches.isEmpty()
+                || (!isDone && inflightFetches.size() + receivedFetches.size() < prefetchNum)) {
+            PFetchDataRequest request = new PFetchDataRequest(finstId);
+            Future<PFetchDataResult> future = BackendServiceClient.getInstance().fetchDataAsync(address, request);
+            inflightFetches.add(Pair.create(request, future));
+        }
+    }
+
+    // the requests sent after eos are answered by BE with empty eos packets, just ignore them
+    private void clearFetches() {
+        for (Pair<PFetchDataRequest, Future<PFetchDataResult>> inflight : inflightFetches) {
+            inflight.second.cancel(false);
+        }
+        inflightFetches.clear();
+        receivedFetches.clear();
+    }
+
     public void cancel() {
         isCancel = true;
         synchronized (this) {
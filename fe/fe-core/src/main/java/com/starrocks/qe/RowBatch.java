@@ -22,6 +22,8 @@ import com.starrocks.thrift.TResultBatch;
 
 public final class RowBatch {
     private TResultBatch batch;
+    // set instead of batch if the result is kept serialized, see ResultReceiver.setKeepSerialized()
+    private SerializedResultBatch serializedBatch;
     private PQueryStatistics statistics;
     private boolean eos;
 
@@ -37,6 +39,21 @@ public final class RowBatch {
         this.batch = batch;
     }
 
+    public SerializedResultBatch getSerializedBatch() {
+        return serializedBatch;
+    }
+
+    public void setSerializedBatch(SerializedResultBatch serializedBatch) {
+        this.serializedBatch = serializedBatch;
+    }
+
+    public int getNumRows() {
+        if (batch != null) {
+            return batch.getRowsSize();
+        }
+        return serializedBatch == null ? 0 : serializedBatch.getNumRows();
+    }
+
     public PQueryStatistics getQueryStatistics() {
         return statistics;
     }
@@ -0,0 +1,185 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.qe;
+
+import org.apache.thrift.protocol.TType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A TResultBatch kept in the form it is serialized by BE with TBinaryProtocol. Only the offsets of the rows are
+ * parsed, so that the rows can be sent to the client without a ByteBuffer per row, see
+ * {@link com.starrocks.mysql.MysqlChannel#sendResultRows(SerializedResultBatch)}.
+ */
+public final class SerializedResultBatch {
+    // field id of TResultBatch.rows
+    private static final short ROWS_FIELD_ID = 1;
+
+    private final byte[] data;
+    private final int numRows;
+    private final int[] rowOffsets;
+    private final int[] rowLengths;
+
+    private SerializedResultBatch(byte[] data, int numRows, int[] rowOffsets, int[] rowLengths) {
+        this.data = data;
+        this.numRows = numRows;
+        this.rowOffsets = rowOffsets;
+        this.rowLengths = rowLengths;
+    }
+
+    /**
+     * Parse the rows of a serialized TResultBatch.
+     * Returns null if the data is not a TResultBatch in TBinaryProtocol, the caller should deserialize it as usual.
+     */
+    public static SerializedResultBatch parse(byte[] data) {
+        Parser parser = new Parser(data);
+        SerializedResultBatch batch = null;
+        while (true) {
+            if (!parser.ensure(1)) {
+                return null;
+            }
+            byte type = data[parser.pos++];
+            if (type == TType.STOP) {
+                break;
+            }
+            if (!parser.ensure(2)) {
+                return null;
+            }
+            short fieldId = parser.readI16();
+            if (fieldId == ROWS_FIELD_ID && type == TType.LIST) {
+                batch = parser.readRows();
+                if (batch == null) {
+                    return null;
+                }
+            } else if (!parser.skip(type)) {
+                return null;
+            }
+        }
+        if (parser.pos != data.length) {
+            return null;
+        }
+        return batch;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getRowOffset(int i) {
+        return rowOffsets[i];
+    }
+
+    public int getRowLength(int i) {
+        return rowLengths[i];
+    }
+
+    /**
+     * Wrap a row as a ByteBuffer, for the callers that need the rows one by one.
+     */
+    public ByteBuffer getRow(int i) {
+        return ByteBuffer.wrap(data, rowOffsets[i], rowLengths[i]);
+    }
+
+    private static final class Parser {
+        private final byte[] data;
+        private int pos = 0;
+
+        private Parser(byte[] data) {
+            this.data = data;
+        }
+
+        private boolean ensure(long length) {
+            return length >= 0 && pos + length <= data.length;
+        }
+
+        private short readI16() {
+            short value = (short) (((data[pos] & 0xff) << 8) | (data[pos + 1] & 0xff));
+            pos += 2;
+            return value;
+        }
+
+        private int readI32() {
+            int value = ((data[pos] & 0xff) << 24) | ((data[pos + 1] & 0xff) << 16)
+                    | ((data[pos + 2] & 0xff) << 8) | (data[pos + 3] & 0xff);
+            pos += 4;
+            return value;
+        }
+
+        private SerializedResultBatch readRows() {
+            if (!ensure(5)) {
+                return null;
+            }
+            byte elemType = data[pos++];
+            int size = readI32();
+            // every row takes at least 4 bytes for its length
+            if (elemType != TType.STRING || size < 0 || !ensure(4L * size)) {
+                return null;
+            }
+            int[] offsets = new int[size];
+            int[] lengths = new int[size];
+            for (int i = 0; i < size; i++) {
+                if (!ensure(4)) {
+                    return null;
+                }
+                int length = readI32();
+                if (!ensure(length)) {
+                    return null;
+                }
+                offsets[i] = pos;
+                lengths[i] = length;
+                pos += length;
+            }
+            return new SerializedResultBatch(data, size, offsets, lengths);
+        }
+
+        // skip a field of the primitive types, the other fields are not expected in TResultBatch
+        private boolean skip(byte type) {
+            int length;
+            switch (type) {
+                case TType.BOOL:
+                case TType.BYTE:
+                    length = 1;
+                    break;
+                case TType.I16:
+                    length = 2;
+                    break;
+                case TType.I32:
+                    length = 4;
+                    break;
+                case TType.I64:
+                case TType.DOUBLE:
+                    length = 8;
+                    break;
+                case TType.STRING:
+                    if (!ensure(4)) {
+                        return false;
+                    }
+                    length = readI32();
+                    break;
+                default:
+                    return false;
+            }
+            if (!ensure(length)) {
+                return false;
+            }
+            pos += length;
+            return true;
+        }
+    }
+}
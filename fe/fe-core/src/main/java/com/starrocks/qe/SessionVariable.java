@@ -104,6 +104,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
      */
     public static final String SQL_MODE_STORAGE_NAME = "sql_mode_v2";
     public static final String RESOURCE_GROUP = "resource_group";
+    public static final String QUERY_QUEUE_PRIORITY = "query_queue_priority";
     public static final String AUTO_COMMIT = "autocommit";
     public static final String TX_ISOLATION = "tx_isolation";
     public static final String TRANSACTION_ISOLATION = "transaction_isolation";
@@ -231,11 +232,13 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String ENABLE_QUERY_DUMP = "enable_query_dump";
 
     public static final String CBO_MAX_REORDER_NODE_USE_EXHAUSTIVE = "cbo_max_reorder_node_use_exhaustive";
+    public static final String CBO_ENABLE_PARALLEL_EXPLORE = "cbo_enable_parallel_explore";
     public static final String CBO_ENABLE_DP_JOIN_REORDER = "cbo_enable_dp_join_reorder";
     public static final String CBO_MAX_REORDER_NODE_USE_DP = "cbo_max_reorder_node_use_dp";
     public static final String CBO_ENABLE_GREEDY_JOIN_REORDER = "cbo_enable_greedy_join_reorder";
     public static final String CBO_ENABLE_REPLICATED_JOIN = "cbo_enable_replicated_join";
     public static final String CBO_USE_CORRELATED_JOIN_ESTIMATE = "cbo_use_correlated_join_estimate";
+    public static final String CBO_USE_HISTOGRAM_SELECTIVITY = "cbo_use_histogram_selectivity";
     public static final String CBO_ENABLE_LOW_CARDINALITY_OPTIMIZE = "cbo_enable_low_cardinality_optimize";
     public static final String CBO_USE_NTH_EXEC_PLAN = "cbo_use_nth_exec_plan";
     public static final String CBO_CTE_REUSE = "cbo_cte_reuse";
@@ -305,8 +308,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
 
     public static final String ENABLE_SCAN_BLOCK_CACHE = "enable_scan_block_cache";
     public static final String ENABLE_POPULATE_BLOCK_CACHE = "enable_populate_block_cache";
+    public static final String ENABLE_LOAD_AWARE_SCAN_RANGE_ASSIGNMENT = "enable_load_aware_scan_range_assignment";
 
     public static final String ENABLE_QUERY_CACHE = "enable_query_cache";
+    public static final String ENABLE_PLAN_CACHE = "enable_plan_cache";
     public static final String QUERY_CACHE_FORCE_POPULATE = "query_cache_force_populate";
     public static final String QUERY_CACHE_ENTRY_MAX_BYTES = "query_cache_entry_max_bytes";
     public static final String QUERY_CACHE_ENTRY_MAX_ROWS = "query_cache_entry_max_rows";
@@ -323,6 +328,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String ENABLE_MATERIALIZED_VIEW_UNION_REWRITE = "enable_materialized_view_union_rewrite";
     public static final String ENABLE_RULE_BASED_MATERIALIZED_VIEW_REWRITE =
             "enable_rule_based_materialized_view_rewrite";
+    public static final String ENABLE_MATERIALIZED_VIEW_PLAN_CACHE = "enable_materialized_view_plan_cache";
 
     public static final String ENABLE_BIG_QUERY_LOG = "enable_big_query_log";
     public static final String BIG_QUERY_LOG_CPU_SECOND_THRESHOLD = "big_query_log_cpu_second_threshold";
@@ -441,6 +447,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = RESOURCE_GROUP, flag = VariableMgr.SESSION_ONLY)
     private String resourceGroup = "";
 
+    // The pending queries with higher priority are dequeued first in the lane of the same resource group
+    @VariableMgr.VarAttr(name = QUERY_QUEUE_PRIORITY)
+    private int queryQueuePriority = 0;
+
     // this is used to make mysql client happy
     @VariableMgr.VarAttr(name = AUTO_COMMIT)
     private boolean autoCommit = true;
@@ -536,6 +546,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_USE_CORRELATED_JOIN_ESTIMATE, flag = VariableMgr.INVISIBLE)
     private boolean useCorrelatedJoinEstimate = true;
 
+    // estimate the selectivity of in predicates and join predicates with the histogram of the columns
+    @VariableMgr.VarAttr(name = CBO_USE_HISTOGRAM_SELECTIVITY)
+    private boolean cboUseHistogramSelectivity = false;
+
     @VariableMgr.VarAttr(name = CBO_USE_NTH_EXEC_PLAN, flag = VariableMgr.INVISIBLE)
     private int useNthExecPlan = 0;
 
@@ -613,6 +627,9 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_MAX_REORDER_NODE, flag = VariableMgr.INVISIBLE)
     private int cboMaxReorderNode = 50;
 
+    @VariableMgr.VarAttr(name = CBO_ENABLE_PARALLEL_EXPLORE)
+    private boolean cboEnableParallelExplore = false;
+
     @VariableMgr.VarAttr(name = CBO_ENABLE_DP_JOIN_REORDER, flag = VariableMgr.INVISIBLE)
     private boolean cboEnableDPJoinReorder = true;
 
@@ -757,6 +774,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = ENABLE_POPULATE_BLOCK_CACHE)
     private boolean enablePopulateBlockCache = true;
 
+    // assign the scan ranges of external tables by the cpu usage and running queries of the compute nodes
+    @VariableMgr.VarAttr(name = ENABLE_LOAD_AWARE_SCAN_RANGE_ASSIGNMENT)
+    private boolean enableLoadAwareScanRangeAssignment = false;
+
     public boolean getUseScanBlockCache() {
         return useScanBlockCache;
     }
@@ -764,6 +785,9 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VarAttr(name = ENABLE_QUERY_CACHE)
     private boolean enableQueryCache = false;
 
+    @VarAttr(name = ENABLE_PLAN_CACHE)
+    private boolean enablePlanCache = false;
+
     @VarAttr(name = QUERY_CACHE_FORCE_POPULATE)
     private boolean queryCacheForcePopulate = false;
 
@@ -791,6 +815,9 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VarAttr(name = ENABLE_RULE_BASED_MATERIALIZED_VIEW_REWRITE)
     private boolean enableRuleBasedMaterializedViewRewrite = true;
 
+    @VarAttr(name = ENABLE_MATERIALIZED_VIEW_PLAN_CACHE)
+    private boolean enableMaterializedViewPlanCache = true;
+
     // if enable_big_query_log = true and cpu/io cost of a query exceeds the related threshold,
     // the information will be written to the big query log
     @VarAttr(name = ENABLE_BIG_QUERY_LOG)
@@ -815,6 +842,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return enablePopulateBlockCache;
     }
 
+    public boolean isEnableLoadAwareScanRangeAssignment() {
+        return enableLoadAwareScanRangeAssignment;
+    }
+
+    public void setEnableLoadAwareScanRangeAssignment(boolean enableLoadAwareScanRangeAssignment) {
+        this.enableLoadAwareScanRangeAssignment = enableLoadAwareScanRangeAssignment;
+    }
+
     public void setCboCTEMaxLimit(int cboCTEMaxLimit) {
         this.cboCTEMaxLimit = cboCTEMaxLimit;
     }
@@ -959,6 +994,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.resourceGroup = resourceGroup;
     }
 
+    public int getQueryQueuePriority() {
+        return queryQueuePriority;
+    }
+
+    public void setQueryQueuePriority(int queryQueuePriority) {
+        this.queryQueuePriority = queryQueuePriority;
+    }
+
     public boolean isDisableColocateJoin() {
         return disableColocateJoin;
     }
@@ -1130,6 +1173,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return optimizerExecuteTimeout;
     }
 
+    public boolean isCboEnableParallelExplore() {
+        return cboEnableParallelExplore;
+    }
+
+    public void setCboEnableParallelExplore(boolean cboEnableParallelExplore) {
+        this.cboEnableParallelExplore = cboEnableParallelExplore;
+    }
+
     public void setOptimizerExecuteTimeout(long optimizerExecuteTimeout) {
         this.optimizerExecuteTimeout = optimizerExecuteTimeout;
     }
@@ -1282,6 +1333,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.useCorrelatedJoinEstimate = useCorrelatedJoinEstimate;
     }
 
+    public boolean isCboUseHistogramSelectivity() {
+        return cboUseHistogramSelectivity;
+    }
+
+    public void setCboUseHistogramSelectivity(boolean cboUseHistogramSelectivity) {
+        this.cboUseHistogramSelectivity = cboUseHistogramSelectivity;
+    }
+
     public boolean isEnableLowCardinalityOptimize() {
         return enableLowCardinalityOptimize;
     }
@@ -1445,6 +1504,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         enableQueryCache = on;
     }
 
+    public boolean isEnablePlanCache() {
+        return enablePlanCache;
+    }
+
+    public void setEnablePlanCache(boolean enablePlanCache) {
+        this.enablePlanCache = enablePlanCache;
+    }
+
     public boolean isQueryCacheForcePopulate() {
         return queryCacheForcePopulate;
     }
@@ -1485,6 +1552,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.enableRuleBasedMaterializedViewRewrite = enableRuleBasedMaterializedViewRewrite;
     }
 
+    public boolean isEnableMaterializedViewPlanCache() {
+        return enableMaterializedViewPlanCache;
+    }
+
+    public void setEnableMaterializedViewPlanCache(boolean enableMaterializedViewPlanCache) {
+        this.enableMaterializedViewPlanCache = enableMaterializedViewPlanCache;
+    }
+
     public boolean isEnableBigQueryLog() {
         return enableBigQueryLog;
     }
@@ -50,6 +50,7 @@ import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.catalog.ResourceGroupClassifier;
 import com.starrocks.catalog.ScalarType;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
@@ -76,6 +77,7 @@ import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.TableMetricsEntity;
 import com.starrocks.metric.TableMetricsRegistry;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlColType;
 import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.mysql.privilege.PrivPredicate;
@@ -190,6 +192,8 @@ public class StmtExecutor {
     private List<ByteBuffer> proxyResultBuffer = null;
     private ShowResultSet proxyResultSet = null;
     private PQueryStatistics statisticsForAuditLog;
+    // not null if executing a server-side prepared statement, whose results are sent in binary protocol
+    private PrepareStmtContext prepareStmtContext;
 
     // this constructor is mainly for proxy
     public StmtExecutor(ConnectContext context, OriginStatement originStmt, boolean isProxy) {
@@ -216,6 +220,12 @@ public class StmtExecutor {
         this.isProxy = false;
     }
 
+    // constructor for executing a prepared statement, whose parameters have been bound
+    public StmtExecutor(ConnectContext ctx, PrepareStmtContext prepareStmtContext) {
+        this(ctx, prepareStmtContext.getStmt());
+        this.prepareStmtContext = prepareStmtContext;
+    }
+
     public Coordinator getCoordinator() {
         return this.coord;
     }
@@ -321,7 +331,8 @@ public class StmtExecutor {
         if (leaderOpExecutor == null) {
             return false;
         } else {
-            return leaderOpExecutor.sendResultToChannel(channel);
+            // the leader executes the statement as a text query, whose rows are transcoded for COM_STMT_EXECUTE
+            return leaderOpExecutor.sendResultToChannel(channel, prepareStmtContext == null ? null : serializer);
         }
     }
 
@@ -382,6 +393,10 @@ public class StmtExecutor {
                             parsedStmt = selectStmt;
                             execPlan = StatementPlanner.plan(parsedStmt, context);
                         }
+                    } else if (prepareStmtContext != null) {
+                        execPlan = StatementPlanner.plan(prepareStmtContext, context);
+                        // the prepared statement may be parsed again
+                        parsedStmt = prepareStmtContext.getStmt();
                     } else {
                         execPlan = StatementPlanner.plan(parsedStmt, context);
                     }
@@ -734,8 +749,12 @@ public class StmtExecutor {
         TDescriptorTable descTable = execPlan.getDescTbl().toThrift();
         List<String> colNames = execPlan.getColNames();
         List<Expr> outputExprs = execPlan.getOutputExprs();
+        List<MysqlColType> outputColTypes = outputExprs.stream().map(expr -> expr.getOriginType().getMysqlResultType())
+                .collect(Collectors.toList());
 
         coord = new Coordinator(context, fragments, scanNodes, descTable);
+        // the rows can be sent as they are only in text protocol and not forwarded to another FE
+        coord.setKeepSerializedResult(Config.enable_mysql_result_direct_send && !isProxy && prepareStmtContext == null);
 
         QeProcessorImpl.INSTANCE.registerQuery(context.getExecutionId(),
                 new QeProcessorImpl.QueryInfo(context, originStmt.originStmt, coord));
@@ -760,7 +779,14 @@ public class StmtExecutor {
         while (true) {
             batch = coord.getNext();
             // for outfile query, there will be only one empty batch send back with eos flag
-            if (batch.getBatch() != null && !isOutfileQuery) {
+            if (batch.getSerializedBatch() != null && !isOutfileQuery) {
+                if (!isSendFields) {
+                    sendFields(colNames, outputExprs);
+                    isSendFields = true;
+                }
+                channel.sendResultRows(batch.getSerializedBatch());
+                context.updateReturnRows(batch.getNumRows());
+            } else if (batch.getBatch() != null && !isOutfileQuery) {
                 // For some language driver, getting error packet after fields packet will be recognized as a success result
                 // so We need to send fields after first batch arrived
                 if (!isSendFields) {
@@ -779,6 +805,10 @@ public class StmtExecutor {
                 for (ByteBuffer row : batch.getBatch().getRows()) {
                     if (isProxy) {
                         proxyResultBuffer.add(row);
+                    } else if (prepareStmtContext != null) {
+                        serializer.reset();
+                        serializer.writeBinaryRow(outputColTypes, row);
+                        channel.sendOnePacket(serializer.toByteBuffer());
                     } else {
                         channel.sendOnePacket(row);
                     }
@@ -1043,7 +1073,20 @@ public class StmtExecutor {
 
         // Send result set.
         for (List<String> row : resultSet.getResultRows()) {
-            serializer.reset();
+            sendTextRow(resultSet.getMetaData(), row);
+        }
+
+        context.getState().setEof();
+    }
+
+    private void sendTextRow(ShowResultSetMetaData metaData, List<String> row) throws IOException {
+        serializer.reset();
+        if (prepareStmtContext != null) {
+            List<Type> types = metaData.getColumns().stream().map(Column::getType).collect(Collectors.toList());
+            List<String> values = row.stream().map(item -> FeConstants.null_string.equals(item) ? null : item)
+                    .collect(Collectors.toList());
+            serializer.writeBinaryRow(types, values);
+        } else {
             for (String item : row) {
                 if (item == null || item.equals(FeConstants.null_string)) {
                     serializer.writeNull();
@@ -1051,10 +1094,8 @@ public class StmtExecutor {
                     serializer.writeLenEncodedString(item);
                 }
             }
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
-
-        context.getState().setEof();
+        context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
     }
 
     // Process show statement
@@ -1087,9 +1128,7 @@ public class StmtExecutor {
 
         // Send result set.
         for (String item : explainString.split("\n")) {
-            serializer.reset();
-            serializer.writeLenEncodedString(item);
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            sendTextRow(metaData, Lists.newArrayList(item));
         }
         context.getState().setEof();
     }
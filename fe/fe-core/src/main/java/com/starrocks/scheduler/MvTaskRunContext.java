@@ -30,6 +30,7 @@ public class MvTaskRunContext extends TaskRunContext {
         this.definition = context.definition;
         this.remoteIp = context.remoteIp;
         this.properties = context.properties;
+        this.status = context.status;
     }
 
     public Map<String, Set<String>> getBaseToMvNameRef() {
@@ -40,7 +40,9 @@ import com.starrocks.catalog.PartitionKey;
 import com.starrocks.catalog.SinglePartitionInfo;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.io.DeepCopy;
 import com.starrocks.common.util.RangeUtils;
@@ -50,7 +52,10 @@ import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
 import com.starrocks.planner.OlapScanNode;
 import com.starrocks.planner.ScanNode;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.QueryState;
+import com.starrocks.qe.SessionVariable;
 import com.starrocks.qe.StmtExecutor;
+import com.starrocks.scheduler.persist.TaskRunStatus;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.StatementPlanner;
 import com.starrocks.sql.analyzer.Analyzer;
@@ -83,6 +88,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -125,6 +134,7 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
 
         InsertStmt insertStmt = null;
         ExecPlan execPlan = null;
+        List<Set<String>> partitionBatches = null;
         int retryNum = 0;
         boolean checked = false;
         while (!checked) {
@@ -159,6 +169,13 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
                     LOG.info("no partitions to refresh for materialized view {}", materializedView.getName());
                     return;
                 }
+                int parallelism = getPartitionRefreshParallelism();
+                if (parallelism > 1 && partitionsToRefresh.size() > 1) {
+                    // refresh all the partitions in batches concurrently, the plan of each batch is generated
+                    // when it is executed
+                    partitionBatches = splitPartitionsToBatches(partitionsToRefresh, materializedView, parallelism);
+                    break;
+                }
                 // Only refresh the first partition refresh number partitions, other partitions will generate new tasks
                 filterPartitionByRefreshNumber(partitionsToRefresh, materializedView);
 
@@ -168,13 +185,18 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
                         materializedView.getName(), sourceTablePartitions);
 
                 // create ExecPlan
-                insertStmt = generateInsertStmt(partitionsToRefresh, sourceTablePartitions);
+                insertStmt = generateInsertStmt(mvContext.getCtx(), partitionsToRefresh, sourceTablePartitions);
                 execPlan = generateRefreshPlan(mvContext.getCtx(), insertStmt);
             } finally {
                 database.readUnlock();
             }
         }
 
+        if (partitionBatches != null) {
+            refreshPartitionBatches(partitionBatches);
+            return;
+        }
+
         // execute the ExecPlan of insert outside lock
         refreshMaterializedView(mvContext, execPlan, insertStmt);
 
@@ -237,6 +259,149 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
         }
     }
 
+    private int getPartitionRefreshParallelism() {
+        int parallelism = materializedView.getTableProperty().getPartitionRefreshParallelism();
+        return Math.min(parallelism, Config.max_mv_partition_refresh_parallelism);
+    }
+
+    /**
+     * Split the partitions to refresh into batches ordered by the partition range,
+     * each batch contains at most partition_refresh_number partitions.
+     * If partition_refresh_number is not set, the partitions are split evenly by the parallelism.
+     */
+    @VisibleForTesting
+    public List<Set<String>> splitPartitionsToBatches(Set<String> partitionsToRefresh,
+                                                      MaterializedView materializedView, int parallelism) {
+        List<String> sortedPartitionNames;
+        if (materializedView.getPartitionInfo() instanceof ExpressionRangePartitionInfo) {
+            Map<String, Range<PartitionKey>> rangePartitionMap = materializedView.getRangePartitionMap();
+            sortedPartitionNames = partitionsToRefresh.stream()
+                    .filter(rangePartitionMap::containsKey)
+                    .sorted((p1, p2) -> RangeUtils.RANGE_COMPARATOR.compare(
+                            rangePartitionMap.get(p1), rangePartitionMap.get(p2)))
+                    .collect(Collectors.toList());
+        } else {
+            sortedPartitionNames = partitionsToRefresh.stream().sorted().collect(Collectors.toList());
+        }
+
+        int batchSize = materializedView.getTableProperty().getPartitionRefreshNumber();
+        if (batchSize <= 0) {
+            batchSize = (sortedPartitionNames.size() + parallelism - 1) / parallelism;
+        }
+        List<Set<String>> batches = Lists.newArrayList();
+        for (int i = 0; i < sortedPartitionNames.size(); i += batchSize) {
+            batches.add(Sets.newLinkedHashSet(
+                    sortedPartitionNames.subList(i, Math.min(i + batchSize, sortedPartitionNames.size()))));
+        }
+        return batches;
+    }
+
+    // Each batch is an independent insert overwrite, whose partitions and versions are committed to the meta
+    // when it completes, so the succeeded batches are kept if others fail.
+    private void refreshPartitionBatches(List<Set<String>> partitionBatches) throws Exception {
+        int parallelism = Math.min(getPartitionRefreshParallelism(), partitionBatches.size());
+        LOG.info("refresh materialized view:{} in {} partition batches, parallelism:{}",
+                materializedView.getName(), partitionBatches.size(), parallelism);
+        ExecutorService executor = ThreadPoolManager.newDaemonFixedThreadPool(parallelism, partitionBatches.size(),
+                "mv-partition-refresh-" + materializedView.getId(), false);
+        AtomicInteger finishedBatches = new AtomicInteger(0);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Future<?>> futures = Lists.newArrayList();
+        try {
+            for (Set<String> partitionBatch : partitionBatches) {
+                futures.add(executor.submit(() -> {
+                    if (failed.get()) {
+                        return null;
+                    }
+                    try {
+                        refreshPartitionBatch(partitionBatch);
+                    } catch (Exception e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                    updateProgress(finishedBatches.incrementAndGet(), partitionBatches.size());
+                    LOG.info("materialized view:{} refreshed partition batch:{}, finished batches:{}/{}",
+                            materializedView.getName(), partitionBatch, finishedBatches.get(),
+                            partitionBatches.size());
+                    return null;
+                }));
+            }
+            Throwable failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+            if (failure != null) {
+                throw new DmlException("materialized view:%s refresh failed, %d of %d partition batches finished: %s",
+                        failure, materializedView.getName(), finishedBatches.get(), partitionBatches.size(),
+                        failure.getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void refreshPartitionBatch(Set<String> partitionBatch) throws Exception {
+        MvTaskRunContext batchContext = createBatchContext();
+        ConnectContext ctx = batchContext.getCtx();
+        try {
+            InsertStmt insertStmt;
+            ExecPlan execPlan;
+            database.readLock();
+            try {
+                Map<String, Set<String>> sourceTablePartitions = getSourceTablePartitions(partitionBatch);
+                insertStmt = generateInsertStmt(ctx, partitionBatch, sourceTablePartitions);
+                execPlan = generateRefreshPlan(ctx, insertStmt);
+            } finally {
+                database.readUnlock();
+            }
+            refreshMaterializedView(batchContext, execPlan, insertStmt);
+            if (ctx.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+                throw new DmlException("refresh partitions %s failed: %s", partitionBatch,
+                        ctx.getState().getErrorMessage());
+            }
+            updateMeta(execPlan);
+        } finally {
+            ConnectContext.remove();
+        }
+    }
+
+    // every batch is executed by its own ConnectContext, which copies the one of the task run
+    private MvTaskRunContext createBatchContext() throws CloneNotSupportedException {
+        ConnectContext runCtx = mvContext.getCtx();
+        ConnectContext ctx = new ConnectContext(null);
+        ctx.setGlobalStateMgr(runCtx.getGlobalStateMgr());
+        ctx.setDatabase(runCtx.getDatabase());
+        ctx.setQualifiedUser(runCtx.getQualifiedUser());
+        ctx.setCurrentUserIdentity(runCtx.getCurrentUserIdentity());
+        ctx.setSessionVariable((SessionVariable) runCtx.getSessionVariable().clone());
+        ctx.getState().reset();
+        ctx.setQueryId(UUIDUtil.genUUID());
+
+        TaskRunContext context = new TaskRunContext();
+        context.setCtx(ctx);
+        context.setDefinition(mvContext.getDefinition());
+        context.setRemoteIp(mvContext.getRemoteIp());
+        context.setProperties(mvContext.getProperties());
+        MvTaskRunContext batchContext = new MvTaskRunContext(context);
+        batchContext.setBaseToMvNameRef(mvContext.getBaseToMvNameRef());
+        batchContext.setMvToBaseNameRef(mvContext.getMvToBaseNameRef());
+        return batchContext;
+    }
+
+    private void updateProgress(int finishedBatches, int totalBatches) {
+        TaskRunStatus status = mvContext.getStatus();
+        if (status != null) {
+            // 100 is set when the task run succeeds
+            status.setProgress(Math.min(99, finishedBatches * 100 / totalBatches));
+        }
+    }
+
     private void generateNextTaskRun() {
         TaskManager taskManager = GlobalStateMgr.getCurrentState().getTaskManager();
         Map<String, String> properties = mvContext.getProperties();
@@ -595,9 +760,8 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
         return StatementPlanner.plan(insertStmt, ctx);
     }
 
-    private InsertStmt generateInsertStmt(Set<String> materializedViewPartitions,
+    private InsertStmt generateInsertStmt(ConnectContext ctx, Set<String> materializedViewPartitions,
                                           Map<String, Set<String>> sourceTablePartitions) {
-        ConnectContext ctx = mvContext.getCtx();
         ctx.getAuditEventBuilder().reset();
         ctx.getAuditEventBuilder()
                 .setTimestamp(System.currentTimeMillis())
@@ -15,6 +15,7 @@
 package com.starrocks.scheduler;
 
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.scheduler.persist.TaskRunStatus;
 
 import java.util.Map;
 
@@ -24,6 +25,8 @@ public class TaskRunContext {
     String remoteIp;
     int priority;
     Map<String, String> properties;
+    // status of the running TaskRun, used to report progress
+    TaskRunStatus status;
 
     public ConnectContext getCtx() {
         return ctx;
@@ -64,4 +67,12 @@ public class TaskRunContext {
     public void setProperties(Map<String, String> properties) {
         this.properties = properties;
     }
+
+    public TaskRunStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskRunStatus status) {
+        this.status = status;
+    }
 }
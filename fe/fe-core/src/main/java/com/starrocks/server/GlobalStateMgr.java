@@ -41,6 +41,9 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.starrocks.alter.Alter;
 import com.starrocks.alter.AlterJobV2;
 import com.starrocks.alter.MaterializedViewHandler;
@@ -72,6 +75,7 @@ import com.starrocks.catalog.HiveTable;
 import com.starrocks.catalog.HudiTable;
 import com.starrocks.catalog.IcebergTable;
 import com.starrocks.catalog.Index;
+import com.starrocks.catalog.InfoSchemaDb;
 import com.starrocks.catalog.JDBCTable;
 import com.starrocks.catalog.KeysType;
 import com.starrocks.catalog.MaterializedIndexMeta;
@@ -192,6 +196,9 @@ import com.starrocks.persist.Storage;
 import com.starrocks.persist.TableInfo;
 import com.starrocks.persist.TablePropertyInfo;
 import com.starrocks.persist.TruncateTableInfo;
+import com.starrocks.persist.metablock.SRMetaBlockException;
+import com.starrocks.persist.metablock.SRMetaBlockSectionReader;
+import com.starrocks.persist.metablock.SRMetaBlockSectionWriter;
 import com.starrocks.plugin.PluginInfo;
 import com.starrocks.plugin.PluginMgr;
 import com.starrocks.privilege.PrivilegeManager;
@@ -249,6 +256,7 @@ import com.starrocks.sql.optimizer.statistics.CachedStatisticStorage;
 import com.starrocks.sql.optimizer.statistics.StatisticStorage;
 import com.starrocks.statistic.AnalyzeManager;
 import com.starrocks.statistic.StatisticAutoCollector;
+import com.starrocks.statistic.StatisticCacheRefresher;
 import com.starrocks.statistic.StatisticsMetaManager;
 import com.starrocks.statistic.StatsConstants;
 import com.starrocks.system.Frontend;
@@ -292,8 +300,12 @@ import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -369,6 +381,13 @@ public class GlobalStateMgr {
 
     private static GlobalStateMgr CHECKPOINT = null;
     private static long checkpointThreadId = -1;
+    // the threads saving or loading image sections for the checkpoint thread
+    private static final Set<Long> CHECKPOINT_WORKER_THREAD_IDS = Sets.newConcurrentHashSet();
+
+    // the sections of a sectioned image, see saveSectionedImage()
+    private static final String IMAGE_SECTION_HEADER = "header";
+    private static final String IMAGE_SECTION_DB_PREFIX = "db.";
+    private static final String IMAGE_SECTION_CLUSTER = "cluster";
     private Checkpoint checkpointer;
 
     private HAProtocol haProtocol = null;
@@ -435,6 +454,7 @@ public class GlobalStateMgr {
     private final StatisticsMetaManager statisticsMetaManager;
 
     private final StatisticAutoCollector statisticAutoCollector;
+    private final StatisticCacheRefresher statisticCacheRefresher;
 
     private AnalyzeManager analyzeManager;
 
@@ -552,6 +572,7 @@ public class GlobalStateMgr {
         this.statisticsMetaManager = new StatisticsMetaManager();
         this.statisticAutoCollector = new StatisticAutoCollector();
         this.statisticStorage = new CachedStatisticStorage();
+        this.statisticCacheRefresher = new StatisticCacheRefresher();
 
         this.replayedJournalId = new AtomicLong(0L);
         this.synchronizedTimeMs = 0;
@@ -769,7 +790,9 @@ public class GlobalStateMgr {
     }
 
     public static boolean isCheckpointThread() {
-        return Thread.currentThread().getId() == checkpointThreadId;
+        long threadId = Thread.currentThread().getId();
+        return threadId == checkpointThreadId ||
+                (!CHECKPOINT_WORKER_THREAD_IDS.isEmpty() && CHECKPOINT_WORKER_THREAD_IDS.contains(threadId));
     }
 
     public static PluginMgr getCurrentPluginMgr() {
@@ -1188,6 +1211,7 @@ public class GlobalStateMgr {
     // start threads that should running on all FE
     private void startNonLeaderDaemonThreads() {
         tabletStatMgr.start();
+        statisticCacheRefresher.start();
         // load and export job label cleaner thread
         labelCleaner.start();
         // ES state store
@@ -1259,6 +1283,26 @@ public class GlobalStateMgr {
         LOG.info("start load image from {}. is ckpt: {}", curFile.getAbsolutePath(),
                 GlobalStateMgr.isCheckpointThread());
         long loadImageStartTime = System.currentTimeMillis();
+        if (SRMetaBlockSectionReader.isSectionedImage(curFile)) {
+            loadSectionedImage(curFile);
+        } else {
+            loadImage(curFile);
+        }
+
+        if (isUsingNewPrivilege() && needUpgradedToNewPrivilege() && !isLeader() && !isCheckpointThread()) {
+            LOG.warn(
+                    "follower has to wait for leader to upgrade the privileges, set usingNewPrivilege = false for now");
+            usingNewPrivilege.set(false);
+            domainResolver = new DomainResolver(auth);
+        }
+
+        long loadImageEndTime = System.currentTimeMillis();
+        this.imageJournalId = storage.getImageJournalId();
+        LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
+    }
+
+    // load the image saved as a single stream
+    private void loadImage(File curFile) throws IOException, DdlException {
         DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(curFile)));
 
         long checksum = 0;
@@ -1321,17 +1365,220 @@ public class GlobalStateMgr {
         }
 
         Preconditions.checkState(remoteChecksum == checksum, remoteChecksum + " vs. " + checksum);
+    }
 
-        if (isUsingNewPrivilege() && needUpgradedToNewPrivilege() && !isLeader() && !isCheckpointThread()) {
-            LOG.warn(
-                    "follower has to wait for leader to upgrade the privileges, set usingNewPrivilege = false for now");
-            usingNewPrivilege.set(false);
-            domainResolver = new DomainResolver(auth);
+    // load the image saved by saveSectionedImage(), the independent sections are loaded in parallel
+    private void loadSectionedImage(File curFile) throws IOException, DdlException {
+        try {
+            SRMetaBlockSectionReader reader = new SRMetaBlockSectionReader(curFile);
+            // the header sets the meta version for the rest sections
+            reader.readSection(IMAGE_SECTION_HEADER, this::loadHeaderSection);
+
+            ExecutorService executor = newImageExecutor("image-loader");
+            try {
+                // the databases are deserialized in parallel and registered in order
+                List<Future<Database>> dbFutures = Lists.newArrayList();
+                for (String name : reader.getSectionNames()) {
+                    if (name.startsWith(IMAGE_SECTION_DB_PREFIX)) {
+                        dbFutures.add(executor.submit(() -> {
+                            Database db = new Database();
+                            reader.readSection(name, db::readFields);
+                            return db;
+                        }));
+                    }
+                }
+                for (Future<Database> dbFuture : dbFutures) {
+                    localMetastore.loadDb(getImageTaskResult(dbFuture));
+                }
+                LOG.info("finished replay databases from image");
+                // ATTN: this should be done after load Db, and before loadAlterJob
+                localMetastore.recreateTabletInvertIndex();
+                // rebuild es state state
+                esRepository.loadTableFromCatalog();
+                starRocksRepository.loadTableFromCatalog();
+                reader.readSection(IMAGE_SECTION_CLUSTER, dis -> localMetastore.loadCluster(dis, 0));
+
+                List<Future<?>> chainFutures = Lists.newArrayList();
+                for (List<ImageSection> chain : getImageSectionChains()) {
+                    chainFutures.add(executor.submit(() -> {
+                        for (ImageSection section : chain) {
+                            readImageSection(reader, section);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> chainFuture : chainFutures) {
+                    getImageTaskResult(chainFuture);
+                }
+                for (ImageSection section : getFinalImageSections()) {
+                    readImageSection(reader, section);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } catch (SRMetaBlockException e) {
+            throw new IOException(e.getMessage(), e);
         }
+    }
 
-        long loadImageEndTime = System.currentTimeMillis();
-        this.imageJournalId = storage.getImageJournalId();
-        LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
+    private static void readImageSection(SRMetaBlockSectionReader reader, ImageSection section)
+            throws IOException, DdlException, SRMetaBlockException {
+        if (reader.hasSection(section.name)) {
+            reader.readSection(section.name, section.loader);
+        } else {
+            // the image is saved by an earlier version
+            LOG.info("image section {} doesn't exist, skip it", section.name);
+        }
+    }
+
+    private void loadHeaderSection(DataInputStream dis) throws IOException {
+        loadHeader(dis, 0);
+        nodeMgr.loadLeaderInfo(dis, 0);
+        nodeMgr.loadFrontends(dis, 0);
+        nodeMgr.loadBackends(dis, 0);
+    }
+
+    private void saveHeaderSection(DataOutputStream dos, long replayedJournalId) throws IOException {
+        saveHeader(dos, replayedJournalId, 0);
+        nodeMgr.saveLeaderInfo(dos, 0);
+        nodeMgr.saveFrontends(dos, 0);
+        nodeMgr.saveBackends(dos, 0);
+    }
+
+    private static class ImageSection {
+        private final String name;
+        private final SRMetaBlockSectionWriter.SectionSaver saver;
+        private final SRMetaBlockSectionReader.SectionLoader loader;
+
+        private ImageSection(String name, SRMetaBlockSectionWriter.SectionSaver saver,
+                             SRMetaBlockSectionReader.SectionLoader loader) {
+            this.name = name;
+            this.saver = saver;
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * The sections of the image besides the header, the databases and the cluster, which are loaded after the
+     * databases. The sections of a chain are loaded in order because they depend on the preceding ones,
+     * and the chains are independent so they are loaded in parallel.
+     */
+    private List<List<ImageSection>> getImageSectionChains() {
+        List<List<ImageSection>> chains = Lists.newArrayList();
+        // global transaction must be replayed before load jobs v2
+        chains.add(Lists.newArrayList(
+                new ImageSection("transaction",
+                        dos -> globalTransactionMgr.saveTransactionState(dos, 0),
+                        dis -> globalTransactionMgr.loadTransactionState(dis, 0)),
+                new ImageSection("routine_load",
+                        dos -> routineLoadManager.saveRoutineLoadJobs(dos, 0),
+                        dis -> routineLoadManager.loadRoutineLoadJobs(dis, 0)),
+                new ImageSection("load_v2",
+                        dos -> loadManager.saveLoadJobsV2(dos, 0),
+                        dis -> loadManager.loadLoadJobsV2(dis, 0)),
+                new ImageSection("stream_load",
+                        dos -> streamLoadManager.saveStreamLoadManager(dos, 0),
+                        dis -> loadStreamLoadManager(dis, 0))));
+        chains.add(Lists.newArrayList(
+                new ImageSection("auth", dos -> auth.saveAuth(dos, 0), dis -> auth.loadAuth(dis, 0)),
+                new ImageSection("auth_gson", dos -> auth.writeAsGson(dos, 0), dis -> auth.readAsGson(dis, 0))));
+        chains.add(Lists.newArrayList(
+                new ImageSection("load", dos -> load.saveLoadJob(dos, 0), dis -> load.loadLoadJob(dis, 0)),
+                new ImageSection("alter", dos -> saveAlterJob(dos, 0), dis -> loadAlterJob(dis, 0)),
+                new ImageSection("recycle_bin",
+                        dos -> recycleBin.saveRecycleBin(dos, 0), dis -> recycleBin.loadRecycleBin(dis, 0)),
+                new ImageSection("global_variable",
+                        dos -> VariableMgr.saveGlobalVariable(dos, 0), dis -> VariableMgr.loadGlobalVariable(dis, 0)),
+                new ImageSection("broker", dos -> nodeMgr.saveBrokers(dos, 0), dis -> nodeMgr.loadBrokers(dis, 0)),
+                new ImageSection("resource", dos -> resourceMgr.saveResources(dos, 0), dis -> loadResources(dis, 0)),
+                new ImageSection("export",
+                        dos -> exportMgr.saveExportJob(dos, 0), dis -> exportMgr.loadExportJob(dis, 0)),
+                new ImageSection("backup",
+                        dos -> backupHandler.saveBackupHandler(dos, 0),
+                        dis -> backupHandler.loadBackupHandler(dis, 0, this)),
+                new ImageSection("colocate",
+                        dos -> colocateTableIndex.saveColocateTableIndex(dos, 0),
+                        dis -> colocateTableIndex.loadColocateTableIndex(dis, 0)),
+                new ImageSection("small_file",
+                        dos -> smallFileMgr.saveSmallFiles(dos, 0), dis -> smallFileMgr.loadSmallFiles(dis, 0)),
+                new ImageSection("plugin", dos -> pluginMgr.savePlugins(dos, 0), dis -> pluginMgr.loadPlugins(dis, 0)),
+                new ImageSection("delete",
+                        dos -> deleteHandler.saveDeleteHandler(dos, 0), dis -> loadDeleteHandler(dis, 0)),
+                new ImageSection("analyze",
+                        dos -> analyzeManager.saveAnalyze(dos, 0), dis -> analyzeManager.loadAnalyze(dis, 0)),
+                new ImageSection("resource_group",
+                        dos -> resourceGroupMgr.saveResourceGroups(dos, 0),
+                        dis -> resourceGroupMgr.loadResourceGroups(dis, 0)),
+                new ImageSection("task", dos -> taskManager.saveTasks(dos, 0), dis -> taskManager.loadTasks(dis, 0)),
+                new ImageSection("catalog",
+                        dos -> catalogMgr.saveCatalogs(dos, 0), dis -> catalogMgr.loadCatalogs(dis, 0)),
+                new ImageSection("insert_overwrite",
+                        dos -> saveInsertOverwriteJobs(dos, 0), dis -> loadInsertOverwriteJobs(dis, 0)),
+                new ImageSection("compute_node",
+                        dos -> nodeMgr.saveComputeNodes(dos, 0), dis -> nodeMgr.loadComputeNodes(dis, 0)),
+                new ImageSection("shard", dos -> shardManager.saveShardManager(dos, 0), dis -> loadShardManager(dis, 0)),
+                new ImageSection("compaction",
+                        dos -> compactionManager.saveCompactionManager(dos, 0), dis -> loadCompactionManager(dis, 0))));
+        return chains;
+    }
+
+    /**
+     * The sections loaded in order after all the chains, as they were the last ones of the old image format.
+     * The privileges of the new RBAC framework refer to the catalogs, resources and other objects loaded by
+     * the chains.
+     */
+    private List<ImageSection> getFinalImageSections() {
+        return Lists.newArrayList(
+                new ImageSection("rbac", this::saveRBACPrivilege, this::loadRBACPrivilege),
+                new ImageSection("mv",
+                        dos -> MVManager.getInstance().store(dos, 0), dis -> MVManager.getInstance().reload(dis, 0)));
+    }
+
+    /**
+     * The executor to save or load the image sections. The threads inherit the meta context and the checkpoint
+     * identity of the calling thread, so that GlobalStateMgr.getCurrentState() returns the same instance.
+     */
+    private ExecutorService newImageExecutor(String poolName) {
+        if (Config.image_parallel_thread_num <= 1) {
+            return MoreExecutors.newDirectExecutorService();
+        }
+        MetaContext metaContext = MetaContext.get();
+        boolean isCheckpoint = isCheckpointThread();
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat(poolName + "-%d").build();
+        return Executors.newFixedThreadPool(Config.image_parallel_thread_num, runnable -> threadFactory.newThread(() -> {
+            long threadId = Thread.currentThread().getId();
+            if (metaContext != null) {
+                metaContext.setThreadLocalInfo();
+            }
+            if (isCheckpoint) {
+                CHECKPOINT_WORKER_THREAD_IDS.add(threadId);
+            }
+            try {
+                runnable.run();
+            } finally {
+                CHECKPOINT_WORKER_THREAD_IDS.remove(threadId);
+                MetaContext.remove();
+            }
+        }));
+    }
+
+    private static <T> T getImageTaskResult(Future<T> future) throws IOException, DdlException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while processing image", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof DdlException) {
+                throw (DdlException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
     }
 
     public long loadHeader(DataInputStream dis, long checksum) throws IOException {
@@ -1534,6 +1781,14 @@ public class GlobalStateMgr {
         // save image does not need any lock. because only checkpoint thread will call this method.
         LOG.info("start save image to {}. is ckpt: {}", curFile.getAbsolutePath(), GlobalStateMgr.isCheckpointThread());
 
+        if (Config.enable_sectioned_image) {
+            long saveImageStartTime = System.currentTimeMillis();
+            saveSectionedImage(curFile, replayedJournalId);
+            LOG.info("finished save sectioned image {} in {} ms", curFile.getAbsolutePath(),
+                    System.currentTimeMillis() - saveImageStartTime);
+            return;
+        }
+
         long checksum = 0;
         long saveImageStartTime = System.currentTimeMillis();
         try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(curFile))) {
@@ -1587,6 +1842,44 @@ public class GlobalStateMgr {
                 curFile.getAbsolutePath(), (saveImageEndTime - saveImageStartTime), checksum);
     }
 
+    private void saveSectionedImage(File curFile, long replayedJournalId) throws IOException {
+        // only the checkpoint thread saves the sections in parallel, other threads, e.g. dumping image,
+        // may hold the db locks which can't be acquired by the other threads if some writers are waiting
+        ExecutorService executor = isCheckpointThread() ? newImageExecutor("image-saver") :
+                MoreExecutors.newDirectExecutorService();
+        try (SRMetaBlockSectionWriter writer = new SRMetaBlockSectionWriter(curFile, executor)) {
+            writer.addSection(IMAGE_SECTION_HEADER, dos -> saveHeaderSection(dos, replayedJournalId));
+            for (Database db : localMetastore.getIdToDb().values()) {
+                // Don't write information_schema db meta
+                if (InfoSchemaDb.isInfoSchemaDb(db.getFullName())) {
+                    continue;
+                }
+                writer.addSection(IMAGE_SECTION_DB_PREFIX + db.getId(), dos -> {
+                    db.readLock();
+                    try {
+                        db.write(dos);
+                    } finally {
+                        db.readUnlock();
+                    }
+                });
+            }
+            writer.addSection(IMAGE_SECTION_CLUSTER, dos -> localMetastore.saveCluster(dos, 0));
+            for (List<ImageSection> chain : getImageSectionChains()) {
+                for (ImageSection section : chain) {
+                    writer.addSection(section.name, section.saver);
+                }
+            }
+            for (ImageSection section : getFinalImageSections()) {
+                writer.addSection(section.name, section.saver);
+            }
+            writer.finish();
+        } catch (SRMetaBlockException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public long saveHeader(DataOutputStream dos, long replayedJournalId, long checksum) throws IOException {
         // Write meta version
         // community meta version is a positive integer, so we write -1 to distinguish old image structure
@@ -2743,6 +3036,10 @@ public class GlobalStateMgr {
         return this.starRocksRepository;
     }
 
+    public PublishVersionDaemon getPublishVersionDaemon() {
+        return this.publishVersionDaemon;
+    }
+
     public IcebergRepository getIcebergRepository() {
         return this.icebergRepository;
     }
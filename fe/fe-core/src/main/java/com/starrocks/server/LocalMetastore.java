@@ -336,16 +336,21 @@ public class LocalMetastore implements ConnectorMetadata {
             Database db = new Database();
             db.readFields(dis);
             newChecksum ^= db.getId();
-            idToDb.put(db.getId(), db);
-            fullNameToDb.put(db.getFullName(), db);
-            stateMgr.getGlobalTransactionMgr().addDatabaseTransactionMgr(db.getId());
-            db.getMaterializedViews().forEach(Table::onCreate);
-            db.getHiveTables().forEach(Table::onCreate);
+            loadDb(db);
         }
         LOG.info("finished replay databases from image");
         return newChecksum;
     }
 
+    // register a database read from image
+    public void loadDb(Database db) {
+        idToDb.put(db.getId(), db);
+        fullNameToDb.put(db.getFullName(), db);
+        stateMgr.getGlobalTransactionMgr().addDatabaseTransactionMgr(db.getId());
+        db.getMaterializedViews().forEach(Table::onCreate);
+        db.getHiveTables().forEach(Table::onCreate);
+    }
+
     public long saveDb(DataOutputStream dos, long checksum) throws IOException {
         int dbCount = idToDb.size() - 1;
         checksum ^= dbCount;
@@ -3382,6 +3387,12 @@ public class LocalMetastore implements ConnectorMetadata {
                         .put(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_NUMBER, String.valueOf(number));
                 materializedView.getTableProperty().setPartitionRefreshNumber(number);
             }
+            if (properties.containsKey(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM)) {
+                int parallelism = PropertyAnalyzer.analyzePartitionRefreshParallelism(properties);
+                materializedView.getTableProperty().getProperties()
+                        .put(PropertyAnalyzer.PROPERTIES_PARTITION_REFRESH_PARALLELISM, String.valueOf(parallelism));
+                materializedView.getTableProperty().setPartitionRefreshParallelism(parallelism);
+            }
             if (properties.containsKey(PropertyAnalyzer.PROPERTIES_EXCLUDED_TRIGGER_TABLES)) {
                 List<TableName> tables = PropertyAnalyzer.analyzeExcludedTriggerTables(properties, materializedView);
                 StringBuilder tableSb = new StringBuilder();
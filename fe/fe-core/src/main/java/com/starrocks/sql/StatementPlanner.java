@@ -18,6 +18,7 @@ import com.starrocks.catalog.Database;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.PrepareStmtContext;
 import com.starrocks.sql.analyzer.Analyzer;
 import com.starrocks.sql.analyzer.AnalyzerUtils;
 import com.starrocks.sql.analyzer.PrivilegeChecker;
@@ -37,6 +38,7 @@ import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.sql.plan.PlanFragmentBuilder;
 import com.starrocks.thrift.TResultSinkType;
 
@@ -76,7 +78,12 @@ public class StatementPlanner {
             if (stmt instanceof QueryStatement) {
                 QueryStatement queryStmt = (QueryStatement) stmt;
                 resultSinkType = queryStmt.hasOutFileClause() ? TResultSinkType.FILE : resultSinkType;
-                ExecPlan plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+                ExecPlan plan;
+                if (session.getSessionVariable().isEnablePlanCache()) {
+                    plan = createQueryPlanWithCache(queryStmt, session, resultSinkType, PlanCache.getInstance());
+                } else {
+                    plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+                }
                 setOutfileSink(queryStmt, plan);
 
                 return plan;
@@ -93,12 +100,51 @@ public class StatementPlanner {
         return null;
     }
 
+    /**
+     * Plan an execution of a server-side prepared statement, whose parameters have been bound.
+     * The analyzed query statement is reused if possible, and the plans are cached per connection
+     * if enable_plan_cache is set.
+     */
+    public static ExecPlan plan(PrepareStmtContext prepareStmtContext, ConnectContext session) {
+        if (!(prepareStmtContext.getStmt() instanceof QueryStatement)) {
+            return plan(prepareStmtContext.prepareForAnalyze(session), session);
+        }
+
+        QueryStatement queryStmt = (QueryStatement) prepareStmtContext.getStmt();
+        Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, queryStmt);
+        try {
+            lock(dbs);
+            if (prepareStmtContext.isAnalysisReusable(session)) {
+                return createPreparedQueryPlan(queryStmt, session, dbs);
+            }
+        } finally {
+            unLock(dbs);
+        }
+
+        queryStmt = (QueryStatement) prepareStmtContext.prepareForAnalyze(session);
+        dbs = AnalyzerUtils.collectAllDatabase(session, queryStmt);
+        try {
+            lock(dbs);
+            try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("Analyzer")) {
+                Analyzer.analyze(queryStmt, session);
+            }
+            prepareStmtContext.setAnalyzed(session);
+            return createPreparedQueryPlan(queryStmt, session, dbs);
+        } finally {
+            unLock(dbs);
+        }
+    }
+
     public static ExecPlan createQueryPlan(Relation relation, ConnectContext session, TResultSinkType resultSinkType) {
+        return createQueryPlan(relation, session, resultSinkType, new ColumnRefFactory());
+    }
+
+    public static ExecPlan createQueryPlan(Relation relation, ConnectContext session, TResultSinkType resultSinkType,
+                                           ColumnRefFactory columnRefFactory) {
         QueryRelation query = (QueryRelation) relation;
         List<String> colNames = query.getColumnOutputNames();
 
         //1. Build Logical plan
-        ColumnRefFactory columnRefFactory = new ColumnRefFactory();
         LogicalPlan logicalPlan = new RelationTransformer(columnRefFactory, session).transformWithSelectLimit(query);
 
         OptExpression optimizedPlan;
@@ -127,6 +173,61 @@ public class StatementPlanner {
         }
     }
 
+    /**
+     * Analyze the query of a prepared statement before it's executed, to describe its result columns in the
+     * response of COM_STMT_PREPARE. The types of the columns computed from the parameters may be different
+     * from the executions, whose result sets describe the columns again.
+     */
+    public static QueryRelation analyzePreparedQuery(QueryStatement queryStmt, ConnectContext session) {
+        Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, queryStmt);
+        try {
+            lock(dbs);
+            Analyzer.analyze(queryStmt, session);
+            PrivilegeChecker.check(queryStmt, session);
+            return queryStmt.getQueryRelation();
+        } finally {
+            unLock(dbs);
+        }
+    }
+
+    private static ExecPlan createPreparedQueryPlan(QueryStatement queryStmt, ConnectContext session,
+                                                    Map<String, Database> dbs) {
+        PrivilegeChecker.check(queryStmt, session);
+        session.setCurrentSqlDbIds(dbs.values().stream().map(Database::getId).collect(Collectors.toSet()));
+
+        TResultSinkType resultSinkType = queryStmt.hasOutFileClause() ? TResultSinkType.FILE :
+                TResultSinkType.MYSQL_PROTOCAL;
+        ExecPlan plan;
+        if (session.getSessionVariable().isEnablePlanCache()) {
+            plan = createQueryPlanWithCache(queryStmt, session, resultSinkType, session.getPreparedPlanCache());
+        } else {
+            plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+        }
+        setOutfileSink(queryStmt, plan);
+        return plan;
+    }
+
+    private static ExecPlan createQueryPlanWithCache(QueryStatement queryStmt, ConnectContext session,
+                                                     TResultSinkType resultSinkType, PlanCache planCache) {
+        PlanCache.Lookup lookup = PlanCache.createLookup(queryStmt, session, resultSinkType);
+        if (lookup == null) {
+            return createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+        }
+
+        List<String> colNames = queryStmt.getQueryRelation().getColumnOutputNames();
+        try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("PlanCache")) {
+            ExecPlan plan = planCache.get(lookup, session, colNames);
+            if (plan != null) {
+                return plan;
+            }
+        }
+
+        ColumnRefFactory columnRefFactory = new ColumnRefFactory();
+        ExecPlan plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType, columnRefFactory);
+        planCache.put(lookup, session, plan, columnRefFactory);
+        return plan;
+    }
+
     // Lock all database before analyze
     private static void lock(Map<String, Database> dbs) {
         if (dbs == null) {
@@ -45,6 +45,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.PlaceHolderExpr;
 import com.starrocks.analysis.Predicate;
 import com.starrocks.analysis.SlotRef;
@@ -637,6 +638,15 @@ public class ExpressionAnalyzer {
             return null;
         }
 
+        @Override
+        public Void visitParameter(Parameter node, Scope scope) {
+            if (node.getValue() == null) {
+                throw new SemanticException("Parameter marker '?' is only allowed in prepared statement");
+            }
+            node.setType(node.getValue().getType());
+            return null;
+        }
+
         @Override
         public Void visitIsNullPredicate(IsNullPredicate node, Scope scope) {
             predicateBaseAndCheck(node);
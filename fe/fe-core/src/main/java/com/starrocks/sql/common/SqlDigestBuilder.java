@@ -14,17 +14,86 @@
 
 package com.starrocks.sql.common;
 
+import com.starrocks.analysis.FunctionCallExpr;
+import com.starrocks.analysis.InformationFunction;
 import com.starrocks.analysis.LimitElement;
 import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.VariableExpr;
+import com.starrocks.catalog.AggregateFunction;
+import com.starrocks.catalog.FunctionSet;
 import com.starrocks.sql.analyzer.AstToStringBuilder;
 import com.starrocks.sql.ast.StatementBase;
 
+import java.util.List;
+
 //Used to build sql digests
 public class SqlDigestBuilder {
     public static String build(StatementBase statement) {
         return new SqlDigestBuilderVisitor().visit(statement);
     }
 
+    /**
+     * Build the digest used by plan cache. Different with {@link #build(StatementBase)}, the LIMIT/OFFSET are kept
+     * in the digest because they can't be rebound, and all the replaced literals are appended to
+     * {@code literals} in the order of their placeholders.
+     *
+     * @return the digest, or null if the statement contains an expression whose result depends on the
+     * time or the session, e.g. now(), rand(), current_user(), connection_id(), @var and @@var,
+     * which may be folded by the optimizer
+     */
+    public static String buildParameterized(StatementBase statement, List<LiteralExpr> literals) {
+        ParameterizedDigestBuilderVisitor visitor = new ParameterizedDigestBuilderVisitor(literals);
+        String digest = visitor.visit(statement);
+        return visitor.hasVolatileFunction ? null : digest;
+    }
+
+    private static class ParameterizedDigestBuilderVisitor extends AstToStringBuilder.AST2StringBuilderVisitor {
+        private final List<LiteralExpr> literals;
+        private boolean hasVolatileFunction = false;
+
+        private ParameterizedDigestBuilderVisitor(List<LiteralExpr> literals) {
+            this.literals = literals;
+        }
+
+        @Override
+        public String visitLiteral(LiteralExpr expr, Void context) {
+            literals.add(expr);
+            return "?";
+        }
+
+        @Override
+        public String visitParameter(Parameter expr, Void context) {
+            return visitLiteral(expr.getValue(), context);
+        }
+
+        @Override
+        public String visitFunctionCall(FunctionCallExpr node, Void context) {
+            // scalar functions without arguments (now(), current_user(), database()...) are evaluated while planning
+            boolean isScalarWithoutArgument = node.getChildren().isEmpty() && !node.getParams().isStar() &&
+                    !(node.getFn() instanceof AggregateFunction);
+            if (isScalarWithoutArgument ||
+                    FunctionSet.nonDeterministicFunctions.contains(node.getFnName().getFunction().toLowerCase())) {
+                hasVolatileFunction = true;
+            }
+            return super.visitFunctionCall(node, context);
+        }
+
+        // current_user(), user(), connection_id(), database()... are parsed as information functions
+        @Override
+        public String visitInformationFunction(InformationFunction node, Void context) {
+            hasVolatileFunction = true;
+            return super.visitInformationFunction(node, context);
+        }
+
+        // the values of the user and system variables are evaluated while planning
+        @Override
+        public String visitVariableExpr(VariableExpr node, Void context) {
+            hasVolatileFunction = true;
+            return super.visitVariableExpr(node, context);
+        }
+    }
+
     private static class SqlDigestBuilderVisitor extends AstToStringBuilder.AST2StringBuilderVisitor {
         @Override
         public String visitLiteral(LiteralExpr expr, Void context) {
@@ -19,6 +19,7 @@ import com.starrocks.catalog.MaterializedView;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.rule.transformation.materialization.MvPlanSummary;
 
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +44,9 @@ public class MaterializationContext {
 
     private Set<String> mvPartitionNamesToRefresh;
 
+    // structural summary of mvExpression to prune the candidate quickly
+    private MvPlanSummary mvPlanSummary;
+
     public MaterializationContext(MaterializedView mv,
                                   OptExpression mvExpression,
                                   ColumnRefFactory queryColumnRefFactory,
@@ -110,4 +114,12 @@ public class MaterializationContext {
     public Set<String> getMvPartitionNamesToRefresh() {
         return mvPartitionNamesToRefresh;
     }
+
+    public MvPlanSummary getMvPlanSummary() {
+        return mvPlanSummary;
+    }
+
+    public void setMvPlanSummary(MvPlanSummary mvPlanSummary) {
+        this.mvPlanSummary = mvPlanSummary;
+    }
 }
@@ -62,6 +62,13 @@ public class Memo {
      */
     private final Map<GroupExpression, GroupExpression> groupExpressions;
 
+    /**
+     * Increased every time two groups are merged. A merge may change the inputs of existing
+     * GroupExpressions, so tasks which prepared their work ahead of time (see
+     * {@link com.starrocks.sql.optimizer.task.ParallelTaskScheduler}) use it to detect stale results.
+     */
+    private volatile int mergeVersion = 0;
+
     public List<Group> getGroups() {
         return groups;
     }
@@ -95,7 +102,12 @@ public class Memo {
         return rootGroupExpression;
     }
 
-    public Pair<Boolean, GroupExpression> insertGroupExpression(GroupExpression groupExpression, Group targetGroup) {
+    public int getMergeVersion() {
+        return mergeVersion;
+    }
+
+    public synchronized Pair<Boolean, GroupExpression> insertGroupExpression(GroupExpression groupExpression,
+                                                                            Group targetGroup) {
         if (groupExpressions.get(groupExpression) != null) {
             GroupExpression existedGroupExpression = groupExpressions.get(groupExpression);
             Group existedGroup = existedGroupExpression.getGroup();
@@ -130,7 +142,7 @@ public class Memo {
         return new Group(nextGroupId++);
     }
 
-    public Pair<Boolean, GroupExpression> copyIn(Group targetGroup, OptExpression expression) {
+    public synchronized Pair<Boolean, GroupExpression> copyIn(Group targetGroup, OptExpression expression) {
         List<Group> inputs = Lists.newArrayList();
         for (OptExpression input : expression.getInputs()) {
             Group group;
@@ -163,7 +175,8 @@ public class Memo {
         return targetGroup != null && targetGroup != existedGroup;
     }
 
-    private void mergeGroup(Group srcGroup, Group dstGroup) {
+    private synchronized void mergeGroup(Group srcGroup, Group dstGroup) {
+        mergeVersion++;
         mergeGroupImpl(srcGroup, dstGroup);
         // When some rule merge two groups to one group, or
         // the GroupExpressions of one group are all removed.
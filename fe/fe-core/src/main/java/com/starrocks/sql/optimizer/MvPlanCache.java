@@ -0,0 +1,138 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.sql.optimizer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.rule.transformation.materialization.MvPlanSummary;
+import com.starrocks.sql.optimizer.rule.transformation.materialization.MvUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cache of the optimized plans of materialized view definitions, shared by all the queries.
+ *
+ * The plan of a mv depends on its definition, its partitions to refresh and the partitions of its base tables,
+ * so a cached plan is used only if none of them changed. Each plan is built with its own ColumnRefFactory,
+ * and both are only read by the rewrite rules, so the queries use them without copying.
+ */
+public class MvPlanCache {
+    private static final MvPlanCache INSTANCE = new MvPlanCache();
+
+    public static class MvPlan {
+        // null if the definition can't be optimized
+        private final OptExpression plan;
+        private final ColumnRefFactory columnRefFactory;
+        private final List<ColumnRefOperator> outputColumns;
+        // null if the plan is not valid
+        private final MvPlanSummary summary;
+        private final HashCode signature;
+
+        private MvPlan(OptExpression plan, ColumnRefFactory columnRefFactory,
+                       List<ColumnRefOperator> outputColumns, HashCode signature) {
+            this.plan = plan;
+            this.columnRefFactory = columnRefFactory;
+            this.outputColumns = outputColumns;
+            this.summary = MvUtils.isValidMVPlan(plan) ? MvPlanSummary.of(plan) : null;
+            this.signature = signature;
+        }
+
+        public OptExpression getPlan() {
+            return plan;
+        }
+
+        public ColumnRefFactory getColumnRefFactory() {
+            return columnRefFactory;
+        }
+
+        public List<ColumnRefOperator> getOutputColumns() {
+            return outputColumns;
+        }
+
+        public MvPlanSummary getSummary() {
+            return summary;
+        }
+    }
+
+    // mv id -> the plan of the latest signature
+    private final Cache<Long, MvPlan> plans = Caffeine.newBuilder()
+            .maximumSize(Config.mv_plan_cache_max_size)
+            .build();
+
+    public static MvPlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    public MvPlan getOrOptimize(MaterializedView mv, Set<String> partitionNamesToRefresh,
+                                ConnectContext connectContext) {
+        boolean useCache = connectContext.getSessionVariable().isEnableMaterializedViewPlanCache();
+        HashCode signature = useCache ? computeSignature(mv, partitionNamesToRefresh) : null;
+        if (signature != null) {
+            MvPlan cached = plans.getIfPresent(mv.getId());
+            if (cached != null && cached.signature.equals(signature)) {
+                return cached;
+            }
+        }
+
+        ColumnRefFactory mvColumnRefFactory = new ColumnRefFactory();
+        MaterializedViewOptimizer mvOptimizer = new MaterializedViewOptimizer();
+        OptExpression mvPlan = mvOptimizer.optimize(mv, mvColumnRefFactory, connectContext, partitionNamesToRefresh);
+        MvPlan result = new MvPlan(mvPlan, mvColumnRefFactory, mvOptimizer.getOutputExpressions(), signature);
+        if (signature != null) {
+            plans.put(mv.getId(), result);
+        }
+        return result;
+    }
+
+    // Returns null if the plan can't be cached, e.g. a base table is not an olap table,
+    // whose changes are not tracked by versions.
+    static HashCode computeSignature(MaterializedView mv, Set<String> partitionNamesToRefresh) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putString(mv.getViewDefineSql(), StandardCharsets.UTF_8);
+        for (String partitionName : new TreeSet<>(partitionNamesToRefresh)) {
+            hasher.putString(partitionName, StandardCharsets.UTF_8);
+            hasher.putLong(mv.getPartition(partitionName) == null ? -1 : mv.getPartition(partitionName).getId());
+        }
+
+        for (MaterializedView.BaseTableInfo baseTableInfo : mv.getBaseTableInfos()) {
+            Table table = baseTableInfo.getTable();
+            if (!(table instanceof OlapTable)) {
+                return null;
+            }
+            OlapTable olapTable = (OlapTable) table;
+            hasher.putLong(olapTable.getId());
+            hasher.putInt(olapTable.getIndexMetaByIndexId(olapTable.getBaseIndexId()).getSchemaVersion());
+            for (Partition partition : olapTable.getPartitions()) {
+                hasher.putLong(partition.getId());
+                hasher.putLong(partition.getVisibleVersion());
+            }
+        }
+        return hasher.hash();
+    }
+}
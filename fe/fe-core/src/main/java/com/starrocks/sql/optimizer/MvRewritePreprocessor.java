@@ -83,17 +83,19 @@ public class MvRewritePreprocessor {
                 continue;
             }
 
-            // 1. build mv query logical plan
-            ColumnRefFactory mvColumnRefFactory = new ColumnRefFactory();
-            MaterializedViewOptimizer mvOptimizer = new MaterializedViewOptimizer();
-            OptExpression mvPlan = mvOptimizer.optimize(mv, mvColumnRefFactory, connectContext, partitionNamesToRefresh);
+            // 1. build mv query logical plan, which is reused until the mv or its base tables change
+            MvPlanCache.MvPlan cachedMvPlan =
+                    MvPlanCache.getInstance().getOrOptimize(mv, partitionNamesToRefresh, connectContext);
+            OptExpression mvPlan = cachedMvPlan.getPlan();
             if (!MvUtils.isValidMVPlan(mvPlan)) {
                 continue;
             }
 
-            List<ColumnRefOperator> mvOutputColumns = mvOptimizer.getOutputExpressions();
+            ColumnRefFactory mvColumnRefFactory = cachedMvPlan.getColumnRefFactory();
+            List<ColumnRefOperator> mvOutputColumns = cachedMvPlan.getOutputColumns();
             MaterializationContext materializationContext =
                     new MaterializationContext(mv, mvPlan, queryColumnRefFactory, mvColumnRefFactory, partitionNamesToRefresh);
+            materializationContext.setMvPlanSummary(cachedMvPlan.getSummary());
             // generate scan mv plan here to reuse it in rule applications
             LogicalOlapScanOperator scanMvOp = createScanMvOperator(materializationContext);
             materializationContext.setScanMvOperator(scanMvOp);
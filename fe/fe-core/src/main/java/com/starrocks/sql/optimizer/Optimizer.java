@@ -161,6 +161,11 @@ public class Optimizer {
         try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer("Optimizer.CostBaseOptimize")) {
             memoOptimize(connectContext, memo, rootTaskContext);
         }
+        if (!context.getCandidateMvs().isEmpty()) {
+            PlannerProfile.addCustomProperties("Optimizer.MvRewriteCandidates",
+                    String.format("considered: %d, tried: %d, rewritten: %d", context.getMvCandidatesConsidered(),
+                            context.getMvCandidatesTried(), context.getMvCandidatesRewritten()));
+        }
 
         OptExpression result;
         if (!connectContext.getSessionVariable().isSetUseNthExecPlan()) {
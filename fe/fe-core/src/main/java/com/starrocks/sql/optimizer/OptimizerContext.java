@@ -23,11 +23,13 @@ import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.dump.DumpInfo;
 import com.starrocks.sql.optimizer.rule.RuleSet;
+import com.starrocks.sql.optimizer.task.ParallelTaskScheduler;
 import com.starrocks.sql.optimizer.task.SeriallyTaskScheduler;
 import com.starrocks.sql.optimizer.task.TaskContext;
 import com.starrocks.sql.optimizer.task.TaskScheduler;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OptimizerContext {
     private final Memo memo;
@@ -42,6 +44,10 @@ public class OptimizerContext {
     private OptimizerTraceInfo traceInfo;
     private OptimizerConfig optimizerConfig;
     private List<MaterializationContext> candidateMvs;
+    // mv candidates considered by the mv rewrite rules, tried by the rewriters after pruning, and rewritten
+    private final AtomicInteger mvCandidatesConsidered = new AtomicInteger();
+    private final AtomicInteger mvCandidatesTried = new AtomicInteger();
+    private final AtomicInteger mvCandidatesRewritten = new AtomicInteger();
 
     public OptimizerContext(Memo memo, ColumnRefFactory columnRefFactory) {
         this.memo = memo;
@@ -63,9 +69,10 @@ public class OptimizerContext {
         this.memo = memo;
         this.ruleSet = new RuleSet();
         this.globalStateMgr = GlobalStateMgr.getCurrentState();
-        this.taskScheduler = SeriallyTaskScheduler.create();
-        this.columnRefFactory = columnRefFactory;
         this.sessionVariable = connectContext.getSessionVariable();
+        this.taskScheduler = sessionVariable.isCboEnableParallelExplore() ?
+                ParallelTaskScheduler.create() : SeriallyTaskScheduler.create();
+        this.columnRefFactory = columnRefFactory;
         this.dumpInfo = connectContext.getDumpInfo();
         this.cteContext = new CTEContext();
         cteContext.reset();
@@ -139,4 +146,26 @@ public class OptimizerContext {
     public void addCandidateMvs(MaterializationContext candidateMv) {
         this.candidateMvs.add(candidateMv);
     }
+
+    public void recordMvCandidate(boolean tried, boolean rewritten) {
+        mvCandidatesConsidered.incrementAndGet();
+        if (tried) {
+            mvCandidatesTried.incrementAndGet();
+        }
+        if (rewritten) {
+            mvCandidatesRewritten.incrementAndGet();
+        }
+    }
+
+    public int getMvCandidatesConsidered() {
+        return mvCandidatesConsidered.get();
+    }
+
+    public int getMvCandidatesTried() {
+        return mvCandidatesTried.get();
+    }
+
+    public int getMvCandidatesRewritten() {
+        return mvCandidatesRewritten.get();
+    }
 }
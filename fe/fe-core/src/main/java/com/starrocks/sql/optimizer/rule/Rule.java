@@ -66,6 +66,16 @@ public abstract class Rule {
         return true;
     }
 
+    /**
+     * Whether {@link #check} and {@link #transform} can run on a worker thread of the parallel task
+     * scheduler. A parallelizable rule must only read the memo and the OptimizerContext, must not
+     * allocate new column refs from the ColumnRefFactory, and its pattern must not look into the
+     * children groups, so the result doesn't depend on the order in which sibling tasks run.
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
     /**
      * If this transform don't change the input OptExpression, should return the empty list
      */
@@ -32,4 +32,9 @@ public abstract class ImplementationRule extends Rule {
     public int promise() {
         return 2;
     }
+
+    @Override
+    public boolean isParallelizable() {
+        return getPattern().children().stream().allMatch(p -> p.isPatternLeaf() || p.isPatternMultiLeaf());
+    }
 }
@@ -88,6 +88,11 @@ public class JoinCommutativityRule extends TransformationRule {
         return Lists.newArrayList(result);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
         return commuteJoin(input, JOIN_COMMUTATIVITY_MAP);
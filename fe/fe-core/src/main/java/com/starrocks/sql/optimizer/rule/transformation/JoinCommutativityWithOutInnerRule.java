@@ -57,6 +57,11 @@ public class JoinCommutativityWithOutInnerRule extends TransformationRule {
         return ((LogicalJoinOperator) input.getOp()).getJoinHint().isEmpty();
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
         return JoinCommutativityRule.commuteJoin(input, JOIN_COMMUTATIVITY_MAP);
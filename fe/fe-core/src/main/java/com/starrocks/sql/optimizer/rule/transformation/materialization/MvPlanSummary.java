@@ -0,0 +1,101 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.sql.optimizer.rule.transformation.materialization;
+
+import com.google.common.collect.ImmutableSet;
+import com.starrocks.catalog.Table;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Structural summary of a query or materialized view plan, used to reject the mv candidates
+ * which can not rewrite the query before the expensive matching of MaterializedViewRewriter.
+ *
+ * Every check here is implied by a check of the rewriters, so no rewrite is lost:
+ *  1. only COMPLETE match mode is supported, so both sides must be all equal inner joins of the same tables.
+ *  2. SPJ query is rewritten by SPJ mv, and aggregated query is rewritten by aggregated mv.
+ *  3. every aggregate of the query must be one of the aggregates of the mv, compared by function and distinct.
+ *  4. the query can not have grouping keys if the mv has no grouping keys.
+ */
+public class MvPlanSummary {
+    private final Set<Long> tableIds;
+    private final int tableCount;
+    private final boolean allEqualInnerJoin;
+    private final boolean spj;
+    private final boolean aggregate;
+    private final boolean hasGroupingKeys;
+    // function name with distinct flag, eg: sum, count(distinct)
+    private final Set<String> aggregateFunctions;
+
+    private MvPlanSummary(Set<Long> tableIds, int tableCount, boolean allEqualInnerJoin, boolean spj,
+                          boolean aggregate, boolean hasGroupingKeys, Set<String> aggregateFunctions) {
+        this.tableIds = tableIds;
+        this.tableCount = tableCount;
+        this.allEqualInnerJoin = allEqualInnerJoin;
+        this.spj = spj;
+        this.aggregate = aggregate;
+        this.hasGroupingKeys = hasGroupingKeys;
+        this.aggregateFunctions = aggregateFunctions;
+    }
+
+    public static MvPlanSummary of(OptExpression plan) {
+        List<Table> tables = MvUtils.getAllTables(plan);
+        ImmutableSet.Builder<Long> tableIds = ImmutableSet.builder();
+        tables.forEach(table -> tableIds.add(table.getId()));
+
+        boolean aggregate = plan.getOp() instanceof LogicalAggregationOperator;
+        boolean hasGroupingKeys = false;
+        ImmutableSet.Builder<String> aggregateFunctions = ImmutableSet.builder();
+        if (aggregate) {
+            LogicalAggregationOperator agg = (LogicalAggregationOperator) plan.getOp();
+            hasGroupingKeys = !agg.getGroupingKeys().isEmpty();
+            for (CallOperator call : agg.getAggregations().values()) {
+                aggregateFunctions.add(functionKey(call));
+            }
+        }
+        return new MvPlanSummary(tableIds.build(), tables.size(), MvUtils.isAllEqualInnerJoin(plan),
+                MvUtils.isLogicalSPJ(plan), aggregate && MvUtils.isLogicalSPJG(plan), hasGroupingKeys,
+                aggregateFunctions.build());
+    }
+
+    private static String functionKey(CallOperator call) {
+        return call.isDistinct() ? call.getFnName() + "(distinct)" : call.getFnName();
+    }
+
+    // false if the mv of this summary can not rewrite the query for sure
+    public boolean mayRewrite(MvPlanSummary query) {
+        if (!allEqualInnerJoin || !query.allEqualInnerJoin) {
+            return false;
+        }
+        if (tableCount != query.tableCount || !tableIds.equals(query.tableIds)) {
+            return false;
+        }
+        if (!query.aggregate) {
+            return spj;
+        }
+        if (!aggregate) {
+            return false;
+        }
+        if (query.hasGroupingKeys && !hasGroupingKeys) {
+            return false;
+        }
+        return aggregateFunctions.containsAll(query.aggregateFunctions);
+    }
+}
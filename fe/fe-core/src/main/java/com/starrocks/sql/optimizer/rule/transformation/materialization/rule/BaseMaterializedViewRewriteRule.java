@@ -23,6 +23,7 @@ import com.starrocks.sql.optimizer.operator.pattern.Pattern;
 import com.starrocks.sql.optimizer.rule.RuleType;
 import com.starrocks.sql.optimizer.rule.transformation.TransformationRule;
 import com.starrocks.sql.optimizer.rule.transformation.materialization.MaterializedViewRewriter;
+import com.starrocks.sql.optimizer.rule.transformation.materialization.MvPlanSummary;
 
 import java.util.List;
 
@@ -40,14 +41,22 @@ public abstract class BaseMaterializedViewRewriteRule extends TransformationRule
     @Override
     public List<OptExpression> transform(OptExpression queryExpression, OptimizerContext context) {
         List<OptExpression> results = Lists.newArrayList();
+        MvPlanSummary querySummary = MvPlanSummary.of(queryExpression);
         for (MaterializationContext mvContext : context.getCandidateMvs()) {
+            MvPlanSummary mvSummary = mvContext.getMvPlanSummary();
+            if (mvSummary != null && !mvSummary.mayRewrite(querySummary)) {
+                context.recordMvCandidate(false, false);
+                continue;
+            }
             mvContext.setQueryExpression(queryExpression);
             mvContext.setOptimizerContext(context);
             MaterializedViewRewriter rewriter = getMaterializedViewRewrite(mvContext);
             List<OptExpression> rewritten = rewriter.rewrite();
-            if (rewritten != null && !rewritten.isEmpty()) {
+            boolean isRewritten = rewritten != null && !rewritten.isEmpty();
+            if (isRewritten) {
                 results.addAll(rewritten);
             }
+            context.recordMvCandidate(true, isRewritten);
         }
         return results;
     }
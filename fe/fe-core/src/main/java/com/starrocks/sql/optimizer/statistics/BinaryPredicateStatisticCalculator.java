@@ -119,7 +119,9 @@ public class BinaryPredicateStatisticCalculator {
             Map<String, Long> histogramTopN = columnStatistic.getHistogram().getMCV();
             // If there is a constant key in mcv, the ratio in mcv is directly used for filtering estimation.
             // If it does not hit, filter out the key that appears in mcv, and then use the cardinality estimation
-            if (histogramTopN.containsKey(constantOperator.toString())) {
+            if (HistogramEstimator.isEnabled() && HistogramEstimator.hasHistogram(columnStatistic)) {
+                predicateFactor = HistogramEstimator.estimateEqualToSelectivity(columnStatistic, constantOperator);
+            } else if (histogramTopN.containsKey(constantOperator.toString())) {
                 rowCountInHistogram = histogramTopN.get(constantOperator.toString());
                 predicateFactor = rowCountInHistogram / columnStatistic.getHistogram().getTotalRows();
             } else {
@@ -297,9 +299,17 @@ public class BinaryPredicateStatisticCalculator {
                                                          ColumnStatistic rightColumnStatistic,
                                                          Statistics statistics,
                                                          boolean isEqualForNull) {
-        double leftDistinctValuesCount = leftColumnStatistic.getDistinctValuesCount();
-        double rightDistinctValuesCount = rightColumnStatistic.getDistinctValuesCount();
-        double selectivity = 1.0 / Math.max(1, Math.max(leftDistinctValuesCount, rightDistinctValuesCount));
+        double selectivity;
+        if (HistogramEstimator.isEnabled() && HistogramEstimator.hasHistogram(leftColumnStatistic) &&
+                HistogramEstimator.hasHistogram(rightColumnStatistic)) {
+            // the skew of both sides is known, join them by the overlap of the histograms
+            selectivity = HistogramEstimator.estimateEqualToColumnSelectivity(leftColumnStatistic,
+                    rightColumnStatistic, leftColumn.getType());
+        } else {
+            double leftDistinctValuesCount = leftColumnStatistic.getDistinctValuesCount();
+            double rightDistinctValuesCount = rightColumnStatistic.getDistinctValuesCount();
+            selectivity = 1.0 / Math.max(1, Math.max(leftDistinctValuesCount, rightDistinctValuesCount));
+        }
         double rowCount = statistics.getOutputRowCount() * selectivity *
                 (isEqualForNull ? 1 :
                         (1 - leftColumnStatistic.getNullsFraction()) * (1 - rightColumnStatistic.getNullsFraction()));
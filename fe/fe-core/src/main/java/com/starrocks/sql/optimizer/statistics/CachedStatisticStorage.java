@@ -17,6 +17,7 @@ package com.starrocks.sql.optimizer.statistics;
 
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -33,17 +34,33 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 public class CachedStatisticStorage implements StatisticStorage {
     private static final Logger LOG = LogManager.getLogger(CachedStatisticStorage.class);
 
+    private final ColumnBasicStatsCacheLoader columnStatsLoader = new ColumnBasicStatsCacheLoader();
+
+    // the loader replaces the ConnectContext of the thread it runs in,
+    // so the statistics are always loaded in the cache executor instead of the caller thread
+    private final Executor columnStatsLoadExecutor = ForkJoinPool.commonPool();
+
+    // the cached basic statistics have no histogram, every entry has the same size,
+    // so limiting the number of entries bounds the memory of the cache
     AsyncLoadingCache<ColumnStatsCacheKey, Optional<ColumnStatistic>> cachedStatistics = Caffeine.newBuilder()
             .expireAfterWrite(Config.statistic_update_interval_sec * 2, TimeUnit.SECONDS)
             .refreshAfterWrite(Config.statistic_update_interval_sec, TimeUnit.SECONDS)
             .maximumSize(Config.statistic_cache_columns)
-            .buildAsync(new ColumnBasicStatsCacheLoader());
+            .executor(columnStatsLoadExecutor)
+            .buildAsync(columnStatsLoader);
+
+    // table id -> the last time the column statistics of the table are read
+    private final Map<Long, Long> tableAccessTimes = new ConcurrentHashMap<>();
 
     AsyncLoadingCache<ColumnStatsCacheKey, Optional<Histogram>> histogramCache = Caffeine.newBuilder()
             .expireAfterWrite(Config.statistic_update_interval_sec * 2, TimeUnit.SECONDS)
@@ -63,6 +80,7 @@ public class CachedStatisticStorage implements StatisticStorage {
         if (!StatisticUtils.checkStatisticTableStateNormal()) {
             return ColumnStatistic.unknown();
         }
+        tableAccessTimes.put(table.getId(), System.currentTimeMillis());
         try {
             CompletableFuture<Optional<ColumnStatistic>> result =
                     cachedStatistics.get(new ColumnStatsCacheKey(table.getId(), column));
@@ -99,6 +117,7 @@ public class CachedStatisticStorage implements StatisticStorage {
             cacheKeys.add(new ColumnStatsCacheKey(tableId, column));
         }
 
+        tableAccessTimes.put(tableId, System.currentTimeMillis());
         try {
             CompletableFuture<Map<ColumnStatsCacheKey, Optional<ColumnStatistic>>> result = cachedStatistics.getAll(cacheKeys);
             if (result.isDone()) {
@@ -176,6 +195,89 @@ public class CachedStatisticStorage implements StatisticStorage {
         cachedStatistics.synchronous().invalidateAll(allKeys);
     }
 
+    /**
+     * Loads the new statistics of the columns in one query and replaces the cached ones when the query finishes,
+     * so the planner keeps using the old statistics instead of unknown ones while loading.
+     */
+    @Override
+    public void refreshColumnStatistics(Table table, List<String> columns, boolean isSync) {
+        Preconditions.checkState(table != null);
+        if (columns == null || columns.isEmpty()) {
+            return;
+        }
+
+        List<ColumnStatsCacheKey> cacheKeys = new ArrayList<>();
+        for (String column : columns) {
+            cacheKeys.add(new ColumnStatsCacheKey(table.getId(), column));
+        }
+        CompletableFuture<Void> future = reload(cacheKeys);
+        if (isSync) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                LOG.warn("Refresh column statistics of table {} failed", table.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Loads the statistics of the columns which are not cached yet, in one query.
+     * Used to warm up the cache before the table is queried.
+     */
+    public void warmUpColumnStatistics(Table table, List<String> columns) {
+        Preconditions.checkState(table != null);
+        List<ColumnStatsCacheKey> cacheKeys = new ArrayList<>();
+        for (String column : columns) {
+            cacheKeys.add(new ColumnStatsCacheKey(table.getId(), column));
+        }
+        cachedStatistics.synchronous().getAll(cacheKeys);
+    }
+
+    /**
+     * Reloads the cached statistics that are due to be refreshed, if their tables were read within the expiry time.
+     * Without this, the cache only refreshes an entry when it is read after the refresh time, and an entry
+     * that is not read before it expires is loaded again on the planning path.
+     * The statistics of the same table are reloaded in one query. Returns the number of reloaded columns.
+     */
+    public int refreshAhead() {
+        Optional<Policy.Expiration<ColumnStatsCacheKey, Optional<ColumnStatistic>>> expiration =
+                cachedStatistics.synchronous().policy().expireAfterWrite();
+        if (!expiration.isPresent()) {
+            return 0;
+        }
+        long expireMs = expiration.get().getExpiresAfter(TimeUnit.MILLISECONDS);
+        long refreshMs = expireMs / 2;
+        long now = System.currentTimeMillis();
+        tableAccessTimes.values().removeIf(accessTime -> now - accessTime > expireMs);
+
+        Map<Long, List<ColumnStatsCacheKey>> refreshKeys = new HashMap<>();
+        for (ColumnStatsCacheKey key : cachedStatistics.synchronous().asMap().keySet()) {
+            if (!tableAccessTimes.containsKey(key.tableId)) {
+                continue;
+            }
+            OptionalLong age = expiration.get().ageOf(key, TimeUnit.MILLISECONDS);
+            if (age.isPresent() && age.getAsLong() >= refreshMs) {
+                refreshKeys.computeIfAbsent(key.tableId, k -> new ArrayList<>()).add(key);
+            }
+        }
+
+        int refreshed = 0;
+        for (List<ColumnStatsCacheKey> keys : refreshKeys.values()) {
+            try {
+                reload(keys).join();
+                refreshed += keys.size();
+            } catch (Exception e) {
+                LOG.warn("Refresh column statistics of table {} failed", keys.get(0).tableId, e);
+            }
+        }
+        return refreshed;
+    }
+
+    private CompletableFuture<Void> reload(List<ColumnStatsCacheKey> cacheKeys) {
+        return columnStatsLoader.asyncLoadAll(cacheKeys, columnStatsLoadExecutor)
+                .thenAccept(result -> cachedStatistics.synchronous().putAll(result));
+    }
+
     @Override
     public void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic) {
         this.cachedStatistics.synchronous().put(new ColumnStatsCacheKey(table.getId(), column), Optional.of(columnStatistic));
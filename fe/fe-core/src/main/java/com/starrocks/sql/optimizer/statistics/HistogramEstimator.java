@@ -0,0 +1,195 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.starrocks.catalog.Type;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.statistic.StatisticUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Selectivity estimation of equality, IN and join predicates based on the histogram of the columns.
+ *
+ * All the selectivities are fractions of the non-null rows, the callers apply the nulls fraction.
+ * Rows of the most common values are counted exactly, the other rows are assumed to be spread evenly
+ * over the distinct values of their bucket.
+ */
+public class HistogramEstimator {
+    private HistogramEstimator() {
+    }
+
+    public static boolean isEnabled() {
+        ConnectContext context = ConnectContext.get();
+        return context != null && context.getSessionVariable().isCboUseHistogramSelectivity();
+    }
+
+    public static boolean hasHistogram(ColumnStatistic columnStatistic) {
+        Histogram histogram = columnStatistic.getHistogram();
+        return histogram != null && histogram.getTotalRows() > 0;
+    }
+
+    /**
+     * Returns the selectivity of column = constant.
+     * The value hits a most common value, or is counted by the upper repeats or the average of its bucket.
+     * A numeric value out of the range of the histogram matches nothing.
+     */
+    public static double estimateEqualToSelectivity(ColumnStatistic columnStatistic, ConstantOperator constant) {
+        Side side = new Side(columnStatistic, constant.getType());
+        return side.rowsOf(constant.toString()) / side.totalRows;
+    }
+
+    /**
+     * Returns the selectivity of column IN (constants), the sum of the selectivity of the distinct constants.
+     */
+    public static double estimateInSelectivity(ColumnStatistic columnStatistic, List<ConstantOperator> constants) {
+        if (constants.isEmpty()) {
+            return 0;
+        }
+        Side side = new Side(columnStatistic, constants.get(0).getType());
+        double rows = 0;
+        for (String value : constants.stream().map(ConstantOperator::toString).distinct()
+                .toArray(String[]::new)) {
+            rows += side.rowsOf(value);
+        }
+        return min(1.0, rows / side.totalRows);
+    }
+
+    /**
+     * Returns the selectivity of left column = right column over the cross product of the non-null rows.
+     * The matched rows are summed from the overlap of the two histograms:
+     * 1. the most common values of each side join with the rows of the same value on the other side.
+     * 2. the overlapped part of each pair of buckets contains rows(l) * rows(r) / max(ndv(l), ndv(r)) matched rows,
+     *    which assumes the values of the smaller side are contained by the other side.
+     */
+    public static double estimateEqualToColumnSelectivity(ColumnStatistic leftColumnStatistic,
+                                                          ColumnStatistic rightColumnStatistic,
+                                                          Type type) {
+        Side left = new Side(leftColumnStatistic, type);
+        Side right = new Side(rightColumnStatistic, type);
+
+        double matchedRows = 0;
+        for (Map.Entry<String, Long> entry : left.mcv.entrySet()) {
+            matchedRows += entry.getValue() * right.rowsOf(entry.getKey());
+        }
+        for (Map.Entry<String, Long> entry : right.mcv.entrySet()) {
+            if (!left.mcv.containsKey(entry.getKey())) {
+                matchedRows += entry.getValue() * left.rowsOf(entry.getKey());
+            }
+        }
+
+        int j = 0;
+        for (int i = 0; i < left.buckets.size(); i++) {
+            Bucket leftBucket = left.buckets.get(i);
+            while (j < right.buckets.size() && right.buckets.get(j).getUpper() < leftBucket.getLower()) {
+                j++;
+            }
+            for (int k = j; k < right.buckets.size(); k++) {
+                Bucket rightBucket = right.buckets.get(k);
+                if (rightBucket.getLower() > leftBucket.getUpper()) {
+                    break;
+                }
+                double low = max(leftBucket.getLower(), rightBucket.getLower());
+                double high = min(leftBucket.getUpper(), rightBucket.getUpper());
+                double leftFraction = overlapFraction(leftBucket, low, high);
+                double rightFraction = overlapFraction(rightBucket, low, high);
+                double leftRows = left.bucketRows(i) * leftFraction;
+                double rightRows = right.bucketRows(k) * rightFraction;
+                double distinctValues = max(1, max(left.bucketDistinctValues(i) * leftFraction,
+                        right.bucketDistinctValues(k) * rightFraction));
+                matchedRows += leftRows * rightRows / distinctValues;
+            }
+        }
+
+        return min(1.0, matchedRows / left.totalRows / right.totalRows);
+    }
+
+    private static double overlapFraction(Bucket bucket, double low, double high) {
+        double width = bucket.getUpper() - bucket.getLower();
+        if (width <= 0) {
+            return 1;
+        }
+        return max(0, min(1, (high - low) / width));
+    }
+
+    private static class Side {
+        private final Type type;
+        private final Map<String, Long> mcv;
+        private final List<Bucket> buckets;
+        private final double totalRows;
+        // rows and distinct values not covered by the most common values
+        private final double bucketTotalRows;
+        private final double bucketDistinctValues;
+
+        private Side(ColumnStatistic columnStatistic, Type type) {
+            Histogram histogram = columnStatistic.getHistogram();
+            this.type = type;
+            this.mcv = histogram.getMCV() == null ? Collections.emptyMap() : histogram.getMCV();
+            this.buckets = histogram.getBuckets() == null ? Collections.emptyList() : histogram.getBuckets();
+            this.totalRows = max(1, histogram.getTotalRows());
+            this.bucketTotalRows = buckets.isEmpty() ? 0 : buckets.get(buckets.size() - 1).getCount();
+            this.bucketDistinctValues = max(1, columnStatistic.getDistinctValuesCount() - mcv.size());
+        }
+
+        private double bucketRows(int index) {
+            long previous = index == 0 ? 0 : buckets.get(index - 1).getCount();
+            return buckets.get(index).getCount() - previous;
+        }
+
+        private double bucketDistinctValues(int index) {
+            // buckets are equi-height, so the distinct values are spread by the row count
+            return max(1, bucketDistinctValues * bucketRows(index) / max(1, bucketTotalRows));
+        }
+
+        // estimated rows equal to the value
+        private double rowsOf(String value) {
+            Long count = mcv.get(value);
+            if (count != null) {
+                return count;
+            }
+            if (buckets.isEmpty()) {
+                return 0;
+            }
+
+            Optional<Double> optionalValue = type.canStatistic() ?
+                    StatisticUtils.convertStatisticsToDouble(type, value) : Optional.empty();
+            if (!optionalValue.isPresent()) {
+                return bucketTotalRows / bucketDistinctValues;
+            }
+            double key = optionalValue.get();
+            for (int i = 0; i < buckets.size(); i++) {
+                Bucket bucket = buckets.get(i);
+                if (key < bucket.getLower()) {
+                    // between two buckets, may be missed by the sample
+                    return i == 0 ? 0 : bucketTotalRows / bucketDistinctValues;
+                }
+                if (key == bucket.getUpper()) {
+                    return bucket.getUpperRepeats();
+                }
+                if (key < bucket.getUpper()) {
+                    return max(0, bucketRows(i) - bucket.getUpperRepeats()) / max(1, bucketDistinctValues(i) - 1);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -137,6 +137,14 @@ public class PredicateStatisticsCalculator {
                 selectivity = predicate.isNotIn() ?
                         1 - StatisticsEstimateCoefficient.IN_PREDICATE_DEFAULT_FILTER_COEFFICIENT :
                         StatisticsEstimateCoefficient.IN_PREDICATE_DEFAULT_FILTER_COEFFICIENT;
+            } else if (HistogramEstimator.isEnabled() && HistogramEstimator.hasHistogram(inColumnStatistic) &&
+                    otherChildrenList.stream().allMatch(ScalarOperator::isConstantRef)) {
+                // sum up the rows of each value in the histogram, skewed values are counted by the mcv
+                List<ConstantOperator> constants = otherChildrenList.stream().map(child -> (ConstantOperator) child)
+                        .filter(constant -> !constant.isNull()).collect(Collectors.toList());
+                double inSelectivity = HistogramEstimator.estimateInSelectivity(inColumnStatistic, constants);
+                selectivity = (1 - inColumnStatistic.getNullsFraction()) *
+                        (predicate.isNotIn() ? 1 - inSelectivity : inSelectivity);
             } else {
                 // children column statistics are not unknown.
                 selectivity = hasOverlap ?
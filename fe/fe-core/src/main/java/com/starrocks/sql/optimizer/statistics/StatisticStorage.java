@@ -44,5 +44,14 @@ public interface StatisticStorage {
     default void expireColumnStatistics(Table table, List<String> columns) {
     }
 
+    default void refreshColumnStatistics(Table table, List<String> columns, boolean isSync) {
+        expireColumnStatistics(table, columns);
+        if (isSync) {
+            getColumnStatisticsSync(table, columns);
+        } else {
+            getColumnStatistics(table, columns);
+        }
+    }
+
     void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic);
 }
@@ -21,9 +21,9 @@ import com.starrocks.qe.SessionVariable;
 import com.starrocks.sql.optimizer.GroupExpression;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.Optimizer;
+import com.starrocks.sql.optimizer.OptimizerContext;
 import com.starrocks.sql.optimizer.OptimizerTraceInfo;
 import com.starrocks.sql.optimizer.OptimizerTraceUtil;
-import com.starrocks.sql.optimizer.operator.pattern.Pattern;
 import com.starrocks.sql.optimizer.rule.Binder;
 import com.starrocks.sql.optimizer.rule.Rule;
 import org.apache.logging.log4j.LogManager;
@@ -49,6 +49,22 @@ public class ApplyRuleTask extends OptimizerTask {
     private final GroupExpression groupExpression;
     private final Rule rule;
     private final boolean isExplore;
+    // Bound expressions and the transformed expressions of them, computed ahead by the parallel task scheduler
+    private PreparedResult prepared;
+
+    /**
+     * The result of binding the rule pattern and transforming the bound expressions, which doesn't touch the memo.
+     * It is valid until any group is merged, see {@link com.starrocks.sql.optimizer.Memo#getMergeVersion()}.
+     */
+    static class PreparedResult {
+        private final List<Pair<OptExpression, List<OptExpression>>> expressions;
+        private final int mergeVersion;
+
+        private PreparedResult(List<Pair<OptExpression, List<OptExpression>>> expressions, int mergeVersion) {
+            this.expressions = expressions;
+            this.mergeVersion = mergeVersion;
+        }
+    }
 
     ApplyRuleTask(TaskContext context, GroupExpression groupExpression, Rule rule, boolean isExplore) {
         super(context);
@@ -69,25 +85,20 @@ public class ApplyRuleTask extends OptimizerTask {
                 groupExpression.isUnused()) {
             return;
         }
+        // Some groups were merged since the result was prepared, the bound expressions may be stale
+        if (prepared == null ||
+                prepared.mergeVersion != context.getOptimizerContext().getMemo().getMergeVersion()) {
+            prepared = prepare(context.getOptimizerContext(), groupExpression, rule);
+        }
+
         SessionVariable sessionVariable = context.getOptimizerContext().getSessionVariable();
-        // Apply rule and get all new OptExpressions
-        Pattern pattern = rule.getPattern();
-        Binder binder = new Binder(pattern, groupExpression);
-        OptExpression extractExpr = binder.next();
+        OptimizerTraceInfo traceInfo = context.getOptimizerContext().getTraceInfo();
         List<OptExpression> newExpressions = Lists.newArrayList();
-        while (extractExpr != null) {
-            if (!rule.check(extractExpr, context.getOptimizerContext())) {
-                extractExpr = binder.next();
-                continue;
-            }
-            List<OptExpression> targetExpressions = rule.transform(extractExpr, context.getOptimizerContext());
-            newExpressions.addAll(targetExpressions);
-
-            OptimizerTraceInfo traceInfo = context.getOptimizerContext().getTraceInfo();
-            OptimizerTraceUtil.logApplyRule(sessionVariable, traceInfo, rule, extractExpr, targetExpressions);
-
-            extractExpr = binder.next();
+        for (Pair<OptExpression, List<OptExpression>> transformed : prepared.expressions) {
+            newExpressions.addAll(transformed.second);
+            OptimizerTraceUtil.logApplyRule(sessionVariable, traceInfo, rule, transformed.first, transformed.second);
         }
+        prepared = null;
 
         for (OptExpression expression : newExpressions) {
             // Insert new OptExpression to memo
@@ -112,4 +123,38 @@ public class ApplyRuleTask extends OptimizerTask {
 
         groupExpression.setRuleExplored(rule);
     }
+
+    GroupExpression getGroupExpression() {
+        return groupExpression;
+    }
+
+    Rule getRule() {
+        return rule;
+    }
+
+    void setPrepared(PreparedResult prepared) {
+        this.prepared = prepared;
+    }
+
+    /**
+     * Bind the rule pattern and transform the bound expressions, without touching the memo.
+     * The parallel task scheduler calls it on worker threads, so it must only read shared state.
+     */
+    static PreparedResult prepare(OptimizerContext optimizerContext, GroupExpression groupExpression, Rule rule) {
+        int mergeVersion = optimizerContext.getMemo().getMergeVersion();
+        Binder binder = new Binder(rule.getPattern(), groupExpression);
+        OptExpression extractExpr = binder.next();
+        List<Pair<OptExpression, List<OptExpression>>> result = Lists.newArrayList();
+        while (extractExpr != null) {
+            if (!rule.check(extractExpr, optimizerContext)) {
+                extractExpr = binder.next();
+                continue;
+            }
+            List<OptExpression> targetExpressions = rule.transform(extractExpr, optimizerContext);
+            result.add(new Pair<>(extractExpr, targetExpressions));
+
+            extractExpr = binder.next();
+        }
+        return new PreparedResult(result, mergeVersion);
+    }
 }
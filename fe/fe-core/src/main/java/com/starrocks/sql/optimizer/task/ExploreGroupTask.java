@@ -42,6 +42,10 @@ public class ExploreGroupTask extends OptimizerTask {
         group.setExplored();
     }
 
+    Group getGroup() {
+        return group;
+    }
+
     @Override
     public String toString() {
         return "ExploreGroupTask for group " + group.getId();
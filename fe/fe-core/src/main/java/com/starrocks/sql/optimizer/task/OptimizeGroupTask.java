@@ -34,6 +34,10 @@ public class OptimizeGroupTask extends OptimizerTask {
         this.group = group;
     }
 
+    Group getGroup() {
+        return group;
+    }
+
     @Override
     public String toString() {
         return "OptimizeGroupTask for group " + group;
@@ -0,0 +1,205 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.sql.optimizer.task;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.rule.Rule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A task scheduler which runs the work of {@link ExploreGroupTask} and {@link OptimizeGroupTask}
+ * on a shared fork-join pool.
+ * <p>
+ * When a group task is popped, one fork-join task is forked for every logical GroupExpression of the group,
+ * and recursively of the input groups, which binds and transforms all the parallelizable rules
+ * (see {@link com.starrocks.sql.optimizer.rule.Rule#isParallelizable()}) of the GroupExpression.
+ * The optimizer thread waits for them, then continues popping tasks from the stack in exactly the same
+ * order as {@link SeriallyTaskScheduler}, and an {@link ApplyRuleTask} only inserts its prepared result into
+ * the memo. All memo modifications stay on the optimizer thread, and a prepared result is dropped if
+ * any group was merged after it was prepared, so the scheduler produces the same memo, and the same plan,
+ * as the serial one.
+ */
+public class ParallelTaskScheduler extends SeriallyTaskScheduler {
+    private static final Logger LOG = LogManager.getLogger(ParallelTaskScheduler.class);
+
+    private static class PoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(
+                Config.optimizer_parallel_explore_thread_num > 0 ? Config.optimizer_parallel_explore_thread_num :
+                        Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("optimizer-explore-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                }, null, false);
+    }
+
+    // GroupExpressions whose transformation rules have been prepared, only accessed by the optimizer thread
+    private final Set<GroupExpression> exploredGroupExpressions = Collections.newSetFromMap(new IdentityHashMap<>());
+    // GroupExpressions whose implementation rules have been prepared, only accessed by the optimizer thread.
+    // A GroupExpression is usually explored as an input first, and implemented by a later OptimizeGroupTask.
+    private final Set<GroupExpression> implementedGroupExpressions = Collections.newSetFromMap(new IdentityHashMap<>());
+    // GroupExpression -> rule -> prepared result, written by the workers
+    private final Map<GroupExpression, Map<Rule, ApplyRuleTask.PreparedResult>> preparedResults =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private ParallelTaskScheduler() {
+        super();
+    }
+
+    public static TaskScheduler create() {
+        return new ParallelTaskScheduler();
+    }
+
+    @Override
+    protected void executeTask(OptimizerTask task) {
+        if (task instanceof ExploreGroupTask) {
+            prepareGroup(task.context.getOptimizerContext(), ((ExploreGroupTask) task).getGroup(), true);
+        } else if (task instanceof OptimizeGroupTask) {
+            prepareGroup(task.context.getOptimizerContext(), ((OptimizeGroupTask) task).getGroup(), false);
+        } else if (task instanceof ApplyRuleTask) {
+            ApplyRuleTask applyRuleTask = (ApplyRuleTask) task;
+            Map<Rule, ApplyRuleTask.PreparedResult> results = preparedResults.get(applyRuleTask.getGroupExpression());
+            if (results != null && results.containsKey(applyRuleTask.getRule())) {
+                applyRuleTask.setPrepared(results.remove(applyRuleTask.getRule()));
+            }
+        }
+        task.execute();
+    }
+
+    private void prepareGroup(OptimizerContext optimizerContext, Group group, boolean isExplore) {
+        List<PrepareExpressionAction> actions = Lists.newArrayList();
+        collectActions(optimizerContext, group, isExplore, actions);
+        if (actions.isEmpty()) {
+            return;
+        }
+        List<ForkJoinTask<?>> futures = Lists.newArrayListWithCapacity(actions.size());
+        for (PrepareExpressionAction action : actions) {
+            futures.add(PoolHolder.POOL.submit(action));
+        }
+        // Wait for all the workers, they read the memo which will be modified after return.
+        for (ForkJoinTask<?> future : futures) {
+            future.join();
+        }
+    }
+
+    // Collect the logical GroupExpressions of the group and its input groups, whose rules haven't been prepared.
+    private void collectActions(OptimizerContext optimizerContext, Group group, boolean isExplore,
+                                List<PrepareExpressionAction> actions) {
+        for (GroupExpression groupExpression : group.getLogicalExpressions()) {
+            boolean explore = exploredGroupExpressions.add(groupExpression);
+            boolean implement = !isExplore && implementedGroupExpressions.add(groupExpression);
+            if (!explore && !implement) {
+                continue;
+            }
+            List<Rule> rules = getParallelizableRules(optimizerContext, groupExpression, explore, implement);
+            if (!rules.isEmpty()) {
+                actions.add(new PrepareExpressionAction(optimizerContext, groupExpression, rules));
+            }
+            if (!explore) {
+                // the input groups have been collected when the GroupExpression is explored
+                continue;
+            }
+            // the input groups are always explored
+            for (Group input : groupExpression.getInputs()) {
+                collectActions(optimizerContext, input, true, actions);
+            }
+        }
+    }
+
+    // Same as OptimizeExpressionTask#getValidRules, but only the parallelizable rules.
+    private static List<Rule> getParallelizableRules(OptimizerContext optimizerContext,
+                                                     GroupExpression groupExpression, boolean explore,
+                                                     boolean implement) {
+        List<Rule> rules = Lists.newArrayList();
+        List<Rule> candidates = Lists.newArrayList();
+        if (explore) {
+            candidates.addAll(optimizerContext.getRuleSet().getTransformRules());
+        }
+        if (implement) {
+            candidates.addAll(optimizerContext.getRuleSet().getImplementRules());
+        }
+        for (Rule rule : candidates) {
+            if (rule.isParallelizable() && !groupExpression.hasRuleExplored(rule) &&
+                    rule.getPattern().matchWithoutChild(groupExpression) &&
+                    !optimizerContext.getOptimizerConfig().isRuleDisable(rule.type())) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    private class PrepareExpressionAction extends RecursiveAction {
+        private final OptimizerContext optimizerContext;
+        private final GroupExpression groupExpression;
+        private final List<Rule> rules;
+        private final ConnectContext connectContext;
+
+        private PrepareExpressionAction(OptimizerContext optimizerContext, GroupExpression groupExpression,
+                                        List<Rule> rules) {
+            this.optimizerContext = optimizerContext;
+            this.groupExpression = groupExpression;
+            this.rules = rules;
+            this.connectContext = ConnectContext.get();
+        }
+
+        @Override
+        protected void compute() {
+            // A worker may run the action while joining another one, so restore the previous context.
+            ConnectContext previous = ConnectContext.get();
+            if (connectContext != null) {
+                connectContext.setThreadLocalInfo();
+            }
+            try {
+                Map<Rule, ApplyRuleTask.PreparedResult> results = Maps.newHashMap();
+                for (Rule rule : rules) {
+                    try {
+                        results.put(rule, ApplyRuleTask.prepare(optimizerContext, groupExpression, rule));
+                    } catch (Exception e) {
+                        // leave it unprepared, it will be prepared again on the optimizer thread,
+                        // where the exception is thrown to the caller as usual
+                        LOG.debug("prepare rule {} of {} in parallel failed", rule, groupExpression, e);
+                    }
+                }
+                // the transformation rules of the GroupExpression may have been prepared by a previous action
+                preparedResults.computeIfAbsent(groupExpression, k -> Maps.newConcurrentMap()).putAll(results);
+            } finally {
+                if (previous != null) {
+                    previous.setThreadLocalInfo();
+                } else {
+                    ConnectContext.remove();
+                }
+            }
+        }
+    }
+}
@@ -24,9 +24,9 @@ import java.util.Stack;
 import java.util.concurrent.TimeUnit;
 
 public class SeriallyTaskScheduler implements TaskScheduler {
-    private final Stack<OptimizerTask> tasks;
+    protected final Stack<OptimizerTask> tasks;
 
-    private SeriallyTaskScheduler() {
+    protected SeriallyTaskScheduler() {
         tasks = new Stack<>();
     }
 
@@ -59,10 +59,14 @@ public class SeriallyTaskScheduler implements TaskScheduler {
             }
             OptimizerTask task = tasks.pop();
             context.getOptimizerContext().setTaskContext(context);
-            task.execute();
+            executeTask(task);
         }
     }
 
+    protected void executeTask(OptimizerTask task) {
+        task.execute();
+    }
+
     @Override
     public void pushTask(OptimizerTask task) {
         tasks.push(task);
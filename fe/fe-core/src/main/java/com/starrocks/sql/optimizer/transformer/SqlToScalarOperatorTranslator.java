@@ -39,6 +39,7 @@ import com.starrocks.analysis.IsNullPredicate;
 import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.SubfieldExpr;
@@ -614,6 +615,11 @@ public final class SqlToScalarOperatorTranslator {
             return ConstantOperator.createObject(node.getRealObjectValue(), node.getType());
         }
 
+        @Override
+        public ScalarOperator visitParameter(Parameter node, Context context) {
+            return visitLiteral(node.getValue(), context);
+        }
+
         @Override
         public ScalarOperator visitFunctionCall(FunctionCallExpr node, Context context) {
             if (node.getFnName().getFunction().equalsIgnoreCase("map_keys") ||
@@ -62,6 +62,7 @@ import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OdbcScalarFunctionCall;
 import com.starrocks.analysis.OrderByElement;
 import com.starrocks.analysis.OutFileClause;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.Predicate;
 import com.starrocks.analysis.RoutineLoadDataSourceProperties;
@@ -383,10 +384,17 @@ import static java.util.stream.Collectors.toList;
 public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
     private final long sqlMode;
 
+    // parameter markers of the statement, in the order of being visited
+    private final List<Parameter> parameters = new ArrayList<>();
+
     public AstBuilder(long sqlMode) {
         this.sqlMode = sqlMode;
     }
 
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
     @Override
     public ParseNode visitSingleStatement(StarRocksParser.SingleStatementContext context) {
         if (context.statement() != null) {
@@ -4930,6 +4938,13 @@ public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
         return new VariableExpr(variable, SetType.USER);
     }
 
+    @Override
+    public ParseNode visitParameter(StarRocksParser.ParameterContext context) {
+        Parameter parameter = new Parameter(context.start.getStartIndex());
+        parameters.add(parameter);
+        return parameter;
+    }
+
     @Override
     public ParseNode visitSystemVariable(StarRocksParser.SystemVariableContext context) {
         SetType setType = getVariableType(context.varType());
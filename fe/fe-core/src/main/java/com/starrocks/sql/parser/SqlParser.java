@@ -16,6 +16,7 @@ package com.starrocks.sql.parser;
 
 import com.clearspring.analytics.util.Lists;
 import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.common.Config;
 import com.starrocks.qe.OriginStatement;
 import com.starrocks.qe.SessionVariable;
@@ -24,6 +25,7 @@ import com.starrocks.sql.ast.StatementBase;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 
+import java.util.Comparator;
 import java.util.List;
 
 public class SqlParser {
@@ -41,6 +43,30 @@ public class SqlParser {
         return statements;
     }
 
+    /**
+     * Parse the sql of a server-side prepared statement, which may contain parameter markers '?'.
+     * The markers are collected into parameters, ordered by their positions in the sql.
+     */
+    public static StatementBase parsePrepareStatement(String sql, SessionVariable sessionVariable,
+                                                      List<Parameter> parameters) {
+        StarRocksParser parser = parserBuilder(sql, sessionVariable);
+        List<StarRocksParser.SingleStatementContext> singleStatementContexts = parser.sqlStatements().singleStatement();
+        if (singleStatementContexts.size() != 1) {
+            throw new ParsingException("Prepared statement should contain exactly one statement");
+        }
+
+        AstBuilder astBuilder = new AstBuilder(sessionVariable.getSqlMode());
+        StatementBase statement = (StatementBase) astBuilder.visitSingleStatement(singleStatementContexts.get(0));
+        statement.setOrigStmt(new OriginStatement(sql, 0));
+
+        parameters.addAll(astBuilder.getParameters());
+        parameters.sort(Comparator.comparingInt(Parameter::getPosition));
+        for (int i = 0; i < parameters.size(); i++) {
+            parameters.get(i).setSlotId(i);
+        }
+        return statement;
+    }
+
     /**
      * We need not only sqlMode but also other parameters to define the property of parser.
      * Please consider use {@link #parse(String, SessionVariable)}
@@ -396,6 +396,7 @@ BIT_SHIFT_RIGHT_LOGICAL: 'BITSHIFTRIGHTLOGICAL';
 
 ARROW: '->';
 AT: '@';
+PARAMETER: '?';
 
 INTEGER_VALUE
     : DIGIT+
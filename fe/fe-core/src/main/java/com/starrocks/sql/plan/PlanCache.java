@@ -0,0 +1,646 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.sql.plan;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.View;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.plugin.AuditEvent;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.common.SqlDigestBuilder;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.Projection;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashAggregateOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.transformer.SqlToScalarOperatorTranslator;
+import com.starrocks.statistic.AnalyzeManager;
+import com.starrocks.statistic.BasicStatsMeta;
+import com.starrocks.statistic.HistogramStatsMeta;
+import com.starrocks.thrift.TResultSinkType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * FE side cache of optimized query plans, keyed by the literal-stripped digest of the statement.
+ * <p>
+ * A statement is still parsed, analyzed and checked for privilege on every execution. On a hit, the
+ * RelationTransformer and the Optimizer are skipped: the cached physical plan is translated into a new
+ * ExecPlan for the current session, after the constants coming from the literals of the statement are
+ * rebound to the literals of current statement.
+ * <p>
+ * The constants are traced after the plan is optimized, by matching the constants in the predicates and
+ * projections of the physical operators with the literals of the statement, directly or through a cast.
+ * A plan is parameterizable only if it consists of scans, filters, projections, aggregations, sorts and
+ * exchanges, every constant matches exactly one literal, every literal is matched and no partition or
+ * tablet is pruned. Otherwise the literals decided the shape of the plan, or the optimizer generated
+ * constants which can't be told from the literals, and the cached plan can only be reused for the same
+ * literals.
+ * <p>
+ * An entry is validated on every lookup against the current ids, partitions and index schemas of the
+ * referenced tables and the definitions of the referenced views, so DDL and partition changes make
+ * the entry stale and it is replaced by the next planning. The version of the statistics of the referenced
+ * tables is a part of the key, so the statements are planned again after the tables are analyzed.
+ */
+public class PlanCache {
+    private static final Logger LOG = LogManager.getLogger(PlanCache.class);
+
+    private static final PlanCache INSTANCE = new PlanCache(Config.plan_cache_max_memory_mb * 1024L * 1024L);
+
+    private final Cache<Key, Entry> cache;
+
+    public PlanCache(long maxMemoryBytes) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryBytes)
+                .weigher((Key key, Entry entry) -> entry.getEstimatedSize() + key.digest.length() * 2)
+                .build();
+    }
+
+    public static PlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the lookup context of an analyzed query statement.
+     *
+     * @return null if the statement can't use plan cache
+     */
+    public static Lookup createLookup(QueryStatement stmt, ConnectContext session, TResultSinkType resultSinkType) {
+        if (stmt.hasOutFileClause() || stmt.isExplain()) {
+            return null;
+        }
+
+        List<LiteralExpr> literals = Lists.newArrayList();
+        String digest = SqlDigestBuilder.buildParameterized(stmt, literals);
+        if (digest == null) {
+            return null;
+        }
+
+        Map<Long, Long> tableSignatures = computeTableSignatures(stmt);
+        if (tableSignatures == null) {
+            return null;
+        }
+
+        HashCode sessionFingerprint;
+        try {
+            sessionFingerprint = Hashing.murmur3_128().hashString(session.getSessionVariable().getJsonString(),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.debug("failed to compute fingerprint of session variables", e);
+            return null;
+        }
+
+        List<ConstantOperator> params = Lists.newArrayListWithCapacity(literals.size());
+        List<String> paramTypes = Lists.newArrayListWithCapacity(literals.size());
+        for (LiteralExpr literal : literals) {
+            params.add((ConstantOperator) SqlToScalarOperatorTranslator.translate(literal));
+            paramTypes.add(literal.getType().toSql());
+        }
+
+        Key key = new Key(digest, paramTypes, session.getCurrentCatalog(), session.getDatabase(),
+                sessionFingerprint, resultSinkType, computeStatisticsVersion(tableSignatures.keySet()));
+        return new Lookup(key, params, tableSignatures);
+    }
+
+    /**
+     * Build a new ExecPlan from the cached plan for current statement.
+     *
+     * @return null if there is no valid cached plan
+     */
+    public ExecPlan get(Lookup lookup, ConnectContext session, List<String> colNames) {
+        Entry entry = cache.getIfPresent(lookup.key);
+        if (entry == null) {
+            increaseMissCount();
+            return null;
+        }
+        if (!entry.tableSignatures.equals(lookup.tableSignatures)) {
+            cache.asMap().remove(lookup.key, entry);
+            increaseMissCount();
+            return null;
+        }
+
+        Map<ConstantOperator, ConstantOperator> substitutions = entry.bind(lookup.params);
+        if (substitutions == null) {
+            increaseMissCount();
+            return null;
+        }
+
+        ExecPlan execPlan;
+        // The rebound predicates and projections are set to the cached operators while translating, and
+        // PlanFragmentBuilder may change the OptExpression temporarily, one entry can't be translated concurrently
+        synchronized (entry) {
+            List<ScalarOperator> predicates = Lists.newArrayListWithCapacity(entry.rebindOperators.size());
+            List<Projection> projections = Lists.newArrayListWithCapacity(entry.rebindOperators.size());
+            try {
+                for (Operator operator : entry.rebindOperators) {
+                    predicates.add(operator.getPredicate());
+                    projections.add(operator.getProjection());
+                    operator.setPredicate(rebind(operator.getPredicate(), substitutions));
+                    operator.setProjection(rebind(operator.getProjection(), substitutions));
+                }
+                execPlan = new PlanFragmentBuilder().createPhysicalPlan(entry.physicalPlan, session,
+                        entry.outputColumns, entry.columnRefFactory, colNames, lookup.key.resultSinkType,
+                        !session.getSessionVariable().isSingleNodeExecPlan());
+            } catch (RuntimeException e) {
+                LOG.warn("failed to build exec plan from plan cache, digest: {}", lookup.key.digest, e);
+                cache.asMap().remove(lookup.key, entry);
+                increaseMissCount();
+                return null;
+            } finally {
+                for (int i = 0; i < predicates.size(); i++) {
+                    entry.rebindOperators.get(i).setPredicate(predicates.get(i));
+                    entry.rebindOperators.get(i).setProjection(projections.get(i));
+                }
+            }
+        }
+        // the costs are estimated by the optimizer, which is skipped by the cached plan
+        session.getAuditEventBuilder().setPlanCpuCosts(entry.planCpuCosts).setPlanMemCosts(entry.planMemCosts);
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_HIT.increase(1L);
+        }
+        return execPlan;
+    }
+
+    /**
+     * Cache the plan just built for the statement of lookup, with the costs estimated by the optimizer.
+     */
+    public void put(Lookup lookup, ConnectContext session, ExecPlan execPlan, ColumnRefFactory columnRefFactory) {
+        OptExpression physicalPlan = execPlan.getPhysicalPlan();
+        ScanChecker checker = new ScanChecker(lookup.tableSignatures.keySet());
+        checker.check(physicalPlan);
+        if (!checker.cacheable) {
+            return;
+        }
+
+        ConstantCollector collector = new ConstantCollector();
+        collector.collect(physicalPlan);
+        Map<ConstantOperator, Integer> constantParams = null;
+        if (!checker.pruned && collector.rebindable) {
+            constantParams = traceConstants(lookup.params, collector.constants);
+        }
+
+        AuditEvent auditEvent = session.getAuditEventBuilder().build();
+        Entry entry = new Entry(physicalPlan, execPlan.getOutputColumns(), columnRefFactory, lookup.params,
+                lookup.tableSignatures, constantParams, constantParams == null ? Lists.newArrayList() :
+                collector.operators, auditEvent.planCpuCosts, auditEvent.planMemCosts);
+        cache.put(lookup.key, entry);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static void increaseMissCount() {
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_MISS.increase(1L);
+        }
+    }
+
+    /**
+     * Find the literal each constant of the plan comes from.
+     *
+     * @return the index of the literal of each constant, or null if any constant of the plan isn't from exactly one
+     * literal, or any literal doesn't reach the plan
+     */
+    private static Map<ConstantOperator, Integer> traceConstants(List<ConstantOperator> params,
+                                                                 List<ConstantOperator> constants) {
+        Map<ConstantOperator, Integer> constantParams = Maps.newIdentityHashMap();
+        Set<Integer> usedParams = Sets.newHashSet();
+        for (ConstantOperator constant : constants) {
+            int source = -1;
+            for (int i = 0; i < params.size(); i++) {
+                if (!isDerivedFrom(constant, params.get(i))) {
+                    continue;
+                }
+                if (source >= 0) {
+                    // equal literals, can't tell which one the constant comes from
+                    return null;
+                }
+                source = i;
+            }
+            if (source < 0) {
+                // generated by the optimizer, e.g. folded from an expression of literals
+                return null;
+            }
+            constantParams.put(constant, source);
+            usedParams.add(source);
+        }
+
+        if (usedParams.size() != params.size()) {
+            // the literal is consumed by the optimizer, e.g. `1 = 1` or a redundant range predicate
+            return null;
+        }
+        return constantParams;
+    }
+
+    private static boolean isDerivedFrom(ConstantOperator constant, ConstantOperator param) {
+        if (param.getType().matchesType(constant.getType())) {
+            return param.equals(constant);
+        }
+        // any non-zero number can be cast to true, a boolean constant is only traced to a boolean literal
+        if (param.isNull() || constant.isNull() || param.getType().isBoolean() || constant.getType().isBoolean()) {
+            return false;
+        }
+        try {
+            return param.castTo(constant.getType()).equals(constant);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static ScalarOperator rebind(ScalarOperator scalar, Map<ConstantOperator, ConstantOperator> substitutions) {
+        if (scalar == null) {
+            return null;
+        }
+        if (scalar instanceof ConstantOperator) {
+            return substitutions.getOrDefault(scalar, scalar);
+        }
+        ScalarOperator result = scalar;
+        for (int i = 0; i < scalar.getChildren().size(); i++) {
+            ScalarOperator child = scalar.getChild(i);
+            ScalarOperator newChild = rebind(child, substitutions);
+            if (newChild != child) {
+                if (result == scalar) {
+                    result = scalar.clone();
+                }
+                result.setChild(i, newChild);
+            }
+        }
+        return result;
+    }
+
+    private static Projection rebind(Projection projection, Map<ConstantOperator, ConstantOperator> substitutions) {
+        if (projection == null) {
+            return null;
+        }
+        Map<ColumnRefOperator, ScalarOperator> columnRefMap = Maps.newLinkedHashMap();
+        projection.getColumnRefMap().forEach((k, v) -> columnRefMap.put(k, rebind(v, substitutions)));
+        Map<ColumnRefOperator, ScalarOperator> commonSubOperatorMap = Maps.newLinkedHashMap();
+        projection.getCommonSubOperatorMap().forEach((k, v) -> commonSubOperatorMap.put(k, rebind(v, substitutions)));
+        return new Projection(columnRefMap, commonSubOperatorMap);
+    }
+
+    /**
+     * The version of the statistics the optimizer reads for the tables, which is changed when the tables are analyzed.
+     */
+    private static long computeStatisticsVersion(Set<Long> tableIds) {
+        AnalyzeManager analyzeMgr = GlobalStateMgr.getCurrentAnalyzeMgr();
+        long version = 0;
+        for (Long tableId : tableIds) {
+            BasicStatsMeta basicStatsMeta = analyzeMgr.getBasicStatsMetaMap().get(tableId);
+            if (basicStatsMeta != null) {
+                version += mix(tableId * 31 + Objects.hashCode(basicStatsMeta.getUpdateTime()));
+            }
+        }
+        for (HistogramStatsMeta histogramStatsMeta : analyzeMgr.getHistogramStatsMetaMap().values()) {
+            if (tableIds.contains(histogramStatsMeta.getTableId())) {
+                version += mix(Objects.hash(histogramStatsMeta.getTableId(), histogramStatsMeta.getColumn(),
+                        histogramStatsMeta.getUpdateTime()));
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Compute the signatures of the tables and views referenced by an analyzed statement, which are changed
+     * by DDL, partition changes and the first load into an empty partition.
+     *
+     * @return null if the statement references tables other than OLAP tables and views
+     */
+    public static Map<Long, Long> computeTableSignatures(StatementBase stmt) {
+        Map<Long, Long> tableSignatures = Maps.newHashMap();
+        for (Table table : AnalyzerUtils.collectAllTable(stmt).values()) {
+            if (!(table instanceof OlapTable)) {
+                return null;
+            }
+            tableSignatures.put(table.getId(), computeSignature((OlapTable) table));
+        }
+        for (Table table : AnalyzerUtils.collectAllTableAndView(stmt).values()) {
+            if (table instanceof View) {
+                View view = (View) table;
+                tableSignatures.put(view.getId(), (long) Objects.hashCode(view.getInlineViewDef()));
+            }
+        }
+        return tableSignatures;
+    }
+
+    private static long computeSignature(OlapTable table) {
+        long signature = table.getId();
+        signature = signature * 31 + table.getState().ordinal();
+        for (Map.Entry<Long, MaterializedIndexMeta> entry : table.getIndexIdToMeta().entrySet()) {
+            long indexSignature = entry.getKey();
+            indexSignature = indexSignature * 31 + entry.getValue().getSchemaHash();
+            indexSignature = indexSignature * 31 + entry.getValue().getSchemaVersion();
+            signature += mix(indexSignature);
+        }
+        // Empty partitions are pruned by optimizer, so whether a partition has data is also a part of the signature.
+        // The visible versions are not, because the scan ranges and versions are decided when building ExecPlan.
+        for (Partition partition : table.getPartitions()) {
+            signature += mix(partition.getId() * 2 + (partition.hasData() ? 1 : 0));
+        }
+        return signature;
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static int countNodes(OptExpression expression) {
+        int count = 1;
+        for (OptExpression input : expression.getInputs()) {
+            count += countNodes(input);
+        }
+        return count;
+    }
+
+    // Check that all the scans are unpruned scans of OLAP tables referenced by the statement
+    private static class ScanChecker {
+        private final Set<Long> tableIds;
+        private boolean cacheable = true;
+        private boolean pruned = false;
+
+        private ScanChecker(Set<Long> tableIds) {
+            this.tableIds = tableIds;
+        }
+
+        private void check(OptExpression expression) {
+            if (expression.getOp() instanceof PhysicalScanOperator) {
+                if (!(expression.getOp() instanceof PhysicalOlapScanOperator)) {
+                    cacheable = false;
+                    return;
+                }
+                PhysicalOlapScanOperator scan = (PhysicalOlapScanOperator) expression.getOp();
+                // the query may be rewritten by materialized views whose freshness isn't tracked
+                if (!tableIds.contains(scan.getTable().getId())) {
+                    cacheable = false;
+                    return;
+                }
+                pruned = pruned || isPruned(scan);
+            }
+            for (OptExpression input : expression.getInputs()) {
+                check(input);
+            }
+        }
+
+        private boolean isPruned(PhysicalOlapScanOperator scan) {
+            OlapTable table = (OlapTable) scan.getTable();
+            Set<Long> selectedPartitionIds = Sets.newHashSet(scan.getSelectedPartitionId());
+            for (Partition partition : table.getPartitions()) {
+                if (partition.hasData() && !selectedPartitionIds.contains(partition.getId())) {
+                    return true;
+                }
+            }
+            long tabletNum = 0;
+            for (Long partitionId : selectedPartitionIds) {
+                Partition partition = table.getPartition(partitionId);
+                MaterializedIndex index = partition == null ? null : partition.getIndex(scan.getSelectedIndexId());
+                if (index == null) {
+                    return true;
+                }
+                tabletNum += index.getTablets().size();
+            }
+            return tabletNum != scan.getSelectedTabletId().size();
+        }
+    }
+
+    // Collect the constants of the plan which can be rebound, i.e. the constants in the predicates and projections
+    private static class ConstantCollector {
+        private static final Set<OperatorType> REBINDABLE_OPERATORS = ImmutableSet.of(
+                OperatorType.PHYSICAL_OLAP_SCAN, OperatorType.PHYSICAL_FILTER, OperatorType.PHYSICAL_PROJECT,
+                OperatorType.PHYSICAL_HASH_AGG, OperatorType.PHYSICAL_TOPN, OperatorType.PHYSICAL_LIMIT,
+                OperatorType.PHYSICAL_DISTRIBUTION);
+
+        private final List<ConstantOperator> constants = Lists.newArrayList();
+        // the operators whose predicate or projection contains constants
+        private final List<Operator> operators = Lists.newArrayList();
+        private boolean rebindable = true;
+
+        private void collect(OptExpression expression) {
+            Operator operator = expression.getOp();
+            if (!REBINDABLE_OPERATORS.contains(operator.getOpType())) {
+                rebindable = false;
+                return;
+            }
+            // the constants out of predicates and projections can't be rebound
+            if (operator instanceof PhysicalProjectOperator) {
+                PhysicalProjectOperator project = (PhysicalProjectOperator) operator;
+                if (containsConstant(project.getColumnRefMap().values()) ||
+                        containsConstant(project.getCommonSubOperatorMap().values())) {
+                    rebindable = false;
+                    return;
+                }
+            } else if (operator instanceof PhysicalHashAggregateOperator) {
+                if (containsConstant(((PhysicalHashAggregateOperator) operator).getAggregations().values())) {
+                    rebindable = false;
+                    return;
+                }
+            }
+
+            int size = constants.size();
+            collect(operator.getPredicate());
+            if (operator.getProjection() != null) {
+                operator.getProjection().getColumnRefMap().values().forEach(this::collect);
+                operator.getProjection().getCommonSubOperatorMap().values().forEach(this::collect);
+            }
+            if (constants.size() > size) {
+                operators.add(operator);
+            }
+            for (OptExpression input : expression.getInputs()) {
+                collect(input);
+            }
+        }
+
+        private void collect(ScalarOperator scalar) {
+            if (scalar == null) {
+                return;
+            }
+            if (scalar instanceof ConstantOperator) {
+                constants.add((ConstantOperator) scalar);
+                return;
+            }
+            scalar.getChildren().forEach(this::collect);
+        }
+
+        private static boolean containsConstant(Collection<? extends ScalarOperator> scalars) {
+            ConstantCollector collector = new ConstantCollector();
+            scalars.forEach(collector::collect);
+            return !collector.constants.isEmpty();
+        }
+    }
+
+    public static class Key {
+        private final String digest;
+        private final List<String> paramTypes;
+        private final String catalog;
+        private final String database;
+        private final HashCode sessionFingerprint;
+        private final TResultSinkType resultSinkType;
+        private final long statisticsVersion;
+
+        public Key(String digest, List<String> paramTypes, String catalog, String database,
+                   HashCode sessionFingerprint, TResultSinkType resultSinkType, long statisticsVersion) {
+            this.digest = digest;
+            this.paramTypes = paramTypes;
+            this.catalog = catalog;
+            this.database = database;
+            this.sessionFingerprint = sessionFingerprint;
+            this.resultSinkType = resultSinkType;
+            this.statisticsVersion = statisticsVersion;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(digest, key.digest) && Objects.equals(paramTypes, key.paramTypes) &&
+                    Objects.equals(catalog, key.catalog) && Objects.equals(database, key.database) &&
+                    Objects.equals(sessionFingerprint, key.sessionFingerprint) &&
+                    resultSinkType == key.resultSinkType && statisticsVersion == key.statisticsVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(digest, paramTypes, catalog, database, sessionFingerprint, resultSinkType,
+                    statisticsVersion);
+        }
+    }
+
+    public static class Lookup {
+        private final Key key;
+        private final List<ConstantOperator> params;
+        private final Map<Long, Long> tableSignatures;
+
+        private Lookup(Key key, List<ConstantOperator> params, Map<Long, Long> tableSignatures) {
+            this.key = key;
+            this.params = params;
+            this.tableSignatures = tableSignatures;
+        }
+
+        public Key getKey() {
+            return key;
+        }
+    }
+
+    private static class Entry {
+        private final OptExpression physicalPlan;
+        private final List<ColumnRefOperator> outputColumns;
+        private final ColumnRefFactory columnRefFactory;
+        private final List<ConstantOperator> params;
+        private final Map<Long, Long> tableSignatures;
+        // constant of the plan -> index of the literal it comes from, null if the plan can only be reused for
+        // the same literals
+        private final Map<ConstantOperator, Integer> constantParams;
+        private final List<Operator> rebindOperators;
+        // the costs are used by the query queue to estimate the slots of the query
+        private final double planCpuCosts;
+        private final double planMemCosts;
+        private final long estimatedSize;
+
+        private Entry(OptExpression physicalPlan, List<ColumnRefOperator> outputColumns,
+                      ColumnRefFactory columnRefFactory, List<ConstantOperator> params,
+                      Map<Long, Long> tableSignatures, Map<ConstantOperator, Integer> constantParams,
+                      List<Operator> rebindOperators, double planCpuCosts, double planMemCosts) {
+            this.physicalPlan = physicalPlan;
+            this.outputColumns = outputColumns;
+            this.columnRefFactory = columnRefFactory;
+            this.params = params;
+            this.tableSignatures = tableSignatures;
+            this.constantParams = constantParams;
+            this.rebindOperators = rebindOperators;
+            this.planCpuCosts = planCpuCosts;
+            this.planMemCosts = planMemCosts;
+            // a rough estimation, an operator with its scalar operators and statistics takes about 2KB
+            this.estimatedSize = countNodes(physicalPlan) * 2048L + params.size() * 64L;
+        }
+
+        private int getEstimatedSize() {
+            return (int) Math.min(Integer.MAX_VALUE, estimatedSize);
+        }
+
+        /**
+         * @return the constants need to be replaced, or null if the plan can't be used for the new literals
+         */
+        private Map<ConstantOperator, ConstantOperator> bind(List<ConstantOperator> newParams) {
+            Map<ConstantOperator, ConstantOperator> substitutions = Maps.newIdentityHashMap();
+            if (constantParams == null) {
+                return params.equals(newParams) ? substitutions : null;
+            }
+
+            for (Map.Entry<ConstantOperator, Integer> entry : constantParams.entrySet()) {
+                ConstantOperator constant = entry.getKey();
+                ConstantOperator param = newParams.get(entry.getValue());
+                if (param.getType().matchesType(constant.getType())) {
+                    substitutions.put(constant, param);
+                    continue;
+                }
+                try {
+                    substitutions.put(constant, param.castTo(constant.getType()));
+                } catch (Exception e) {
+                    // the new literal can't be cast like the cached one, plan it again
+                    return null;
+                }
+            }
+            return substitutions;
+        }
+    }
+}
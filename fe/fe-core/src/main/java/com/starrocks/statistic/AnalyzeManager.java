@@ -178,12 +178,7 @@ public class AnalyzeManager implements Writable {
             return;
         }
 
-        GlobalStateMgr.getCurrentStatisticStorage().expireColumnStatistics(table, columns);
-        if (async) {
-            GlobalStateMgr.getCurrentStatisticStorage().getColumnStatistics(table, columns);
-        } else {
-            GlobalStateMgr.getCurrentStatisticStorage().getColumnStatisticsSync(table, columns);
-        }
+        GlobalStateMgr.getCurrentStatisticStorage().refreshColumnStatistics(table, columns, !async);
     }
 
     public void replayRemoveBasicStatsMeta(BasicStatsMeta basicStatsMeta) {
@@ -54,6 +54,11 @@ public class BasicStatsMeta implements Writable {
     @SerializedName("updateRows")
     private long updateRows;
 
+    // partition id -> visible version of the partition when its full statistics were collected.
+    // It's null for the statistics collected before, which have no table level rows in column_statistics.
+    @SerializedName("partitionVersions")
+    private Map<Long, Long> partitionVersions;
+
     public BasicStatsMeta(long dbId, long tableId, List<String> columns,
                           StatsConstants.AnalyzeType type,
                           LocalDateTime updateTime,
@@ -146,6 +151,26 @@ public class BasicStatsMeta implements Writable {
         return healthy;
     }
 
+    public Map<Long, Long> getPartitionVersions() {
+        return partitionVersions;
+    }
+
+    public void setPartitionVersions(Map<Long, Long> partitionVersions) {
+        this.partitionVersions = partitionVersions;
+    }
+
+    /**
+     * Whether the statistics of the partition need to be collected again. The partition is compared by
+     * the visible version if its statistics are collected incrementally, otherwise by the update time.
+     */
+    public boolean isPartitionStatsOutdated(Partition partition) {
+        Long collectedVersion = partitionVersions == null ? null : partitionVersions.get(partition.getId());
+        if (collectedVersion != null) {
+            return collectedVersion != partition.getVisibleVersion();
+        }
+        return updateTime.isBefore(StatisticUtils.getPartitionLastUpdateTime(partition));
+    }
+
     public long getUpdateRows() {
         return updateRows;
     }
@@ -16,6 +16,8 @@ package com.starrocks.statistic;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.Partition;
@@ -27,6 +29,8 @@ import org.apache.velocity.VelocityContext;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class FullStatisticsCollectJob extends StatisticsCollectJob {
 
@@ -36,13 +40,32 @@ public class FullStatisticsCollectJob extends StatisticsCollectJob {
                     " COUNT(1), $dataSize, $countDistinctFunction, $countNullFunction, $maxFunction, $minFunction, NOW() "
                     + "FROM $dbName.$tableName partition $partitionName";
 
+    // merge the rows of all the partitions into the table level row, so that loading the table statistics
+    // reads one row per column no matter how many partitions the table has
+    private static final String MERGE_FULL_STATISTIC_TEMPLATE =
+            "SELECT $tableId, $tablePartitionId, '$columnName', $dbId," +
+                    " '$dbName.$tableName', ''," +
+                    " SUM(row_count), CAST(SUM(data_size) AS BIGINT), hll_union(ndv), SUM(null_count)," +
+                    " CAST(MAX(CAST(max AS $type)) AS STRING), CAST(MIN(CAST(min AS $type)) AS STRING), NOW() " +
+                    "FROM " + StatsConstants.FULL_STATISTICS_TABLE_NAME +
+                    " WHERE table_id = $tableId AND partition_id != $tablePartitionId AND column_name = '$columnName'" +
+                    " GROUP BY column_name";
+
     private final List<Long> partitionIdList;
+    // partition id -> visible version when the job is created
+    private final Map<Long, Long> partitionVersions = Maps.newHashMap();
 
     public FullStatisticsCollectJob(Database db, Table table, List<Long> partitionIdList, List<String> columns,
                                     StatsConstants.AnalyzeType type, StatsConstants.ScheduleType scheduleType,
                                     Map<String, String> properties) {
         super(db, table, columns, type, scheduleType, properties);
         this.partitionIdList = partitionIdList;
+        for (Long partitionId : partitionIdList) {
+            Partition partition = table.getPartition(partitionId);
+            if (partition != null) {
+                partitionVersions.put(partitionId, partition.getVisibleVersion());
+            }
+        }
     }
 
     public List<Long> getPartitionIdList() {
@@ -76,6 +99,55 @@ public class FullStatisticsCollectJob extends StatisticsCollectJob {
             analyzeStatus.setProgress(finishedSQLNum * 100 / totalCollectSQL);
             GlobalStateMgr.getCurrentAnalyzeMgr().addAnalyzeStatus(analyzeStatus);
         }
+
+        // the rows of the dropped partitions must not be merged into the table level rows
+        List<Long> livePartitionIds = table.getPartitions().stream().map(Partition::getId)
+                .collect(Collectors.toList());
+        collectStatisticSync(StatisticSQLBuilder.buildDropPartitionStatisticsSQL(table.getId(), livePartitionIds),
+                context);
+
+        context.getSessionVariable().setPipelineDop(parallelism);
+        collectStatisticSync(buildMergeFullStatisticSQL(), context);
+    }
+
+    /**
+     * Returns the visible versions of the partitions whose statistics are up to date after this job.
+     * The partitions only get their versions updated if all the collectible columns are collected,
+     * otherwise they will be collected again next time.
+     */
+    public Map<Long, Long> getCollectedPartitionVersions(BasicStatsMeta previousMeta) {
+        Map<Long, Long> versions = Maps.newHashMap();
+        if (previousMeta != null && previousMeta.getType().equals(StatsConstants.AnalyzeType.FULL)
+                && previousMeta.getPartitionVersions() != null) {
+            versions.putAll(previousMeta.getPartitionVersions());
+        }
+        if (columns.containsAll(StatisticUtils.getCollectibleColumns(table))) {
+            versions.putAll(partitionVersions);
+        }
+        versions.keySet().removeIf(partitionId -> table.getPartition(partitionId) == null);
+        return versions;
+    }
+
+    // the table level rows of all the collectible columns are merged, not only the columns of this job,
+    // because the rows of the dropped partitions are deleted for all the columns
+    public String buildMergeFullStatisticSQL() {
+        Set<String> columnNames = Sets.newLinkedHashSet(StatisticUtils.getCollectibleColumns(table));
+        columnNames.addAll(columns);
+        List<String> mergeSQL = Lists.newArrayList();
+        for (String columnName : columnNames) {
+            Column column = table.getColumn(columnName);
+            VelocityContext context = new VelocityContext();
+            context.put("dbId", db.getId());
+            context.put("tableId", table.getId());
+            context.put("tablePartitionId", StatsConstants.TABLE_LEVEL_PARTITION_ID);
+            context.put("columnName", columnName);
+            context.put("dbName", db.getOriginName());
+            context.put("tableName", table.getName());
+            context.put("type", column.getType().canStatistic() ? column.getType().toSql() : "string");
+            mergeSQL.add(build(context, MERGE_FULL_STATISTIC_TEMPLATE));
+        }
+        return "INSERT INTO " + StatsConstants.FULL_STATISTICS_TABLE_NAME + " "
+                + Joiner.on(" UNION ALL ").join(mergeSQL);
     }
 
     /*
@@ -0,0 +1,112 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.statistic;
+
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.util.LeaderDaemon;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.statistics.CachedStatisticStorage;
+import com.starrocks.sql.optimizer.statistics.StatisticStorage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the column statistics cache of this fe loaded, runs on all the fe.
+ * 1. After fe starts, the statistics of the recently analyzed tables are loaded, one query per table.
+ * 2. The cached statistics of the recently queried tables are reloaded before they expire.
+ */
+public class StatisticCacheRefresher extends LeaderDaemon {
+    private static final Logger LOG = LogManager.getLogger(StatisticCacheRefresher.class);
+
+    private static final long INTERVAL_MS = 60 * 1000L;
+
+    private boolean warmedUp = false;
+
+    public StatisticCacheRefresher() {
+        super("StatisticCacheRefresher", INTERVAL_MS);
+    }
+
+    @Override
+    protected void runAfterCatalogReady() {
+        if (FeConstants.runningUnitTest) {
+            return;
+        }
+        StatisticStorage statisticStorage = GlobalStateMgr.getCurrentStatisticStorage();
+        if (!(statisticStorage instanceof CachedStatisticStorage)) {
+            return;
+        }
+        if (!StatisticUtils.checkStatisticTableStateNormal()) {
+            return;
+        }
+
+        CachedStatisticStorage cachedStorage = (CachedStatisticStorage) statisticStorage;
+        if (!warmedUp) {
+            warmedUp = true;
+            if (Config.enable_statistic_cache_warm_up) {
+                warmUp(cachedStorage);
+            }
+        }
+
+        if (Config.enable_statistic_cache_refresh_ahead) {
+            int refreshed = cachedStorage.refreshAhead();
+            if (refreshed > 0) {
+                LOG.info("Refreshed {} column statistics before they expire", refreshed);
+            }
+        }
+    }
+
+    void warmUp(CachedStatisticStorage cachedStorage) {
+        long start = System.currentTimeMillis();
+        List<BasicStatsMeta> metas = GlobalStateMgr.getCurrentAnalyzeMgr().getBasicStatsMetaMap().values().stream()
+                .sorted(Comparator.comparing(BasicStatsMeta::getUpdateTime).reversed())
+                .limit(Config.statistic_cache_warm_up_table_num)
+                .collect(Collectors.toList());
+
+        // leave half of the cache to the statistics loaded by the queries
+        long maxColumns = Config.statistic_cache_columns / 2;
+        long loadedColumns = 0;
+        int loadedTables = 0;
+        for (BasicStatsMeta meta : metas) {
+            Database db = GlobalStateMgr.getCurrentState().getDb(meta.getDbId());
+            if (db == null) {
+                continue;
+            }
+            Table table = db.getTable(meta.getTableId());
+            if (table == null || !table.isOlapOrLakeTable()) {
+                continue;
+            }
+            List<String> columns = StatisticUtils.getCollectibleColumns(table);
+            if (loadedColumns + columns.size() > maxColumns) {
+                break;
+            }
+            try {
+                cachedStorage.warmUpColumnStatistics(table, columns);
+                loadedColumns += columns.size();
+                loadedTables++;
+            } catch (Exception e) {
+                LOG.warn("Warm up column statistics of table {} failed", table.getName(), e);
+            }
+        }
+        LOG.info("Warmed up column statistics of {} tables, {} columns, cost {} ms", loadedTables, loadedColumns,
+                System.currentTimeMillis() - start);
+    }
+}
@@ -81,14 +81,18 @@ public class StatisticExecutor {
                 return Collections.emptyList();
             }
 
-            List<Column> columns = Lists.newArrayList();
-            for (String colName : columnNames) {
-                Column column = table.getColumn(colName);
-                Preconditions.checkState(column != null);
-                columns.add(column);
-            }
+            if (meta.getPartitionVersions() != null) {
+                sql = StatisticSQLBuilder.buildQueryMergedFullStatisticsSQL(tableId, columnNames);
+            } else {
+                List<Column> columns = Lists.newArrayList();
+                for (String colName : columnNames) {
+                    Column column = table.getColumn(colName);
+                    Preconditions.checkState(column != null);
+                    columns.add(column);
+                }
 
-            sql = StatisticSQLBuilder.buildQueryFullStatisticsSQL(dbId, tableId, columns);
+                sql = StatisticSQLBuilder.buildQueryFullStatisticsSQL(dbId, tableId, columns);
+            }
         } else {
             sql = StatisticSQLBuilder.buildQuerySampleStatisticsSQL(dbId, tableId, columnNames);
         }
@@ -240,6 +244,12 @@ public class StatisticExecutor {
         } else {
             BasicStatsMeta basicStatsMeta = new BasicStatsMeta(db.getId(), table.getId(),
                     statsJob.getColumns(), statsJob.getType(), analyzeStatus.getEndTime(), statsJob.getProperties());
+            if (statsJob instanceof FullStatisticsCollectJob) {
+                BasicStatsMeta previousMeta = GlobalStateMgr.getCurrentAnalyzeMgr().getBasicStatsMetaMap()
+                        .get(table.getId());
+                basicStatsMeta.setPartitionVersions(
+                        ((FullStatisticsCollectJob) statsJob).getCollectedPartitionVersions(previousMeta));
+            }
             GlobalStateMgr.getCurrentAnalyzeMgr().addBasicStatsMeta(basicStatsMeta);
             GlobalStateMgr.getCurrentAnalyzeMgr().refreshBasicStatisticsCache(
                     basicStatsMeta.getDbId(), basicStatsMeta.getTableId(), basicStatsMeta.getColumns(), refreshAsync);
@@ -30,6 +30,7 @@ import static com.starrocks.statistic.StatsConstants.FULL_STATISTICS_TABLE_NAME;
 import static com.starrocks.statistic.StatsConstants.SAMPLE_STATISTICS_TABLE_NAME;
 import static com.starrocks.statistic.StatsConstants.STATISTIC_DATA_VERSION;
 import static com.starrocks.statistic.StatsConstants.STATISTIC_HISTOGRAM_VERSION;
+import static com.starrocks.statistic.StatsConstants.TABLE_LEVEL_PARTITION_ID;
 
 public class StatisticSQLBuilder {
     private static final String QUERY_SAMPLE_STATISTIC_TEMPLATE =
@@ -46,6 +47,12 @@ public class StatisticSQLBuilder {
                     + " WHERE $predicate"
                     + " GROUP BY db_id, table_id, column_name";
 
+    private static final String QUERY_MERGED_FULL_STATISTIC_TEMPLATE =
+            "SELECT cast(" + STATISTIC_DATA_VERSION + " as INT), update_time, db_id, table_id, column_name,"
+                    + " row_count, data_size, hll_cardinality(ndv), null_count, max, min"
+                    + " FROM " + StatsConstants.FULL_STATISTICS_TABLE_NAME
+                    + " WHERE $predicate";
+
     private static final String QUERY_HISTOGRAM_STATISTIC_TEMPLATE =
             "SELECT cast(" + STATISTIC_HISTOGRAM_VERSION + " as INT), db_id, table_id, column_name,"
                     + " cast(json_object(\"buckets\", buckets, \"mcv\", mcv) as varchar)"
@@ -96,13 +103,23 @@ public class StatisticSQLBuilder {
             } else {
                 context.put("type", "string");
             }
-            context.put("predicate", "table_id = " + tableId + " and column_name = \"" + column.getName() + "\"");
+            context.put("predicate", "table_id = " + tableId + " and partition_id != " + TABLE_LEVEL_PARTITION_ID
+                    + " and column_name = \"" + column.getName() + "\"");
             querySQL.add(build(context, QUERY_FULL_STATISTIC_TEMPLATE));
         }
 
         return Joiner.on(" UNION ALL ").join(querySQL);
     }
 
+    // query the table level rows merged when collecting, instead of merging the rows of all the partitions
+    public static String buildQueryMergedFullStatisticsSQL(Long tableId, List<String> columnNames) {
+        VelocityContext context = new VelocityContext();
+        context.put("predicate", "table_id = " + tableId + " and partition_id = " + TABLE_LEVEL_PARTITION_ID
+                + " and column_name in (" + Joiner.on(", ")
+                .join(columnNames.stream().map(c -> "'" + c + "'").collect(Collectors.toList())) + ")");
+        return build(context, QUERY_MERGED_FULL_STATISTIC_TEMPLATE);
+    }
+
     public static String buildDropStatisticsSQL(Long tableId, StatsConstants.AnalyzeType analyzeType) {
         String tableName;
         if (analyzeType.equals(StatsConstants.AnalyzeType.SAMPLE)) {
@@ -114,6 +131,14 @@ public class StatisticSQLBuilder {
         return "DELETE FROM " + tableName + " WHERE TABLE_ID = " + tableId;
     }
 
+    // drop the statistics of the dropped partitions, except the table level rows
+    public static String buildDropPartitionStatisticsSQL(Long tableId, List<Long> livePartitionIds) {
+        List<Long> keepIds = Lists.newArrayList(TABLE_LEVEL_PARTITION_ID);
+        keepIds.addAll(livePartitionIds);
+        return "DELETE FROM " + FULL_STATISTICS_TABLE_NAME + " WHERE TABLE_ID = " + tableId
+                + " AND PARTITION_ID NOT IN (" + Joiner.on(", ").join(keepIds) + ")";
+    }
+
     public static String buildQueryHistogramStatisticsSQL(Long tableId, List<String> columnNames) {
         VelocityContext context = new VelocityContext();
 
@@ -113,7 +113,7 @@ public class StatisticsCollectJobFactory {
                     && job.getAnalyzeType().equals(StatsConstants.AnalyzeType.FULL)
                     && table.getPartitions().stream()
                     .noneMatch(p -> p.getDataSize() > Config.statistic_max_full_collect_data_size)) {
-                createFullStatsJob(allTableJobMap, job, LocalDateTime.MIN, db, table, columns);
+                createFullStatsJob(allTableJobMap, job, null, db, table, columns);
                 return;
             }
 
@@ -136,37 +136,38 @@ public class StatisticsCollectJobFactory {
             allTableJobMap.add(buildStatisticsCollectJob(db, table, null, columns,
                     job.getAnalyzeType(), job.getScheduleType(), job.getProperties()));
         } else if (job.getAnalyzeType().equals(StatsConstants.AnalyzeType.FULL)) {
-            if (basicStatsMeta == null) {
-                createFullStatsJob(allTableJobMap, job, LocalDateTime.MIN, db, table, columns);
-            } else {
-                createFullStatsJob(allTableJobMap, job, basicStatsMeta.getUpdateTime(), db, table, columns);
-            }
+            createFullStatsJob(allTableJobMap, job, basicStatsMeta, db, table, columns);
         } else {
             throw new StarRocksPlannerException("Unknown analyze type " + job.getAnalyzeType(),
                     ErrorType.INTERNAL_ERROR);
         }
     }
 
+    // basicStatsMeta is null if all the partitions need to be collected
     private static void createFullStatsJob(List<StatisticsCollectJob> allTableJobMap,
-                                           AnalyzeJob job, LocalDateTime statsLastUpdateTime,
+                                           AnalyzeJob job, BasicStatsMeta basicStatsMeta,
                                            Database db, Table table, List<String> columns) {
+        List<Partition> partitions = Lists.newArrayList(table.getPartitions());
+        List<Partition> outdatedPartitions = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.hasData() &&
+                    (basicStatsMeta == null || basicStatsMeta.isPartitionStatsOutdated(partition))) {
+                outdatedPartitions.add(partition);
+            }
+        }
+
+        // If the full statistics exist, only the outdated partitions are collected and merged with the others,
+        // so only they decide whether the collection is too expensive
+        List<Partition> collectPartitions = basicStatsMeta != null &&
+                basicStatsMeta.getType().equals(StatsConstants.AnalyzeType.FULL) ? outdatedPartitions : partitions;
         StatsConstants.AnalyzeType analyzeType;
-        if (table.getPartitions().stream().anyMatch(
-                p -> p.getDataSize() > Config.statistic_max_full_collect_data_size)) {
+        if (collectPartitions.stream().anyMatch(p -> p.getDataSize() > Config.statistic_max_full_collect_data_size)) {
             analyzeType = StatsConstants.AnalyzeType.SAMPLE;
         } else {
             analyzeType = StatsConstants.AnalyzeType.FULL;
         }
 
-        List<Partition> partitions = Lists.newArrayList(table.getPartitions());
-        List<Long> partitionIdList = new ArrayList<>();
-        for (Partition partition : partitions) {
-            LocalDateTime partitionUpdateTime = StatisticUtils.getPartitionLastUpdateTime(partition);
-            if (statsLastUpdateTime.isBefore(partitionUpdateTime) && partition.hasData()) {
-                partitionIdList.add(partition.getId());
-            }
-        }
-
+        List<Long> partitionIdList = outdatedPartitions.stream().map(Partition::getId).collect(Collectors.toList());
         if (!partitionIdList.isEmpty()) {
             allTableJobMap.add(buildStatisticsCollectJob(db, table, partitionIdList, columns,
                     analyzeType, job.getScheduleType(), Maps.newHashMap()));
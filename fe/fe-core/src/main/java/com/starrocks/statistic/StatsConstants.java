@@ -26,6 +26,8 @@ public class StatsConstants {
     public static final String SAMPLE_STATISTICS_TABLE_NAME = "table_statistic_v1";
     public static final String FULL_STATISTICS_TABLE_NAME = "column_statistics";
     public static final String HISTOGRAM_STATISTICS_TABLE_NAME = "histogram_statistics";
+    // partition id of the table level rows in column_statistics, which are merged from all the partitions
+    public static final long TABLE_LEVEL_PARTITION_ID = -1;
 
     public static final String INFORMATION_SCHEMA = "information_schema";
 
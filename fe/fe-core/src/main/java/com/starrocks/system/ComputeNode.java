@@ -320,6 +320,11 @@ public class ComputeNode implements IComputable, Writable {
         return cpuUsedPermille;
     }
 
+    public boolean isResourceUsageFresh() {
+        return System.currentTimeMillis() - lastUpdateResourceUsageMs <=
+                GlobalVariable.getQueryQueueResourceUsageIntervalMs();
+    }
+
     public void updateResourceUsage(int numRunningQueries, long memLimitBytes, long memUsedBytes,
                                        int cpuUsedPermille) {
 
@@ -532,8 +537,7 @@ public class ComputeNode implements IComputable, Writable {
             return false;
         }
 
-        long currentMs = System.currentTimeMillis();
-        if (currentMs - lastUpdateResourceUsageMs > GlobalVariable.getQueryQueueResourceUsageIntervalMs()) {
+        if (!isResourceUsageFresh()) {
             // The resource usage is not fresh enough to decide whether it is overloaded.
             return false;
         }
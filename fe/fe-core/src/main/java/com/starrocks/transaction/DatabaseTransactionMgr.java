@@ -86,6 +86,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -107,15 +109,23 @@ public class DatabaseTransactionMgr {
 
     private long dbId;
 
+    private static final int LABEL_LOCK_NUM = 64;
+
     // the lock is used to control the access to transaction states
     // no other locks should be inside this lock
+    // beginTransaction() and lookups by id or label don't hold it, the maps they access are concurrent maps.
+    // A FRONTEND type txn takes it inside its label lock in beginTransaction(), never the other way round.
     private ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock(true);
 
+    // beginTransaction() holds the lock of its label instead of transactionLock,
+    // so that the label check and the insertion of the new txn are atomic
+    private final ReentrantLock[] labelLocks = new ReentrantLock[LABEL_LOCK_NUM];
+
     // transactionId -> running TransactionState
-    private Map<Long, TransactionState> idToRunningTransactionState = Maps.newHashMap();
+    private Map<Long, TransactionState> idToRunningTransactionState = Maps.newConcurrentMap();
 
     // transactionId -> final status TransactionState
-    private Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newHashMap();
+    private Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newConcurrentMap();
 
     // to store transtactionStates with final status
     private ArrayDeque<TransactionState> finalStatusTransactionStateDeque = new ArrayDeque<>();
@@ -129,13 +139,16 @@ public class DatabaseTransactionMgr {
     // this member should be consistent with idToTransactionState,
     // which means if a txn exist in idToRunningTransactionState or idToFinalStatusTransactionState
     // it must exists in dbIdToTxnLabels, and vice versa
-    private Map<String, Set<Long>> labelToTxnIds = Maps.newHashMap();
+    // a txn is added to the id maps before its label, and removed from them after its label.
+    // lookups by label don't hold transactionLock, so a txn id found by label may be missing in the id maps
+    // if the txn is expired and removed concurrently
+    private Map<String, Set<Long>> labelToTxnIds = Maps.newConcurrentMap();
 
     // count the number of running txns of database, except for the routine load txn
-    private int runningTxnNums = 0;
+    private final AtomicInteger runningTxnNums = new AtomicInteger(0);
 
     // count only the number of running routine load txns of database
-    private int runningRoutineLoadTxnNums = 0;
+    private final AtomicInteger runningRoutineLoadTxnNums = new AtomicInteger(0);
 
     private GlobalStateMgr globalStateMgr;
 
@@ -173,6 +186,13 @@ public class DatabaseTransactionMgr {
         this.globalStateMgr = globalStateMgr;
         this.idGenerator = idGenerator;
         this.editLog = globalStateMgr.getEditLog();
+        for (int i = 0; i < LABEL_LOCK_NUM; i++) {
+            labelLocks[i] = new ReentrantLock();
+        }
+    }
+
+    private ReentrantLock getLabelLock(String label) {
+        return labelLocks[(label.hashCode() & Integer.MAX_VALUE) % LABEL_LOCK_NUM];
     }
 
     public long getDbId() {
@@ -180,17 +200,7 @@ public class DatabaseTransactionMgr {
     }
 
     public TransactionState getTransactionState(Long transactionId) {
-        readLock();
-        try {
-            TransactionState transactionState = idToRunningTransactionState.get(transactionId);
-            if (transactionState != null) {
-                return transactionState;
-            } else {
-                return idToFinalStatusTransactionState.get(transactionId);
-            }
-        } finally {
-            readUnlock();
-        }
+        return unprotectedGetTransactionState(transactionId);
     }
 
     private TransactionState unprotectedGetTransactionState(Long transactionId) {
@@ -210,12 +220,12 @@ public class DatabaseTransactionMgr {
 
     @VisibleForTesting
     protected int getRunningTxnNums() {
-        return runningTxnNums;
+        return runningTxnNums.get();
     }
 
     @VisibleForTesting
     protected int getRunningRoutineLoadTxnNums() {
-        return runningRoutineLoadTxnNums;
+        return runningRoutineLoadTxnNums.get();
     }
 
     @VisibleForTesting
@@ -278,10 +288,12 @@ public class DatabaseTransactionMgr {
                                  TransactionState.LoadJobSourceType sourceType, long listenerId, long timeoutSecond)
             throws DuplicatedRequestException, LabelAlreadyUsedException, BeginTransactionException, AnalysisException {
         checkDatabaseDataQuota();
-        writeLock();
+        Preconditions.checkNotNull(coordinator);
+        Preconditions.checkNotNull(label);
+        ReentrantLock labelLock = getLabelLock(label);
+        boolean reserved = false;
+        labelLock.lock();
         try {
-            Preconditions.checkNotNull(coordinator);
-            Preconditions.checkNotNull(label);
             FeNameFormat.checkLabel(label);
 
             /*
@@ -296,7 +308,10 @@ public class DatabaseTransactionMgr {
                 List<TransactionState> notAbortedTxns = Lists.newArrayList();
                 for (long txnId : existingTxnIds) {
                     TransactionState txn = unprotectedGetTransactionState(txnId);
-                    Preconditions.checkNotNull(txn);
+                    if (txn == null) {
+                        // the txn has been expired and removed after its id is read by label
+                        continue;
+                    }
                     if (txn.getTransactionStatus() != TransactionStatus.ABORTED) {
                         notAbortedTxns.add(txn);
                     }
@@ -315,7 +330,8 @@ public class DatabaseTransactionMgr {
                 }
             }
 
-            checkRunningTxnExceedLimit(sourceType);
+            reserveRunningTxn(sourceType);
+            reserved = true;
 
             long tid = idGenerator.getNextTransactionId();
             LOG.info("begin transaction: txn_id: {} with label {} from coordinator {}, listner id: {}",
@@ -324,7 +340,8 @@ public class DatabaseTransactionMgr {
                     new TransactionState(dbId, tableIdList, tid, label, requestId, sourceType,
                             coordinator, listenerId, timeoutSecond * 1000);
             transactionState.setPrepareTime(System.currentTimeMillis());
-            unprotectUpsertTransactionState(transactionState, false);
+            addPrepareTransactionState(transactionState);
+            reserved = false;
 
             if (MetricRepo.isInit) {
                 MetricRepo.COUNTER_TXN_BEGIN.increase(1L);
@@ -334,12 +351,50 @@ public class DatabaseTransactionMgr {
         } catch (DuplicatedRequestException e) {
             throw e;
         } catch (Exception e) {
+            if (reserved) {
+                increaseRunningTxnNums(sourceType, -1);
+            }
             if (MetricRepo.isInit) {
                 MetricRepo.COUNTER_TXN_REJECT.increase(1L);
             }
             throw e;
         } finally {
-            writeUnlock();
+            labelLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a new PREPARE txn whose running txn slot is already reserved by reserveRunningTxn().
+     * Only the FRONTEND type txn holds transactionLock here, because it writes an edit log which must be
+     * ordered with the later state changes of the txn. Others only touch the concurrent maps.
+     */
+    private void addPrepareTransactionState(TransactionState transactionState) {
+        if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.FRONTEND) {
+            writeLock();
+            try {
+                // The FRONTEND type txn is committed and running asynchronously, so we have to persist it.
+                // see unprotectUpsertTransactionState()
+                editLog.logInsertTransactionState(transactionState);
+                idToRunningTransactionState.put(transactionState.getTransactionId(), transactionState);
+                updateTxnLabels(transactionState);
+            } finally {
+                writeUnlock();
+            }
+        } else {
+            idToRunningTransactionState.put(transactionState.getTransactionId(), transactionState);
+            updateTxnLabels(transactionState);
+        }
+    }
+
+    private void increaseRunningTxnNums(TransactionState transactionState, int delta) {
+        increaseRunningTxnNums(transactionState.getSourceType(), delta);
+    }
+
+    private void increaseRunningTxnNums(TransactionState.LoadJobSourceType sourceType, int delta) {
+        if (sourceType == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
+            runningRoutineLoadTxnNums.addAndGet(delta);
+        } else {
+            runningTxnNums.addAndGet(delta);
         }
     }
 
@@ -490,6 +545,7 @@ public class DatabaseTransactionMgr {
             updateCatalogAfterCommittedSpan.end();
         }
         LOG.info("transaction:[{}] successfully committed", transactionState);
+        wakeupPublishVersionDaemon();
         return waiter;
     }
 
@@ -694,9 +750,28 @@ public class DatabaseTransactionMgr {
             updateCatalogAfterCommittedSpan.end();
         }
         LOG.info("transaction:[{}] successfully committed", transactionState);
+        wakeupPublishVersionDaemon();
         return waiter;
     }
 
+    /**
+     * Wake up the publish version daemon if it exists, so that the transactions are published or finished
+     * without waiting for the next poll.
+     */
+    public static void wakeupPublishVersionDaemon() {
+        PublishVersionDaemon publishVersionDaemon = GlobalStateMgr.getCurrentState().getPublishVersionDaemon();
+        if (publishVersionDaemon != null) {
+            publishVersionDaemon.wakeup();
+        }
+    }
+
+    private void updatePublishLatency(TransactionState transactionState) {
+        if (MetricRepo.isInit && transactionState.getCommitTime() > 0) {
+            MetricRepo.HISTO_TXN_PUBLISH_LATENCY.update(
+                    transactionState.getFinishTime() - transactionState.getCommitTime());
+        }
+    }
+
     public void deleteTransaction(TransactionState transactionState) {
         writeLock();
         try {
@@ -713,37 +788,32 @@ public class DatabaseTransactionMgr {
         }
     }
 
+    // lookups by label don't hold transactionLock, see the comment of labelToTxnIds
     public TransactionStatus getLabelState(String label) {
-        readLock();
-        try {
-            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
-            if (existingTxnIds == null || existingTxnIds.isEmpty()) {
-                return TransactionStatus.UNKNOWN;
-            }
-            // find the latest txn (which id is largest)
-            long maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
-            return unprotectedGetTransactionState(maxTxnId).getTransactionStatus();
-        } finally {
-            readUnlock();
+        Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+        if (existingTxnIds == null) {
+            return TransactionStatus.UNKNOWN;
         }
+        // find the latest txn (which id is largest)
+        Optional<Long> maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf));
+        if (!maxTxnId.isPresent()) {
+            return TransactionStatus.UNKNOWN;
+        }
+        TransactionState transactionState = unprotectedGetTransactionState(maxTxnId.get());
+        return transactionState == null ? TransactionStatus.UNKNOWN : transactionState.getTransactionStatus();
     }
 
     public Long getLabelTxnID(String label) {
-        readLock();
-        try {
-            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
-            if (existingTxnIds == null || existingTxnIds.isEmpty()) {
-                return (long) -1;
-            }
-            // find the latest txn (which id is largest)
-            Optional<Long> v = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf));
-            if (v.isPresent()) {
-                return v.get();
-            } else {
-                return (long) -1;
-            }
-        } finally {
-            readUnlock();
+        Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+        if (existingTxnIds == null) {
+            return (long) -1;
+        }
+        // find the latest txn (which id is largest)
+        Optional<Long> v = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf));
+        if (v.isPresent()) {
+            return v.get();
+        } else {
+            return (long) -1;
         }
     }
 
@@ -1027,6 +1097,7 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 transactionState.notifyVisible();
                 txnOperated = true;
+                updatePublishLatency(transactionState);
                 // TODO(cmy): We found a very strange problem. When delete-related transactions are processed here,
                 // subsequent `updateCatalogAfterVisible()` is called, but it does not seem to be executed here
                 // (because the relevant editlog does not see the log of visible transactions).
@@ -1165,33 +1236,31 @@ public class DatabaseTransactionMgr {
         maxCommitTs = Math.max(maxCommitTs, transactionState.getCommitTime());
         if (!transactionState.getTransactionStatus().isFinalStatus()) {
             if (idToRunningTransactionState.put(transactionState.getTransactionId(), transactionState) == null) {
-                if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums++;
-                } else {
-                    runningTxnNums++;
-                }
+                increaseRunningTxnNums(transactionState, 1);
             }
             if (Config.enable_new_publish_mechanism && transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
                 transactionGraph.add(transactionState.getTransactionId(), transactionState.getTableIdList());
             }
         } else {
+            // put into the final map before removing from the running map, so lock-free readers always find the txn
+            idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
             if (idToRunningTransactionState.remove(transactionState.getTransactionId()) != null) {
-                if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums--;
-                } else {
-                    runningTxnNums--;
-                }
+                increaseRunningTxnNums(transactionState, -1);
             }
             transactionGraph.remove(transactionState.getTransactionId());
-            idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
             finalStatusTransactionStateDeque.add(transactionState);
         }
         updateTxnLabels(transactionState);
     }
 
     private void updateTxnLabels(TransactionState transactionState) {
-        Set<Long> txnIds = labelToTxnIds.computeIfAbsent(transactionState.getLabel(), k -> Sets.newHashSet());
-        txnIds.add(transactionState.getTransactionId());
+        labelToTxnIds.compute(transactionState.getLabel(), (label, txnIds) -> {
+            if (txnIds == null) {
+                txnIds = Sets.newConcurrentHashSet();
+            }
+            txnIds.add(transactionState.getTransactionId());
+            return txnIds;
+        });
     }
 
     public void abortTransaction(String label, String reason) throws UserException {
@@ -1405,12 +1474,12 @@ public class DatabaseTransactionMgr {
     }
 
     private void clearTransactionState(TransactionState transactionState) {
+        // remove the label first, the ids found by label may have been removed when they are looked up
+        labelToTxnIds.computeIfPresent(transactionState.getLabel(), (label, txnIds) -> {
+            txnIds.remove(transactionState.getTransactionId());
+            return txnIds.isEmpty() ? null : txnIds;
+        });
         idToFinalStatusTransactionState.remove(transactionState.getTransactionId());
-        Set<Long> txnIds = unprotectedGetTxnIdsByLabel(transactionState.getLabel());
-        txnIds.remove(transactionState.getTransactionId());
-        if (txnIds.isEmpty()) {
-            labelToTxnIds.remove(transactionState.getLabel());
-        }
     }
 
     public int getTransactionNum() {
@@ -1475,7 +1544,11 @@ public class DatabaseTransactionMgr {
         return infos;
     }
 
-    protected void checkRunningTxnExceedLimit(TransactionState.LoadJobSourceType sourceType)
+    /**
+     * Counts a new running txn before it is added, the caller must release it if the txn is not added.
+     * Begins of different labels run concurrently, so the limit is checked and the counter is increased atomically.
+     */
+    protected void reserveRunningTxn(TransactionState.LoadJobSourceType sourceType)
             throws BeginTransactionException {
         switch (sourceType) {
             case ROUTINE_LOAD_TASK:
@@ -1483,11 +1556,18 @@ public class DatabaseTransactionMgr {
                 // 1. the number of running routine load tasks is limited by Config.max_routine_load_task_num_per_be
                 // 2. if we add routine load txn to runningTxnNums, runningTxnNums will always be occupied by routine load,
                 //    and other txn may not be able to submitted.
+                runningRoutineLoadTxnNums.incrementAndGet();
                 break;
             default:
-                if (runningTxnNums >= Config.max_running_txn_num_per_db) {
-                    throw new BeginTransactionException("current running txns on db " + dbId + " is "
-                            + runningTxnNums + ", larger than limit " + Config.max_running_txn_num_per_db);
+                while (true) {
+                    int current = runningTxnNums.get();
+                    if (current >= Config.max_running_txn_num_per_db) {
+                        throw new BeginTransactionException("current running txns on db " + dbId + " is "
+                                + current + ", larger than limit " + Config.max_running_txn_num_per_db);
+                    }
+                    if (runningTxnNums.compareAndSet(current, current + 1)) {
+                        break;
+                    }
                 }
                 break;
         }
@@ -1619,7 +1699,7 @@ public class DatabaseTransactionMgr {
         readLock();
         try {
             infos.add(Lists.newArrayList("running", String.valueOf(
-                    runningTxnNums + runningRoutineLoadTxnNums)));
+                    runningTxnNums.get() + runningRoutineLoadTxnNums.get())));
             long finishedNum = getFinishedTxnNums();
             infos.add(Lists.newArrayList("finished", String.valueOf(finishedNum)));
         } finally {
@@ -1672,6 +1752,7 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 transactionState.notifyVisible();
                 txnOperated = true;
+                updatePublishLatency(transactionState);
             } finally {
                 writeUnlock();
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
@@ -52,6 +52,7 @@ import com.starrocks.common.util.LeaderDaemon;
 import com.starrocks.lake.LakeTable;
 import com.starrocks.lake.Utils;
 import com.starrocks.lake.compaction.Quantiles;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.rpc.RpcException;
 import com.starrocks.scheduler.Constants;
 import com.starrocks.server.GlobalStateMgr;
@@ -64,10 +65,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
 
 public class PublishVersionDaemon extends LeaderDaemon {
@@ -76,10 +81,52 @@ public class PublishVersionDaemon extends LeaderDaemon {
 
     private static final long RETRY_INTERVAL_MS = 1000;
 
+    private final Object wakeupLock = new Object();
+    // set by wakeup(), so that a wakeup while a cycle is running is not lost
+    private boolean wakeupRequested = false;
+    // partition id -> transactions of the partition that failed to publish together, only accessed by the daemon
+    private final Map<Long, List<Long>> failedMergedPublishes = new HashMap<>();
+
     public PublishVersionDaemon() {
         super("PUBLISH_VERSION", Config.publish_version_interval_ms);
     }
 
+    /**
+     * Called when a transaction is committed or a publish version task is finished,
+     * so the daemon runs the next cycle without waiting for the poll interval.
+     */
+    public void wakeup() {
+        if (!Config.enable_publish_version_on_commit) {
+            return;
+        }
+        synchronized (wakeupLock) {
+            wakeupRequested = true;
+            wakeupLock.notifyAll();
+        }
+    }
+
+    @Override
+    protected void waitForNextCycle() throws InterruptedException {
+        if (!Config.enable_publish_version_on_commit) {
+            super.waitForNextCycle();
+            return;
+        }
+        boolean woken;
+        synchronized (wakeupLock) {
+            if (!wakeupRequested) {
+                // the poll interval is still a fallback for retries
+                wakeupLock.wait(getInterval());
+            }
+            woken = wakeupRequested;
+            wakeupRequested = false;
+        }
+        // transactions committed during the window are published together with one request per backend,
+        // there is nothing to wait for if the daemon is not woken up by a commit or a finished task
+        if (woken && Config.publish_version_batch_window_ms > 0) {
+            Thread.sleep(Config.publish_version_batch_window_ms);
+        }
+    }
+
     @Override
     protected void runAfterCatalogReady() {
         try {
@@ -124,8 +171,10 @@ public class PublishVersionDaemon extends LeaderDaemon {
     private void publishVersionForOlapTable(List<TransactionState> readyTransactionStates) throws UserException {
         GlobalTransactionMgr globalTransactionMgr = GlobalStateMgr.getCurrentGlobalTransactionMgr();
 
-        // every backend-transaction identified a single task
+        // every backend-transaction identified a single task,
+        // tasks of all ready transactions are sent to each backend in one request
         AgentBatchTask batchTask = new AgentBatchTask();
+        int sentTxnNum = 0;
         // traverse all ready transactions and dispatch the version publish task to all backends
         for (TransactionState transactionState : readyTransactionStates) {
             List<PublishVersionTask> tasks = transactionState.createPublishVersionTask();
@@ -135,12 +184,16 @@ public class PublishVersionDaemon extends LeaderDaemon {
             }
             if (!tasks.isEmpty()) {
                 transactionState.setHasSendTask(true);
+                sentTxnNum++;
                 LOG.info("send publish tasks for txn_id: {}", transactionState.getTransactionId());
             }
         }
         if (!batchTask.getAllTasks().isEmpty()) {
             AgentTaskExecutor.submit(batchTask);
         }
+        if (sentTxnNum > 0 && MetricRepo.isInit) {
+            MetricRepo.HISTO_TXN_PUBLISH_BATCH.update(sentTxnNum);
+        }
 
         // FIXME(murphy) refresh the mv in new publish mechanism
         if (Config.enable_new_publish_mechanism) {
@@ -250,12 +303,16 @@ public class PublishVersionDaemon extends LeaderDaemon {
         return false;
     }
 
-    // todo: refine performance
     void publishVersionForLakeTable(List<TransactionState> readyTransactionStates) throws UserException {
         GlobalTransactionMgr globalTransactionMgr = GlobalStateMgr.getCurrentGlobalTransactionMgr();
 
+        Set<Long> mergedTxnIds = Config.enable_lake_merge_publish_version || !failedMergedPublishes.isEmpty() ?
+                mergePublishVersionForLakeTable(readyTransactionStates) : Collections.emptySet();
         for (TransactionState txnState : readyTransactionStates) {
             long txnId = txnState.getTransactionId();
+            if (mergedTxnIds.contains(txnId)) {
+                continue;
+            }
             Database db = GlobalStateMgr.getCurrentState().getDb(txnState.getDbId());
             if (db == null) {
                 LOG.info("the database of transaction {} has been deleted", txnId);
@@ -274,6 +331,173 @@ public class PublishVersionDaemon extends LeaderDaemon {
         }
     }
 
+    /**
+     * Publish the consecutive transactions on the same partition together and make them visible.
+     * Only the transactions loading a single partition are merged, others are left to the per transaction
+     * publish. Returns the id of the transactions the per transaction publish should skip.
+     */
+    private Set<Long> mergePublishVersionForLakeTable(List<TransactionState> readyTransactionStates) {
+        Set<Long> readyTxnIds = readyTransactionStates.stream()
+                .map(TransactionState::getTransactionId).collect(Collectors.toSet());
+        failedMergedPublishes.values().removeIf(txnIds -> txnIds.stream().noneMatch(readyTxnIds::contains));
+
+        // partition id -> transactions loading only this partition and not published yet
+        Map<Long, List<TransactionState>> partitionToTxns = new HashMap<>();
+        for (TransactionState txnState : readyTransactionStates) {
+            PartitionCommitInfo partitionCommitInfo = getSinglePartitionCommitInfo(txnState);
+            if (partitionCommitInfo != null && partitionCommitInfo.getVersionTime() <= 0) {
+                partitionToTxns.computeIfAbsent(partitionCommitInfo.getPartitionId(), k -> new ArrayList<>())
+                        .add(txnState);
+            }
+        }
+
+        Set<Long> handledTxnIds = Sets.newHashSet();
+        for (Map.Entry<Long, List<TransactionState>> entry : partitionToTxns.entrySet()) {
+            List<TransactionState> txns = entry.getValue();
+            txns.sort(Comparator.comparingLong(txn -> getSinglePartitionCommitInfo(txn).getVersion()));
+            try {
+                mergePublishPartition(entry.getKey(), txns, handledTxnIds);
+            } catch (Throwable e) {
+                LOG.warn("Fail to publish transactions {} together: {}",
+                        txns.stream().map(TransactionState::getTransactionId).collect(Collectors.toList()),
+                        e.getMessage());
+            }
+        }
+        return handledTxnIds;
+    }
+
+    private static PartitionCommitInfo getSinglePartitionCommitInfo(TransactionState txnState) {
+        Collection<TableCommitInfo> tableCommitInfos = txnState.getIdToTableCommitInfos().values();
+        if (tableCommitInfos.size() != 1) {
+            return null;
+        }
+        Collection<PartitionCommitInfo> partitionCommitInfos =
+                tableCommitInfos.iterator().next().getIdToPartitionCommitInfo().values();
+        return partitionCommitInfos.size() == 1 ? partitionCommitInfos.iterator().next() : null;
+    }
+
+    /**
+     * |txns| load the same single partition and are sorted by version. Publish the longest run of them that
+     * starts right after the visible version of the partition and loads the same indexes, then make them
+     * visible under one database lock, so that no query on the leader sees the versions in between.
+     * A run that failed to publish is retried as it is, because the backends that succeeded have deleted
+     * the txn logs and can only accept the same request again.
+     */
+    private void mergePublishPartition(long partitionId, List<TransactionState> txns, Set<Long> handledTxnIds)
+            throws UserException, RpcException {
+        List<Long> failedRun = failedMergedPublishes.get(partitionId);
+        if (failedRun == null && (!Config.enable_lake_merge_publish_version || txns.size() < 2)) {
+            return;
+        }
+        if (failedRun != null) {
+            handledTxnIds.addAll(failedRun);
+            long versionTime = getSinglePartitionCommitInfo(txns.get(0)).getVersionTime();
+            if (versionTime < 0 && System.currentTimeMillis() < Math.abs(versionTime) + RETRY_INTERVAL_MS) {
+                return;
+            }
+        } else if (txns.stream().anyMatch(txn -> getSinglePartitionCommitInfo(txn).getVersionTime() < 0)) {
+            // some of them are being retried by the per transaction publish
+            return;
+        }
+
+        TransactionState firstTxn = txns.get(0);
+        Database db = GlobalStateMgr.getCurrentState().getDb(firstTxn.getDbId());
+        if (db == null) {
+            failedMergedPublishes.remove(partitionId);
+            return;
+        }
+        long tableId = firstTxn.getIdToTableCommitInfos().keySet().iterator().next();
+        long baseVersion;
+        List<TransactionState> mergedTxns = new ArrayList<>();
+        List<Tablet> tablets = new ArrayList<>();
+        db.readLock();
+        try {
+            Table table = db.getTable(tableId);
+            Partition partition = table == null ? null : table.getPartition(partitionId);
+            if (!(table instanceof LakeTable) || partition == null) {
+                failedMergedPublishes.remove(partitionId);
+                return;
+            }
+            baseVersion = partition.getVisibleVersion();
+            int maxTxns = failedRun != null ? failedRun.size() : Config.lake_merge_publish_version_max_txns;
+            Set<Long> indexIds = null;
+            for (TransactionState txnState : txns) {
+                if (getSinglePartitionCommitInfo(txnState).getVersion() != baseVersion + mergedTxns.size() + 1
+                        || mergedTxns.size() >= maxTxns) {
+                    break;
+                }
+                List<MaterializedIndex> indexes = txnState.getPartitionLoadedTblIndexes(tableId, partition);
+                // shadow indexes are published with the txn log version, see publishPartition()
+                if (indexes.stream().anyMatch(index -> index.getState() == MaterializedIndex.IndexState.SHADOW
+                        || !index.visibleForTransaction(txnState.getTransactionId()))) {
+                    break;
+                }
+                Set<Long> txnIndexIds = indexes.stream().map(MaterializedIndex::getId).collect(Collectors.toSet());
+                if (indexIds == null) {
+                    indexIds = txnIndexIds;
+                    indexes.forEach(index -> tablets.addAll(index.getTablets()));
+                } else if (!indexIds.equals(txnIndexIds)) {
+                    break;
+                }
+                mergedTxns.add(txnState);
+            }
+        } finally {
+            db.readUnlock();
+        }
+
+        List<Long> txnIds = mergedTxns.stream().map(TransactionState::getTransactionId).collect(Collectors.toList());
+        if (failedRun != null && !failedRun.equals(txnIds)) {
+            LOG.warn("Transactions {} failed to publish together can't be published together again, "
+                    + "will publish them one by one", failedRun);
+            failedMergedPublishes.remove(partitionId);
+            handledTxnIds.removeAll(failedRun);
+            return;
+        }
+        if (mergedTxns.size() < 2 || tablets.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Double> compactionScores = new HashMap<>();
+        try {
+            Utils.publishVersion(tablets, txnIds, baseVersion, baseVersion + mergedTxns.size(), compactionScores);
+        } catch (RpcException | NoAliveBackendException e) {
+            failedMergedPublishes.put(partitionId, txnIds);
+            handledTxnIds.addAll(txnIds);
+            for (TransactionState txnState : mergedTxns) {
+                getSinglePartitionCommitInfo(txnState).setVersionTime(-System.currentTimeMillis());
+            }
+            throw e;
+        }
+        failedMergedPublishes.remove(partitionId);
+        Quantiles quantiles = Quantiles.compute(compactionScores.values());
+        long versionTime = System.currentTimeMillis();
+        for (TransactionState txnState : mergedTxns) {
+            PartitionCommitInfo partitionCommitInfo = getSinglePartitionCommitInfo(txnState);
+            partitionCommitInfo.setCompactionScore(quantiles);
+            partitionCommitInfo.setVersionTime(versionTime);
+        }
+        LOG.info("published transactions {} of partition {} together, version {} to {}", txnIds, partitionId,
+                baseVersion, baseVersion + mergedTxns.size());
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_TXN_PUBLISH_BATCH.update(mergedTxns.size());
+        }
+
+        // a transaction that is not made visible here is finished by the per transaction publish
+        GlobalTransactionMgr globalTransactionMgr = GlobalStateMgr.getCurrentGlobalTransactionMgr();
+        db.writeLock();
+        try {
+            for (TransactionState txnState : mergedTxns) {
+                globalTransactionMgr.finishTransaction(db.getId(), txnState.getTransactionId(), null);
+                if (txnState.getTransactionStatus() != TransactionStatus.VISIBLE) {
+                    break;
+                }
+                handledTxnIds.add(txnState.getTransactionId());
+            }
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
     private boolean publishTable(Database db, TransactionState txnState, TableCommitInfo tableCommitInfo) {
         boolean finished = true;
         long txnId = txnState.getTransactionId();
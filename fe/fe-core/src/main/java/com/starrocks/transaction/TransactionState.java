@@ -227,7 +227,7 @@ public class TransactionState implements Writable {
     private final Map<Long, TableCommitInfo> idToTableCommitInfos;
     // coordinator is show who begin this txn (FE, or one of BE, etc...)
     private TxnCoordinator txnCoordinator;
-    private TransactionStatus transactionStatus;
+    private volatile TransactionStatus transactionStatus;
     private LoadJobSourceType sourceType;
     private long prepareTime;
     private long commitTime;
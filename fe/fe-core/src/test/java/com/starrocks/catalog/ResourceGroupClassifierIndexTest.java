@@ -0,0 +1,141 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class ResourceGroupClassifierIndexTest {
+    private static final List<String> USERS = ImmutableList.of("u1", "u2", "u3");
+    private static final List<String> ROLES = ImmutableList.of("r1", "r2");
+    private static final List<String> SOURCE_IPS = ImmutableList.of(
+            "192.168.0.0/16", "192.168.2.1/24", "192.168.2.128/25", "192.168.3.1/24", "10.0.0.1/8",
+            "192.168.2.4/32");
+    private static final List<String> REMOTE_IPS = ImmutableList.of(
+            "192.168.2.4", "192.168.2.0", "192.168.2.255", "192.168.2.200", "192.168.3.7", "10.1.2.3", "172.16.0.1");
+
+    private static ResourceGroupClassifier createClassifier(long id, String user, String role,
+                                                            Set<ResourceGroupClassifier.QueryType> queryTypes,
+                                                            String sourceIp, List<Long> databases) {
+        ResourceGroupClassifier classifier = new ResourceGroupClassifier();
+        classifier.setId(id);
+        classifier.setResourceGroupId(id);
+        classifier.setUser(user);
+        classifier.setRole(role);
+        classifier.setQueryTypes(queryTypes);
+        classifier.setSourceIp(sourceIp);
+        if (databases != null) {
+            classifier.setDatabases(databases);
+        }
+        return classifier;
+    }
+
+    private static <T> T randomOrNull(Random random, List<T> values) {
+        int i = random.nextInt(values.size() + 1);
+        return i == values.size() ? null : values.get(i);
+    }
+
+    // The max weight of the classifiers satisfied by the query, or -1 if none.
+    private static double bruteForceWeight(List<ResourceGroupClassifier> classifiers, String user, String role,
+                                           ResourceGroupClassifier.QueryType queryType, String sourceIp,
+                                           Set<Long> dbIds) {
+        return classifiers.stream()
+                .filter(classifier -> classifier.isSatisfied(user, role, queryType, sourceIp, dbIds))
+                .mapToDouble(ResourceGroupClassifier::weight)
+                .max()
+                .orElse(-1);
+    }
+
+    @Test
+    public void testChoose() {
+        List<ResourceGroupClassifier> classifiers = ImmutableList.of(
+                createClassifier(1, "u1", "r1", EnumSet.of(ResourceGroupClassifier.QueryType.SELECT),
+                        "192.168.2.1/24", null),
+                createClassifier(2, "u1", null, null, null, null),
+                createClassifier(3, null, "r2", null, "192.168.0.0/16", null),
+                createClassifier(4, null, null, EnumSet.of(ResourceGroupClassifier.QueryType.INSERT), null, null),
+                createClassifier(5, null, null, null, null, ImmutableList.of(100L, 101L)));
+        ResourceGroupClassifierIndex index = ResourceGroupClassifierIndex.build(classifiers);
+        Assert.assertTrue(index.hasRole());
+
+        ResourceGroupClassifier.QueryType select = ResourceGroupClassifier.QueryType.SELECT;
+        ResourceGroupClassifier.QueryType insert = ResourceGroupClassifier.QueryType.INSERT;
+        Assert.assertEquals(1, index.choose("u1", "r1", select, "192.168.2.4", null).getId());
+        // out of the source ip
+        Assert.assertEquals(2, index.choose("u1", "r1", select, "192.168.5.4", null).getId());
+        // the source ip isn't checked without the remote ip
+        Assert.assertEquals(1, index.choose("u1", "r1", select, null, null).getId());
+        Assert.assertEquals(3, index.choose("u2", "r2", select, "192.168.5.4", null).getId());
+        Assert.assertEquals(4, index.choose("u2", "r1", insert, "192.168.5.4", null).getId());
+        Assert.assertNull(index.choose("u2", "r1", select, "192.168.5.4", null));
+        // the databases must be a subset of the classifier
+        Assert.assertEquals(5, index.choose("u2", null, select, null, ImmutableSet.of(100L)).getId());
+        Assert.assertEquals(5, index.choose("u2", null, select, null, ImmutableSet.of(100L, 101L)).getId());
+        Assert.assertNull(index.choose("u2", null, select, null, ImmutableSet.of(100L, 102L)));
+
+        Assert.assertNull(ResourceGroupClassifierIndex.EMPTY.choose("u1", "r1", select, "192.168.2.4", null));
+        Assert.assertFalse(ResourceGroupClassifierIndex.EMPTY.hasRole());
+    }
+
+    @Test
+    public void testSameAsBruteForce() {
+        Random random = new Random(20221017);
+        List<Long> dbIds = ImmutableList.of(100L, 101L, 102L);
+        List<ResourceGroupClassifier> classifiers = Lists.newArrayList();
+        for (int i = 0; i < 300; i++) {
+            Set<ResourceGroupClassifier.QueryType> queryTypes = null;
+            if (random.nextBoolean()) {
+                queryTypes = EnumSet.of(ResourceGroupClassifier.QueryType.values()[
+                        random.nextInt(ResourceGroupClassifier.QueryType.values().length)]);
+            }
+            List<Long> databases = null;
+            if (random.nextInt(4) == 0) {
+                databases = Lists.newArrayList(dbIds.subList(0, 1 + random.nextInt(dbIds.size() - 1)));
+            }
+            classifiers.add(createClassifier(i, randomOrNull(random, USERS), randomOrNull(random, ROLES),
+                    queryTypes, randomOrNull(random, SOURCE_IPS), databases));
+        }
+        ResourceGroupClassifierIndex index = ResourceGroupClassifierIndex.build(classifiers);
+
+        List<Set<Long>> queryDbIds = Lists.newArrayList(null, ImmutableSet.of(), ImmutableSet.of(100L),
+                ImmutableSet.of(100L, 101L), ImmutableSet.of(102L), ImmutableSet.of(100L, 103L));
+        for (String user : USERS) {
+            for (String role : Lists.newArrayList(null, "r1", "r2")) {
+                for (ResourceGroupClassifier.QueryType queryType : ResourceGroupClassifier.QueryType.values()) {
+                    for (String remoteIp : REMOTE_IPS) {
+                        for (Set<Long> dbs : queryDbIds) {
+                            ResourceGroupClassifier chosen = index.choose(user, role, queryType, remoteIp, dbs);
+                            double expected = bruteForceWeight(classifiers, user, role, queryType, remoteIp, dbs);
+                            if (chosen == null) {
+                                Assert.assertEquals(-1, expected, 0);
+                            } else {
+                                Assert.assertTrue(chosen.isSatisfied(user, role, queryType, remoteIp, dbs));
+                                Assert.assertEquals(expected, chosen.weight(), 0);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
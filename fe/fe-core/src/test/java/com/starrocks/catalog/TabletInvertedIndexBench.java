@@ -0,0 +1,173 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.thrift.TStorageMedium;
+import com.starrocks.thrift.TTablet;
+import com.starrocks.thrift.TTabletInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates the tablet report storms of many backends against an inverted index of millions of tablets,
+ * while partitions are created and dropped concurrently.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class TabletInvertedIndexBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TabletInvertedIndexBench.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    private static final int REPLICA_NUM = 3;
+    private static final int SCHEMA_HASH = 1;
+    // the number of backends whose reports are prepared, the reports are large, so not all backends have one
+    private static final int REPORTING_BACKEND_NUM = 8;
+    // tablets of a partition created or dropped by the ddl thread
+    private static final int PARTITION_TABLET_NUM = 64;
+
+    @Param({"1000000", "4000000"})
+    public int tabletNum;
+
+    @Param({"200"})
+    public int backendNum;
+
+    private TabletInvertedIndex index;
+    private List<Map<Long, TTablet>> reports;
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        index = new TabletInvertedIndex();
+        reports = Lists.newArrayList();
+        for (int i = 0; i < REPORTING_BACKEND_NUM; i++) {
+            reports.add(Maps.newHashMap());
+        }
+
+        // tablet ids and replica ids are allocated from the same sequence like the catalog does
+        long id = 10000;
+        for (int i = 0; i < tabletNum; i++) {
+            long tabletId = id++;
+            index.addTablet(tabletId, newTabletMeta());
+            for (int j = 0; j < REPLICA_NUM; j++) {
+                long backendId = (i + j) % backendNum;
+                index.addReplica(tabletId, new Replica(id++, backendId, Replica.ReplicaState.NORMAL, 2, SCHEMA_HASH));
+                if (backendId < REPORTING_BACKEND_NUM) {
+                    reports.get((int) backendId).put(tabletId, newTablet(tabletId));
+                }
+            }
+        }
+        nextId.set(id);
+    }
+
+    private static TabletMeta newTabletMeta() {
+        return new TabletMeta(1, 2, 3, 4, SCHEMA_HASH, TStorageMedium.HDD);
+    }
+
+    private static TTablet newTablet(long tabletId) {
+        TTabletInfo tabletInfo = new TTabletInfo();
+        tabletInfo.setTablet_id(tabletId);
+        tabletInfo.setSchema_hash(SCHEMA_HASH);
+        tabletInfo.setVersion(2);
+        tabletInfo.setVersion_hash(0);
+        tabletInfo.setRow_count(0);
+        tabletInfo.setData_size(0);
+        tabletInfo.setPartition_id(3);
+        return new TTablet(Lists.newArrayList(tabletInfo));
+    }
+
+    private void tabletReport(long backendId) {
+        index.tabletReport(backendId, reports.get((int) backendId), new HashMap<>(), ArrayListMultimap.create(),
+                ArrayListMultimap.create(), Sets.newHashSet(), Maps.newHashMap(), ArrayListMultimap.create(),
+                Maps.newHashMap(), Maps.newHashMap(), ArrayListMultimap.create(), ArrayListMultimap.create(),
+                Sets.newHashSet());
+    }
+
+    @Benchmark
+    public void singleReport() {
+        tabletReport(ThreadLocalRandom.current().nextInt(REPORTING_BACKEND_NUM));
+    }
+
+    @Benchmark
+    @Group("reportStorm")
+    @GroupThreads(8)
+    public void reportStormReport() {
+        tabletReport(ThreadLocalRandom.current().nextInt(REPORTING_BACKEND_NUM));
+    }
+
+    @Benchmark
+    @Group("reportStorm")
+    @GroupThreads(2)
+    public void reportStormLookup() {
+        long tabletId = 10000 + ThreadLocalRandom.current().nextLong((long) tabletNum * (REPLICA_NUM + 1));
+        index.getTabletMeta(tabletId);
+        index.getReplicasByTabletId(tabletId);
+    }
+
+    @Benchmark
+    @Group("reportStorm")
+    @GroupThreads(1)
+    public void reportStormCreateAndDropPartition() {
+        List<Long> tabletIds = Lists.newArrayListWithCapacity(PARTITION_TABLET_NUM);
+        for (int i = 0; i < PARTITION_TABLET_NUM; i++) {
+            long tabletId = nextId.getAndIncrement();
+            tabletIds.add(tabletId);
+            index.addTablet(tabletId, newTabletMeta());
+            for (int j = 0; j < REPLICA_NUM; j++) {
+                long backendId = ThreadLocalRandom.current().nextInt(backendNum);
+                index.addReplica(tabletId, new Replica(nextId.getAndIncrement(), backendId,
+                        Replica.ReplicaState.NORMAL, 2, SCHEMA_HASH));
+            }
+        }
+        for (long tabletId : tabletIds) {
+            index.deleteTablet(tabletId);
+        }
+    }
+}
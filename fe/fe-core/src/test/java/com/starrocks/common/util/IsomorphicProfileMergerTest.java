@@ -0,0 +1,126 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import com.starrocks.thrift.TUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+public class IsomorphicProfileMergerTest {
+
+    private static RuntimeProfile buildInstanceProfile(int i) {
+        RuntimeProfile instance = new RuntimeProfile("Instance " + i);
+        instance.addInfoString("Address", "host" + i);
+        instance.getCounterTotalTime().setValue(1000L * i);
+        for (int p = 0; p < 2; p++) {
+            RuntimeProfile pipeline = new RuntimeProfile("Pipeline (id=" + p + ")");
+            pipeline.addCounter("DegreeOfParallelism", TUnit.UNIT).setValue(4);
+            instance.addChild(pipeline);
+
+            RuntimeProfile operator = new RuntimeProfile("OLAP_SCAN (plan_node_id=" + p + ")");
+            pipeline.addChild(operator);
+            RuntimeProfile commonMetrics = new RuntimeProfile("CommonMetrics");
+            operator.addChild(commonMetrics);
+            commonMetrics.addCounter("OperatorTotalTime", TUnit.TIME_NS).setValue(100L * (i + 1));
+            commonMetrics.addCounter("PullRowNum", TUnit.UNIT).setValue(10L * i);
+            commonMetrics.addCounter("PullChunkNum", TUnit.UNIT, "PullRowNum").setValue(i);
+            // already merged by be
+            commonMetrics.addCounter("PushRowNum", TUnit.UNIT).setValue(20L * i);
+            commonMetrics.addCounter("__MIN_OF_PushRowNum", TUnit.UNIT, "PushRowNum").setValue(i);
+            commonMetrics.addCounter("__MAX_OF_PushRowNum", TUnit.UNIT, "PushRowNum").setValue(40L * i);
+            Counter skipped = commonMetrics.addCounter("JoinRuntimeFilterNum", TUnit.UNIT);
+            skipped.setValue(i);
+            skipped.setSkipMerge(true);
+            if (i % 2 == 1) {
+                // only attached to some of the instances
+                commonMetrics.addCounter("SinkBufferTime", TUnit.TIME_NS).setValue(7L * i);
+            }
+        }
+        return instance;
+    }
+
+    private static List<RuntimeProfile> buildInstanceProfiles(int num) {
+        List<RuntimeProfile> profiles = Lists.newArrayList();
+        for (int i = 0; i < num; i++) {
+            profiles.add(buildInstanceProfile(i));
+        }
+        return profiles;
+    }
+
+    @Test
+    public void testSameAsMergeAtOnce() {
+        List<RuntimeProfile> expectedProfiles = buildInstanceProfiles(5);
+        RuntimeProfile.mergeIsomorphicProfiles(expectedProfiles);
+
+        List<RuntimeProfile> profiles = buildInstanceProfiles(5);
+        IsomorphicProfileMerger merger = new IsomorphicProfileMerger();
+        // the order of reports doesn't matter
+        for (int i = profiles.size() - 1; i >= 0; i--) {
+            merger.add(profiles.get(i));
+        }
+        merger.add(profiles.get(0));
+        Assert.assertEquals(5, merger.getProfileNum());
+        merger.mergeInto(profiles.get(0));
+
+        Assert.assertEquals(expectedProfiles.get(0).toString(), profiles.get(0).toString());
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+        List<RuntimeProfile> profiles = buildInstanceProfiles(3);
+        IsomorphicProfileMerger merger = new IsomorphicProfileMerger();
+        merger.add(profiles.get(0));
+        merger.add(profiles.get(1));
+
+        IsomorphicProfileMerger copy = merger.copy();
+        copy.add(profiles.get(2));
+        Assert.assertEquals(2, merger.getProfileNum());
+        Assert.assertEquals(3, copy.getProfileNum());
+        Assert.assertFalse(merger.contains(profiles.get(2)));
+
+        RuntimeProfile merged = RuntimeProfileCodec.decode(RuntimeProfileCodec.encode(profiles.get(0)));
+        copy.mergeInto(merged);
+        List<RuntimeProfile> expectedProfiles = buildInstanceProfiles(3);
+        RuntimeProfile.mergeIsomorphicProfiles(expectedProfiles);
+        Assert.assertEquals(expectedProfiles.get(0).toString(), merged.toString());
+    }
+
+    @Test
+    public void testNonIsomorphicCounter() {
+        List<RuntimeProfile> profiles = buildInstanceProfiles(2);
+        RuntimeProfile commonMetrics = profiles.get(1).getChildList().get(0).first
+                .getChildList().get(0).first.getChild("CommonMetrics");
+        commonMetrics.removeCounter("PullRowNum");
+        commonMetrics.addCounter("PullRowNum", TUnit.BYTES).setValue(1);
+
+        IsomorphicProfileMerger merger = new IsomorphicProfileMerger();
+        profiles.forEach(merger::add);
+        merger.mergeInto(profiles.get(0));
+
+        // the node with non-isomorphic counters is left as it is, the others are merged
+        RuntimeProfile commonMetrics0 = profiles.get(0).getChildList().get(0).first
+                .getChildList().get(0).first.getChild("CommonMetrics");
+        Assert.assertNull(commonMetrics0.getCounter("__MIN_OF_OperatorTotalTime"));
+        RuntimeProfile otherCommonMetrics0 = profiles.get(0).getChildList().get(1).first
+                .getChildList().get(0).first.getChild("CommonMetrics");
+        Assert.assertEquals(100L, otherCommonMetrics0.getCounter("__MIN_OF_OperatorTotalTime").getValue());
+        Assert.assertEquals(200L, otherCommonMetrics0.getCounter("__MAX_OF_OperatorTotalTime").getValue());
+        Assert.assertEquals(150L, otherCommonMetrics0.getCounter("OperatorTotalTime").getValue());
+    }
+}
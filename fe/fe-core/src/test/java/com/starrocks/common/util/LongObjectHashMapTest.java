@@ -0,0 +1,88 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Maps;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+public class LongObjectHashMapTest {
+
+    @Test
+    public void testBasic() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.put(1L, "a"));
+        Assert.assertEquals("a", map.put(1L, "b"));
+        Assert.assertEquals("b", map.putIfAbsent(1L, "c"));
+        Assert.assertEquals("b", map.get(1L));
+        Assert.assertNull(map.get(2L));
+        Assert.assertEquals("d", map.getOrDefault(2L, "d"));
+
+        // key 0 is kept out of the table
+        Assert.assertFalse(map.containsKey(0L));
+        Assert.assertNull(map.put(0L, "zero"));
+        Assert.assertTrue(map.containsKey(0L));
+        Assert.assertEquals("zero", map.get(0L));
+        Assert.assertEquals(2, map.size());
+
+        Assert.assertEquals("zero", map.remove(0L));
+        Assert.assertEquals("b", map.remove(1L));
+        Assert.assertNull(map.remove(1L));
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(0);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        LongLongHashMap longMap = new LongLongHashMap();
+        Map<Long, Long> expected = Maps.newHashMap();
+        for (int i = 0; i < 200000; i++) {
+            // a small key range to have lots of collisions and removals
+            long key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+                longMap.remove(key);
+            } else {
+                long value = random.nextLong();
+                Assert.assertEquals(expected.put(key, value), map.put(key, value));
+                longMap.put(key, value);
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected.size(), longMap.size());
+        for (long key = -100; key < 4900; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+            Assert.assertEquals(expected.containsKey(key), longMap.containsKey(key));
+            Assert.assertEquals(expected.getOrDefault(key, -1L).longValue(), longMap.get(key, -1L));
+        }
+
+        Map<Long, Long> visited = Maps.newHashMap();
+        map.forEach(visited::put);
+        Assert.assertEquals(expected, visited);
+
+        map.clear();
+        longMap.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertTrue(longMap.isEmpty());
+        Assert.assertNull(map.get(1L));
+    }
+}
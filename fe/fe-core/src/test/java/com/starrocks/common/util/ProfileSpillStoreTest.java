@@ -0,0 +1,102 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.common.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class ProfileSpillStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] content(int size, int seed) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i + seed);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testAppendAndGet() throws IOException {
+        ProfileSpillStore store = new ProfileSpillStore(folder.getRoot().toPath(), () -> 1024 * 1024, () -> 1024);
+        store.append("q1", new String[] {"q1", "root", null}, content(100, 1));
+        store.append("q2", new String[] {"q2", "root", "select 1"}, content(100, 2));
+
+        Assert.assertArrayEquals(content(100, 1), store.get("q1"));
+        Assert.assertArrayEquals(content(100, 2), store.get("q2"));
+        Assert.assertNull(store.get("q3"));
+
+        List<String[]> headers = store.listHeaders();
+        Assert.assertEquals(2, headers.size());
+        Assert.assertEquals("q2", headers.get(0)[0]);
+        Assert.assertNull(headers.get(1)[2]);
+        store.close();
+    }
+
+    @Test
+    public void testEvictOldestSegment() throws IOException {
+        // every segment holds two profiles, and the store holds three segments
+        ProfileSpillStore store = new ProfileSpillStore(folder.getRoot().toPath(), () -> 1000, () -> 300);
+        for (int i = 0; i < 8; i++) {
+            store.append("q" + i, new String[] {"q" + i}, content(100, i));
+        }
+
+        Assert.assertEquals(6, store.size());
+        Assert.assertNull(store.get("q0"));
+        Assert.assertNull(store.get("q1"));
+        Assert.assertArrayEquals(content(100, 2), store.get("q2"));
+        Assert.assertArrayEquals(content(100, 7), store.get("q7"));
+        Assert.assertTrue(store.getTotalBytes() <= 1000);
+        store.close();
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        ProfileSpillStore store = new ProfileSpillStore(dir, () -> 1024 * 1024, () -> 300);
+        for (int i = 0; i < 5; i++) {
+            store.append("q" + i, new String[] {"q" + i}, content(100, i));
+        }
+        long totalBytes = store.getTotalBytes();
+        store.close();
+
+        // append a half written record to the last segment
+        try (FileChannel channel = FileChannel.open(dir.resolve("profile.2"), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x50, 0x52, 0x4F}));
+        }
+
+        ProfileSpillStore reloaded = new ProfileSpillStore(dir, () -> 1024 * 1024, () -> 300);
+        Assert.assertEquals(5, reloaded.size());
+        Assert.assertEquals(totalBytes, reloaded.getTotalBytes());
+        Assert.assertEquals("q4", reloaded.listHeaders().get(0)[0]);
+        Assert.assertArrayEquals(content(100, 3), reloaded.get("q3"));
+
+        // new profiles go to a new segment
+        reloaded.append("q5", new String[] {"q5"}, content(100, 5));
+        Assert.assertArrayEquals(content(100, 5), reloaded.get("q5"));
+        Assert.assertTrue(dir.resolve("profile.3").toFile().exists());
+        reloaded.close();
+    }
+}
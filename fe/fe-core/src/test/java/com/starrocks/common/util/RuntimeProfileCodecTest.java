@@ -0,0 +1,80 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.common.util;
+
+import com.starrocks.common.Pair;
+import com.starrocks.thrift.TUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class RuntimeProfileCodecTest {
+
+    private static RuntimeProfile buildProfile() {
+        RuntimeProfile root = new RuntimeProfile("Query");
+        RuntimeProfile summary = new RuntimeProfile("Summary");
+        summary.addInfoString(ProfileManager.QUERY_ID, "4f1b0c5e-2a3d-11ee-9c4e-00163e0e4b3a");
+        summary.addInfoString(ProfileManager.SQL_STATEMENT, "select * from t");
+        summary.addInfoString("NullValue", null);
+        root.addChild(summary);
+
+        RuntimeProfile execution = new RuntimeProfile("Execution");
+        execution.getCounterTotalTime().setValue(5_000_000L);
+        root.addChild(execution);
+        for (int i = 0; i < 3; i++) {
+            RuntimeProfile fragment = new RuntimeProfile("Fragment " + i);
+            fragment.getCounterTotalTime().setValue(1_000_000L * (i + 1));
+            fragment.addCounter("ScanTime", TUnit.TIME_NS).setValue(12345L * i);
+            fragment.addCounter("RowsRead", TUnit.UNIT, "ScanTime").setValue(-i);
+            fragment.addCounter("BytesRead", TUnit.BYTES).setValue(Long.MAX_VALUE);
+            fragment.addCounter("TotalTimeChild", TUnit.TIME_NS, "TotalTime").setValue(10);
+            fragment.getCounter("BytesRead").setSkipMerge(true);
+            fragment.addInfoString("Instance", "instance " + i);
+            execution.addChild(fragment);
+        }
+        // a child that is not indented under its parent
+        execution.getChildList().add(Pair.create(new RuntimeProfile("Flat"), false));
+        root.computeTimeInProfile(10_000_000L);
+        return root;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        RuntimeProfile profile = buildProfile();
+        RuntimeProfile decoded = RuntimeProfileCodec.decode(RuntimeProfileCodec.encode(profile));
+
+        Assert.assertEquals(profile.toString(), decoded.toString());
+        Assert.assertEquals(new RuntimeProfile.JsonProfileFormater().format(profile),
+                new RuntimeProfile.JsonProfileFormater().format(decoded));
+
+        RuntimeProfile fragment = decoded.getChild("Execution").getChild("Fragment 2");
+        Assert.assertEquals(-2L, fragment.getCounter("RowsRead").getValue());
+        Assert.assertEquals(Long.MAX_VALUE, fragment.getCounter("BytesRead").getValue());
+        Assert.assertTrue(fragment.getCounter("BytesRead").isSkipMerge());
+        Assert.assertFalse(fragment.getCounter("ScanTime").isSkipMerge());
+        Assert.assertEquals(10L, fragment.getCounter("TotalTimeChild").getValue());
+        Assert.assertNull(decoded.getChild("Summary").getInfoString("NullValue"));
+        Assert.assertFalse(decoded.getChild("Execution").getChildList().get(3).second);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptedContent() throws IOException {
+        byte[] encoded = RuntimeProfileCodec.encode(buildProfile());
+        byte[] truncated = new byte[encoded.length / 2];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        RuntimeProfileCodec.decode(truncated);
+    }
+}
@@ -22,8 +22,10 @@ import com.starrocks.catalog.HivePartitionKey;
 import com.starrocks.catalog.HiveTable;
 import com.starrocks.catalog.PrimitiveType;
 import com.starrocks.catalog.ScalarType;
+import com.starrocks.common.Config;
 import com.starrocks.connector.PartitionUtil;
 import com.starrocks.connector.exception.StarRocksConnectorException;
+import mockit.Deencapsulation;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -31,8 +33,13 @@ import org.junit.Test;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.starrocks.connector.hive.RemoteFileInputFormat.ORC;
 import static org.apache.hadoop.hive.common.StatsSetupConst.TOTAL_SIZE;
@@ -144,6 +151,119 @@ public class CachingHiveMetastoreTest {
         Assert.assertEquals("hdfs://127.0.0.1:10000/hive.db/hive_tbl/part1=3/part2=4", partition2.getFullPath());
     }
 
+    @Test
+    public void testGetPartitionByNamesInBatches() {
+        AtomicInteger rpcCount = new AtomicInteger();
+        HiveMetaClient countingClient = new HiveMetastoreTest.MockedHiveMetaClient() {
+            @Override
+            public List<org.apache.hadoop.hive.metastore.api.Partition> getPartitionsByNames(
+                    String dbName, String tblName, List<String> partitionNames) {
+                rpcCount.incrementAndGet();
+                Assert.assertTrue(partitionNames.size() <= 2);
+                return super.getPartitionsByNames(dbName, tblName, partitionNames);
+            }
+        };
+        int oldBatchSize = Config.max_hive_partitions_per_rpc;
+        Config.max_hive_partitions_per_rpc = 2;
+        try {
+            CachingHiveMetastore cachingHiveMetastore = new CachingHiveMetastore(
+                    new HiveMetastore(countingClient, "hive_catalog"), executor, expireAfterWriteSec,
+                    refreshAfterWriteSec, 1000, false);
+            List<String> partitionNames = Lists.newArrayList();
+            for (int i = 0; i < 5; i++) {
+                partitionNames.add("part1=" + i + "/part2=" + i);
+            }
+            Map<String, Partition> partitions = cachingHiveMetastore.getPartitionsByNames("db1", "table1", partitionNames);
+            Assert.assertEquals(5, partitions.size());
+            Assert.assertEquals(3, rpcCount.get());
+            Assert.assertEquals("hdfs://127.0.0.1:10000/hive.db/hive_tbl/part1=4/part2=4",
+                    partitions.get("part1=4/part2=4").getFullPath());
+
+            cachingHiveMetastore.getPartitionsByNames("db1", "table1", partitionNames);
+            Assert.assertEquals(3, rpcCount.get());
+        } finally {
+            Config.max_hive_partitions_per_rpc = oldBatchSize;
+        }
+    }
+
+    @Test
+    public void testRejectedBatchIsLoadedOnce() throws Exception {
+        AtomicInteger rpcCount = new AtomicInteger();
+        HiveMetaClient countingClient = new HiveMetastoreTest.MockedHiveMetaClient() {
+            @Override
+            public List<org.apache.hadoop.hive.metastore.api.Partition> getPartitionsByNames(
+                    String dbName, String tblName, List<String> partitionNames) {
+                rpcCount.incrementAndGet();
+                return super.getPartitionsByNames(dbName, tblName, partitionNames);
+            }
+        };
+        int oldBatchSize = Config.max_hive_partitions_per_rpc;
+        Config.max_hive_partitions_per_rpc = 2;
+        try {
+            CachingHiveMetastore cachingHiveMetastore = new CachingHiveMetastore(
+                    new HiveMetastore(countingClient, "hive_catalog"), executor, expireAfterWriteSec,
+                    refreshAfterWriteSec, 1000, false);
+            // the task is queued and run, but the executor still rejects it
+            Executor queuedThenRejected = task -> {
+                try {
+                    executor.submit(task).get();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                throw new RejectedExecutionException("mock rejected");
+            };
+            Deencapsulation.setField(cachingHiveMetastore, "partitionLoadExecutor", queuedThenRejected);
+            List<String> partitionNames = Lists.newArrayList();
+            for (int i = 0; i < 5; i++) {
+                partitionNames.add("part1=" + i + "/part2=" + i);
+            }
+            Map<String, Partition> partitions = cachingHiveMetastore.getPartitionsByNames("db1", "table1", partitionNames);
+            Assert.assertEquals(5, partitions.size());
+            Assert.assertEquals(3, rpcCount.get());
+        } finally {
+            Config.max_hive_partitions_per_rpc = oldBatchSize;
+        }
+    }
+
+    @Test
+    public void testConcurrentPartitionLoadsAreDeduplicated() throws Exception {
+        AtomicInteger rpcCount = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HiveMetaClient blockingClient = new HiveMetastoreTest.MockedHiveMetaClient() {
+            @Override
+            public List<org.apache.hadoop.hive.metastore.api.Partition> getPartitionsByNames(
+                    String dbName, String tblName, List<String> partitionNames) {
+                rpcCount.incrementAndGet();
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return super.getPartitionsByNames(dbName, tblName, partitionNames);
+            }
+        };
+        CachingHiveMetastore cachingHiveMetastore = new CachingHiveMetastore(
+                new HiveMetastore(blockingClient, "hive_catalog"), executor, expireAfterWriteSec,
+                refreshAfterWriteSec, 1000, false);
+        List<String> partitionNames = Lists.newArrayList("part1=1/part2=2", "part1=3/part2=4");
+
+        Future<Map<String, Partition>> first =
+                executor.submit(() -> cachingHiveMetastore.getPartitionsByNames("db1", "table1", partitionNames));
+        entered.await();
+        Thread second = new Thread(() -> cachingHiveMetastore.getPartitionsByNames("db1", "table1", partitionNames));
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        second.join();
+
+        Assert.assertEquals(2, first.get().size());
+        Assert.assertEquals(1, rpcCount.get());
+    }
+
     @Test
     public void testGetTableStatistics() {
         CachingHiveMetastore cachingHiveMetastore = new CachingHiveMetastore(
@@ -15,6 +15,7 @@
 
 package com.starrocks.connector.iceberg.cost;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Type;
@@ -25,11 +26,21 @@ import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 import com.starrocks.sql.optimizer.statistics.Statistics;
 import mockit.Expectations;
 import mockit.Mocked;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.Table;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.types.Conversions;
 import org.apache.iceberg.types.Types;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -39,6 +50,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 public class IcebergTableStatisticCalculatorTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
 
     @Test
     public void testMakeTableStatistics(@Mocked Table iTable) {
@@ -125,4 +138,42 @@ public class IcebergTableStatisticCalculatorTest {
         ColumnStatistic arrayStatistic = statistics.getColumnStatistic(columnRefOperator2);
         Assert.assertNotNull(arrayStatistic);
     }
+
+    private static DataFile makeDataFile(PartitionSpec spec, String path, long recordCount,
+                                         long lower, long upper, long nullCount) {
+        Metrics metrics = new Metrics(recordCount,
+                ImmutableMap.of(1, 100L),
+                ImmutableMap.of(1, recordCount),
+                ImmutableMap.of(1, nullCount),
+                null,
+                ImmutableMap.of(1, Conversions.toByteBuffer(Types.LongType.get(), lower)),
+                ImmutableMap.of(1, Conversions.toByteBuffer(Types.LongType.get(), upper)));
+        return DataFiles.builder(spec)
+                .withPath(path)
+                .withFormat(FileFormat.ORC)
+                .withFileSizeInBytes(1024)
+                .withMetrics(metrics)
+                .build();
+    }
+
+    @Test
+    public void testColumnStatsReachFileStats() throws Exception {
+        Schema schema = new Schema(Types.NestedField.optional(1, "col1", Types.LongType.get()));
+        PartitionSpec spec = PartitionSpec.unpartitioned();
+        Table table = new HadoopTables(new Configuration()).create(schema, spec,
+                temp.newFolder("stats_tbl").getAbsolutePath());
+        table.newAppend()
+                .appendFile(makeDataFile(spec, "/path/to/data-1.orc", 10, 1, 5, 2))
+                .appendFile(makeDataFile(spec, "/path/to/data-2.orc", 10, 3, 10, 1))
+                .commit();
+
+        IcebergFileStats fileStats = new IcebergTableStatisticCalculator(table)
+                .generateIcebergFileStats(null, schema.columns());
+        Assert.assertNotNull(fileStats);
+        Assert.assertTrue(fileStats.hasValidColumnMetrics());
+        Assert.assertEquals(20, fileStats.getRecordCount());
+        Assert.assertEquals(1L, fileStats.getMinValues().get(1));
+        Assert.assertEquals(10L, fileStats.getMaxValues().get(1));
+        Assert.assertEquals(Long.valueOf(3), fileStats.getNullCounts().get(1));
+    }
 }
@@ -0,0 +1,142 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.connector.iceberg.io;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class IcebergMetadataDiskCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<ByteBuffer> content(String str) {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        return Lists.newArrayList(ByteBuffer.wrap(bytes, 0, 4), ByteBuffer.wrap(bytes, 4, bytes.length - 4));
+    }
+
+    private static String read(List<ByteBuffer> buffers) {
+        StringBuilder sb = new StringBuilder();
+        for (ByteBuffer buffer : buffers) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            sb.append(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        IcebergMetadataDiskCache cache = new IcebergMetadataDiskCache(folder.getRoot().toPath(), () -> 1024L);
+        Assert.assertNull(cache.get("s3://bucket/snap-1.avro"));
+        Assert.assertEquals(-1, cache.getLength("s3://bucket/snap-1.avro"));
+
+        cache.put("s3://bucket/snap-1.avro", content("manifest list content"), 21);
+        Assert.assertEquals(21, cache.getLength("s3://bucket/snap-1.avro"));
+        Assert.assertEquals("manifest list content", read(cache.get("s3://bucket/snap-1.avro")));
+        Assert.assertEquals(21, cache.getUsedBytes());
+
+        cache.invalidate("s3://bucket/snap-1.avro");
+        Assert.assertNull(cache.get("s3://bucket/snap-1.avro"));
+        Assert.assertEquals(0, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testLruEviction() throws Exception {
+        IcebergMetadataDiskCache cache = new IcebergMetadataDiskCache(folder.getRoot().toPath(), () -> 30L);
+        cache.put("m1", content("0123456789"), 10);
+        cache.put("m2", content("0123456789"), 10);
+        cache.put("m3", content("0123456789"), 10);
+        // access m1, so m2 becomes the least recently used one
+        Assert.assertNotNull(cache.get("m1"));
+        cache.put("m4", content("0123456789"), 10);
+
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(30, cache.getUsedBytes());
+        Assert.assertEquals(-1, cache.getLength("m2"));
+        Assert.assertEquals(10, cache.getLength("m1"));
+
+        // larger than the capacity, never cached
+        cache.put("m5", content("0123456789012345678901234567890123456789"), 40);
+        Assert.assertEquals(-1, cache.getLength("m5"));
+        Assert.assertEquals(10, cache.getLength("m4"));
+    }
+
+    @Test
+    public void testReloadIndex() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        IcebergMetadataDiskCache cache = new IcebergMetadataDiskCache(dir, () -> 1024L);
+        cache.put("m1", content("manifest 1"), 10);
+        cache.put("m2", content("manifest 2"), 10);
+        cache.invalidate("m2");
+        // orphan file which is not in the index
+        folder.newFile("orphan.data");
+
+        IcebergMetadataDiskCache reloaded = new IcebergMetadataDiskCache(dir, () -> 1024L);
+        Assert.assertEquals(1, reloaded.size());
+        Assert.assertEquals(10, reloaded.getUsedBytes());
+        Assert.assertEquals("manifest 1", read(reloaded.get("m1")));
+        Assert.assertNull(reloaded.get("m2"));
+        Assert.assertFalse(dir.resolve("orphan.data").toFile().exists());
+
+        // capacity is reduced after restart
+        IcebergMetadataDiskCache shrunk = new IcebergMetadataDiskCache(dir, () -> 5L);
+        Assert.assertEquals(0, shrunk.size());
+        Assert.assertEquals(0, shrunk.getUsedBytes());
+    }
+
+    @Test
+    public void testIndexLog() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        Path indexFile = dir.resolve("cache.index");
+        IcebergMetadataDiskCache cache = new IcebergMetadataDiskCache(dir, () -> 1024L);
+        long emptySize = Files.size(indexFile);
+        // a put only appends one record instead of rewriting the index
+        cache.put("m1", content("manifest 1"), 10);
+        long oneEntrySize = Files.size(indexFile);
+        cache.put("m2", content("manifest 2"), 10);
+        Assert.assertEquals(emptySize + (oneEntrySize - emptySize) * 2, Files.size(indexFile));
+
+        // the log is compacted once most of its records are stale
+        for (int i = 0; i < 1000; i++) {
+            cache.put("m3", content("manifest 3"), 10);
+            cache.invalidate("m3");
+        }
+        Assert.assertTrue(Files.size(indexFile) < (oneEntrySize - emptySize) * 1024);
+        cache = new IcebergMetadataDiskCache(dir, () -> 1024L);
+        Assert.assertEquals(2, cache.size());
+
+        // a half written record is ignored
+        cache.put("m3", content("manifest 3"), 10);
+        cache.put("m4", content("manifest 4"), 10);
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        IcebergMetadataDiskCache reloaded = new IcebergMetadataDiskCache(dir, () -> 1024L);
+        Assert.assertEquals(3, reloaded.size());
+        Assert.assertEquals(-1, reloaded.getLength("m4"));
+        Assert.assertEquals("manifest 3", read(reloaded.get("m3")));
+    }
+}
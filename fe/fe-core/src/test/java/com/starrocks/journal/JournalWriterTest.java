@@ -58,6 +58,7 @@ public class JournalWriterTest {
         Config.edit_log_roll_num = 50000;
         Config.metadata_journal_max_batch_size_mb = 100;
         Config.metadata_journal_max_batch_cnt = 100;
+        Config.metadata_journal_batch_target_latency_ms = 50;
     }
 
     private DataOutputBuffer makeBuffer(int size) throws IOException {
@@ -327,4 +328,146 @@ public class JournalWriterTest {
         Assert.assertFalse(task2.get());
         Assert.assertEquals(0, journalQueue.size());
     }
+
+    @Test
+    public void testPipelineCollectAndCommit() throws Exception {
+        new Expectations(journal) {
+            {
+                journal.batchWriteBegin();
+                times = 1;
+
+                journal.batchWriteAppend(anyLong, (DataOutputBuffer) any);
+                times = 3;
+
+                journal.batchWriteCommit();
+                times = 1;
+            }
+        };
+        JournalTask task1 = new JournalTask(makeBuffer(10), -1);
+        JournalTask task2 = new JournalTask(makeBuffer(11), -1);
+        JournalTask task3 = new JournalTask(makeBuffer(12), -1);
+        journalQueue.add(task1);
+        journalQueue.add(task2);
+        journalQueue.add(task3);
+
+        // all tasks in queue are collected into one batch
+        writer.collectOneBatch();
+        Assert.assertEquals(0, journalQueue.size());
+        Assert.assertEquals(1, task1.latch.getCount());
+        // the batch is counted as in flight as soon as it is handed over
+        Assert.assertEquals(1, writer.inFlightBatches.get());
+
+        writer.commitOneBatch();
+        Assert.assertEquals(0, writer.inFlightBatches.get());
+        Assert.assertEquals(4, writer.nextVisibleJournalId);
+        Assert.assertEquals(3, writer.rollJournalCounter);
+        Assert.assertEquals(3, writer.currentBatchTasks.size());
+        Assert.assertTrue(task1.get());
+        Assert.assertTrue(task2.get());
+        Assert.assertTrue(task3.get());
+    }
+
+    @Test
+    public void testPipelineWaitWhileCommitting() throws Exception {
+        JournalTask task1 = new JournalTask(makeBuffer(10), -1);
+        JournalTask task2 = new JournalTask(makeBuffer(10), -1);
+        journalQueue.add(task1);
+
+        // the committer is busy, so the batcher waits for more tasks
+        writer.inFlightBatches.incrementAndGet();
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                journalQueue.put(task2);
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer.inFlightBatches.decrementAndGet();
+        });
+        producer.start();
+        writer.collectOneBatch();
+        producer.join();
+        Assert.assertEquals(0, journalQueue.size());
+
+        writer.commitOneBatch();
+        Assert.assertEquals(3, writer.nextVisibleJournalId);
+        Assert.assertEquals(2, writer.currentBatchTasks.size());
+    }
+
+    @Test
+    public void testPipelineAdaptiveBatchLimits() throws Exception {
+        Config.metadata_journal_max_batch_cnt = 8;
+        Assert.assertEquals(8, writer.getBatchCntLimit());
+
+        // commit of a full batch is too slow, shrink
+        Config.metadata_journal_batch_target_latency_ms = -1;
+        for (int i = 0; i != 8; i++) {
+            journalQueue.add(new JournalTask(makeBuffer(10), -1));
+        }
+        writer.collectOneBatch();
+        writer.commitOneBatch();
+        Assert.assertEquals(8, writer.currentBatchTasks.size());
+        Assert.assertEquals(4, writer.getBatchCntLimit());
+
+        // a slow commit of a small batch keeps the limits
+        journalQueue.add(new JournalTask(makeBuffer(10), -1));
+        writer.collectOneBatch();
+        writer.commitOneBatch();
+        Assert.assertEquals(4, writer.getBatchCntLimit());
+
+        // the batch limit takes effect
+        for (int i = 0; i != 8; i++) {
+            journalQueue.add(new JournalTask(makeBuffer(10), -1));
+        }
+        writer.collectOneBatch();
+        Assert.assertEquals(4, journalQueue.size());
+
+        // fast commit, grow back but never exceed metadata_journal_max_batch_cnt
+        Config.metadata_journal_batch_target_latency_ms = 10000;
+        writer.commitOneBatch();
+        Assert.assertEquals(4, writer.currentBatchTasks.size());
+        Assert.assertEquals(8, writer.getBatchCntLimit());
+        writer.collectOneBatch();
+        writer.commitOneBatch();
+        Assert.assertEquals(4, writer.currentBatchTasks.size());
+        Assert.assertEquals(8, writer.getBatchCntLimit());
+        Assert.assertEquals(18, writer.nextVisibleJournalId);
+    }
+
+    @Test
+    public void testPipelineAppendException() throws Exception {
+        JournalTask task1 = new JournalTask(makeBuffer(10), -1);
+        JournalTask task2 = new JournalTask(makeBuffer(11), -1);
+        JournalTask task3 = new JournalTask(makeBuffer(12), -1);
+        journalQueue.add(task1);
+        journalQueue.add(task2);
+        journalQueue.add(task3);
+        new Expectations(journal) {
+            {
+                // task1 and task3 are written in two batches
+                journal.batchWriteBegin();
+                times = 2;
+
+                journal.batchWriteAppend(1, (DataOutputBuffer) any);
+                times = 2;
+                result = null;  // task1
+                result = new JournalException("mock batchWriteAppend exception");  // task2
+
+                journal.batchWriteAppend(2, (DataOutputBuffer) any);
+                times = 1;  // task3
+
+                journal.batchWriteCommit();
+                times = 2;
+            }
+        };
+        abortedWriter.collectOneBatch();
+        abortedWriter.commitOneBatch();
+        // stop appending on failure, commit what is appended and write the rest in the next batch
+        Assert.assertEquals(1, abortedWriter.currentBatchTasks.size());
+        Assert.assertEquals(3, abortedWriter.nextVisibleJournalId);
+        Assert.assertTrue(task1.get());
+        Assert.assertFalse(task2.get());
+        Assert.assertTrue(task3.get());
+    }
 }
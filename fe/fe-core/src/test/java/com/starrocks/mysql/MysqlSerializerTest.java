@@ -0,0 +1,58 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+
+package com.starrocks.mysql;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class MysqlSerializerTest {
+
+    @Test
+    public void testWriteBinaryRowFromTextRow() {
+        // a text row of BE: 42, NULL, 'abc', 2023-01-02
+        MysqlSerializer textSerializer = MysqlSerializer.newInstance();
+        textSerializer.writeLenEncodedString("42");
+        textSerializer.writeNull();
+        textSerializer.writeLenEncodedString("abc");
+        textSerializer.writeLenEncodedString("2023-01-02");
+        ByteBuffer textRow = textSerializer.toByteBuffer();
+
+        List<MysqlColType> colTypes = Lists.newArrayList(MysqlColType.MYSQL_TYPE_LONGLONG,
+                MysqlColType.MYSQL_TYPE_LONG, MysqlColType.MYSQL_TYPE_VAR_STRING, MysqlColType.MYSQL_TYPE_DATE);
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeBinaryRow(colTypes, textRow);
+        ByteBuffer binaryRow = serializer.toByteBuffer();
+
+        // the text row is not consumed
+        Assert.assertEquals(0, textRow.position());
+
+        Assert.assertEquals(0x00, MysqlProto.readInt1(binaryRow));
+        // NULL bitmap with an offset of 2 bits, the second column is NULL
+        Assert.assertEquals(1 << 3, MysqlProto.readInt1(binaryRow));
+        Assert.assertEquals(42L, MysqlProto.readInt8(binaryRow));
+        Assert.assertEquals("abc", new String(MysqlProto.readLenEncodedString(binaryRow), StandardCharsets.UTF_8));
+        Assert.assertEquals(4, MysqlProto.readInt1(binaryRow));
+        Assert.assertEquals(2023, MysqlProto.readInt2(binaryRow));
+        Assert.assertEquals(1, MysqlProto.readInt1(binaryRow));
+        Assert.assertEquals(2, MysqlProto.readInt1(binaryRow));
+        Assert.assertEquals(0, binaryRow.remaining());
+    }
+}
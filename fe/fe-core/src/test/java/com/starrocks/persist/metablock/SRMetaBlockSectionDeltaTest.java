@@ -0,0 +1,135 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.starrocks.common.io.Text;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SRMetaBlockSectionDeltaTest {
+    private static Path tmpDir;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        tmpDir = Files.createTempDirectory(Paths.get("."), "SRMetaBlockSectionDeltaTest");
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        FileUtils.deleteDirectory(tmpDir.toFile());
+    }
+
+    // section name -> the value repeated in the section
+    private File writeImage(String fileName, Map<String, String> sections) throws Exception {
+        File file = new File(tmpDir.toFile(), fileName);
+        try (SRMetaBlockSectionWriter writer = new SRMetaBlockSectionWriter(file,
+                MoreExecutors.newDirectExecutorService())) {
+            for (Map.Entry<String, String> entry : sections.entrySet()) {
+                writer.addSection(entry.getKey(), dos -> {
+                    for (int i = 0; i < 1000; i++) {
+                        Text.writeString(dos, entry.getValue());
+                    }
+                });
+            }
+            writer.finish();
+        }
+        return file;
+    }
+
+    private static Map<String, String> makeSections(int num, String value) {
+        Map<String, String> sections = new TreeMap<>();
+        for (int i = 0; i < num; i++) {
+            sections.put("db." + i, value + i);
+        }
+        return sections;
+    }
+
+    @Test
+    public void testWriteAndApply() throws Exception {
+        Map<String, String> baseSections = makeSections(10, "base");
+        File base = writeImage("image.100", baseSections);
+
+        // db.3 is changed, db.5 is dropped and db.10 is created
+        Map<String, String> targetSections = new TreeMap<>(baseSections);
+        targetSections.put("db.3", "changed");
+        targetSections.remove("db.5");
+        targetSections.put("db.10", "created");
+        File target = writeImage("image.200", targetSections);
+
+        File delta = new File(tmpDir.toFile(), "delta_image.200");
+        Assert.assertTrue(SRMetaBlockSectionDelta.write(base, 100, target, delta));
+        Assert.assertTrue(SRMetaBlockSectionDelta.isDelta(delta));
+        Assert.assertFalse(SRMetaBlockSectionDelta.isDelta(target));
+        Assert.assertEquals(100, SRMetaBlockSectionDelta.getBaseVersion(delta));
+        Assert.assertTrue(delta.length() < target.length() / 2);
+        Assert.assertEquals(Lists.newArrayList(SRMetaBlockSectionDelta.DESCRIPTOR_SECTION, "db.10", "db.3"),
+                new SRMetaBlockSectionReader(delta).getSectionNames());
+
+        File rebuilt = new File(tmpDir.toFile(), "image.200.rebuilt");
+        SRMetaBlockSectionDelta.apply(base, delta, rebuilt);
+        Assert.assertTrue(FileUtils.contentEquals(target, rebuilt));
+
+        SRMetaBlockSectionReader reader = new SRMetaBlockSectionReader(rebuilt);
+        Assert.assertEquals(Lists.newArrayList(targetSections.keySet()), reader.getSectionNames());
+        reader.readSection("db.10", dis -> Assert.assertEquals("created", Text.readString(dis)));
+        reader.readSection("db.4", dis -> Assert.assertEquals("base4", Text.readString(dis)));
+    }
+
+    @Test
+    public void testMostlyChanged() throws Exception {
+        File base = writeImage("image.300", makeSections(10, "base"));
+        File target = writeImage("image.400", makeSections(10, "target"));
+        File delta = new File(tmpDir.toFile(), "delta_image.400");
+        Assert.assertFalse(SRMetaBlockSectionDelta.write(base, 300, target, delta));
+        Assert.assertFalse(delta.exists());
+
+        // no base image
+        Assert.assertFalse(SRMetaBlockSectionDelta.write(new File(tmpDir.toFile(), "image.0"), 0, target, delta));
+    }
+
+    @Test(expected = SRMetaBlockException.class)
+    public void testApplyOnWrongBase() throws Exception {
+        Map<String, String> baseSections = makeSections(10, "base");
+        File base = writeImage("image.500", baseSections);
+        Map<String, String> targetSections = new TreeMap<>(baseSections);
+        targetSections.put("db.1", "changed");
+        File target = writeImage("image.600", targetSections);
+        File delta = new File(tmpDir.toFile(), "delta_image.600");
+        Assert.assertTrue(SRMetaBlockSectionDelta.write(base, 500, target, delta));
+
+        // db.2 of the wrong base is different from the one of the target image
+        Map<String, String> wrongSections = new TreeMap<>(baseSections);
+        wrongSections.put("db.2", "wrong");
+        File wrongBase = writeImage("image.501", wrongSections);
+        File rebuilt = new File(tmpDir.toFile(), "image.600.wrong");
+        try {
+            SRMetaBlockSectionDelta.apply(wrongBase, delta, rebuilt);
+        } finally {
+            Assert.assertFalse(rebuilt.exists());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.persist.metablock;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.io.Text;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SRMetaBlockSectionTest {
+    private static final int SECTION_NUM = 20;
+
+    private static Path tmpDir;
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        tmpDir = Files.createTempDirectory(Paths.get("."), "SRMetaBlockSectionTest");
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        executor.shutdownNow();
+        FileUtils.deleteDirectory(tmpDir.toFile());
+    }
+
+    private File writeImage(String fileName) throws Exception {
+        File file = new File(tmpDir.toFile(), fileName);
+        try (SRMetaBlockSectionWriter writer = new SRMetaBlockSectionWriter(file, executor)) {
+            for (int i = 0; i < SECTION_NUM; i++) {
+                int sectionId = i;
+                writer.addSection("section." + i, dos -> {
+                    dos.writeInt(sectionId);
+                    for (int j = 0; j < sectionId * 100; j++) {
+                        Text.writeString(dos, "value " + sectionId + "-" + j);
+                    }
+                });
+            }
+            writer.finish();
+        }
+        // the temporary files are removed
+        Assert.assertFalse(new File(tmpDir.toFile(), fileName + ".sections").exists());
+        return file;
+    }
+
+    @Test
+    public void testParallelWriteAndRead() throws Exception {
+        File file = writeImage("image.parallel");
+        Assert.assertTrue(SRMetaBlockSectionReader.isSectionedImage(file));
+
+        SRMetaBlockSectionReader reader = new SRMetaBlockSectionReader(file);
+        List<String> names = reader.getSectionNames();
+        Assert.assertEquals(SECTION_NUM, names.size());
+        Assert.assertEquals("section.0", names.get(0));
+        Assert.assertEquals("section." + (SECTION_NUM - 1), names.get(SECTION_NUM - 1));
+        Assert.assertFalse(reader.hasSection("section.unknown"));
+
+        // read the sections in parallel, in reverse order
+        List<Future<?>> futures = Lists.newArrayList();
+        for (int i = SECTION_NUM - 1; i >= 0; i--) {
+            int sectionId = i;
+            futures.add(executor.submit(() -> {
+                reader.readSection("section." + sectionId, dis -> {
+                    Assert.assertEquals(sectionId, dis.readInt());
+                    for (int j = 0; j < sectionId * 100; j++) {
+                        Assert.assertEquals("value " + sectionId + "-" + j, Text.readString(dis));
+                    }
+                });
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        // the rest of a section is skipped
+        reader.readSection("section.10", dis -> Assert.assertEquals(10, dis.readInt()));
+    }
+
+    @Test(expected = SRMetaBlockException.class)
+    public void testSectionChecksumMismatch() throws Exception {
+        File file = writeImage("image.corrupted");
+
+        // section.0 only has an int, so section.1 starts at 12 (magic + int),
+        // corrupt the first string of section.1 which is after its int and the string length
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long position = 12 + 10;
+            raf.seek(position);
+            byte b = raf.readByte();
+            raf.seek(position);
+            raf.writeByte(b ^ 0xFF);
+        }
+
+        SRMetaBlockSectionReader reader = new SRMetaBlockSectionReader(file);
+        // the other sections are still fine
+        reader.readSection("section.0", dis -> Assert.assertEquals(0, dis.readInt()));
+        reader.readSection("section.1", dis -> Assert.assertEquals(1, dis.readInt()));
+    }
+
+    @Test
+    public void testNotSectionedImage() throws Exception {
+        File file = new File(tmpDir.toFile(), "image.legacy");
+        try (DataOutputStream dos = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+            // the header of an image in the old format
+            dos.writeInt(-1);
+            dos.writeInt(100);
+            dos.writeInt(1);
+            dos.writeLong(1000L);
+        }
+        Assert.assertFalse(SRMetaBlockSectionReader.isSectionedImage(file));
+    }
+}
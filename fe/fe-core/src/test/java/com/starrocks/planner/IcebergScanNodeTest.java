@@ -11,6 +11,7 @@ import com.starrocks.analysis.TupleDescriptor;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.IcebergTable;
 import com.starrocks.catalog.Type;
+import com.starrocks.common.Config;
 import com.starrocks.common.UserException;
 import com.starrocks.connector.iceberg.IcebergUtil;
 import com.starrocks.qe.ConnectContext;
@@ -28,8 +29,6 @@ import mockit.Expectations;
 import mockit.Mock;
 import mockit.MockUp;
 import mockit.Mocked;
-import org.apache.iceberg.BaseCombinedScanTask;
-import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DataFiles;
 import org.apache.iceberg.DataTableScan;
@@ -51,6 +50,7 @@ import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.io.OutputFile;
 import org.apache.iceberg.types.Types;
 import org.junit.Assert;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -66,6 +66,7 @@ public class IcebergScanNodeTest {
     private String resourceName;
     private List<Column> columns;
     private Map<String, String> properties;
+    private int planFilesCount;
 
     static class LocalFileIO implements FileIO {
 
@@ -128,7 +129,7 @@ public class IcebergScanNodeTest {
 
         @Override
         public Iterable<FileScanTask> split(long l) {
-            return null;
+            return ImmutableList.of(this);
         }
     }
 
@@ -146,8 +147,9 @@ public class IcebergScanNodeTest {
 
         new MockUp<DataTableScan>() {
             @Mock
-            public CloseableIterable<CombinedScanTask> planTasks() {
-                List<CombinedScanTask> tasks = new ArrayList<CombinedScanTask>();
+            public CloseableIterable<FileScanTask> planFiles() {
+                planFilesCount++;
+                List<FileScanTask> tasks = new ArrayList<FileScanTask>();
                 DataFile data = DataFiles.builder(PartitionSpec.unpartitioned())
                         .withInputFile(new LocalFileIO().newInputFile("input.orc"))
                         .withRecordCount(1)
@@ -171,7 +173,7 @@ public class IcebergScanNodeTest {
 
 
                 FileScanTask scanTask = new TestFileScanTask(data, new DeleteFile[]{delete});
-                tasks.add(new BaseCombinedScanTask(scanTask));
+                tasks.add(scanTask);
 
                 return CloseableIterable.withNoopClose(tasks);
             }
@@ -201,6 +203,14 @@ public class IcebergScanNodeTest {
         properties.put("database", dbName);
         properties.put("table", tableName);
         properties.put("resource", resourceName);
+
+        planFilesCount = 0;
+        Config.enable_iceberg_scan_plan_cache = false;
+    }
+
+    @After
+    public void tearDown() {
+        Config.enable_iceberg_scan_plan_cache = true;
     }
 
     @Test
@@ -309,4 +319,39 @@ public class IcebergScanNodeTest {
         scanNode.appendEqualityColumns(node, columnRefFactory, context);
         Assert.assertEquals(context.getColRefToExpr().size(), 1);
     }
+
+    @Test
+    public void testScanPlanCache(@Mocked com.starrocks.catalog.IcebergTable table,
+                                  @Mocked Table iTable,
+                                  @Mocked Snapshot snapshot) throws UserException {
+        Config.enable_iceberg_scan_plan_cache = true;
+        Analyzer analyzer = new Analyzer(GlobalStateMgr.getCurrentState(), new ConnectContext());
+        DescriptorTable descTable = analyzer.getDescTbl();
+        TupleDescriptor tupleDesc = descTable.createTupleDescriptor("DestTableTuple");
+        tupleDesc.setTable(table);
+
+        setUpMock(true, table, iTable, snapshot);
+        new Expectations() {
+            {
+                iTable.location();
+                result = "hdfs://iceberg/db/plan_cache_table";
+                minTimes = 0;
+
+                snapshot.snapshotId();
+                result = 1L;
+                minTimes = 0;
+            }
+        };
+
+        IcebergScanNode scanNode = new IcebergScanNode(new PlanNodeId(0), tupleDesc, "IcebergScanNode");
+        scanNode.getScanRangeLocations();
+        IcebergScanNode cachedScanNode = new IcebergScanNode(new PlanNodeId(1), tupleDesc, "IcebergScanNode");
+        cachedScanNode.getScanRangeLocations();
+
+        // the second scan on the same snapshot is planned from cache
+        Assert.assertEquals(1, planFilesCount);
+        List<TScanRangeLocations> result = cachedScanNode.getScanRangeLocations(1);
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("input.orc", result.get(0).scan_range.hdfs_scan_range.full_path);
+    }
 }
@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableList;
 import com.starrocks.catalog.HiveTable;
 import com.starrocks.planner.HdfsScanNode;
 import com.starrocks.system.ComputeNode;
+import com.starrocks.thrift.THdfsFileFormat;
 import com.starrocks.thrift.THdfsScanRange;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TScanRange;
@@ -118,7 +119,7 @@ public class HDFSBackendSelectorTest {
 
         HDFSBackendSelector selector =
                 new HDFSBackendSelector(hdfsScanNode, locations, assignment, addressToBackendId, usedBackendIDs,
-                        ImmutableList.copyOf(computeNodes), false);
+                        ImmutableList.copyOf(computeNodes), false, false);
         selector.computeScanRangeAssignment();
 
         int avg = (scanRangeNumber * scanRangeSize) / hostNumber;
@@ -167,7 +168,7 @@ public class HDFSBackendSelectorTest {
 
         HDFSBackendSelector selector =
                 new HDFSBackendSelector(hdfsScanNode, locations, assignment, addressToBackendId, usedBackendIDs,
-                        ImmutableList.copyOf(computeNodes), true);
+                        ImmutableList.copyOf(computeNodes), true, false);
         selector.computeScanRangeAssignment();
 
         Map<TNetworkAddress, Long> stats = computeHostReadBytes(assignment, scanNodeId);
@@ -176,4 +177,96 @@ public class HDFSBackendSelectorTest {
             System.out.printf("%s -> %d bytes\n", entry.getKey(), entry.getValue());
         }
     }
+
+    @Test
+    public void testHdfsScanNodeLoadAware() throws Exception {
+        new Expectations() {
+            {
+                hdfsScanNode.getId();
+                result = scanNodeId;
+                hiveTable.getTableLocation();
+                result = "hdfs://dfs00/dataset/";
+            }
+        };
+
+        int scanRangeNumber = 300;
+        int scanRangeSize = 10000;
+        int hostNumber = 3;
+        List<TScanRangeLocations> locations = createScanRanges(scanRangeNumber, scanRangeSize);
+        CoordinatorPreprocessor.FragmentScanRangeAssignment assignment =
+                new CoordinatorPreprocessor.FragmentScanRangeAssignment();
+        Map<TNetworkAddress, Long> addressToBackendId = new HashMap<>();
+        Set<Long> usedBackendIDs = new HashSet<>();
+        List<ComputeNode> computeNodes = createComputeNodes(hostNumber);
+        // the first node is busy
+        computeNodes.get(0).updateResourceUsage(8, 0, 0, 900);
+
+        HDFSBackendSelector selector =
+                new HDFSBackendSelector(hdfsScanNode, locations, assignment, addressToBackendId, usedBackendIDs,
+                        ImmutableList.copyOf(computeNodes), false, true);
+        selector.computeScanRangeAssignment();
+
+        Map<ComputeNode, Long> stats = selector.getAssignedScansPerComputeNode();
+        Assert.assertEquals((long) scanRangeNumber * scanRangeSize,
+                stats.values().stream().mapToLong(Long::longValue).sum());
+        Assert.assertTrue(stats.toString(), stats.get(computeNodes.get(0)) * 5 < stats.get(computeNodes.get(1)));
+        Assert.assertTrue(stats.toString(), stats.get(computeNodes.get(0)) * 5 < stats.get(computeNodes.get(2)));
+    }
+
+    @Test
+    public void testHdfsScanNodeSplitLargeScanRange() throws Exception {
+        new Expectations() {
+            {
+                hdfsScanNode.getId();
+                result = scanNodeId;
+                hiveTable.getTableLocation();
+                result = "hdfs://dfs00/dataset/";
+            }
+        };
+
+        long fileSize = 1024L * 1024 * 1024;
+        int hostNumber = 4;
+        List<TScanRangeLocations> locations = createScanRanges(2, 0);
+        locations.get(0).scan_range.hdfs_scan_range.setLength(fileSize);
+        locations.get(0).scan_range.hdfs_scan_range.setFile_format(THdfsFileFormat.PARQUET);
+        // text file can't be split
+        locations.get(1).scan_range.hdfs_scan_range.setLength(fileSize);
+        locations.get(1).scan_range.hdfs_scan_range.setFile_format(THdfsFileFormat.TEXT);
+
+        CoordinatorPreprocessor.FragmentScanRangeAssignment assignment =
+                new CoordinatorPreprocessor.FragmentScanRangeAssignment();
+        Map<TNetworkAddress, Long> addressToBackendId = new HashMap<>();
+        Set<Long> usedBackendIDs = new HashSet<>();
+        List<ComputeNode> computeNodes = createComputeNodes(hostNumber);
+
+        HDFSBackendSelector selector =
+                new HDFSBackendSelector(hdfsScanNode, locations, assignment, addressToBackendId, usedBackendIDs,
+                        ImmutableList.copyOf(computeNodes), false, true);
+        selector.computeScanRangeAssignment();
+
+        List<THdfsScanRange> parquetRanges = new ArrayList<>();
+        List<THdfsScanRange> textRanges = new ArrayList<>();
+        for (Map<Integer, List<TScanRangeParams>> scanRanges : assignment.values()) {
+            for (TScanRangeParams params : scanRanges.get(scanNodeId)) {
+                THdfsScanRange scanRange = params.scan_range.hdfs_scan_range;
+                if (scanRange.getFile_format() == THdfsFileFormat.PARQUET) {
+                    parquetRanges.add(scanRange);
+                } else {
+                    textRanges.add(scanRange);
+                }
+            }
+        }
+        Assert.assertEquals(1, textRanges.size());
+        Assert.assertEquals(fileSize, textRanges.get(0).getLength());
+        // 2GB over 4 nodes, split into ranges of 128MB
+        Assert.assertEquals(8, parquetRanges.size());
+        parquetRanges.sort((a, b) -> Long.compare(a.getOffset(), b.getOffset()));
+        long offset = 0;
+        for (THdfsScanRange scanRange : parquetRanges) {
+            Assert.assertEquals(offset, scanRange.getOffset());
+            offset += scanRange.getLength();
+        }
+        Assert.assertEquals(fileSize, offset);
+        Assert.assertTrue(assignment.size() > 1);
+    }
 }
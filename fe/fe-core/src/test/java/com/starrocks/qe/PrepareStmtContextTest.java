@@ -0,0 +1,116 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.SelectRelation;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.parser.ParsingException;
+import com.starrocks.sql.parser.SqlParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PrepareStmtContextTest {
+
+    private static PrepareStmtContext prepare(String sql) {
+        List<Parameter> parameters = Lists.newArrayList();
+        StatementBase stmt = SqlParser.parsePrepareStatement(sql, new SessionVariable(), parameters);
+        return new PrepareStmtContext(1, sql, stmt, parameters);
+    }
+
+    @Test
+    public void testParseParameters() {
+        PrepareStmtContext context = prepare("select ? + 1, v1 from t0 where v2 = ? and v3 in (?, ?)");
+        Assert.assertEquals(4, context.getParameterCount());
+
+        context = prepare("select 1");
+        Assert.assertEquals(0, context.getParameterCount());
+    }
+
+    @Test(expected = ParsingException.class)
+    public void testParseMultiStatements() {
+        prepare("select ?; select ?");
+    }
+
+    @Test
+    public void testBind() throws Exception {
+        List<Parameter> parameters = Lists.newArrayList();
+        String sql = "select ? + 1, ?, ? from t0";
+        StatementBase stmt = SqlParser.parsePrepareStatement(sql, new SessionVariable(), parameters);
+        PrepareStmtContext context = new PrepareStmtContext(1, sql, stmt, parameters);
+
+        ByteBuffer packet = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        // null bitmap, the third parameter is null
+        packet.put((byte) 0x04);
+        // new params bound
+        packet.put((byte) 1);
+        packet.putShort((short) MysqlColType.MYSQL_TYPE_LONGLONG.getCode());
+        packet.putShort((short) MysqlColType.MYSQL_TYPE_VAR_STRING.getCode());
+        packet.putShort((short) MysqlColType.MYSQL_TYPE_NULL.getCode());
+        packet.putLong(42L);
+        byte[] str = "abc".getBytes(StandardCharsets.UTF_8);
+        packet.put((byte) str.length);
+        packet.put(str);
+        packet.flip();
+
+        context.bind(packet);
+        Assert.assertTrue(parameters.get(0).getValue() instanceof IntLiteral);
+        Assert.assertEquals(42L, ((IntLiteral) parameters.get(0).getValue()).getValue());
+        Assert.assertTrue(parameters.get(1).getValue() instanceof StringLiteral);
+        Assert.assertEquals("abc", parameters.get(1).getValue().getStringValue());
+        Assert.assertTrue(parameters.get(2).getValue() instanceof NullLiteral);
+        Assert.assertEquals("select 42 + 1, 'abc', NULL from t0", stmt.getOrigStmt().originStmt);
+
+        // the types are not sent again, and long data replaces the value of the second parameter
+        context.appendLongData(1, "de".getBytes(StandardCharsets.UTF_8));
+        context.appendLongData(1, "f".getBytes(StandardCharsets.UTF_8));
+        packet = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        packet.put((byte) 0x04);
+        packet.put((byte) 0);
+        packet.putLong(7L);
+        packet.flip();
+
+        context.bind(packet);
+        Assert.assertEquals(7L, ((IntLiteral) parameters.get(0).getValue()).getValue());
+        Assert.assertEquals("def", parameters.get(1).getValue().getStringValue());
+        Assert.assertEquals("select 7 + 1, 'def', NULL from t0", stmt.getOrigStmt().originStmt);
+    }
+
+    @Test
+    public void testParseWithNullValues() {
+        PrepareStmtContext context = prepare("select ? + 1, v1 from t0");
+        StatementBase stmt = context.parseWithNullValues(new ConnectContext());
+        Assert.assertNotSame(context.getStmt(), stmt);
+        Assert.assertEquals("select ? + 1, v1 from t0", stmt.getOrigStmt().originStmt);
+
+        SelectRelation selectRelation = (SelectRelation) ((QueryStatement) stmt).getQueryRelation();
+        Expr parameter = selectRelation.getSelectList().getItems().get(0).getExpr().getChild(0);
+        Assert.assertTrue(parameter instanceof Parameter);
+        Assert.assertTrue(((Parameter) parameter).getValue() instanceof NullLiteral);
+    }
+}
@@ -29,6 +29,7 @@ import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
 import com.starrocks.thrift.TResultSinkType;
+import com.starrocks.thrift.TWorkGroup;
 import mockit.Expectations;
 import mockit.Mocked;
 import org.awaitility.Awaitility;
@@ -49,6 +50,7 @@ public class QueryQueueManagerTest {
     private boolean taskQueueEnable;
     private int taskQueueConcurrencyHardLimit;
     private double taskQueueMemUsedPctHardLimit;
+    private int taskQueueCpuUsedPermilleLimit;
     private int taskQueuePendingTimeoutSecond;
     private int taskQueueMaxQueuedQueries;
 
@@ -62,6 +64,7 @@ public class QueryQueueManagerTest {
         taskQueueEnable = GlobalVariable.isEnableQueryQueueSelect();
         taskQueueConcurrencyHardLimit = GlobalVariable.getQueryQueueConcurrencyLimit();
         taskQueueMemUsedPctHardLimit = GlobalVariable.getQueryQueueMemUsedPctLimit();
+        taskQueueCpuUsedPermilleLimit = GlobalVariable.getQueryQueueCpuUsedPermilleLimit();
         taskQueuePendingTimeoutSecond = GlobalVariable.getQueryQueuePendingTimeoutSecond();
         taskQueueMaxQueuedQueries = GlobalVariable.getQueryQueueMaxQueuedQueries();
     }
@@ -72,6 +75,7 @@ public class QueryQueueManagerTest {
         GlobalVariable.setEnableQueryQueueSelect(taskQueueEnable);
         GlobalVariable.setQueryQueueConcurrencyLimit(taskQueueConcurrencyHardLimit);
         GlobalVariable.setQueryQueueMemUsedPctLimit(taskQueueMemUsedPctHardLimit);
+        GlobalVariable.setQueryQueueCpuUsedPermilleLimit(taskQueueCpuUsedPermilleLimit);
         GlobalVariable.setQueryQueuePendingTimeoutSecond(taskQueuePendingTimeoutSecond);
         GlobalVariable.setQueryQueueMaxQueuedQueries(taskQueueMaxQueuedQueries);
     }
@@ -136,6 +140,51 @@ public class QueryQueueManagerTest {
         };
     }
 
+    private void mockCoordinatorNoResourceGroup() {
+        new Expectations() {
+            {
+                coordinator.prepareResourceGroup();
+                result = null;
+                minTimes = 0;
+            }
+        };
+    }
+
+    private Backend mockBackend() {
+        SystemInfoService service = GlobalStateMgr.getCurrentSystemInfo();
+        Backend be = new Backend();
+        be.setAlive(true);
+        be.setId(1);
+        new Expectations(service) {
+            {
+                service.getBackends();
+                result = ImmutableList.of(be);
+                minTimes = 0;
+            }
+
+            {
+                service.getBackend(be.getId());
+                result = be;
+                minTimes = 0;
+            }
+        };
+        return be;
+    }
+
+    private Thread startPendingQuery(ConnectContext connectCtx) {
+        QueryQueueManager manager = QueryQueueManager.getInstance();
+        Thread thread = new Thread(() -> {
+            try {
+                manager.maybeWait(connectCtx, coordinator);
+            } catch (UserException | InterruptedException e) {
+                Assert.fail("Unexpected exception");
+            }
+        });
+        thread.start();
+        Awaitility.await().atMost(1, TimeUnit.SECONDS).until(connectCtx::isPending);
+        return thread;
+    }
+
     @Test
     public void testNotWait() throws UserException, InterruptedException {
         QueryQueueManager manager = QueryQueueManager.getInstance();
@@ -175,6 +224,7 @@ public class QueryQueueManagerTest {
 
         mockCoordinatorNeedCheckQueue();
         mockCoordinatorEnableCheckQueue();
+        mockCoordinatorNoResourceGroup();
         mockNotCanRunMore();
 
         // Case 1: Pending timeout.
@@ -227,6 +277,97 @@ public class QueryQueueManagerTest {
         manager.maybeNotify();
     }
 
+    @Test
+    public void testDequeueOrder() throws InterruptedException {
+        QueryQueueManager manager = QueryQueueManager.getInstance();
+
+        mockCoordinatorNeedCheckQueue();
+        mockCoordinatorEnableCheckQueue();
+        Backend be = mockBackend();
+        GlobalVariable.setQueryQueuePendingTimeoutSecond(300);
+        GlobalVariable.setQueryQueueConcurrencyLimit(3);
+        GlobalVariable.setQueryQueueMemUsedPctLimit(0);
+        GlobalVariable.setQueryQueueCpuUsedPermilleLimit(0);
+        manager.updateResourceUsage(be.getId(), 3, 0, 0, 0);
+
+        TWorkGroup groupA = new TWorkGroup();
+        groupA.setName("rg_a");
+        groupA.setCpu_core_limit(1);
+        TWorkGroup groupB = new TWorkGroup();
+        groupB.setName("rg_b");
+        groupB.setCpu_core_limit(1);
+        new Expectations(coordinator) {
+            {
+                coordinator.prepareResourceGroup();
+                result = groupA;
+                result = groupA;
+                result = groupA;
+                result = groupB;
+            }
+        };
+        long laneTotal = MetricRepo.getQueryQueueLaneMetrics("rg_b").counterTotal.getValue();
+
+        ConnectContext a1 = new ConnectContext();
+        ConnectContext a2 = new ConnectContext();
+        ConnectContext a3 = new ConnectContext();
+        a3.getSessionVariable().setQueryQueuePriority(1);
+        ConnectContext b1 = new ConnectContext();
+        List<Thread> threads = ImmutableList.of(startPendingQuery(a1), startPendingQuery(a2),
+                startPendingQuery(a3), startPendingQuery(b1));
+        Assert.assertEquals(4, manager.numPendingQueries());
+        Assert.assertEquals(laneTotal + 1, (long) MetricRepo.getQueryQueueLaneMetrics("rg_b").counterTotal.getValue());
+
+        // a3 overtakes the earlier queries of its lane by priority, and then b1 takes the fair share of rg_b
+        // before the rest queries of rg_a.
+        List<ConnectContext> expectedOrder = ImmutableList.of(a3, b1, a1, a2);
+        for (int i = 0; i < expectedOrder.size(); i++) {
+            ConnectContext connectCtx = expectedOrder.get(i);
+            // One query finishes, so only one pending query is admitted until the next report.
+            manager.updateResourceUsage(be.getId(), 2, 0, 0, 0);
+            Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> !connectCtx.isPending());
+            manager.maybeNotify();
+            for (ConnectContext pendingCtx : expectedOrder.subList(i + 1, expectedOrder.size())) {
+                Assert.assertTrue(pendingCtx.isPending());
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, manager.numPendingQueries());
+    }
+
+    @Test
+    public void testAdmitOneQueryPerReport() throws InterruptedException {
+        QueryQueueManager manager = QueryQueueManager.getInstance();
+
+        mockCoordinatorNeedCheckQueue();
+        mockCoordinatorEnableCheckQueue();
+        mockCoordinatorNoResourceGroup();
+        Backend be = mockBackend();
+        GlobalVariable.setQueryQueuePendingTimeoutSecond(300);
+        GlobalVariable.setQueryQueueConcurrencyLimit(0);
+        GlobalVariable.setQueryQueueMemUsedPctLimit(0.5);
+        GlobalVariable.setQueryQueueCpuUsedPermilleLimit(0);
+        manager.updateResourceUsage(be.getId(), 0, 10, 6, 0);
+
+        ConnectContext connectCtx1 = new ConnectContext();
+        ConnectContext connectCtx2 = new ConnectContext();
+        List<Thread> threads = ImmutableList.of(startPendingQuery(connectCtx1), startPendingQuery(connectCtx2));
+
+        // The memory usage of an admitted query is unknown until the next report.
+        manager.updateResourceUsage(be.getId(), 0, 10, 1, 0);
+        Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> !connectCtx1.isPending());
+        manager.maybeNotify();
+        Assert.assertTrue(connectCtx2.isPending());
+
+        manager.updateResourceUsage(be.getId(), 1, 10, 2, 0);
+        Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> !connectCtx2.isPending());
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, manager.numPendingQueries());
+    }
+
     @Test
     public void testCanRunMore() {
         QueryQueueManager manager = QueryQueueManager.getInstance();
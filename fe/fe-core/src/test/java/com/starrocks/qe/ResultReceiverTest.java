@@ -0,0 +1,127 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.qe;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.Status;
+import com.starrocks.proto.PFetchDataResult;
+import com.starrocks.proto.StatusPB;
+import com.starrocks.rpc.BackendServiceClient;
+import com.starrocks.rpc.PFetchDataRequest;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TResultBatch;
+import com.starrocks.thrift.TUniqueId;
+import mockit.Mock;
+import mockit.MockUp;
+import org.apache.thrift.TSerializer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResultReceiverTest {
+    private static final int PACKET_NUM = 4;
+
+    @After
+    public void tearDown() {
+        Config.result_receiver_prefetch_num = 1;
+    }
+
+    /**
+     * A stub BE answering the i-th fetch request with packet swapped(i), the last packet is eos and the requests
+     * after it are answered with empty eos packets.
+     */
+    private AtomicInteger mockBackend(boolean swapped) {
+        AtomicInteger requestNum = new AtomicInteger();
+        new MockUp<BackendServiceClient>() {
+            @Mock
+            public Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                    throws Exception {
+                int requestIdx = requestNum.getAndIncrement();
+                int packetSeq = swapped && requestIdx < PACKET_NUM ? requestIdx ^ 1 : requestIdx;
+
+                PFetchDataResult result = new PFetchDataResult();
+                StatusPB status = new StatusPB();
+                status.statusCode = 0;
+                result.status = status;
+                result.packetSeq = (long) packetSeq;
+                result.eos = packetSeq >= PACKET_NUM - 1;
+                if (packetSeq < PACKET_NUM) {
+                    TResultBatch batch = new TResultBatch(new ArrayList<>(), false, packetSeq);
+                    batch.addToRows(ByteBuffer.wrap(("row" + packetSeq).getBytes(StandardCharsets.UTF_8)));
+                    request.setSerializedResult(new TSerializer().serialize(batch));
+                }
+                return CompletableFuture.completedFuture(result);
+            }
+        };
+        return requestNum;
+    }
+
+    private static void checkResult(ResultReceiver receiver) throws Exception {
+        for (int i = 0; i < PACKET_NUM; i++) {
+            Status status = new Status();
+            RowBatch batch = receiver.getNext(status);
+            Assert.assertTrue(status.ok());
+            Assert.assertEquals(i == PACKET_NUM - 1, batch.isEos());
+            Assert.assertEquals(ByteBuffer.wrap(("row" + i).getBytes(StandardCharsets.UTF_8)),
+                    batch.getBatch().getRows().get(0));
+        }
+        Assert.assertNull(receiver.getNext(new Status()));
+    }
+
+    private static ResultReceiver newReceiver() {
+        return new ResultReceiver(new TUniqueId(1, 2), 1L, new TNetworkAddress("127.0.0.1", 8060), 10000);
+    }
+
+    @Test
+    public void testNoPrefetch() throws Exception {
+        AtomicInteger requestNum = mockBackend(false);
+        checkResult(newReceiver());
+        Assert.assertEquals(PACKET_NUM, requestNum.get());
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        Config.result_receiver_prefetch_num = 3;
+        AtomicInteger requestNum = mockBackend(false);
+        ResultReceiver receiver = newReceiver();
+
+        // 3 requests are sent for the first batch, and one more for each batch consumed
+        Status status = new Status();
+        Assert.assertNotNull(receiver.getNext(status));
+        Assert.assertEquals(3, requestNum.get());
+        Assert.assertNotNull(receiver.getNext(status));
+        Assert.assertEquals(4, requestNum.get());
+        Assert.assertNotNull(receiver.getNext(status));
+        Assert.assertEquals(5, requestNum.get());
+        RowBatch last = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertTrue(last.isEos());
+        Assert.assertNull(receiver.getNext(status));
+    }
+
+    @Test
+    public void testPrefetchOutOfOrder() throws Exception {
+        Config.result_receiver_prefetch_num = 2;
+        mockBackend(true);
+        checkResult(newReceiver());
+    }
+}
@@ -0,0 +1,114 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.qe;
+
+import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.WrapperSocketChannel;
+import com.starrocks.thrift.TResultBatch;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the result batches fetched from a stub BE, i.e. serialized TResultBatch of {@link #BATCH_BYTES} bytes,
+ * to a socket that discards everything. MB/s = ops/s * BATCH_BYTES / 1MB.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ResultSendBench {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ResultSendBench.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    private static final int BATCH_BYTES = 4 * 1024 * 1024;
+
+    private static class DiscardSocketChannel extends WrapperSocketChannel {
+        @Override
+        public int write(ByteBuffer src) {
+            int len = src.remaining();
+            src.position(src.limit());
+            return len;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            long len = 0;
+            for (int i = offset; i < offset + length; i++) {
+                len += write(srcs[i]);
+            }
+            return len;
+        }
+    }
+
+    @Param({"32", "1024"})
+    public int rowBytes;
+
+    private byte[] serializedBatch;
+    private MysqlChannel channel;
+
+    @Setup
+    public void setup() throws Exception {
+        TResultBatch batch = new TResultBatch(new ArrayList<>(), false, 0);
+        for (int i = 0; i < BATCH_BYTES / rowBytes; i++) {
+            byte[] row = new byte[rowBytes];
+            ThreadLocalRandom.current().nextBytes(row);
+            batch.addToRows(ByteBuffer.wrap(row));
+        }
+        serializedBatch = new TSerializer().serialize(batch);
+        channel = new MysqlChannel(new DiscardSocketChannel());
+    }
+
+    @Benchmark
+    public void deserializeAndSend() throws Exception {
+        TResultBatch batch = new TResultBatch();
+        new TDeserializer().deserialize(batch, serializedBatch);
+        for (ByteBuffer row : batch.getRows()) {
+            channel.sendOnePacket(row);
+        }
+        channel.flush();
+    }
+
+    @Benchmark
+    public void directSend() throws Exception {
+        channel.sendResultRows(SerializedResultBatch.parse(serializedBatch));
+    }
+}
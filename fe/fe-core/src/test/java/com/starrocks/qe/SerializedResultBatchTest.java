@@ -0,0 +1,141 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.qe;
+
+import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.WrapperSocketChannel;
+import com.starrocks.thrift.TResultBatch;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.thrift.TSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SerializedResultBatchTest {
+
+    // a socket channel keeping everything written to it
+    private static class CaptureSocketChannel extends WrapperSocketChannel {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        @Override
+        public int write(ByteBuffer src) {
+            int len = src.remaining();
+            byte[] bytes = new byte[len];
+            src.get(bytes);
+            out.write(bytes, 0, len);
+            return len;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            long len = 0;
+            for (int i = offset; i < offset + length; i++) {
+                len += write(srcs[i]);
+            }
+            return len;
+        }
+    }
+
+    private static TResultBatch makeBatch(int numRows) {
+        TResultBatch batch = new TResultBatch();
+        batch.setRows(new ArrayList<>());
+        for (int i = 0; i < numRows; i++) {
+            // one large row which takes more than one direct buffer
+            int length = i == numRows / 2 ? 100 * 1024 : i % 2000;
+            batch.addToRows(ByteBuffer.wrap(StringUtils.repeat((char) ('a' + i % 26), length)
+                    .getBytes(StandardCharsets.UTF_8)));
+        }
+        batch.setIs_compressed(false);
+        batch.setPacket_seq(7);
+        batch.setStatistic_version(1);
+        return batch;
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        TResultBatch batch = makeBatch(100);
+        SerializedResultBatch serializedBatch = SerializedResultBatch.parse(new TSerializer().serialize(batch));
+        Assert.assertNotNull(serializedBatch);
+        Assert.assertEquals(100, serializedBatch.getNumRows());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(batch.getRows().get(i), serializedBatch.getRow(i));
+        }
+
+        // empty batch
+        SerializedResultBatch emptyBatch = SerializedResultBatch.parse(new TSerializer().serialize(makeBatch(0)));
+        Assert.assertNotNull(emptyBatch);
+        Assert.assertEquals(0, emptyBatch.getNumRows());
+    }
+
+    @Test
+    public void testParseInvalid() throws Exception {
+        byte[] data = new TSerializer().serialize(makeBatch(10));
+        // truncated
+        Assert.assertNull(SerializedResultBatch.parse(Arrays.copyOf(data, data.length - 1)));
+        // trailing garbage
+        Assert.assertNull(SerializedResultBatch.parse(Arrays.copyOf(data, data.length + 1)));
+        // no rows, only the stop field
+        Assert.assertNull(SerializedResultBatch.parse(new byte[] {0}));
+        Assert.assertNull(SerializedResultBatch.parse(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    public void testSendResultRows() throws Exception {
+        // more than 16 direct buffers to send
+        TResultBatch batch = makeBatch(3000);
+        SerializedResultBatch serializedBatch = SerializedResultBatch.parse(new TSerializer().serialize(batch));
+        Assert.assertNotNull(serializedBatch);
+        ByteBuffer fields = ByteBuffer.wrap("fields".getBytes(StandardCharsets.UTF_8));
+
+        CaptureSocketChannel expected = new CaptureSocketChannel();
+        MysqlChannel channel = new MysqlChannel(expected);
+        channel.sendOnePacket(fields.duplicate());
+        for (ByteBuffer row : batch.getRows()) {
+            channel.sendOnePacket(row.duplicate());
+        }
+        channel.sendOnePacket(fields.duplicate());
+        channel.flush();
+
+        CaptureSocketChannel actual = new CaptureSocketChannel();
+        MysqlChannel directChannel = new MysqlChannel(actual);
+        directChannel.sendOnePacket(fields.duplicate());
+        directChannel.sendResultRows(serializedBatch);
+        directChannel.sendOnePacket(fields.duplicate());
+        directChannel.flush();
+
+        Assert.assertTrue(directChannel.isSend());
+        Assert.assertArrayEquals(expected.out.toByteArray(), actual.out.toByteArray());
+    }
+
+    @Test
+    public void testRowBatchNumRows() throws Exception {
+        RowBatch rowBatch = new RowBatch();
+        Assert.assertEquals(0, rowBatch.getNumRows());
+        rowBatch.setSerializedBatch(SerializedResultBatch.parse(new TSerializer().serialize(makeBatch(3))));
+        Assert.assertEquals(3, rowBatch.getNumRows());
+
+        List<ByteBuffer> rows = new ArrayList<>();
+        rows.add(ByteBuffer.allocate(1));
+        RowBatch deserialized = new RowBatch();
+        deserialized.setBatch(new TResultBatch(rows, false, 1));
+        Assert.assertEquals(1, deserialized.getNumRows());
+    }
+}
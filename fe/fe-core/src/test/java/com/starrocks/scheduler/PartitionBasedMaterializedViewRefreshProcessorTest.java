@@ -26,6 +26,7 @@ import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.Replica;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.TableProperty;
 import com.starrocks.catalog.Tablet;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeConstants;
@@ -52,6 +53,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PartitionBasedMaterializedViewRefreshProcessorTest {
@@ -849,4 +851,41 @@ public class PartitionBasedMaterializedViewRefreshProcessorTest {
         Assert.assertNull(mvContext.getNextPartitionEnd());
     }
 
+    @Test
+    public void testRefreshPartitionsInParallelBatches() throws Exception {
+        Database testDb = GlobalStateMgr.getCurrentState().getDb("test");
+        MaterializedView materializedView = ((MaterializedView) testDb.getTable("mv_with_test_refresh"));
+        PartitionBasedMaterializedViewRefreshProcessor processor = new PartitionBasedMaterializedViewRefreshProcessor();
+        List<Set<String>> batches = processor.splitPartitionsToBatches(
+                materializedView.getPartitionNames(), materializedView, 2);
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(3, batches.get(0).size());
+        Assert.assertEquals(2, batches.get(1).size());
+
+        materializedView.getTableProperty().setPartitionRefreshNumber(2);
+        batches = processor.splitPartitionsToBatches(materializedView.getPartitionNames(), materializedView, 2);
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals(Sets.newHashSet("p0", "p1"), batches.get(0));
+        Assert.assertEquals(Sets.newHashSet("p4"), batches.get(2));
+
+        materializedView.getTableProperty().setPartitionRefreshParallelism(2);
+        try {
+            Task task = TaskBuilder.buildMvTask(materializedView, testDb.getFullName());
+            Map<String, String> properties = new HashMap<>();
+            properties.put(TaskRun.FORCE, "true");
+            TaskRun taskRun = TaskRunBuilder.newBuilder(task).properties(properties).build();
+            taskRun.initStatus(UUIDUtil.genUUID().toString(), System.currentTimeMillis());
+            Assert.assertTrue(taskRun.executeTaskRun());
+            Assert.assertEquals(99, taskRun.getStatus().getProgress());
+
+            OlapTable base = (OlapTable) testDb.getTable("base");
+            Map<String, MaterializedView.BasePartitionInfo> baseVersions = materializedView.getRefreshScheme()
+                    .getAsyncRefreshContext().getBaseTableVisibleVersionMap().get(base.getId());
+            Assert.assertEquals(base.getPartitionNames(), baseVersions.keySet());
+        } finally {
+            materializedView.getTableProperty().setPartitionRefreshNumber(TableProperty.INVALID);
+            materializedView.getTableProperty().setPartitionRefreshParallelism(TableProperty.INVALID);
+        }
+    }
+
 }
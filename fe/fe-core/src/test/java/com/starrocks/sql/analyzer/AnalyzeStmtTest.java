@@ -182,12 +182,13 @@ public class AnalyzeStmtTest {
                         "cast(sum(data_size) as bigint), hll_union_agg(ndv), sum(null_count),  " +
                         "cast(max(cast(max as bigint(20))) as string), " +
                         "cast(min(cast(min as bigint(20))) as string) FROM column_statistics " +
-                        "WHERE table_id = 10004 and column_name = \"v1\" GROUP BY db_id, table_id, column_name " +
+                        "WHERE table_id = 10004 and partition_id != -1 and column_name = \"v1\" " +
+                        "GROUP BY db_id, table_id, column_name " +
                         "UNION ALL SELECT cast(1 as INT), now(), db_id, table_id, column_name, sum(row_count), " +
                         "cast(sum(data_size) as bigint), " +
                         "hll_union_agg(ndv), sum(null_count),  cast(max(cast(max as bigint(20))) as string), " +
                         "cast(min(cast(min as bigint(20))) as string) " +
-                        "FROM column_statistics WHERE table_id = 10004 and column_name = \"v2\" " +
+                        "FROM column_statistics WHERE table_id = 10004 and partition_id != -1 and column_name = \"v2\" " +
                         "GROUP BY db_id, table_id, column_name",
                 StatisticSQLBuilder.buildQueryFullStatisticsSQL(10002L, 10004L, Lists.newArrayList(v1, v2)));
 
@@ -311,14 +312,14 @@ public class AnalyzeStmtTest {
                 "cast\\(sum\\(data_size\\) as bigint\\), hll_union_agg\\(ndv\\), sum\\(null_count\\), " +
                 " cast\\(max\\(cast\\(max as int\\(11\\)\\)\\) as string\\), cast\\(min\\(cast\\(min " +
                 "as int\\(11\\)\\)\\) as string\\) " +
-                "FROM column_statistics WHERE table_id = (\\d+) and column_name = \"kk1\" " +
+                "FROM column_statistics WHERE table_id = (\\d+) and partition_id != -1 and column_name = \"kk1\" " +
                 "GROUP BY db_id, table_id, column_name " +
                 "UNION ALL SELECT cast\\(1 as INT\\), now\\(\\), db_id, table_id, column_name, " +
                 "sum\\(row_count\\), " +
                 "cast\\(sum\\(data_size\\) as bigint\\), hll_union_agg\\(ndv\\), sum\\(null_count\\),  " +
                 "cast\\(max\\(cast\\(max as string\\)\\) as string\\), cast\\(min\\(cast\\(min as" +
                 " string\\)\\) as string\\) " +
-                "FROM column_statistics WHERE table_id = (\\d+) and column_name = \"kk2\" " +
+                "FROM column_statistics WHERE table_id = (\\d+) and partition_id != -1 and column_name = \"kk2\" " +
                 "GROUP BY db_id, table_id, column_name";
         String content = StatisticSQLBuilder.buildQueryFullStatisticsSQL(database.getId(), table.getId(),
                 Lists.newArrayList(kk1, kk2));
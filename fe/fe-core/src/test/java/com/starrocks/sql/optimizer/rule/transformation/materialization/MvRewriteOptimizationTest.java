@@ -27,6 +27,8 @@ import com.starrocks.scheduler.Task;
 import com.starrocks.scheduler.TaskBuilder;
 import com.starrocks.scheduler.TaskManager;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.MvPlanCache;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.plan.PlanTestBase;
 import com.starrocks.thrift.TExplainLevel;
 import com.starrocks.utframe.StarRocksAssert;
@@ -1337,6 +1339,81 @@ public class MvRewriteOptimizationTest {
         return s;
     }
 
+    @Test
+    public void testMvPlanCache() throws Exception {
+        starRocksAssert.withTable("create table plan_cache_emps (\n" +
+                "    empid int not null,\n" +
+                "    deptno int not null,\n" +
+                "    name varchar(25) not null\n" +
+                ")\n" +
+                "distributed by hash(`empid`) buckets 10\n" +
+                "properties (\n" +
+                "\"replication_num\" = \"1\"\n" +
+                ");");
+        createAndRefreshMv("test", "plan_cache_mv",
+                "create materialized view plan_cache_mv" +
+                        " distributed by hash(`empid`)" +
+                        " as" +
+                        " select empid, deptno, name from plan_cache_emps where empid < 5");
+        MaterializedView mv = getMv("test", "plan_cache_mv");
+        MvPlanCache.MvPlan mvPlan = MvPlanCache.getInstance().getOrOptimize(
+                mv, mv.getPartitionNamesToRefreshForMv(), connectContext);
+        Assert.assertNotNull(mvPlan.getPlan());
+        Assert.assertSame(mvPlan, MvPlanCache.getInstance().getOrOptimize(
+                mv, mv.getPartitionNamesToRefreshForMv(), connectContext));
+
+        String query = "select empid, deptno, name from plan_cache_emps where empid < 5";
+        PlanTestBase.assertContains(getFragmentPlan(query), "plan_cache_mv");
+        PlanTestBase.assertContains(getFragmentPlan(query), "plan_cache_mv");
+
+        // the plan is optimized again after the base table is changed
+        cluster.runSql("test", "insert into plan_cache_emps values(1, 1, \"emp_name\")");
+        refreshMaterializedView("test", "plan_cache_mv");
+        MvPlanCache.MvPlan newMvPlan = MvPlanCache.getInstance().getOrOptimize(
+                mv, mv.getPartitionNamesToRefreshForMv(), connectContext);
+        Assert.assertNotSame(mvPlan, newMvPlan);
+        PlanTestBase.assertContains(getFragmentPlan(query), "plan_cache_mv");
+
+        connectContext.getSessionVariable().setEnableMaterializedViewPlanCache(false);
+        Assert.assertNotSame(newMvPlan, MvPlanCache.getInstance().getOrOptimize(
+                mv, mv.getPartitionNamesToRefreshForMv(), connectContext));
+        connectContext.getSessionVariable().setEnableMaterializedViewPlanCache(true);
+        dropMv("test", "plan_cache_mv");
+        starRocksAssert.dropTable("plan_cache_emps");
+    }
+
+    private MvPlanSummary getPlanSummary(String sql) {
+        return MvPlanSummary.of(MvUtils.getRuleOptimizedLogicalPlan(sql, new ColumnRefFactory(), connectContext).first);
+    }
+
+    @Test
+    public void testMvPlanSummary() {
+        MvPlanSummary aggMv = getPlanSummary("select deptno, sum(salary), count(salary) from emps group by deptno");
+        MvPlanSummary spjMv = getPlanSummary("select empid, deptno, salary from emps where empid < 10");
+        MvPlanSummary joinMv = getPlanSummary("select emps.empid, depts.name from emps" +
+                " join depts on emps.deptno = depts.deptno");
+
+        MvPlanSummary aggQuery = getPlanSummary("select sum(salary) from emps where deptno = 1");
+        Assert.assertTrue(aggMv.mayRewrite(aggQuery));
+        Assert.assertFalse(spjMv.mayRewrite(aggQuery));
+        Assert.assertFalse(joinMv.mayRewrite(aggQuery));
+
+        // the aggregate function is not in the mv
+        Assert.assertFalse(aggMv.mayRewrite(getPlanSummary("select deptno, max(salary) from emps group by deptno")));
+        Assert.assertFalse(aggMv.mayRewrite(
+                getPlanSummary("select deptno, count(distinct salary) from emps group by deptno")));
+
+        MvPlanSummary spjQuery = getPlanSummary("select empid, salary from emps where empid < 5");
+        Assert.assertFalse(aggMv.mayRewrite(spjQuery));
+        Assert.assertTrue(spjMv.mayRewrite(spjQuery));
+        Assert.assertFalse(joinMv.mayRewrite(spjQuery));
+
+        Assert.assertTrue(joinMv.mayRewrite(getPlanSummary("select emps.empid from emps" +
+                " join depts on emps.deptno = depts.deptno where emps.empid = 1")));
+        Assert.assertFalse(joinMv.mayRewrite(getPlanSummary("select emps.empid from emps" +
+                " left join depts on emps.deptno = depts.deptno")));
+    }
+
     private Table getTable(String dbName, String mvName) {
         Database db = GlobalStateMgr.getCurrentState().getDb(dbName);
         Table table = db.getTable(mvName);
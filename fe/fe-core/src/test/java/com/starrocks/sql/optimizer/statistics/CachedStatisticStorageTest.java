@@ -17,6 +17,7 @@ package com.starrocks.sql.optimizer.statistics;
 
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Table;
@@ -239,4 +240,46 @@ public class CachedStatisticStorageTest {
         Assert.assertEquals(0, columnStatistic.getAverageRowSize(), 0.001);
         Assert.assertEquals(0, columnStatistic.getNullsFraction(), 0.001);
     }
+
+    @Test
+    public void testRefreshColumnStatistics() {
+        Database db = connectContext.getGlobalStateMgr().getDb("test");
+        OlapTable table = (OlapTable) db.getTable("t0");
+
+        TStatisticData statisticData = new TStatisticData();
+        statisticData.setDbId(db.getId());
+        statisticData.setTableId(table.getId());
+        statisticData.setColumnName("v1");
+        statisticData.setMax("123");
+        statisticData.setMin("0");
+        statisticData.setRowCount(1000);
+        statisticData.setCountDistinct(999);
+
+        new Expectations() {{
+                statisticExecutor.queryStatisticSync((ConnectContext) any, null, table.getId(), (List<String>) any);
+                result = Lists.newArrayList(statisticData);
+                minTimes = 0;
+            }};
+
+        CachedStatisticStorage cachedStatisticStorage = new CachedStatisticStorage();
+        cachedStatisticStorage.addColumnStatistic(table, "v1",
+                ColumnStatistic.builder().setDistinctValuesCount(888).build());
+        Assert.assertEquals(888, cachedStatisticStorage.getColumnStatistic(table, "v1").getDistinctValuesCount(),
+                0.001);
+
+        // the cached statistics are replaced by the loaded ones
+        connectContext.setThreadLocalInfo();
+        cachedStatisticStorage.refreshColumnStatistics(table, ImmutableList.of("v1"), true);
+        // the statistics are loaded in the cache executor, the session of the caller is kept
+        Assert.assertSame(connectContext, ConnectContext.get());
+        Assert.assertEquals(999, cachedStatisticStorage.getColumnStatistic(table, "v1").getDistinctValuesCount(),
+                0.001);
+
+        // nothing is due to be refreshed
+        Assert.assertEquals(0, cachedStatisticStorage.refreshAhead());
+
+        cachedStatisticStorage.warmUpColumnStatistics(table, ImmutableList.of("v2"));
+        Assert.assertTrue(cachedStatisticStorage.cachedStatistics.synchronous()
+                .getIfPresent(new ColumnStatsCacheKey(table.getId(), "v2")) != null);
+    }
 }
@@ -0,0 +1,135 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Type;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.InPredicateOperator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistogramEstimatorTest {
+    private final ColumnRefOperator v1 = new ColumnRefOperator(1, Type.BIGINT, "v1", true);
+    private final ColumnRefOperator v2 = new ColumnRefOperator(2, Type.BIGINT, "v2", true);
+
+    @Before
+    public void setUp() {
+        ConnectContext context = new ConnectContext();
+        context.getSessionVariable().setCboUseHistogramSelectivity(true);
+        context.setThreadLocalInfo();
+    }
+
+    @After
+    public void tearDown() {
+        ConnectContext.remove();
+    }
+
+    // 1000 rows, 400 of them are 5
+    private static ColumnStatistic skewedColumn() {
+        Histogram histogram = new Histogram(Lists.newArrayList(
+                new Bucket(1D, 10D, 200L, 20L),
+                new Bucket(11D, 20D, 400L, 20L),
+                new Bucket(21D, 30D, 600L, 100L)),
+                ImmutableMap.of("5", 400L));
+        return ColumnStatistic.builder().setMinValue(1).setMaxValue(30).setNullsFraction(0)
+                .setAverageRowSize(8).setDistinctValuesCount(31).setHistogram(histogram).build();
+    }
+
+    @Test
+    public void testEqualTo() {
+        ColumnStatistic column = skewedColumn();
+        Assert.assertEquals(0.4, HistogramEstimator.estimateEqualToSelectivity(column,
+                ConstantOperator.createBigint(5)), 0.0001);
+        // upper repeats of the first bucket
+        Assert.assertEquals(0.02, HistogramEstimator.estimateEqualToSelectivity(column,
+                ConstantOperator.createBigint(10)), 0.0001);
+        // 180 rows over 9 distinct values
+        Assert.assertEquals(0.02, HistogramEstimator.estimateEqualToSelectivity(column,
+                ConstantOperator.createBigint(15)), 0.0001);
+        Assert.assertEquals(0, HistogramEstimator.estimateEqualToSelectivity(column,
+                ConstantOperator.createBigint(0)), 0.0001);
+        Assert.assertEquals(0, HistogramEstimator.estimateEqualToSelectivity(column,
+                ConstantOperator.createBigint(50)), 0.0001);
+
+        Statistics statistics = Statistics.builder().setOutputRowCount(1000)
+                .addColumnStatistic(v1, column).build();
+        Statistics estimated = PredicateStatisticsCalculator.statisticsCalculate(new BinaryPredicateOperator(
+                BinaryPredicateOperator.BinaryType.EQ, v1, ConstantOperator.createBigint(5)), statistics);
+        Assert.assertEquals(400, estimated.getOutputRowCount(), 0.1);
+    }
+
+    @Test
+    public void testIn() {
+        Statistics statistics = Statistics.builder().setOutputRowCount(1000)
+                .addColumnStatistic(v1, skewedColumn()).build();
+
+        InPredicateOperator in = new InPredicateOperator(false, v1, ConstantOperator.createBigint(5),
+                ConstantOperator.createBigint(10), ConstantOperator.createBigint(50), ConstantOperator.createBigint(5));
+        Statistics estimated = PredicateStatisticsCalculator.statisticsCalculate(in, statistics);
+        Assert.assertEquals(420, estimated.getOutputRowCount(), 0.1);
+
+        InPredicateOperator notIn = new InPredicateOperator(true, v1, ConstantOperator.createBigint(5),
+                ConstantOperator.createBigint(10), ConstantOperator.createBigint(50));
+        estimated = PredicateStatisticsCalculator.statisticsCalculate(notIn, statistics);
+        Assert.assertEquals(580, estimated.getOutputRowCount(), 0.1);
+    }
+
+    @Test
+    public void testEqualToColumn() {
+        ColumnStatistic left = skewedColumn();
+        // 500 rows, the hot value is also in the mcv
+        ColumnStatistic right = ColumnStatistic.builder().setMinValue(5).setMaxValue(40).setNullsFraction(0)
+                .setAverageRowSize(8).setDistinctValuesCount(21)
+                .setHistogram(new Histogram(Lists.newArrayList(new Bucket(21D, 40D, 400L, 10L)),
+                        ImmutableMap.of("5", 100L)))
+                .build();
+        Statistics statistics = Statistics.builder().setOutputRowCount(1000 * 500)
+                .addColumnStatistic(v1, left).addColumnStatistic(v2, right).build();
+
+        // 400 * 100 for the mcv, 200 * (400 * 9 / 19) / 10 for bucket [21, 30]
+        Statistics estimated = BinaryPredicateStatisticCalculator.estimateColumnEqualToColumn(v1, left, v2, right,
+                statistics, false);
+        Assert.assertEquals(40000 + 200 * (400 * 9 / 19.0) / 10, estimated.getOutputRowCount(), 0.01);
+
+        // no overlap
+        ColumnStatistic disjoint = ColumnStatistic.builder().setMinValue(100).setMaxValue(300).setNullsFraction(0)
+                .setAverageRowSize(8).setDistinctValuesCount(21)
+                .setHistogram(new Histogram(Lists.newArrayList(new Bucket(200D, 300D, 100L, 10L)),
+                        ImmutableMap.of("100", 50L)))
+                .build();
+        estimated = BinaryPredicateStatisticCalculator.estimateColumnEqualToColumn(v1, left, v2, disjoint,
+                statistics, false);
+        Assert.assertEquals(0, estimated.getOutputRowCount(), 0.01);
+    }
+
+    @Test
+    public void testDisabled() {
+        ConnectContext.get().getSessionVariable().setCboUseHistogramSelectivity(false);
+        ColumnStatistic left = skewedColumn();
+        ColumnStatistic right = skewedColumn();
+        Statistics statistics = Statistics.builder().setOutputRowCount(1000 * 1000)
+                .addColumnStatistic(v1, left).addColumnStatistic(v2, right).build();
+        Statistics estimated = BinaryPredicateStatisticCalculator.estimateColumnEqualToColumn(v1, left, v2, right,
+                statistics, false);
+        Assert.assertEquals(1000 * 1000 / 31.0, estimated.getOutputRowCount(), 0.01);
+    }
+}
@@ -0,0 +1,70 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.sql.optimizer.task;
+
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.rule.Rule;
+import com.starrocks.sql.optimizer.rule.implementation.ImplementationRule;
+import com.starrocks.sql.optimizer.rule.transformation.TransformationRule;
+import com.starrocks.sql.plan.PlanTestBase;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelTaskSchedulerTest extends PlanTestBase {
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setCboEnableParallelExplore(false);
+    }
+
+    @Test
+    public void testPrepareImplementationRulesInParallel() throws Exception {
+        String sql = "select * from t0 join t1 on t0.v1 = t1.v4 join t2 on t1.v5 = t2.v7 where t0.v2 = 1";
+        connectContext.getSessionVariable().setCboEnableParallelExplore(false);
+        String serialPlan = getCostExplain(sql);
+
+        AtomicInteger parallelTransformations = new AtomicInteger(0);
+        AtomicInteger parallelImplementations = new AtomicInteger(0);
+        new MockUp<ApplyRuleTask>() {
+            @Mock
+            public ApplyRuleTask.PreparedResult prepare(Invocation invocation, OptimizerContext optimizerContext,
+                                                        GroupExpression groupExpression, Rule rule) {
+                if (Thread.currentThread().getName().startsWith("optimizer-explore-")) {
+                    if (rule instanceof TransformationRule) {
+                        parallelTransformations.incrementAndGet();
+                    } else if (rule instanceof ImplementationRule) {
+                        parallelImplementations.incrementAndGet();
+                    }
+                }
+                return invocation.proceed();
+            }
+        };
+
+        connectContext.getSessionVariable().setCboEnableParallelExplore(true);
+        String parallelPlan = getCostExplain(sql);
+        Assert.assertEquals(serialPlan, parallelPlan);
+        // the GroupExpressions are explored as inputs first, then implemented by their OptimizeGroupTasks
+        Assert.assertTrue(parallelTransformations.get() > 0);
+        Assert.assertTrue(parallelImplementations.get() > 0);
+    }
+}
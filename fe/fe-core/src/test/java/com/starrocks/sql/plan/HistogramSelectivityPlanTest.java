@@ -0,0 +1,147 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.statistics.Bucket;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.Histogram;
+import com.starrocks.sql.optimizer.statistics.StatisticStorage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * t0.v1 and t1.v4 are tenant ids of 1000 tenants, and the tenant 1 owns nearly half of the rows of both tables.
+ */
+public class HistogramSelectivityPlanTest extends PlanTestBase {
+    private static final int NUM_ROWS = 1000000;
+
+    private static class SkewedStatisticStorage implements StatisticStorage {
+        private final Map<String, ColumnStatistic> columnStatistics = Maps.newHashMap();
+        private final Map<String, Histogram> histograms = Maps.newHashMap();
+
+        private SkewedStatisticStorage() {
+            ColumnStatistic tenantId = new ColumnStatistic(1, 1000, 0, 8, 1000);
+            columnStatistics.put("v1", tenantId);
+            columnStatistics.put("v4", tenantId);
+            histograms.put("v1", new Histogram(Lists.newArrayList(
+                    new Bucket(2D, 500D, 250000L, 500L),
+                    new Bucket(501D, 1000D, 500000L, 500L)),
+                    ImmutableMap.of("1", 500000L)));
+            histograms.put("v4", new Histogram(Lists.newArrayList(
+                    new Bucket(2D, 500D, 300000L, 600L),
+                    new Bucket(501D, 1000D, 600000L, 600L)),
+                    ImmutableMap.of("1", 400000L)));
+        }
+
+        @Override
+        public ColumnStatistic getColumnStatistic(Table table, String column) {
+            return columnStatistics.getOrDefault(column, new ColumnStatistic(1, NUM_ROWS, 0, 8, NUM_ROWS));
+        }
+
+        @Override
+        public List<ColumnStatistic> getColumnStatistics(Table table, List<String> columns) {
+            return columns.stream().map(column -> getColumnStatistic(table, column)).collect(Collectors.toList());
+        }
+
+        @Override
+        public Map<String, Histogram> getHistogramStatistics(Table table, List<String> columns) {
+            Map<String, Histogram> result = Maps.newHashMap();
+            for (String column : columns) {
+                if (histograms.containsKey(column)) {
+                    result.put(column, histograms.get(column));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic) {
+        }
+    }
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        GlobalStateMgr globalStateMgr = connectContext.getGlobalStateMgr();
+        globalStateMgr.setStatisticStorage(new SkewedStatisticStorage());
+        setTableStatistics((OlapTable) globalStateMgr.getDb("test").getTable("t0"), NUM_ROWS);
+        setTableStatistics((OlapTable) globalStateMgr.getDb("test").getTable("t1"), NUM_ROWS);
+    }
+
+    @After
+    public void tearDown() {
+        connectContext.getSessionVariable().setCboUseHistogramSelectivity(false);
+    }
+
+    private static long getCardinality(String plan, String node) {
+        int index = plan.indexOf(node);
+        Assert.assertTrue(plan, index >= 0);
+        Matcher matcher = Pattern.compile("cardinality: (\\d+)").matcher(plan);
+        Assert.assertTrue(plan, matcher.find(index));
+        return Long.parseLong(matcher.group(1));
+    }
+
+    @Test
+    public void testJoinOnSkewedColumn() throws Exception {
+        String sql = "select * from t0 join t1 on v1 = v4";
+        long ndvCardinality = getCardinality(getCostExplain(sql), "HASH JOIN");
+        Assert.assertEquals(NUM_ROWS / 1000L * NUM_ROWS, ndvCardinality);
+
+        connectContext.getSessionVariable().setCboUseHistogramSelectivity(true);
+        long histogramCardinality = getCardinality(getCostExplain(sql), "HASH JOIN");
+        // the rows of tenant 1 dominate the output: 500000 * 400000
+        Assert.assertTrue(String.valueOf(histogramCardinality), histogramCardinality >= 200000L * NUM_ROWS);
+        Assert.assertTrue(String.valueOf(histogramCardinality), histogramCardinality < 210000L * NUM_ROWS);
+    }
+
+    @Test
+    public void testInOnSkewedColumn() throws Exception {
+        String sql = "select * from t0 where v1 in (1, 2)";
+        long ndvCardinality = getCardinality(getCostExplain(sql), "OlapScanNode");
+        Assert.assertEquals(2000, ndvCardinality);
+
+        connectContext.getSessionVariable().setCboUseHistogramSelectivity(true);
+        long histogramCardinality = getCardinality(getCostExplain(sql), "OlapScanNode");
+        Assert.assertTrue(String.valueOf(histogramCardinality), histogramCardinality > 500000);
+        Assert.assertTrue(String.valueOf(histogramCardinality), histogramCardinality < 501000);
+
+        // tenant 1 is excluded
+        sql = "select * from t0 where v1 not in (1)";
+        histogramCardinality = getCardinality(getCostExplain(sql), "OlapScanNode");
+        Assert.assertEquals(500000, histogramCardinality);
+    }
+
+    @Test
+    public void testEqualToNotInHistogram() throws Exception {
+        connectContext.getSessionVariable().setCboUseHistogramSelectivity(true);
+        String sql = "select * from t0 where v1 = 5000";
+        // out of the range of the histogram, estimated as one row
+        Assert.assertEquals(1, getCardinality(getCostExplain(sql), "OlapScanNode"));
+    }
+}
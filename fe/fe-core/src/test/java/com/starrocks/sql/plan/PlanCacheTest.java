@@ -0,0 +1,276 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.Coordinator;
+import com.starrocks.qe.GlobalVariable;
+import com.starrocks.qe.PrepareStmtContext;
+import com.starrocks.qe.QueryQueueManager;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.ast.UserVariable;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.statistic.BasicStatsMeta;
+import com.starrocks.statistic.StatsConstants;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class PlanCacheTest extends PlanTestBase {
+
+    @Before
+    public void before() {
+        PlanCache.getInstance().invalidateAll();
+        connectContext.getSessionVariable().setEnablePlanCache(true);
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        PlanCache.getInstance().invalidateAll();
+    }
+
+    @Test
+    public void testRebindLiterals() throws Exception {
+        ExecPlan plan1 = getExecPlan("select v1 from t0 where v2 = 1 and v3 > 10");
+        assertContains(plan1.getExplainString(TExplainLevel.NORMAL), "PREDICATES: 2: v2 = 1, 3: v3 > 10");
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+
+        ExecPlan plan2 = getExecPlan("select v1 from t0 where v2 = 2 and v3 > 20");
+        assertContains(plan2.getExplainString(TExplainLevel.NORMAL), "PREDICATES: 2: v2 = 2, 3: v3 > 20");
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testRebindCastLiterals() throws Exception {
+        ExecPlan plan1 = getExecPlan("select v1 from t0 where v2 = '1'");
+        ExecPlan plan2 = getExecPlan("select v1 from t0 where v2 = '2'");
+        assertContains(plan2.getExplainString(TExplainLevel.NORMAL), "PREDICATES: 2: v2 = 2");
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+    }
+
+    @Test
+    public void testFoldedLiteralsNotRebound() throws Exception {
+        ExecPlan plan1 = getExecPlan("select v1 from t0 where v2 = 1 + 1");
+        ExecPlan plan2 = getExecPlan("select v1 from t0 where v2 = 1 + 2");
+        assertContains(plan2.getExplainString(TExplainLevel.NORMAL), "PREDICATES: 2: v2 = 3");
+        Assert.assertNotSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+
+        ExecPlan plan3 = getExecPlan("select v1 from t0 where v2 = 1 + 2");
+        Assert.assertSame(plan2.getPhysicalPlan(), plan3.getPhysicalPlan());
+    }
+
+    @Test
+    public void testLimitInDigest() throws Exception {
+        getExecPlan("select v1 from t0 limit 1");
+        ExecPlan plan = getExecPlan("select v1 from t0 limit 2");
+        assertContains(plan.getExplainString(TExplainLevel.NORMAL), "limit: 2");
+        Assert.assertEquals(2, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testVolatileFunctionNotCached() throws Exception {
+        getExecPlan("select v1, rand() from t0");
+        getExecPlan("select v1 from t0 where v2 > uuid_numeric()");
+        Assert.assertEquals(0, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testSessionVariableInKey() throws Exception {
+        ExecPlan plan1 = getExecPlan("select v1 from t0 where v2 = 1");
+        int dop = connectContext.getSessionVariable().getPipelineDop();
+        try {
+            connectContext.getSessionVariable().setPipelineDop(dop + 1);
+            ExecPlan plan2 = getExecPlan("select v1 from t0 where v2 = 1");
+            Assert.assertNotSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+        } finally {
+            connectContext.getSessionVariable().setPipelineDop(dop);
+        }
+    }
+
+    @Test
+    public void testEqualLiteralsNotRebound() throws Exception {
+        ExecPlan plan1 = getExecPlan("select v1 from t0 where v2 = 1 and v3 = 1");
+        ExecPlan plan2 = getExecPlan("select v1 from t0 where v2 = 2 and v3 = 3");
+        assertContains(plan2.getExplainString(TExplainLevel.NORMAL), "PREDICATES: 2: v2 = 2, 3: v3 = 3");
+        Assert.assertNotSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+    }
+
+    @Test
+    public void testRebindProjection() throws Exception {
+        ExecPlan plan1 = getExecPlan("select v1 + 1 from t0 where v2 = 2");
+        ExecPlan plan2 = getExecPlan("select v1 + 3 from t0 where v2 = 4");
+        assertContains(plan2.getExplainString(TExplainLevel.NORMAL), "1: v1 + 3", "PREDICATES: 2: v2 = 4");
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+
+        ExecPlan plan3 = getExecPlan("select v1 + 1 from t0 where v2 = 2");
+        assertContains(plan3.getExplainString(TExplainLevel.NORMAL), "1: v1 + 1", "PREDICATES: 2: v2 = 2");
+    }
+
+    @Test
+    public void testStatisticsVersionInKey() throws Exception {
+        ExecPlan plan1 = getExecPlan("select v1 from t0 where v2 = 1");
+        ExecPlan plan2 = getExecPlan("select v1 from t0 where v2 = 1");
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        OlapTable t0 = (OlapTable) db.getTable("t0");
+        BasicStatsMeta basicStatsMeta = new BasicStatsMeta(db.getId(), t0.getId(), null,
+                StatsConstants.AnalyzeType.FULL, LocalDateTime.now(), Maps.newHashMap());
+        GlobalStateMgr.getCurrentAnalyzeMgr().replayAddBasicStatsMeta(basicStatsMeta);
+        try {
+            ExecPlan plan3 = getExecPlan("select v1 from t0 where v2 = 1");
+            Assert.assertNotSame(plan1.getPhysicalPlan(), plan3.getPhysicalPlan());
+        } finally {
+            GlobalStateMgr.getCurrentAnalyzeMgr().getBasicStatsMetaMap().remove(t0.getId());
+        }
+    }
+
+    private ConnectContext createSession(int connectionId) {
+        ConnectContext session = UtFrameUtils.createDefaultCtx();
+        session.setDatabase(connectContext.getDatabase());
+        session.setConnectionId(connectionId);
+        session.getSessionVariable().setEnablePlanCache(true);
+        return session;
+    }
+
+    private void setUserVariable(ConnectContext session, String name, long value) {
+        UserVariable userVariable = new UserVariable(name, new IntLiteral(value));
+        userVariable.setResolvedExpression(new IntLiteral(value));
+        session.modifyUserVariable(userVariable);
+    }
+
+    @Test
+    public void testSessionDependentExprNotCached() throws Exception {
+        getExecPlan("select v1, current_user() from t0");
+        getExecPlan("select v1, user() from t0 where v2 = 1");
+        getExecPlan("select v1, database() from t0 where v2 = 1");
+        Assert.assertEquals(0, PlanCache.getInstance().size());
+
+        ConnectContext session1 = createSession(1);
+        ConnectContext session2 = createSession(2);
+        setUserVariable(session1, "v", 1);
+        setUserVariable(session2, "v", 2);
+        try {
+            session1.setThreadLocalInfo();
+            String plan1 = UtFrameUtils.getFragmentPlan(session1, "select v1 from t0 where v2 = connection_id()");
+            assertContains(plan1, "2: v2 = 1");
+            session2.setThreadLocalInfo();
+            String plan2 = UtFrameUtils.getFragmentPlan(session2, "select v1 from t0 where v2 = connection_id()");
+            assertContains(plan2, "2: v2 = 2");
+
+            session1.setThreadLocalInfo();
+            plan1 = UtFrameUtils.getFragmentPlan(session1, "select v1 from t0 where v3 = @v");
+            assertContains(plan1, "3: v3 = 1");
+            session2.setThreadLocalInfo();
+            plan2 = UtFrameUtils.getFragmentPlan(session2, "select v1 from t0 where v3 = @v");
+            assertContains(plan2, "3: v3 = 2");
+            Assert.assertEquals(0, PlanCache.getInstance().size());
+        } finally {
+            connectContext.setThreadLocalInfo();
+        }
+    }
+
+    private String executePrepared(PrepareStmtContext context, List<Parameter> parameters, long value) {
+        parameters.get(0).setValue(new IntLiteral(value));
+        return StatementPlanner.plan(context, connectContext).getExplainString(TExplainLevel.NORMAL);
+    }
+
+    @Test
+    public void testPreparedStmtPlanCache() {
+        String sql = "select v1 from t0 where v2 = ? and v3 = @v";
+        List<Parameter> parameters = Lists.newArrayList();
+        StatementBase stmt = SqlParser.parsePrepareStatement(sql, connectContext.getSessionVariable(), parameters);
+        PrepareStmtContext context = new PrepareStmtContext(1, sql, stmt, parameters);
+        try {
+            // the plans of prepared statements are not cached if enable_plan_cache is not set
+            connectContext.getSessionVariable().setEnablePlanCache(false);
+            setUserVariable(connectContext, "v", 1);
+            assertContains(executePrepared(context, parameters, 10), "PREDICATES: 2: v2 = 10, 3: v3 = 1");
+            setUserVariable(connectContext, "v", 2);
+            assertContains(executePrepared(context, parameters, 20), "PREDICATES: 2: v2 = 20, 3: v3 = 2");
+            Assert.assertEquals(0, connectContext.getPreparedPlanCache().size());
+
+            // the user variable is evaluated by every execution if enable_plan_cache is set
+            connectContext.getSessionVariable().setEnablePlanCache(true);
+            setUserVariable(connectContext, "v", 3);
+            assertContains(executePrepared(context, parameters, 30), "PREDICATES: 2: v2 = 30, 3: v3 = 3");
+            setUserVariable(connectContext, "v", 4);
+            assertContains(executePrepared(context, parameters, 40), "PREDICATES: 2: v2 = 40, 3: v3 = 4");
+            Assert.assertEquals(0, connectContext.getPreparedPlanCache().size());
+        } finally {
+            connectContext.clearPrepareStmts();
+        }
+    }
+
+    @Test
+    public void testQueueSlotsOfCachedPlan(@Mocked Coordinator coordinator) throws Exception {
+        String sql = "select * from t0 join t1 on t0.v1 = t1.v4 where t0.v2 = 1";
+        connectContext.getAuditEventBuilder().reset();
+        ExecPlan plan1 = getExecPlan(sql);
+        double memCosts = connectContext.getAuditEventBuilder().build().planMemCosts;
+        Assert.assertTrue(memCosts > 0);
+
+        // the costs of the cached plan are restored, which is not optimized again
+        connectContext.getAuditEventBuilder().reset();
+        ExecPlan plan2 = getExecPlan(sql.replace("t0.v2 = 1", "t0.v2 = 2"));
+        Assert.assertSame(plan1.getPhysicalPlan(), plan2.getPhysicalPlan());
+        Assert.assertEquals(memCosts, connectContext.getAuditEventBuilder().build().planMemCosts, 0);
+
+        QueryQueueManager manager = QueryQueueManager.getInstance();
+        new Expectations(manager) {
+            {
+                manager.needCheckQueue((Coordinator) any);
+                result = true;
+                manager.enableCheckQueue((Coordinator) any);
+                result = true;
+                manager.canRunMore();
+                result = true;
+            }
+        };
+        long slotMemBytes = GlobalVariable.getQueryQueueSlotMemBytes();
+        GlobalVariable.setQueryQueueSlotMemBytes(1);
+        try {
+            manager.maybeWait(connectContext, coordinator);
+        } finally {
+            GlobalVariable.setQueryQueueSlotMemBytes(slotMemBytes);
+        }
+        new Verifications() {
+            {
+                coordinator.setQueueSlots((int) Math.min(Math.ceil(memCosts), Integer.MAX_VALUE));
+                times = 1;
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.starrocks.sql.plan;
+
+import com.google.common.base.Stopwatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class TPCDSParallelExploreTest extends TPCDS1TTestBase {
+
+    @AfterEach
+    public void after() {
+        connectContext.getSessionVariable().setCboEnableParallelExplore(false);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("tpcdsQueries")
+    public void testSamePlanAsSerial(String name) throws Exception {
+        String sql = getTPCDS(name);
+
+        connectContext.getSessionVariable().setCboEnableParallelExplore(false);
+        Stopwatch watch = Stopwatch.createStarted();
+        String serialPlan = getCostExplain(sql);
+        long serialTime = watch.elapsed(TimeUnit.MILLISECONDS);
+
+        connectContext.getSessionVariable().setCboEnableParallelExplore(true);
+        watch.reset().start();
+        String parallelPlan = getCostExplain(sql);
+        long parallelTime = watch.elapsed(TimeUnit.MILLISECONDS);
+
+        System.out.printf("%-10s serial: %6d ms, parallel: %6d ms%n", name, serialTime, parallelTime);
+        Assertions.assertEquals(serialPlan, parallelPlan);
+    }
+
+    private static Stream<Arguments> tpcdsQueries() {
+        return Stream.of("Q04", "Q11", "Q17", "Q24_1", "Q25", "Q29", "Q47", "Q57", "Q64", "Q72", "Q74", "Q85")
+                .map(Arguments::of);
+    }
+}
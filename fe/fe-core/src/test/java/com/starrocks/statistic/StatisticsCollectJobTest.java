@@ -21,9 +21,19 @@ import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
+import com.starrocks.common.Status;
 import com.starrocks.common.jmockit.Deencapsulation;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.StmtExecutor;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.thrift.TResultBatch;
+import com.starrocks.thrift.TStatisticData;
+import mockit.Mock;
+import mockit.MockUp;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -438,4 +448,148 @@ public class StatisticsCollectJobTest extends PlanTestBase {
         collectSqlList = collectJob.buildCollectSQLList(1);
         Assert.assertEquals(50, collectSqlList.size());
     }
+
+    @Test
+    public void testCollectOutdatedPartitions() {
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        OlapTable table = (OlapTable) db.getTable("t0_stats_partition");
+        List<Partition> partitions = Lists.newArrayList(table.getPartitions());
+        Map<Long, Long> partitionVersions = new HashMap<>();
+        for (Partition partition : partitions) {
+            partition.updateVisibleVersion(2);
+            partition.getBaseIndex().setRowCount(100);
+            partitionVersions.put(partition.getId(), 2L);
+        }
+        // p1 is loaded after the statistics are collected
+        Partition p1 = table.getPartition("p1");
+        p1.updateVisibleVersion(3);
+
+        BasicStatsMeta basicStatsMeta = new BasicStatsMeta(db.getId(), table.getId(), null,
+                StatsConstants.AnalyzeType.FULL,
+                LocalDateTime.of(2020, 1, 1, 1, 1, 1), Maps.newHashMap());
+        basicStatsMeta.setPartitionVersions(partitionVersions);
+        basicStatsMeta.increaseUpdateRows(1000L);
+        GlobalStateMgr.getCurrentAnalyzeMgr().addBasicStatsMeta(basicStatsMeta);
+
+        List<StatisticsCollectJob> jobs = StatisticsCollectJobFactory.buildStatisticsCollectJob(
+                new AnalyzeJob(db.getId(), table.getId(), null,
+                        StatsConstants.AnalyzeType.FULL, StatsConstants.ScheduleType.SCHEDULE,
+                        Maps.newHashMap(),
+                        StatsConstants.ScheduleStatus.PENDING,
+                        LocalDateTime.MIN));
+        Assert.assertEquals(1, jobs.size());
+        Assert.assertTrue(jobs.get(0) instanceof FullStatisticsCollectJob);
+        FullStatisticsCollectJob collectJob = (FullStatisticsCollectJob) jobs.get(0);
+        Assert.assertEquals(Lists.newArrayList(p1.getId()), collectJob.getPartitionIdList());
+
+        Map<Long, Long> collectedVersions = collectJob.getCollectedPartitionVersions(basicStatsMeta);
+        Assert.assertEquals(partitions.size(), collectedVersions.size());
+        Assert.assertEquals(3L, (long) collectedVersions.get(p1.getId()));
+
+        // the partition is still outdated if only some columns are collected
+        FullStatisticsCollectJob columnJob = new FullStatisticsCollectJob(db, table, Lists.newArrayList(p1.getId()),
+                Lists.newArrayList("v2"),
+                StatsConstants.AnalyzeType.FULL,
+                StatsConstants.ScheduleType.SCHEDULE,
+                Maps.newHashMap());
+        Assert.assertEquals(2L, (long) columnJob.getCollectedPartitionVersions(basicStatsMeta).get(p1.getId()));
+
+        GlobalStateMgr.getCurrentAnalyzeMgr().getBasicStatsMetaMap().remove(table.getId());
+    }
+
+    @Test
+    public void testMergeFullStatisticsSQL() {
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        OlapTable table = (OlapTable) db.getTable("t0_stats_partition");
+        FullStatisticsCollectJob collectJob = new FullStatisticsCollectJob(db, table,
+                Lists.newArrayList(table.getPartition("p1").getId()),
+                Lists.newArrayList("v2"),
+                StatsConstants.AnalyzeType.FULL,
+                StatsConstants.ScheduleType.SCHEDULE,
+                Maps.newHashMap());
+
+        // all the columns are merged
+        String mergeSQL = collectJob.buildMergeFullStatisticSQL();
+        Assert.assertEquals(5, StringUtils.countMatches(mergeSQL, "hll_union(ndv)"));
+        assertContains(mergeSQL, "partition_id != -1 AND column_name = 'v4'",
+                "CAST(MAX(CAST(max AS DATE)) AS STRING)");
+
+        String dropSQL = StatisticSQLBuilder.buildDropPartitionStatisticsSQL(table.getId(),
+                Lists.newArrayList(1L, 2L));
+        Assert.assertTrue(dropSQL, dropSQL.endsWith("PARTITION_ID NOT IN (-1, 1, 2)"));
+
+        String querySQL = StatisticSQLBuilder.buildQueryMergedFullStatisticsSQL(table.getId(),
+                Lists.newArrayList("v1", "v2"));
+        assertContains(querySQL, "partition_id = -1 and column_name in ('v1', 'v2')");
+    }
+
+    @Test
+    public void testReadMergedFullStatistics() throws Exception {
+        if (GlobalStateMgr.getCurrentState().getDb(StatsConstants.STATISTICS_DB_NAME) == null) {
+            starRocksAssert.withDatabaseWithoutAnalyze(StatsConstants.STATISTICS_DB_NAME);
+        }
+        String currentDb = connectContext.getDatabase();
+        starRocksAssert.useDatabase(StatsConstants.STATISTICS_DB_NAME);
+        starRocksAssert.withTable("CREATE TABLE IF NOT EXISTS `column_statistics` (\n" +
+                "  `table_id` bigint NOT NULL,\n" +
+                "  `partition_id` bigint NOT NULL,\n" +
+                "  `column_name` varchar(65530) NOT NULL,\n" +
+                "  `db_id` bigint NOT NULL,\n" +
+                "  `table_name` varchar(65530) NOT NULL,\n" +
+                "  `partition_name` varchar(65530) NOT NULL,\n" +
+                "  `row_count` bigint NOT NULL,\n" +
+                "  `data_size` bigint NOT NULL,\n" +
+                "  `ndv` hll NOT NULL,\n" +
+                "  `null_count` bigint NOT NULL,\n" +
+                "  `max` varchar(65530) NOT NULL,\n" +
+                "  `min` varchar(65530) NOT NULL,\n" +
+                "  `update_time` datetime NOT NULL\n" +
+                ") ENGINE=OLAP\n" +
+                "PRIMARY KEY(`table_id`, `partition_id`, `column_name`)\n" +
+                "DISTRIBUTED BY HASH(`table_id`, `partition_id`, `column_name`) BUCKETS 2\n" +
+                "PROPERTIES (\"replication_num\" = \"1\");");
+
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        OlapTable table = (OlapTable) db.getTable("t0_stats_partition");
+        FullStatisticsCollectJob collectJob = new FullStatisticsCollectJob(db, table,
+                Lists.newArrayList(table.getPartition("p1").getId()),
+                Lists.newArrayList("v2"),
+                StatsConstants.AnalyzeType.FULL,
+                StatsConstants.ScheduleType.SCHEDULE,
+                Maps.newHashMap());
+        try {
+            // the partition rows are merged into the table level row of partition_id = -1
+            String mergePlan = getFragmentPlan(collectJob.buildMergeFullStatisticSQL());
+            assertContains(mergePlan, "OLAP TABLE SINK", "partition_id != -1", "hll_union");
+        } finally {
+            starRocksAssert.useDatabase(currentDb);
+        }
+
+        BasicStatsMeta basicStatsMeta = new BasicStatsMeta(db.getId(), table.getId(), null,
+                StatsConstants.AnalyzeType.FULL,
+                LocalDateTime.of(2020, 1, 1, 1, 1, 1), Maps.newHashMap());
+        basicStatsMeta.setPartitionVersions(Maps.newHashMap());
+        GlobalStateMgr.getCurrentAnalyzeMgr().addBasicStatsMeta(basicStatsMeta);
+
+        List<String> queryPlans = Lists.newArrayList();
+        new MockUp<StmtExecutor>() {
+            @Mock
+            public Pair<List<TResultBatch>, Status> executeStmtWithExecPlan(ConnectContext context, ExecPlan plan) {
+                queryPlans.add(plan.getExplainString(TExplainLevel.NORMAL));
+                return Pair.create(Lists.newArrayList(), new Status());
+            }
+        };
+        try {
+            // the cache reads the table level row back without merging the partition rows again
+            List<TStatisticData> stats = new StatisticExecutor().queryStatisticSync(
+                    StatisticUtils.buildConnectContext(), db.getId(), table.getId(), Lists.newArrayList("v1", "v2"));
+            Assert.assertTrue(stats.isEmpty());
+            Assert.assertEquals(1, queryPlans.size());
+            assertContains(queryPlans.get(0), "partition_id = -1", "hll_cardinality");
+            assertNotContains(queryPlans.get(0), "AGGREGATE");
+        } finally {
+            connectContext.setThreadLocalInfo();
+            GlobalStateMgr.getCurrentAnalyzeMgr().getBasicStatsMetaMap().remove(table.getId());
+        }
+    }
 }
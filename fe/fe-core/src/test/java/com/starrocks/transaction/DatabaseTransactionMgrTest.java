@@ -55,6 +55,8 @@ import org.junit.rules.ExpectedException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -294,4 +296,106 @@ public class DatabaseTransactionMgrTest {
         assertEquals(3, masterDbTransMgr.getTransactionNum());
         assertNull(masterDbTransMgr.unprotectedGetTxnIdsByLabel(GlobalStateMgrTestUtil.testTxnLable1));
     }
+
+    private void beginConcurrently(DatabaseTransactionMgr dbTransMgr, int threadNum, boolean sameLabel,
+                                   AtomicInteger succeeded, AtomicInteger rejected) throws InterruptedException {
+        TransactionState.TxnCoordinator beTransactionSource =
+                new TransactionState.TxnCoordinator(TransactionState.TxnSourceType.BE, "be1");
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < threadNum; i++) {
+            String label = sameLabel ? "concurrent_label" : "concurrent_label_" + i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    dbTransMgr.beginTransaction(Lists.newArrayList(GlobalStateMgrTestUtil.testTableId1), label, null,
+                            beTransactionSource, TransactionState.LoadJobSourceType.BACKEND_STREAMING, -1,
+                            Config.stream_load_default_timeout_second);
+                    succeeded.incrementAndGet();
+                } catch (LabelAlreadyUsedException | BeginTransactionException e) {
+                    rejected.incrementAndGet();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    public void testConcurrentBeginWithSameLabel() throws InterruptedException {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        AtomicInteger succeeded = new AtomicInteger(0);
+        AtomicInteger rejected = new AtomicInteger(0);
+        beginConcurrently(masterDbTransMgr, 16, true, succeeded, rejected);
+
+        assertEquals(1, succeeded.get());
+        assertEquals(15, rejected.get());
+        assertEquals(1, masterDbTransMgr.unprotectedGetTxnIdsByLabel("concurrent_label").size());
+        assertEquals(TransactionStatus.PREPARE, masterDbTransMgr.getLabelState("concurrent_label"));
+        assertEquals(3, masterDbTransMgr.getRunningTxnNums());
+    }
+
+    @Test
+    public void testConcurrentBeginWithinLimit() throws InterruptedException {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        int oldLimit = Config.max_running_txn_num_per_db;
+        // 2 txns are running already
+        Config.max_running_txn_num_per_db = 7;
+        try {
+            AtomicInteger succeeded = new AtomicInteger(0);
+            AtomicInteger rejected = new AtomicInteger(0);
+            beginConcurrently(masterDbTransMgr, 32, false, succeeded, rejected);
+
+            assertEquals(5, succeeded.get());
+            assertEquals(27, rejected.get());
+            assertEquals(7, masterDbTransMgr.getRunningTxnNums());
+            assertEquals(9, masterDbTransMgr.getTransactionNum());
+        } finally {
+            Config.max_running_txn_num_per_db = oldLimit;
+        }
+    }
+
+    @Test
+    public void testConcurrentBeginAndRemoveExpiredTxns() throws Exception {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        TransactionState.TxnCoordinator beTransactionSource =
+                new TransactionState.TxnCoordinator(TransactionState.TxnSourceType.BE, "be1");
+        Config.label_keep_max_second = -1;
+        for (int i = 0; i < 200; i++) {
+            String label = "expired_label_" + i;
+            long txnId = masterDbTransMgr.beginTransaction(Lists.newArrayList(GlobalStateMgrTestUtil.testTableId1),
+                    label, null, beTransactionSource, TransactionState.LoadJobSourceType.BACKEND_STREAMING, -1,
+                    Config.stream_load_default_timeout_second);
+            masterDbTransMgr.abortTransaction(txnId, "test abort transaction", null);
+
+            // the aborted txn is removed while the label is reused
+            CountDownLatch start = new CountDownLatch(1);
+            Thread remover = new Thread(() -> {
+                try {
+                    start.await();
+                    masterDbTransMgr.removeExpiredTxns(System.currentTimeMillis());
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            remover.start();
+            start.countDown();
+            long newTxnId = masterDbTransMgr.beginTransaction(Lists.newArrayList(GlobalStateMgrTestUtil.testTableId1),
+                    label, null, beTransactionSource, TransactionState.LoadJobSourceType.BACKEND_STREAMING, -1,
+                    Config.stream_load_default_timeout_second);
+            remover.join();
+
+            assertEquals(TransactionStatus.PREPARE, masterDbTransMgr.getLabelState(label));
+            masterDbTransMgr.abortTransaction(newTxnId, "test abort transaction", null);
+        }
+        masterDbTransMgr.removeExpiredTxns(System.currentTimeMillis());
+        assertEquals(0, masterDbTransMgr.getFinishedTxnNums());
+        assertEquals(2, masterDbTransMgr.getRunningTxnNums());
+    }
 }
@@ -0,0 +1,252 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.transaction;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.AggregateType;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.DistributionInfo;
+import com.starrocks.catalog.HashDistributionInfo;
+import com.starrocks.catalog.KeysType;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionInfo;
+import com.starrocks.catalog.SinglePartitionInfo;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.catalog.TabletMeta;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.Config;
+import com.starrocks.lake.LakeTable;
+import com.starrocks.lake.LakeTablet;
+import com.starrocks.lake.Utils;
+import com.starrocks.rpc.RpcException;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.thrift.TStorageMedium;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PublishVersionDaemonTest {
+    private static final long DB_ID = 1L;
+    private static final long TABLE_ID = 2L;
+    private static final long PARTITION_ID = 3L;
+    private static final long INDEX_ID = 4L;
+
+    private boolean enablePublishOnCommit;
+    private boolean enableMergePublish;
+
+    @Before
+    public void setUp() {
+        enablePublishOnCommit = Config.enable_publish_version_on_commit;
+        enableMergePublish = Config.enable_lake_merge_publish_version;
+        Config.enable_publish_version_on_commit = true;
+    }
+
+    @After
+    public void tearDown() {
+        Config.enable_publish_version_on_commit = enablePublishOnCommit;
+        Config.enable_lake_merge_publish_version = enableMergePublish;
+    }
+
+    @Test
+    public void testWakeupBeforeWait() throws InterruptedException {
+        PublishVersionDaemon daemon = new PublishVersionDaemon();
+        daemon.setInterval(60 * 1000L);
+        // the wakeup comes while a cycle is running, the next wait should not block
+        daemon.wakeup();
+        long startMs = System.currentTimeMillis();
+        daemon.waitForNextCycle();
+        Assert.assertTrue(System.currentTimeMillis() - startMs < 30 * 1000L);
+    }
+
+    @Test
+    public void testWakeupDuringWait() throws InterruptedException {
+        PublishVersionDaemon daemon = new PublishVersionDaemon();
+        daemon.setInterval(60 * 1000L);
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                daemon.waitForNextCycle();
+                finished.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        Assert.assertFalse(finished.await(200, TimeUnit.MILLISECONDS));
+        daemon.wakeup();
+        Assert.assertTrue(finished.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPollWhenDisabled() throws InterruptedException {
+        Config.enable_publish_version_on_commit = false;
+        PublishVersionDaemon daemon = new PublishVersionDaemon();
+        daemon.setInterval(10L);
+        daemon.wakeup();
+        long startMs = System.currentTimeMillis();
+        daemon.waitForNextCycle();
+        Assert.assertTrue(System.currentTimeMillis() - startMs >= 10L);
+    }
+
+    @Test
+    public void testNoBatchWindowWithoutWakeup() throws InterruptedException {
+        int batchWindowMs = Config.publish_version_batch_window_ms;
+        Config.publish_version_batch_window_ms = 60 * 1000;
+        try {
+            PublishVersionDaemon daemon = new PublishVersionDaemon();
+            daemon.setInterval(10L);
+            // nothing is committed, the poll doesn't wait for the batch window
+            long startMs = System.currentTimeMillis();
+            daemon.waitForNextCycle();
+            Assert.assertTrue(System.currentTimeMillis() - startMs < 30 * 1000L);
+        } finally {
+            Config.publish_version_batch_window_ms = batchWindowMs;
+        }
+    }
+
+    private static Partition mockLakePartition() {
+        List<Column> columns = Lists.newArrayList();
+        Column k1 = new Column("k1", Type.INT, true, null, "", "");
+        columns.add(k1);
+        columns.add(new Column("v", Type.BIGINT, false, AggregateType.SUM, "0", ""));
+
+        MaterializedIndex index = new MaterializedIndex(INDEX_ID, MaterializedIndex.IndexState.NORMAL);
+        TabletMeta tabletMeta = new TabletMeta(DB_ID, TABLE_ID, PARTITION_ID, INDEX_ID, 0, TStorageMedium.HDD, true);
+        index.addTablet(new LakeTablet(10L), tabletMeta);
+        index.addTablet(new LakeTablet(11L), tabletMeta);
+        DistributionInfo distributionInfo = new HashDistributionInfo(2, Lists.newArrayList(k1));
+        PartitionInfo partitionInfo = new SinglePartitionInfo();
+        Partition partition = new Partition(PARTITION_ID, "p1", index, distributionInfo);
+
+        LakeTable table = new LakeTable(TABLE_ID, "t1", columns, KeysType.AGG_KEYS, partitionInfo, distributionInfo);
+        table.addPartition(partition);
+        Database db = new Database(DB_ID, "db1");
+        db.createTable(table);
+        new MockUp<GlobalStateMgr>() {
+            @Mock
+            public Database getDb(long dbId) {
+                return dbId == DB_ID ? db : null;
+            }
+        };
+        return partition;
+    }
+
+    private static TransactionState makeCommittedTxn(long txnId, long version) {
+        TransactionState txnState = new TransactionState(DB_ID, Lists.newArrayList(TABLE_ID), txnId, "label" + txnId,
+                null, TransactionState.LoadJobSourceType.BACKEND_STREAMING,
+                new TransactionState.TxnCoordinator(TransactionState.TxnSourceType.FE, "127.0.0.1"), -1, 60000);
+        TableCommitInfo tableCommitInfo = new TableCommitInfo(TABLE_ID);
+        tableCommitInfo.addPartitionCommitInfo(new PartitionCommitInfo(PARTITION_ID, version, 0));
+        txnState.putIdToTableCommitInfo(TABLE_ID, tableCommitInfo);
+        txnState.setTransactionStatus(TransactionStatus.COMMITTED);
+        return txnState;
+    }
+
+    private static void mockFinishTransaction(Partition partition, List<TransactionState> txns) {
+        new MockUp<GlobalTransactionMgr>() {
+            @Mock
+            public void finishTransaction(long dbId, long transactionId, Set<Long> errorReplicaIds) {
+                for (TransactionState txnState : txns) {
+                    if (txnState.getTransactionId() == transactionId) {
+                        long version = txnState.getTableCommitInfo(TABLE_ID)
+                                .getPartitionCommitInfo(PARTITION_ID).getVersion();
+                        if (partition.getVisibleVersion() + 1 == version) {
+                            partition.setVisibleVersion(version, System.currentTimeMillis());
+                            txnState.setTransactionStatus(TransactionStatus.VISIBLE);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testMergePublishLakeTransactions() throws Exception {
+        Config.enable_lake_merge_publish_version = true;
+        Partition partition = mockLakePartition();
+        // txn 14 is not the next version of txn 13, it has to wait
+        List<TransactionState> txns = Lists.newArrayList(
+                makeCommittedTxn(12, 3), makeCommittedTxn(11, 2), makeCommittedTxn(13, 4), makeCommittedTxn(14, 6));
+        mockFinishTransaction(partition, txns);
+        List<List<Long>> publishedTxnIds = Lists.newArrayList();
+        new MockUp<Utils>() {
+            @Mock
+            public void publishVersion(List<Tablet> tablets, List<Long> txnIds, long baseVersion, long newVersion,
+                                       Map<Long, Double> compactionScores) {
+                Assert.assertEquals(2, tablets.size());
+                Assert.assertEquals(txnIds.size(), newVersion - baseVersion);
+                publishedTxnIds.add(txnIds);
+            }
+        };
+
+        new PublishVersionDaemon().publishVersionForLakeTable(txns);
+        Assert.assertEquals(1, publishedTxnIds.size());
+        Assert.assertEquals(Lists.newArrayList(11L, 12L, 13L), publishedTxnIds.get(0));
+        Assert.assertEquals(4, partition.getVisibleVersion());
+        Assert.assertEquals(TransactionStatus.VISIBLE, txns.get(0).getTransactionStatus());
+        Assert.assertEquals(TransactionStatus.VISIBLE, txns.get(2).getTransactionStatus());
+        Assert.assertEquals(TransactionStatus.COMMITTED, txns.get(3).getTransactionStatus());
+    }
+
+    @Test
+    public void testRetryFailedMergePublish() throws Exception {
+        Config.enable_lake_merge_publish_version = true;
+        Partition partition = mockLakePartition();
+        List<TransactionState> txns = Lists.newArrayList(makeCommittedTxn(11, 2), makeCommittedTxn(12, 3));
+        mockFinishTransaction(partition, txns);
+        List<List<Long>> publishedTxnIds = Lists.newArrayList();
+        new MockUp<Utils>() {
+            @Mock
+            public void publishVersion(List<Tablet> tablets, List<Long> txnIds, long baseVersion, long newVersion,
+                                       Map<Long, Double> compactionScores) throws RpcException {
+                publishedTxnIds.add(txnIds);
+                if (publishedTxnIds.size() == 1) {
+                    throw new RpcException("127.0.0.1", "mock publish failure");
+                }
+            }
+        };
+
+        PublishVersionDaemon daemon = new PublishVersionDaemon();
+        daemon.publishVersionForLakeTable(txns);
+        Assert.assertEquals(1, publishedTxnIds.size());
+        Assert.assertEquals(1, partition.getVisibleVersion());
+
+        // the failed transactions are not published one by one, and are retried together after the retry interval
+        // even if a new transaction comes
+        txns.add(makeCommittedTxn(13, 4));
+        daemon.publishVersionForLakeTable(txns);
+        Assert.assertEquals(1, publishedTxnIds.size());
+        for (TransactionState txnState : txns.subList(0, 2)) {
+            txnState.getTableCommitInfo(TABLE_ID).getPartitionCommitInfo(PARTITION_ID)
+                    .setVersionTime(-(System.currentTimeMillis() - 60 * 1000L));
+        }
+        daemon.publishVersionForLakeTable(txns);
+        Assert.assertEquals(2, publishedTxnIds.size());
+        Assert.assertEquals(Lists.newArrayList(11L, 12L), publishedTxnIds.get(1));
+        Assert.assertEquals(3, partition.getVisibleVersion());
+    }
+}
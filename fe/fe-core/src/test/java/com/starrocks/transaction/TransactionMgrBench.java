@@ -0,0 +1,139 @@
+// Copyright 2021-present StarRocks, Inc. All rights reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.starrocks.transaction;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.GlobalStateMgrTestUtil;
+import com.starrocks.common.Config;
+import com.starrocks.journal.JournalTask;
+import com.starrocks.persist.EditLog;
+import com.starrocks.server.GlobalStateMgr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the transaction throughput of a single database as the number of loading threads grows,
+ * with label lookups of the load job status checks running at the same time.
+ * The journal is drained by a background thread which acknowledges every edit log at once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class TransactionMgrBench {
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] {1, 2, 4, 8, 16}) {
+            Options opt = new OptionsBuilder()
+                    .include(TransactionMgrBench.class.getSimpleName() + ".beginAndAbort")
+                    .threads(threads)
+                    .build();
+            new Runner(opt).run();
+        }
+        Options opt = new OptionsBuilder()
+                .include(TransactionMgrBench.class.getSimpleName() + ".mixed")
+                .build();
+        new Runner(opt).run();
+    }
+
+    private final AtomicLong labelId = new AtomicLong();
+    private final BlockingQueue<JournalTask> journalQueue = new LinkedBlockingQueue<>();
+    private Thread journalDrainer;
+    private DatabaseTransactionMgr transactionMgr;
+
+    @Setup
+    public void setup() throws Exception {
+        Config.max_running_txn_num_per_db = Integer.MAX_VALUE;
+        GlobalStateMgr globalStateMgr = GlobalStateMgrTestUtil.createTestState();
+        EditLog editLog = new EditLog(journalQueue);
+        globalStateMgr.setEditLog(editLog);
+        TransactionIdGenerator idGenerator = new TransactionIdGenerator();
+        idGenerator.setEditLog(editLog);
+        transactionMgr = new DatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1, globalStateMgr, idGenerator);
+
+        journalDrainer = new Thread(() -> {
+            try {
+                while (true) {
+                    journalQueue.take().markSucceed();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "journal-drainer");
+        journalDrainer.setDaemon(true);
+        journalDrainer.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        journalDrainer.interrupt();
+    }
+
+    private long begin(String label) throws Exception {
+        return transactionMgr.beginTransaction(Lists.newArrayList(GlobalStateMgrTestUtil.testTableId1), label,
+                null, new TransactionState.TxnCoordinator(TransactionState.TxnSourceType.FE, "127.0.0.1"),
+                TransactionState.LoadJobSourceType.BACKEND_STREAMING, -1, 600);
+    }
+
+    private void beginAndAbortOnce() throws Exception {
+        String label = "label_" + labelId.incrementAndGet();
+        long txnId = begin(label);
+        transactionMgr.getLabelState(label);
+        transactionMgr.abortTransaction(txnId, "bench", null);
+    }
+
+    @Benchmark
+    public void beginAndAbort() throws Exception {
+        beginAndAbortOnce();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public void mixedLoad() throws Exception {
+        beginAndAbortOnce();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public TransactionStatus mixedLookup() {
+        long max = Math.max(1, labelId.get());
+        return transactionMgr.getLabelState("label_" + ThreadLocalRandom.current().nextLong(1, max + 1));
+    }
+}